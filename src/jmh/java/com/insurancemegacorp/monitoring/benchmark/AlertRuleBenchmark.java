@@ -0,0 +1,67 @@
+package com.insurancemegacorp.monitoring.benchmark;
+
+import com.insurancemegacorp.monitoring.dto.AlertNotification;
+import com.insurancemegacorp.monitoring.service.AlertRuleSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One tick of alert rule evaluation. Rules are spread over 50 metrics with a mix of
+ * operators and durations; values alternate between ticks so rules keep moving through
+ * pending, firing and resolved.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AlertRuleBenchmark {
+
+    private static final String[] OPERATORS = { ">", ">=", "<", "<=" };
+
+    @Param({ "100", "500" })
+    public int rules;
+
+    private AlertRuleSet ruleSet;
+    private double[] quiet;
+    private double[] noisy;
+    private long now;
+
+    @Setup
+    public void setUp() {
+        StringBuilder definitions = new StringBuilder();
+        for (int i = 0; i < rules; i++) {
+            definitions.append("rule-").append(i).append(": queue.q").append(i % 50).append(".depth ")
+                .append(OPERATORS[i % OPERATORS.length]).append(' ').append(100 + i)
+                .append(i % 3 == 0 ? " for 30s" : "")
+                .append('\n');
+        }
+        ruleSet = new AlertRuleSet(definitions.toString(), 0.1, 2, 0);
+        quiet = new double[ruleSet.metrics().size()];
+        noisy = new double[ruleSet.metrics().size()];
+        for (int i = 0; i < quiet.length; i++) {
+            quiet[i] = 50;
+            noisy[i] = 10_000;
+        }
+        now = System.currentTimeMillis();
+    }
+
+    @Benchmark
+    public List<AlertNotification> evaluateTick() {
+        now += 5000;
+        return ruleSet.evaluate((now / 5000) % 8 < 4 ? quiet : noisy, now);
+    }
+}
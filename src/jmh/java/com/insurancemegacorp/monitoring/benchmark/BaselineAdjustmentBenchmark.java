@@ -0,0 +1,101 @@
+package com.insurancemegacorp.monitoring.benchmark;
+
+import com.insurancemegacorp.monitoring.service.CounterRateService;
+import com.insurancemegacorp.monitoring.service.MetricsBaselineService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * MetricsBaselineService.getAdjustedMetrics as applied to every processor and exchange
+ * response after a metrics reset, reading the reset-corrected counter series the way it
+ * does against live services.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BaselineAdjustmentBenchmark {
+
+    private MetricsBaselineService baselineService;
+    private Map<String, Object> processorMetrics;
+    private Map<String, Object> exchangeMetrics;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        // Two instances per counter series, one of which restarts after the baselines were taken
+        CounterRateService counterRateService = new CounterRateService(600, 60);
+        Map<String, List<String>> counterSeries =
+            (Map<String, List<String>>) ReflectionTestUtils.getField(MetricsBaselineService.class, "COUNTER_SERIES");
+        long now = System.currentTimeMillis();
+        recordAll(counterRateService, counterSeries, "instance-0", 1_000_000.0, now - 20_000);
+        recordAll(counterRateService, counterSeries, "instance-1", 1_000_000.0, now - 20_000);
+        recordAll(counterRateService, counterSeries, "instance-0", 1_250_000.0, now - 10_000);
+        recordAll(counterRateService, counterSeries, "instance-1", 1_250_000.0, now - 10_000);
+
+        // Baselines are normally captured from live services; seed them directly instead
+        baselineService = new MetricsBaselineService();
+        ReflectionTestUtils.setField(baselineService, "counterRateService", counterRateService);
+        Map<String, Double> baselines = (Map<String, Double>) ReflectionTestUtils.getField(baselineService, "baselines");
+        counterSeries.forEach((baselineKey, series) ->
+            baselines.put(baselineKey, increaseSinceStart(counterRateService, series)));
+        ReflectionTestUtils.setField(baselineService, "baselineTimestamp", System.currentTimeMillis());
+
+        recordAll(counterRateService, counterSeries, "instance-0", 5_000.0, now);
+        recordAll(counterRateService, counterSeries, "instance-1", 1_500_000.0, now);
+
+        processorMetrics = BenchmarkPayloads.processorMetricsResponse(4);
+        exchangeMetrics = Map.of(
+            "total_publish_in", 2_500_000L,
+            "total_publish_out", 7_500_000L,
+            "publish_in_rate", 212.5,
+            "publish_out_rate", 637.5,
+            "counter_resets", 0L,
+            "timestamp", System.currentTimeMillis()
+        );
+    }
+
+    @Benchmark
+    public Map<String, Object> adjustProcessor() {
+        return baselineService.getAdjustedMetrics("processor", processorMetrics);
+    }
+
+    @Benchmark
+    public Map<String, Object> adjustExchange() {
+        return baselineService.getAdjustedMetrics("exchange", exchangeMetrics);
+    }
+
+    private static void recordAll(CounterRateService counterRateService, Map<String, List<String>> counterSeries,
+                                  String instance, double value, long timestampMillis) {
+        counterSeries.values().stream()
+            .flatMap(List::stream)
+            .map(name -> name.startsWith("-") ? name.substring(1) : name)
+            .distinct()
+            .forEach(name -> counterRateService.record(name, instance, value, timestampMillis));
+    }
+
+    private static double increaseSinceStart(CounterRateService counterRateService, List<String> series) {
+        double sum = 0.0;
+        for (String name : series) {
+            sum += name.startsWith("-")
+                ? -counterRateService.increaseSinceStart(name.substring(1))
+                : counterRateService.increaseSinceStart(name);
+        }
+        return sum;
+    }
+}
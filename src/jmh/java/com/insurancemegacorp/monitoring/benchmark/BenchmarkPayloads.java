@@ -0,0 +1,143 @@
+package com.insurancemegacorp.monitoring.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic upstream payloads shaped like what the SCDF apps and the RabbitMQ management
+ * API return, generated with a fixed seed so runs are comparable.
+ */
+final class BenchmarkPayloads {
+
+    private static final String[] METRIC_FAMILIES = {
+        "jvm_memory_used_bytes",
+        "jvm_gc_pause_seconds_count",
+        "http_server_requests_seconds_count",
+        "spring_cloud_stream_binder_messages_total",
+        "rabbitmq_consumed_total",
+        "executor_completed_tasks_total",
+        "process_cpu_usage",
+        "logback_events_total"
+    };
+
+    private BenchmarkPayloads() {
+    }
+
+    /**
+     * Prometheus text exposition with HELP/TYPE headers, labelled samples and the three
+     * processor counters the collectors actually read.
+     */
+    static String prometheusExposition(int lines) {
+        Random random = new Random(42);
+        StringBuilder text = new StringBuilder(lines * 96);
+        text.append("# HELP telemetry_messages_total Messages received\n");
+        text.append("# TYPE telemetry_messages_total counter\n");
+        text.append("telemetry_messages_total{application=\"imc-telemetry-processor\"} 1234567.0\n");
+        text.append("telemetry_vehicle_events_total{application=\"imc-telemetry-processor\"} 4567.0\n");
+        text.append("telemetry_invalid_messages_total{application=\"imc-telemetry-processor\"} 12.0\n");
+
+        int written = 5;
+        int family = 0;
+        while (written < lines) {
+            String name = METRIC_FAMILIES[family % METRIC_FAMILIES.length];
+            text.append("# HELP ").append(name).append(" Synthetic family ").append(family).append('\n');
+            text.append("# TYPE ").append(name).append(" counter\n");
+            written += 2;
+            for (int i = 0; i < 20 && written < lines; i++, written++) {
+                text.append(name)
+                    .append("{application=\"imc-telemetry-processor\",instance=\"")
+                    .append(family).append('-').append(i)
+                    .append("\",uri=\"/api/v1/items/{id}\",outcome=\"SUCCESS\"} ")
+                    .append(random.nextDouble() * 1_000_000)
+                    .append('\n');
+            }
+            family++;
+        }
+        return text.toString();
+    }
+
+    /**
+     * JSON array as returned by GET /api/queues on the management API.
+     */
+    static String queuesJson(int queues) {
+        Random random = new Random(42);
+        StringBuilder json = new StringBuilder(queues * 1200);
+        json.append('[');
+        for (int i = 0; i < queues; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            long published = random.nextInt(10_000_000);
+            long delivered = Math.max(0, published - random.nextInt(5000));
+            json.append("{\"arguments\":{\"x-queue-type\":\"classic\"},\"auto_delete\":false,")
+                .append("\"backing_queue_status\":{\"avg_ack_egress_rate\":").append(random.nextDouble() * 500)
+                .append(",\"avg_ack_ingress_rate\":").append(random.nextDouble() * 500)
+                .append(",\"len\":").append(published - delivered)
+                .append(",\"mode\":\"default\",\"q1\":0,\"q2\":0,\"q3\":0,\"q4\":").append(published - delivered)
+                .append(",\"version\":2},")
+                .append("\"consumer_capacity\":1.0,\"consumer_utilisation\":1.0,\"consumers\":").append(1 + random.nextInt(4))
+                .append(",\"durable\":true,\"exclusive\":false,\"memory\":").append(10_000 + random.nextInt(100_000))
+                .append(",\"message_bytes\":").append(random.nextInt(1_000_000))
+                .append(",\"message_stats\":{\"ack\":").append(delivered)
+                .append(",\"ack_details\":{\"rate\":").append(random.nextDouble() * 500).append('}')
+                .append(",\"deliver_get\":").append(delivered)
+                .append(",\"deliver_get_details\":{\"rate\":").append(random.nextDouble() * 500).append('}')
+                .append(",\"publish\":").append(published)
+                .append(",\"publish_details\":{\"rate\":").append(random.nextDouble() * 500).append('}')
+                .append(",\"redeliver\":0,\"redeliver_details\":{\"rate\":0.0}},")
+                .append("\"messages\":").append(published - delivered)
+                .append(",\"messages_details\":{\"rate\":0.0},\"messages_ready\":").append(published - delivered)
+                .append(",\"messages_unacknowledged\":0,\"name\":\"telematics_exchange.queue-").append(i)
+                .append("\",\"node\":\"rabbit@rmq-0\",\"state\":\"running\",\"type\":\"classic\",")
+                .append("\"vhost\":\"cf986537-69cc-4107-8b66-5542481de9ba\"}");
+        }
+        json.append(']');
+        return json.toString();
+    }
+
+    /**
+     * Map-based response shaped like the processor metrics endpoint, including the
+     * per-instance scaling breakdown.
+     */
+    static Map<String, Object> processorMetricsResponse(int instances) {
+        List<Map<String, Object>> instanceViews = new ArrayList<>();
+        for (int i = 0; i < instances; i++) {
+            Map<String, Object> instance = new HashMap<>();
+            instance.put("instance_id", "imc-telemetry-processor:" + i);
+            instance.put("service_url", "http://10.0.0." + i + ":8080");
+            instance.put("scrape_ok", true);
+            instance.put("scrape_latency_ms", 12L);
+            instance.put("total", 100_000L * i);
+            instance.put("rate_per_sec", 42.5);
+            instance.put("share", 1.0 / instances);
+            instance.put("lag_seconds", 1.5);
+            instance.put("stalled", false);
+            instanceViews.add(instance);
+        }
+
+        Map<String, Object> scaling = new HashMap<>();
+        scaling.put("stage", "processor");
+        scaling.put("instance_count", instances);
+        scaling.put("stage_rate_per_sec", 42.5 * instances);
+        scaling.put("imbalanced", false);
+        scaling.put("imbalance_reasons", List.of());
+        scaling.put("instances", instanceViews);
+
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("messages_in", 1_234_567L);
+        metrics.put("events_captured", 4567L);
+        metrics.put("messages_out", 4567L);
+        metrics.put("invalid_messages", 12L);
+        metrics.put("messages_in_rate", 212.5);
+        metrics.put("counter_resets", 0L);
+        metrics.put("total_instances", instances);
+        metrics.put("successful_instances", instances);
+        metrics.put("scaling", scaling);
+        metrics.put("status", "healthy");
+        metrics.put("timestamp", System.currentTimeMillis());
+        return metrics;
+    }
+}
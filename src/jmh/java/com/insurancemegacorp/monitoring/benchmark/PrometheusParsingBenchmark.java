@@ -0,0 +1,57 @@
+package com.insurancemegacorp.monitoring.benchmark;
+
+import com.insurancemegacorp.monitoring.service.PrometheusTextParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing of /actuator/prometheus payloads as done for every instance on every collection
+ * cycle, with and without the metric name filter the collectors pass in.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrometheusParsingBenchmark {
+
+    private static final Set<String> PROCESSOR_METRICS = Set.of(
+        "telemetry_messages_total",
+        "telemetry_vehicle_events_total",
+        "telemetry_invalid_messages_total"
+    );
+
+    @Param({"1000", "10000", "100000"})
+    private int lines;
+
+    private String exposition;
+
+    @Setup
+    public void setUp() {
+        exposition = BenchmarkPayloads.prometheusExposition(lines);
+    }
+
+    @Benchmark
+    public Map<String, Double> parseAll() {
+        return PrometheusTextParser.parse(exposition);
+    }
+
+    @Benchmark
+    public Map<String, Double> parseFiltered() {
+        return PrometheusTextParser.parse(exposition, PROCESSOR_METRICS::contains);
+    }
+}
@@ -0,0 +1,53 @@
+package com.insurancemegacorp.monitoring.benchmark;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialization of the management API /queues payload into the untyped maps that
+ * RestTemplate hands to RabbitMetricsService.getAllQueues.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueuesDeserializationBenchmark {
+
+    private static final TypeReference<List<Map<String, Object>>> QUEUE_LIST = new TypeReference<>() {
+    };
+
+    @Param({"10", "100", "1000"})
+    private int queues;
+
+    private ObjectMapper objectMapper;
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        payload = BenchmarkPayloads.queuesJson(queues).getBytes();
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> deserializeQueues() throws Exception {
+        return objectMapper.readValue(payload, QUEUE_LIST);
+    }
+}
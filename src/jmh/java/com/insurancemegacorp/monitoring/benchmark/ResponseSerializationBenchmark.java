@@ -0,0 +1,56 @@
+package com.insurancemegacorp.monitoring.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancemegacorp.monitoring.dto.PipelineMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson serialization of what the UI polls and what is pushed over the WebSocket: the
+ * PipelineMetrics record and the map-based REST responses.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseSerializationBenchmark {
+
+    @Param({"1", "8", "32"})
+    private int instances;
+
+    private ObjectMapper objectMapper;
+    private PipelineMetrics pipelineMetrics;
+    private Map<String, Object> processorMetrics;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        pipelineMetrics = PipelineMetrics.mockData();
+        processorMetrics = BenchmarkPayloads.processorMetricsResponse(instances);
+    }
+
+    @Benchmark
+    public byte[] serializePipelineMetrics() throws Exception {
+        return objectMapper.writeValueAsBytes(pipelineMetrics);
+    }
+
+    @Benchmark
+    public byte[] serializeProcessorResponse() throws Exception {
+        return objectMapper.writeValueAsBytes(processorMetrics);
+    }
+}
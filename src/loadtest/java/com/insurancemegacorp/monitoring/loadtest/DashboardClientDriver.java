@@ -0,0 +1,155 @@
+package com.insurancemegacorp.monitoring.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Simulates dashboard browsers: each client fires the same set of requests the UI issues on
+ * a refresh, all at once, waits for every response, then thinks before the next refresh.
+ * Latencies are recorded per endpoint and per whole refresh once the warm-up has passed.
+ */
+class DashboardClientDriver {
+
+    /** Endpoints index.html polls on every refresh. */
+    static final List<String> DASHBOARD_ENDPOINTS = List.of(
+        "/api/metrics",
+        "/api/components/health",
+        "/api/rabbitmq/exchange/throughput",
+        "/api/rabbitmq/exchange/health",
+        "/api/telematics/exchange/queues",
+        "/api/vehicle-events/queue/metrics",
+        "/api/telemetry/generator/metrics",
+        "/api/events-processor/metrics",
+        "/api/hdfs-sink/metrics",
+        "/api/jdbc-sink/metrics",
+        "/api/metrics/reset-status"
+    );
+
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(2);
+
+    private final String baseUrl;
+    private final LoadTestOptions options;
+    private final HttpClient httpClient;
+    private final Map<String, Histogram> endpointLatencies = new ConcurrentHashMap<>();
+    private final Histogram refreshLatencies = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private volatile boolean recording = false;
+
+    DashboardClientDriver(String baseUrl, LoadTestOptions options) {
+        this.baseUrl = baseUrl;
+        this.options = options;
+        this.httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+        for (String endpoint : DASHBOARD_ENDPOINTS) {
+            endpointLatencies.put(endpoint, new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3));
+        }
+    }
+
+    /**
+     * Run all clients through warm-up and measurement; {@code onMeasurementStart} is invoked
+     * the moment recording begins so upstream counters can be snapshotted alongside.
+     */
+    void run(Runnable onMeasurementStart) throws InterruptedException {
+        long warmupEnd = System.nanoTime() + TimeUnit.SECONDS.toNanos(options.warmupSeconds());
+        long end = warmupEnd + TimeUnit.SECONDS.toNanos(options.durationSeconds());
+
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.clients(); i++) {
+                long staggerMillis = options.thinkMillis() * i / Math.max(1, options.clients());
+                clients.submit(() -> runClient(staggerMillis, end));
+            }
+            Thread.sleep(Math.max(0, TimeUnit.NANOSECONDS.toMillis(warmupEnd - System.nanoTime())));
+            onMeasurementStart.run();
+            recording = true;
+        }
+    }
+
+    private Void runClient(long staggerMillis, long endNanos) throws InterruptedException {
+        Thread.sleep(staggerMillis);
+        while (System.nanoTime() < endNanos) {
+            long refreshStart = System.nanoTime();
+            List<CompletableFuture<Void>> inFlight = new ArrayList<>();
+            for (String endpoint : DASHBOARD_ENDPOINTS) {
+                inFlight.add(fetch(endpoint));
+            }
+            CompletableFuture.allOf(inFlight.toArray(new CompletableFuture[0])).join();
+            if (recording) {
+                refreshLatencies.recordValue(Math.min(micros(refreshStart), HIGHEST_TRACKABLE_MICROS));
+            }
+            Thread.sleep(options.thinkMillis());
+        }
+        return null;
+    }
+
+    private CompletableFuture<Void> fetch(String endpoint) {
+        long start = System.nanoTime();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + endpoint))
+            .timeout(Duration.ofSeconds(60))
+            .GET()
+            .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+            .handle((response, failure) -> {
+                if (recording) {
+                    requests.increment();
+                    if (failure != null || response.statusCode() >= 400) {
+                        errors.increment();
+                    }
+                    endpointLatencies.get(endpoint).recordValue(Math.min(micros(start), HIGHEST_TRACKABLE_MICROS));
+                }
+                return null;
+            });
+    }
+
+    private static long micros(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos);
+    }
+
+    long requests() {
+        return requests.sum();
+    }
+
+    long errors() {
+        return errors.sum();
+    }
+
+    Map<String, Object> refreshSummary() {
+        return summarize(refreshLatencies);
+    }
+
+    Map<String, Map<String, Object>> endpointSummaries() {
+        Map<String, Map<String, Object>> summaries = new TreeMap<>();
+        endpointLatencies.forEach((endpoint, histogram) -> summaries.put(endpoint, summarize(histogram)));
+        return summaries;
+    }
+
+    static Map<String, Object> summarize(Histogram histogram) {
+        Map<String, Object> summary = new TreeMap<>();
+        summary.put("count", histogram.getTotalCount());
+        summary.put("p50_ms", histogram.getValueAtPercentile(50.0) / 1000.0);
+        summary.put("p90_ms", histogram.getValueAtPercentile(90.0) / 1000.0);
+        summary.put("p99_ms", histogram.getValueAtPercentile(99.0) / 1000.0);
+        summary.put("max_ms", histogram.getMaxValue() / 1000.0);
+        summary.put("mean_ms", histogram.getMean() / 1000.0);
+        return summary;
+    }
+}
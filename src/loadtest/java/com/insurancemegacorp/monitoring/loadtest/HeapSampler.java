@@ -0,0 +1,65 @@
+package com.insurancemegacorp.monitoring.loadtest;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Samples heap usage and GC activity of the harness JVM while the measurement runs. The app
+ * under test shares the JVM with the stubs and the driver, whose footprint is small and
+ * constant next to the app's.
+ */
+class HeapSampler implements AutoCloseable {
+
+    private final MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private long samples = 0;
+    private long usedSum = 0;
+    private long usedMax = 0;
+    private long gcCountStart;
+    private long gcTimeStart;
+
+    synchronized void start() {
+        gcCountStart = gcCount();
+        gcTimeStart = gcTimeMillis();
+        scheduler.scheduleAtFixedRate(this::sample, 0, 250, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void sample() {
+        long used = memory.getHeapMemoryUsage().getUsed();
+        samples++;
+        usedSum += used;
+        usedMax = Math.max(usedMax, used);
+    }
+
+    synchronized Map<String, Object> summary() {
+        Map<String, Object> summary = new TreeMap<>();
+        summary.put("samples", samples);
+        summary.put("heap_used_mean_mb", samples > 0 ? usedSum / samples / (1024.0 * 1024.0) : 0.0);
+        summary.put("heap_used_max_mb", usedMax / (1024.0 * 1024.0));
+        summary.put("heap_committed_mb", memory.getHeapMemoryUsage().getCommitted() / (1024.0 * 1024.0));
+        summary.put("gc_collections", gcCount() - gcCountStart);
+        summary.put("gc_time_ms", gcTimeMillis() - gcTimeStart);
+        return summary;
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+            .mapToLong(GarbageCollectorMXBean::getCollectionCount).filter(count -> count > 0).sum();
+    }
+
+    private static long gcTimeMillis() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+            .mapToLong(GarbageCollectorMXBean::getCollectionTime).filter(time -> time > 0).sum();
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,203 @@
+package com.insurancemegacorp.monitoring.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.insurancemegacorp.monitoring.SmartDriverMonitoringApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Self-contained load test: starts stand-in RabbitMQ management, Eureka and SCDF actuator
+ * servers and a local directory standing in for the HDFS sink's output, boots the UI against them in real metrics mode, drives it with simulated
+ * dashboard clients and reports end-to-end latency, upstream call amplification and heap.
+ *
+ * Run with: ./mvnw -Ploadtest verify -Dloadtest.args="--clients=50 --duration=120"
+ * Options: --clients, --duration, --warmup (seconds), --think-ms, --instances (per app),
+ * --queues, --prometheus-lines, --latency-ms, --jitter-ms, --failure-rate (0..1),
+ * --rabbit-backend (management|prometheus), --report.
+ */
+public final class LoadTestHarness {
+
+    private static final List<String> SCDF_APPS = List.of(
+        "imc-telematics-gen",
+        "imc-telemetry-processor",
+        "imc-jdbc-consumer",
+        "imc-hdfs-sink",
+        "vehicle-events-sink"
+    );
+
+    private LoadTestHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        List<StubServer> stubs = new ArrayList<>();
+        List<StubActuatorServer> instances = new ArrayList<>();
+        StubHdfsWriter hdfs = null;
+        try {
+            for (String app : SCDF_APPS) {
+                for (int i = 0; i < options.instancesPerApp(); i++) {
+                    StubActuatorServer instance = new StubActuatorServer(app, i, options);
+                    instance.start();
+                    instances.add(instance);
+                }
+            }
+            stubs.addAll(instances);
+            StubRabbitManagementServer rabbit = new StubRabbitManagementServer(options);
+            rabbit.start();
+            stubs.add(rabbit);
+            StubEurekaServer eureka = new StubEurekaServer(options, instances);
+            eureka.start();
+            stubs.add(eureka);
+            hdfs = new StubHdfsWriter();
+            hdfs.start();
+
+            System.out.printf("Stubs up: rabbit=%s eureka=%s, %d app instances%n",
+                rabbit.apiUrl(), eureka.serviceUrl(), instances.size());
+
+            try (ConfigurableApplicationContext app = new SpringApplicationBuilder(SmartDriverMonitoringApplication.class)
+                    .properties(appProperties(options, rabbit, eureka, hdfs))
+                    .run()) {
+                String baseUrl = "http://127.0.0.1:" + app.getEnvironment().getProperty("local.server.port");
+                awaitDiscovery(baseUrl);
+                runLoad(baseUrl, options, rabbit, eureka, instances);
+            }
+        } finally {
+            stubs.forEach(StubServer::close);
+            if (hdfs != null) {
+                hdfs.close();
+            }
+        }
+        System.exit(0);
+    }
+
+    private static Map<String, Object> appProperties(LoadTestOptions options, StubRabbitManagementServer rabbit,
+                                                     StubEurekaServer eureka, StubHdfsWriter hdfs) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("server.port", 0);
+        properties.put("spring.main.banner-mode", "off");
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.insurancemegacorp", "WARN");
+        properties.put("management.endpoints.web.exposure.include", "health,prometheus");
+        properties.put("management.health.rabbit.enabled", false);
+        properties.put("metrics.mode", "real");
+        // Same scheduler sizing as the deployed configuration
+        properties.put("spring.task.scheduling.pool.size", 8);
+        properties.put("rabbitmq.management.api-url", rabbit.apiUrl());
+        properties.put("rabbitmq.metrics.backend", options.rabbitBackend());
+        properties.put("rabbitmq.prometheus.url", rabbit.baseUrl());
+        properties.put("eureka.client.service-url.defaultZone", eureka.serviceUrl());
+        properties.put("eureka.client.register-with-eureka", false);
+        properties.put("eureka.client.registry-fetch-interval-seconds", 5);
+        properties.put("eureka.client.disable-delta", true);
+        properties.put("component.health.discovery.enabled", true);
+        properties.put("component.health.service-mappings",
+            "generator:imc-telematics-gen,processor:imc-telemetry-processor,hdfs:imc-hdfs-sink,jdbc:vehicle-events-sink");
+        properties.put("hdfs.namenode-uri", hdfs.namenodeUri());
+        properties.put("hdfs.target-path", hdfs.targetPath());
+        properties.put("hdfs.cross-check.interval-ms", 5000);
+        properties.put("hdfs.cross-check.initial-delay-ms", 1000);
+        // Fires on the stubs' exchange/processor mismatch, so alert evaluation and notification run too
+        properties.put("alerting.rules", "exchange-processor-loss: hop.exchange.processor.loss_ratio > 5% for 10s");
+        // No Greenplum in the harness; GreenplumService serves simulated data without a DataSource
+        properties.put("spring.autoconfigure.exclude",
+            "org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration,"
+                + "org.springframework.boot.autoconfigure.data.jdbc.JdbcRepositoriesAutoConfiguration");
+        return properties;
+    }
+
+    private static void awaitDiscovery(String baseUrl) throws Exception {
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + "/api/components/all-services")).GET().build();
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (System.currentTimeMillis() < deadline) {
+            String body = client.send(request, HttpResponse.BodyHandlers.ofString()).body();
+            if (SCDF_APPS.stream().allMatch(body::contains)) {
+                System.out.println("App under test sees all stub instances through discovery");
+                return;
+            }
+            Thread.sleep(1000);
+        }
+        System.out.println("WARNING: discovery did not list every stub app within 60s, continuing anyway");
+    }
+
+    private static void runLoad(String baseUrl, LoadTestOptions options, StubRabbitManagementServer rabbit,
+                                StubEurekaServer eureka, List<StubActuatorServer> instances) throws Exception {
+        DashboardClientDriver driver = new DashboardClientDriver(baseUrl, options);
+        Map<String, Long> upstreamStart = new HashMap<>();
+        long[] measurementStart = new long[1];
+
+        System.out.printf("Driving %s with %d clients: %ds warm-up, %ds measurement%n",
+            baseUrl, options.clients(), options.warmupSeconds(), options.durationSeconds());
+        try (HeapSampler heap = new HeapSampler()) {
+            driver.run(() -> {
+                upstreamStart.putAll(upstreamCounts(rabbit, eureka, instances));
+                measurementStart[0] = System.currentTimeMillis();
+                heap.start();
+            });
+            double seconds = (System.currentTimeMillis() - measurementStart[0]) / 1000.0;
+
+            Map<String, Long> upstreamEnd = upstreamCounts(rabbit, eureka, instances);
+            Map<String, Object> amplification = new TreeMap<>();
+            long upstreamTotal = 0;
+            for (Map.Entry<String, Long> entry : upstreamEnd.entrySet()) {
+                long calls = entry.getValue() - upstreamStart.getOrDefault(entry.getKey(), 0L);
+                upstreamTotal += calls;
+                Map<String, Object> view = new TreeMap<>();
+                view.put("calls", calls);
+                view.put("calls_per_sec", calls / seconds);
+                view.put("calls_per_dashboard_request", driver.requests() > 0 ? (double) calls / driver.requests() : 0.0);
+                amplification.put(entry.getKey(), view);
+            }
+
+            Map<String, Object> report = new LinkedHashMap<>();
+            report.put("options", options);
+            report.put("measured_seconds", seconds);
+            report.put("dashboard_requests", driver.requests());
+            report.put("dashboard_errors", driver.errors());
+            report.put("dashboard_requests_per_sec", driver.requests() / seconds);
+            report.put("refresh_latency", driver.refreshSummary());
+            report.put("endpoint_latency", driver.endpointSummaries());
+            report.put("upstream_calls", upstreamTotal);
+            report.put("upstream_amplification", driver.requests() > 0 ? (double) upstreamTotal / driver.requests() : 0.0);
+            report.put("upstreams", amplification);
+            report.put("stub_failures_injected", rabbit.injectedFailures()
+                + instances.stream().mapToLong(StubServer::injectedFailures).sum());
+            report.put("stub_bytes_served", rabbit.bytesServed()
+                + instances.stream().mapToLong(StubServer::bytesServed).sum());
+            report.put("heap", heap.summary());
+
+            ObjectMapper mapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+            String json = mapper.writeValueAsString(report);
+            Path reportFile = Path.of(options.reportFile());
+            Files.writeString(reportFile, json);
+            System.out.println(json);
+            System.out.println("Report written to " + reportFile.toAbsolutePath());
+        }
+    }
+
+    private static Map<String, Long> upstreamCounts(StubRabbitManagementServer rabbit, StubEurekaServer eureka,
+                                                    List<StubActuatorServer> instances) {
+        Map<String, Long> counts = new TreeMap<>();
+        rabbit.requestsByRoute().forEach((route, count) -> counts.put("rabbitmq-management " + route, count));
+        counts.put("eureka", eureka.requestCount());
+        for (StubActuatorServer instance : instances) {
+            instance.requestsByRoute().forEach((route, count) ->
+                counts.merge("actuator " + route, count, Long::sum));
+        }
+        return counts;
+    }
+}
@@ -0,0 +1,59 @@
+package com.insurancemegacorp.monitoring.loadtest;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Knobs for a load test run, given as --name=value arguments (or -Dloadtest.args through
+ * the Maven profile). Every option has a laptop-sized default.
+ */
+record LoadTestOptions(
+    int clients,
+    int durationSeconds,
+    int warmupSeconds,
+    long thinkMillis,
+    int instancesPerApp,
+    int queues,
+    int prometheusLines,
+    long latencyMillis,
+    long latencyJitterMillis,
+    double failureRate,
+    String rabbitBackend,
+    String reportFile
+) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int separator = arg.indexOf('=');
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            } else if (!arg.isBlank()) {
+                throw new IllegalArgumentException("Unrecognised argument '" + arg + "', expected --name=value");
+            }
+        }
+
+        return new LoadTestOptions(
+            intValue(values, "clients", 20),
+            intValue(values, "duration", 60),
+            intValue(values, "warmup", 10),
+            longValue(values, "think-ms", 2000),
+            intValue(values, "instances", 2),
+            intValue(values, "queues", 25),
+            intValue(values, "prometheus-lines", 2000),
+            longValue(values, "latency-ms", 20),
+            longValue(values, "jitter-ms", 10),
+            Double.parseDouble(values.getOrDefault("failure-rate", "0.0")),
+            values.getOrDefault("rabbit-backend", "management"),
+            values.getOrDefault("report", "loadtest-report.json")
+        );
+    }
+
+    private static int intValue(Map<String, String> values, String name, int defaultValue) {
+        return values.containsKey(name) ? Integer.parseInt(values.get(name)) : defaultValue;
+    }
+
+    private static long longValue(Map<String, String> values, String name, long defaultValue) {
+        return values.containsKey(name) ? Long.parseLong(values.get(name)) : defaultValue;
+    }
+}
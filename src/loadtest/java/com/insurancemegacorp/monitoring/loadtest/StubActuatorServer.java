@@ -0,0 +1,97 @@
+package com.insurancemegacorp.monitoring.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+
+/**
+ * Stand-in for one SCDF app instance: /actuator/health and /actuator/prometheus. The
+ * exposition carries every counter the collectors read, padded with labelled filler samples
+ * up to the configured number of lines.
+ */
+class StubActuatorServer extends StubServer {
+
+    private static final String[] FILLER_FAMILIES = {
+        "jvm_memory_used_bytes",
+        "jvm_gc_pause_seconds_count",
+        "http_server_requests_seconds_count",
+        "executor_completed_tasks_total",
+        "logback_events_total"
+    };
+
+    private final String appName;
+    private final int instanceIndex;
+    private final long startedAt = System.currentTimeMillis();
+    private final String filler;
+
+    StubActuatorServer(String appName, int instanceIndex, LoadTestOptions options) throws IOException {
+        super(appName + "-" + instanceIndex, options, true);
+        this.appName = appName;
+        this.instanceIndex = instanceIndex;
+        this.filler = buildFiller(options.prometheusLines());
+    }
+
+    String appName() {
+        return appName;
+    }
+
+    String instanceId() {
+        return "127.0.0.1:" + appName + ":" + port();
+    }
+
+    @Override
+    protected StubResponse route(String method, String path, HttpExchange exchange) {
+        return switch (path) {
+            case "/actuator/health" -> StubResponse.json("{\"status\":\"UP\",\"components\":{\"ping\":{\"status\":\"UP\"}}}");
+            case "/actuator/prometheus" -> StubResponse.text(prometheus());
+            default -> StubResponse.status(404);
+        };
+    }
+
+    private String prometheus() {
+        double seconds = (System.currentTimeMillis() - startedAt) / 1000.0;
+        double messages = Math.floor(seconds * (100 + instanceIndex * 10));
+        StringBuilder text = new StringBuilder(filler.length() + 1024);
+        appendCounter(text, "telemetry_messages_total", messages);
+        appendCounter(text, "telemetry_vehicle_events_total", Math.floor(messages / 50));
+        appendCounter(text, "telemetry_invalid_messages_total", Math.floor(messages / 1000));
+        appendCounter(text, "telematics_messages_sent_total", messages);
+        text.append("# TYPE telematics_messages_rate gauge\n")
+            .append("telematics_messages_rate{application=\"").append(appName).append("\"} ")
+            .append(100 + instanceIndex * 10).append('\n');
+        appendCounter(text, "jdbc_consumer_messages_processed_total", Math.floor(messages / 50));
+        appendCounter(text, "rabbitmq_consumed_total", messages);
+        appendCounter(text, "hdfs_sink_messages_written_total", messages);
+        appendCounter(text, "hdfs_sink_bytes_written_total", messages * 52);
+        double rolls = Math.floor(seconds / 2);
+        appendCounter(text, "hdfs_sink_files_rolled_total", rolls);
+        text.append("# TYPE hdfs_sink_roll_seconds summary\n")
+            .append("hdfs_sink_roll_seconds_count{application=\"").append(appName).append("\"} ").append(rolls).append('\n')
+            .append("hdfs_sink_roll_seconds_sum{application=\"").append(appName).append("\"} ").append(rolls * 0.035).append('\n');
+        return text.append(filler).toString();
+    }
+
+    private void appendCounter(StringBuilder text, String name, double value) {
+        text.append("# HELP ").append(name).append(" Load test counter\n")
+            .append("# TYPE ").append(name).append(" counter\n")
+            .append(name).append("{application=\"").append(appName).append("\"} ").append(value).append('\n');
+    }
+
+    private String buildFiller(int lines) {
+        StringBuilder text = new StringBuilder(Math.max(0, lines) * 110);
+        int family = 0;
+        int written = 0;
+        while (written < lines) {
+            String name = FILLER_FAMILIES[family % FILLER_FAMILIES.length] + "_" + family;
+            text.append("# TYPE ").append(name).append(" counter\n");
+            written++;
+            for (int i = 0; i < 20 && written < lines; i++, written++) {
+                text.append(name).append("{application=\"").append(appName)
+                    .append("\",uri=\"/api/items/{id}\",series=\"").append(i).append("\"} ")
+                    .append(family * 1000 + i).append(".0\n");
+            }
+            family++;
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,92 @@
+package com.insurancemegacorp.monitoring.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Stand-in Eureka registry that lists the stub actuator instances under their app names.
+ * Registrations and heartbeats from the app under test are accepted and ignored. No faults
+ * are injected here; the harness measures the metrics path, not registry outages.
+ */
+class StubEurekaServer extends StubServer {
+
+    private final Map<String, List<StubActuatorServer>> apps = new LinkedHashMap<>();
+    private final long startedAt = System.currentTimeMillis();
+
+    StubEurekaServer(LoadTestOptions options, List<StubActuatorServer> instances) throws IOException {
+        super("eureka", options, false);
+        for (StubActuatorServer instance : instances) {
+            apps.computeIfAbsent(instance.appName(), app -> new ArrayList<>()).add(instance);
+        }
+    }
+
+    String serviceUrl() {
+        return baseUrl() + "/eureka/";
+    }
+
+    @Override
+    protected StubResponse route(String method, String path, HttpExchange exchange) {
+        if (!path.startsWith("/eureka/apps")) {
+            return StubResponse.status(404);
+        }
+        return switch (method) {
+            case "GET" -> StubResponse.json(registryJson());
+            case "POST" -> StubResponse.status(204);
+            default -> StubResponse.status(200);
+        };
+    }
+
+    private String registryJson() {
+        int total = apps.values().stream().mapToInt(List::size).sum();
+        StringBuilder json = new StringBuilder(2048);
+        json.append("{\"applications\":{\"versions__delta\":\"1\",\"apps__hashcode\":\"UP_")
+            .append(total).append("_\",\"application\":[");
+        boolean firstApp = true;
+        for (Map.Entry<String, List<StubActuatorServer>> app : apps.entrySet()) {
+            if (!firstApp) {
+                json.append(',');
+            }
+            firstApp = false;
+            String appName = app.getKey().toUpperCase();
+            json.append("{\"name\":\"").append(appName).append("\",\"instance\":[");
+            boolean firstInstance = true;
+            for (StubActuatorServer instance : app.getValue()) {
+                if (!firstInstance) {
+                    json.append(',');
+                }
+                firstInstance = false;
+                appendInstance(json, appName, app.getKey(), instance);
+            }
+            json.append("]}");
+        }
+        return json.append("]}}").toString();
+    }
+
+    private void appendInstance(StringBuilder json, String appName, String vipAddress, StubActuatorServer instance) {
+        String baseUrl = instance.baseUrl();
+        json.append("{\"instanceId\":\"").append(instance.instanceId()).append('"')
+            .append(",\"hostName\":\"127.0.0.1\",\"app\":\"").append(appName).append('"')
+            .append(",\"ipAddr\":\"127.0.0.1\",\"status\":\"UP\",\"overriddenStatus\":\"UNKNOWN\"")
+            .append(",\"port\":{\"$\":").append(instance.port()).append(",\"@enabled\":\"true\"}")
+            .append(",\"securePort\":{\"$\":443,\"@enabled\":\"false\"},\"countryId\":1")
+            .append(",\"dataCenterInfo\":{\"@class\":\"com.netflix.appinfo.InstanceInfo$DefaultDataCenterInfo\",\"name\":\"MyOwn\"}")
+            .append(",\"leaseInfo\":{\"renewalIntervalInSecs\":30,\"durationInSecs\":90,\"registrationTimestamp\":").append(startedAt)
+            .append(",\"lastRenewalTimestamp\":").append(System.currentTimeMillis())
+            .append(",\"evictionTimestamp\":0,\"serviceUpTimestamp\":").append(startedAt).append('}')
+            .append(",\"metadata\":{\"management.port\":\"").append(instance.port()).append("\"}")
+            .append(",\"homePageUrl\":\"").append(baseUrl).append("/\"")
+            .append(",\"statusPageUrl\":\"").append(baseUrl).append("/actuator/info\"")
+            .append(",\"healthCheckUrl\":\"").append(baseUrl).append("/actuator/health\"")
+            .append(",\"vipAddress\":\"").append(vipAddress).append('"')
+            .append(",\"secureVipAddress\":\"").append(vipAddress).append('"')
+            .append(",\"isCoordinatingDiscoveryServer\":\"false\"")
+            .append(",\"lastUpdatedTimestamp\":\"").append(startedAt).append('"')
+            .append(",\"lastDirtyTimestamp\":\"").append(startedAt).append('"')
+            .append(",\"actionType\":\"ADDED\"}");
+    }
+}
@@ -0,0 +1,74 @@
+package com.insurancemegacorp.monitoring.loadtest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Comparator;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Stand-in for the HDFS sink's output: writes into an in-use file under a date/hour
+ * partition of a local temp directory and rolls it on a fixed interval. The app under test
+ * reads it through Hadoop's local filesystem, the same code path as a real namenode.
+ */
+class StubHdfsWriter implements AutoCloseable {
+
+    private static final DateTimeFormatter PARTITION = DateTimeFormatter.ofPattern("yyyy-MM-dd/HH");
+    private static final byte[] RECORD = "{\"vehicle_id\":42,\"speed_mph\":61.5,\"g_force\":0.2}\n".getBytes();
+
+    private final Path root;
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+    private Path current;
+    private int sequence = 0;
+    private int writes = 0;
+
+    StubHdfsWriter() throws IOException {
+        this.root = Files.createTempDirectory("loadtest-hdfs");
+    }
+
+    String namenodeUri() {
+        return "file:///";
+    }
+
+    String targetPath() {
+        return root.toString();
+    }
+
+    void start() {
+        scheduler.scheduleAtFixedRate(this::write, 0, 100, TimeUnit.MILLISECONDS);
+    }
+
+    private synchronized void write() {
+        try {
+            if (current == null) {
+                Path partition = root.resolve(LocalDateTime.now().format(PARTITION));
+                Files.createDirectories(partition);
+                current = partition.resolve("telemetry-" + sequence++ + ".json.tmp");
+            }
+            Files.write(current, RECORD, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            // Roll every 2 seconds
+            if (++writes % 20 == 0) {
+                String name = current.getFileName().toString();
+                Files.move(current, current.resolveSibling(name.substring(0, name.length() - ".tmp".length())));
+                current = null;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        scheduler.shutdownNow();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,180 @@
+package com.insurancemegacorp.monitoring.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Stand-in for the RabbitMQ management API: /api/queues, /api/queues/{vhost}/{name},
+ * /api/exchanges/{vhost}/{name}[/bindings/source], /api/aliveness-test/{vhost} and
+ * /api/overview, plus the rabbitmq_prometheus /metrics/detailed exposition of the same
+ * queues and exchange, limited like the broker's to the {@code family=} parameters asked for
+ * (all families when there are none). Message counters advance with wall-clock time at a fixed rate so the
+ * app's rate calculations see a moving pipeline.
+ */
+class StubRabbitManagementServer extends StubServer {
+
+    private static final double PUBLISH_RATE = 250.0;
+
+    private final long startedAt = System.currentTimeMillis();
+
+    StubRabbitManagementServer(LoadTestOptions options) throws IOException {
+        super("rabbitmq-management", options, true);
+    }
+
+    String apiUrl() {
+        return baseUrl() + "/api";
+    }
+
+    @Override
+    protected StubResponse route(String method, String path, HttpExchange exchange) {
+        if (path.startsWith("/metrics")) {
+            return StubResponse.text(prometheusText(families(exchange.getRequestURI().getRawQuery())));
+        }
+        String[] segments = path.split("/");
+        // segments: "", "api", resource, vhost, name, ...
+        if (segments.length < 3 || !"api".equals(segments[1])) {
+            return StubResponse.status(404);
+        }
+        return switch (segments[2]) {
+            case "queues" -> segments.length >= 5 ? StubResponse.json(queueJson(segments[4])) : StubResponse.json(queuesJson());
+            case "exchanges" -> {
+                if (segments.length >= 7 && "bindings".equals(segments[5])) {
+                    yield StubResponse.json(bindingsJson(segments[4]));
+                }
+                yield segments.length >= 5 ? StubResponse.json(exchangeJson(segments[4])) : StubResponse.status(404);
+            }
+            case "aliveness-test" -> StubResponse.json("{\"status\":\"ok\"}");
+            case "overview" -> StubResponse.json("{\"rabbitmq_version\":\"3.13.7\",\"cluster_name\":\"loadtest\"}");
+            default -> StubResponse.status(404);
+        };
+    }
+
+    private long published() {
+        return (long) ((System.currentTimeMillis() - startedAt) / 1000.0 * PUBLISH_RATE);
+    }
+
+    private String queuesJson() {
+        StringBuilder json = new StringBuilder(options.queues() * 900);
+        json.append('[');
+        for (int i = 0; i < options.queues(); i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            appendQueue(json, queueName(i), i);
+        }
+        return json.append(']').toString();
+    }
+
+    private String queueJson(String name) {
+        StringBuilder json = new StringBuilder(900);
+        appendQueue(json, name, Math.abs(name.hashCode() % 97));
+        return json.toString();
+    }
+
+    private void appendQueue(StringBuilder json, String name, int index) {
+        long published = published();
+        long backlog = 10 + (index * 7L) % 200;
+        long delivered = Math.max(0, published - backlog);
+        json.append("{\"name\":\"").append(name).append('"')
+            .append(",\"vhost\":\"loadtest\",\"durable\":true,\"auto_delete\":false,\"exclusive\":false")
+            .append(",\"arguments\":{\"x-queue-type\":\"classic\"},\"node\":\"rabbit@loadtest\",\"state\":\"running\",\"type\":\"classic\"")
+            .append(",\"consumers\":").append(1 + index % 3)
+            .append(",\"consumer_utilisation\":0.98,\"memory\":").append(40_000 + index * 128L)
+            .append(",\"messages\":").append(backlog)
+            .append(",\"messages_ready\":").append(backlog)
+            .append(",\"messages_unacknowledged\":0")
+            .append(",\"message_stats\":{\"publish\":").append(published)
+            .append(",\"publish_details\":{\"rate\":").append(PUBLISH_RATE).append('}')
+            .append(",\"deliver_get\":").append(delivered)
+            .append(",\"deliver_get_details\":{\"rate\":").append(PUBLISH_RATE).append('}')
+            .append(",\"ack\":").append(delivered)
+            .append(",\"ack_details\":{\"rate\":").append(PUBLISH_RATE).append('}')
+            .append(",\"redeliver\":0,\"redeliver_details\":{\"rate\":0.0}}}");
+    }
+
+    private String exchangeJson(String name) {
+        long publishedIn = published();
+        return "{\"name\":\"" + name + "\",\"type\":\"fanout\",\"vhost\":\"loadtest\",\"durable\":true"
+            + ",\"message_stats\":{\"publish_in\":" + publishedIn
+            + ",\"publish_in_details\":{\"rate\":" + PUBLISH_RATE + "}"
+            + ",\"publish_out\":" + publishedIn * 3
+            + ",\"publish_out_details\":{\"rate\":" + PUBLISH_RATE * 3 + "}}}";
+    }
+
+    private String bindingsJson(String exchange) {
+        StringBuilder json = new StringBuilder("[");
+        int bound = Math.min(3, options.queues());
+        for (int i = 0; i < bound; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"source\":\"").append(exchange)
+                .append("\",\"destination\":\"").append(queueName(i))
+                .append("\",\"destination_type\":\"queue\",\"routing_key\":\"\",\"vhost\":\"loadtest\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    private static Set<String> families(String query) {
+        if (query == null) {
+            return Set.of();
+        }
+        return Arrays.stream(query.split("&"))
+            .filter(parameter -> parameter.startsWith("family="))
+            .map(parameter -> parameter.substring("family=".length()))
+            .collect(Collectors.toSet());
+    }
+
+    private String prometheusText(Set<String> families) {
+        boolean all = families.isEmpty();
+        boolean exchangeMetrics = all || families.contains("exchange_metrics");
+        boolean coarse = all || families.contains("queue_coarse_metrics");
+        boolean consumerCount = all || families.contains("queue_consumer_count");
+        boolean delivery = all || families.contains("queue_delivery_metrics");
+        boolean queueExchange = all || families.contains("queue_exchange_metrics");
+
+        long published = published();
+        StringBuilder text = new StringBuilder(options.queues() * 600);
+        if (exchangeMetrics) {
+            text.append("# TYPE rabbitmq_detailed_exchange_messages_published_total counter\n")
+                .append("rabbitmq_detailed_exchange_messages_published_total{vhost=\"loadtest\",exchange=\"telematics_exchange\"} ")
+                .append(published).append('\n');
+        }
+        int bound = Math.min(3, options.queues());
+        for (int i = 0; i < options.queues(); i++) {
+            String labels = "{vhost=\"loadtest\",queue=\"" + queueName(i) + "\"}";
+            long backlog = 10 + (i * 7L) % 200;
+            long delivered = Math.max(0, published - backlog);
+            if (coarse) {
+                text.append("rabbitmq_detailed_queue_messages_ready").append(labels).append(' ').append(backlog).append('\n')
+                    .append("rabbitmq_detailed_queue_messages_unacked").append(labels).append(" 0\n")
+                    .append("rabbitmq_detailed_queue_messages").append(labels).append(' ').append(backlog).append('\n');
+            }
+            if (consumerCount) {
+                text.append("rabbitmq_detailed_queue_consumers").append(labels).append(' ').append(1 + i % 3).append('\n');
+            }
+            if (delivery) {
+                text.append("rabbitmq_detailed_queue_messages_delivered_ack_total").append(labels).append(' ').append(delivered).append('\n')
+                    .append("rabbitmq_detailed_queue_messages_acked_total").append(labels).append(' ').append(delivered).append('\n');
+            }
+            if (queueExchange && i < bound) {
+                text.append("rabbitmq_detailed_queue_exchange_messages_published_total{vhost=\"loadtest\",exchange=\"telematics_exchange\",queue=\"")
+                    .append(queueName(i)).append("\"} ").append(published).append('\n');
+            }
+        }
+        return text.toString();
+    }
+
+    private static String queueName(int index) {
+        return switch (index) {
+            case 0 -> "telematics_exchange.crash-detection-group";
+            case 1 -> "telematics_exchange.hdfs-sink-group";
+            case 2 -> "vehicle-events.jdbc-sink-group";
+            default -> "loadtest.queue-" + index;
+        };
+    }
+}
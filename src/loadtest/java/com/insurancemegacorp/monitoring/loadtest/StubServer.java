@@ -0,0 +1,154 @@
+package com.insurancemegacorp.monitoring.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Base for the embedded stand-in servers. Runs a JDK HttpServer on an ephemeral loopback
+ * port, counts requests per route and, when enabled, injects latency and 503 failures.
+ */
+abstract class StubServer implements AutoCloseable {
+
+    record StubResponse(int status, String contentType, byte[] body) {
+
+        static StubResponse json(String body) {
+            return new StubResponse(200, "application/json", body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static StubResponse text(String body) {
+            return new StubResponse(200, "text/plain; version=0.0.4", body.getBytes(StandardCharsets.UTF_8));
+        }
+
+        static StubResponse status(int status) {
+            return new StubResponse(status, "application/json", new byte[0]);
+        }
+    }
+
+    protected final LoadTestOptions options;
+    private final String name;
+    private final boolean injectFaults;
+    private final HttpServer server;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<String, LongAdder> requestsByRoute = new ConcurrentHashMap<>();
+    private final LongAdder injectedFailures = new LongAdder();
+    private final LongAdder bytesServed = new LongAdder();
+
+    protected StubServer(String name, LoadTestOptions options, boolean injectFaults) throws IOException {
+        this.name = name;
+        this.options = options;
+        this.injectFaults = injectFaults;
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        this.server.setExecutor(executor);
+        this.server.createContext("/", this::handle);
+    }
+
+    void start() {
+        server.start();
+    }
+
+    String name() {
+        return name;
+    }
+
+    int port() {
+        return server.getAddress().getPort();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + port();
+    }
+
+    long requestCount() {
+        return requestsByRoute.values().stream().mapToLong(LongAdder::sum).sum();
+    }
+
+    Map<String, Long> requestsByRoute() {
+        Map<String, Long> counts = new TreeMap<>();
+        requestsByRoute.forEach((route, count) -> counts.put(route, count.sum()));
+        return counts;
+    }
+
+    long injectedFailures() {
+        return injectedFailures.sum();
+    }
+
+    long bytesServed() {
+        return bytesServed.sum();
+    }
+
+    /**
+     * Produce the response for a request; {@code path} excludes the query string.
+     */
+    protected abstract StubResponse route(String method, String path, HttpExchange exchange) throws IOException;
+
+    /**
+     * Route name used for request counting, e.g. "/api/queues".
+     */
+    protected String routeKey(String path) {
+        String[] segments = path.split("/");
+        return segments.length > 2 ? "/" + segments[1] + "/" + segments[2] : path;
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        requestsByRoute.computeIfAbsent(routeKey(path), route -> new LongAdder()).increment();
+        try (exchange) {
+            StubResponse response;
+            if (injectFaults && shouldFail()) {
+                injectedFailures.increment();
+                response = StubResponse.status(503);
+            } else {
+                injectLatency();
+                response = route(exchange.getRequestMethod(), path, exchange);
+            }
+
+            exchange.getResponseHeaders().set("Content-Type", response.contentType());
+            if (response.body().length == 0) {
+                exchange.sendResponseHeaders(response.status(), -1);
+                return;
+            }
+            exchange.sendResponseHeaders(response.status(), response.body().length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(response.body());
+            }
+            bytesServed.add(response.body().length);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean shouldFail() {
+        return options.failureRate() > 0 && ThreadLocalRandom.current().nextDouble() < options.failureRate();
+    }
+
+    private void injectLatency() throws InterruptedException {
+        if (!injectFaults) {
+            return;
+        }
+        long jitter = options.latencyJitterMillis() > 0
+            ? ThreadLocalRandom.current().nextLong(-options.latencyJitterMillis(), options.latencyJitterMillis() + 1) : 0;
+        long delay = Math.max(0, options.latencyMillis() + jitter);
+        if (delay > 0) {
+            Thread.sleep(delay);
+        }
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,59 @@
+package com.insurancemegacorp.monitoring.config;
+
+import com.insurancemegacorp.monitoring.service.ClusterSnapshotService;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.FanoutExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+/**
+ * Broker side of the snapshot fan-out between UI instances. The fanout exchange is
+ * transient, like the snapshots; each instance binds an exclusive, auto-delete queue that
+ * keeps only the newest few messages, since an older snapshot is never worth delivering.
+ */
+@Configuration
+@ConditionalOnProperty(name = "cluster.leader-election", havingValue = "rabbitmq")
+public class ClusterConfig {
+
+    @Bean
+    public FanoutExchange clusterSnapshotExchange(@Value("${cluster.snapshot.exchange:smartdriver.snapshots}") String exchange) {
+        return new FanoutExchange(exchange, false, false);
+    }
+
+    @Bean
+    public Queue clusterSnapshotQueue(@Value("${cluster.snapshot.max-length:10}") int maxLength) {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("smartdriver.snapshots."),
+            Map.of("x-max-length", maxLength, "x-overflow", "drop-head"));
+    }
+
+    @Bean
+    public Binding clusterSnapshotBinding(Queue clusterSnapshotQueue, FanoutExchange clusterSnapshotExchange) {
+        return BindingBuilder.bind(clusterSnapshotQueue).to(clusterSnapshotExchange);
+    }
+
+    @Bean
+    public SimpleMessageListenerContainer clusterSnapshotContainer(ConnectionFactory connectionFactory,
+                                                                   Queue clusterSnapshotQueue,
+                                                                   ClusterSnapshotService clusterSnapshotService) {
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory);
+        container.setQueues(clusterSnapshotQueue);
+        container.setMessageListener(clusterSnapshotService);
+        container.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        container.setConcurrentConsumers(1);
+        container.setExclusive(true);
+        container.setMissingQueuesFatal(false);
+        container.setDefaultRequeueRejected(false);
+        return container;
+    }
+}
@@ -0,0 +1,51 @@
+package com.insurancemegacorp.monitoring.config;
+
+import com.insurancemegacorp.monitoring.service.CycleTracer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Traces every dashboard API request as a cycle, so a stalled panel shows up in
+ * /api/debug/slow-cycles with the upstream calls it waited on.
+ */
+@Component
+public class CycleTracingFilter extends OncePerRequestFilter {
+
+    private final CycleTracer cycleTracer;
+
+    public CycleTracingFilter(CycleTracer cycleTracer) {
+        this.cycleTracer = cycleTracer;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI();
+        return !path.startsWith("/api/") || path.startsWith("/api/debug/slow-cycles");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Exception[] failure = new Exception[1];
+        cycleTracer.cycle(request.getMethod() + " " + request.getRequestURI(), () -> {
+            try {
+                filterChain.doFilter(request, response);
+            } catch (IOException | ServletException e) {
+                failure[0] = e;
+            }
+            cycleTracer.tag("status", response.getStatus());
+        });
+        if (failure[0] instanceof IOException e) {
+            throw e;
+        }
+        if (failure[0] instanceof ServletException e) {
+            throw e;
+        }
+    }
+}
@@ -7,8 +7,9 @@ import org.springframework.web.client.RestTemplate;
 @Configuration
 public class RabbitConfig {
 
-    // This monitoring UI only needs HTTP access to RabbitMQ Management API
-    // No direct AMQP connection required - just REST API calls for metrics
+    // Metrics come from the RabbitMQ Management API over HTTP. The only AMQP use is the
+    // optional passive-declare depth probe (rabbitmq.amqp-probe.enabled), which uses the
+    // auto-configured spring.rabbitmq connection factory
 
     @Bean
     public RestTemplate restTemplate() throws Exception {
@@ -0,0 +1,57 @@
+package com.insurancemegacorp.monitoring.config;
+
+import com.insurancemegacorp.monitoring.service.ClusterSnapshotService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+/**
+ * On a follower, answers dashboard GETs from the leader's last snapshot instead of
+ * collecting locally. Requests with a query string, paths outside the snapshot and
+ * snapshots older than {@code cluster.snapshot.max-age-ms} (the leader is gone or still
+ * being elected) fall through to the local controllers.
+ */
+@Component
+@ConditionalOnProperty(name = "cluster.leader-election", havingValue = "rabbitmq")
+public class SnapshotServingFilter extends OncePerRequestFilter {
+
+    private final ClusterSnapshotService clusterSnapshotService;
+    private final long maxAgeMillis;
+
+    public SnapshotServingFilter(ClusterSnapshotService clusterSnapshotService,
+                                 @Value("${cluster.snapshot.max-age-ms:15000}") long maxAgeMillis) {
+        this.clusterSnapshotService = clusterSnapshotService;
+        this.maxAgeMillis = maxAgeMillis;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !"GET".equals(request.getMethod()) || request.getQueryString() != null
+            || !request.getRequestURI().startsWith("/api/");
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Map.Entry<Integer, String> cached = clusterSnapshotService.lookup(request.getRequestURI(), maxAgeMillis);
+        if (cached == null) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+        response.setStatus(cached.getKey());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader("X-Served-From", "snapshot");
+        response.getWriter().write(cached.getValue());
+    }
+}
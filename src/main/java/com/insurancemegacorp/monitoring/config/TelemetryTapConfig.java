@@ -0,0 +1,103 @@
+package com.insurancemegacorp.monitoring.config;
+
+import com.insurancemegacorp.monitoring.service.TelemetryTapService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.AnonymousQueue;
+import org.springframework.amqp.core.Base64UrlNamingStrategy;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.listener.SimpleMessageListenerContainer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Map;
+
+/**
+ * Broker side of the live telemetry tap. The queue is exclusive and auto-delete, so it goes
+ * away with the UI's connection, and capped with {@code x-max-length} dropping the oldest
+ * messages, so a stalled tap never backs up the broker. The auto-configured RabbitAdmin
+ * declares the queues and bindings whenever the connection is (re)established.
+ *
+ * The processor's vehicle_events output gets a second tap queue and consumer of its own, so
+ * the low-volume event stream is not crowded out of the telemetry queue's length cap.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "telemetry.tap.enabled", havingValue = "true")
+public class TelemetryTapConfig {
+
+    @Bean
+    public Queue telemetryTapQueue(@Value("${telemetry.tap.max-length:1000}") int maxLength) {
+        return new AnonymousQueue(new Base64UrlNamingStrategy("smartdriver.tap."),
+            Map.of("x-max-length", maxLength, "x-overflow", "drop-head"));
+    }
+
+    @Bean
+    public Binding telemetryTapBinding(Queue telemetryTapQueue,
+                                       @Value("${telemetry.tap.exchange:telematics_exchange}") String exchange,
+                                       @Value("${telemetry.tap.routing-key:#}") String routingKey) {
+        // The exchange belongs to the pipeline; bind to it without declaring it
+        return new Binding(telemetryTapQueue.getName(), Binding.DestinationType.QUEUE, exchange, routingKey, null);
+    }
+
+    @Bean
+    public SimpleMessageListenerContainer telemetryTapContainer(ConnectionFactory connectionFactory,
+                                                                Queue telemetryTapQueue,
+                                                                TelemetryTapService telemetryTapService,
+                                                                @Value("${telemetry.tap.prefetch:50}") int prefetch) {
+        SimpleMessageListenerContainer container = tapContainer(connectionFactory, telemetryTapQueue, telemetryTapService, prefetch);
+        log.info("Telemetry tap consuming from {} with prefetch {}", telemetryTapQueue.getName(), prefetch);
+        return container;
+    }
+
+    private static SimpleMessageListenerContainer tapContainer(ConnectionFactory connectionFactory,
+                                                               Queue queue,
+                                                               TelemetryTapService telemetryTapService,
+                                                               int prefetch) {
+        SimpleMessageListenerContainer container = new SimpleMessageListenerContainer(connectionFactory);
+        container.setQueues(queue);
+        container.setMessageListener(telemetryTapService);
+        container.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        container.setPrefetchCount(prefetch);
+        container.setConcurrentConsumers(1);
+        container.setExclusive(true);
+        container.setMissingQueuesFatal(false);
+        // A parse failure is already counted by the tap; never requeue the message
+        container.setDefaultRequeueRejected(false);
+        return container;
+    }
+
+    // Component scanning registers nested configurations on their own, so the enabled
+    // condition has to be repeated here
+    @Configuration
+    @ConditionalOnProperty(name = "telemetry.tap.enabled", havingValue = "true")
+    @ConditionalOnExpression("!'${telemetry.tap.events-exchange:vehicle_events}'.isBlank()")
+    static class VehicleEventsTapConfig {
+
+        @Bean
+        public Queue vehicleEventsTapQueue(@Value("${telemetry.tap.max-length:1000}") int maxLength) {
+            return new AnonymousQueue(new Base64UrlNamingStrategy("smartdriver.tap.events."),
+                Map.of("x-max-length", maxLength, "x-overflow", "drop-head"));
+        }
+
+        @Bean
+        public Binding vehicleEventsTapBinding(Queue vehicleEventsTapQueue,
+                                               @Value("${telemetry.tap.events-exchange:vehicle_events}") String exchange) {
+            return new Binding(vehicleEventsTapQueue.getName(), Binding.DestinationType.QUEUE, exchange.strip(), "#", null);
+        }
+
+        @Bean
+        public SimpleMessageListenerContainer vehicleEventsTapContainer(ConnectionFactory connectionFactory,
+                                                                        Queue vehicleEventsTapQueue,
+                                                                        TelemetryTapService telemetryTapService,
+                                                                        @Value("${telemetry.tap.prefetch:50}") int prefetch) {
+            log.info("Telemetry tap consuming vehicle events from {}", vehicleEventsTapQueue.getName());
+            return tapContainer(connectionFactory, vehicleEventsTapQueue, telemetryTapService, prefetch);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package com.insurancemegacorp.monitoring.config;
+
+import io.netty.channel.ChannelOption;
+import io.netty.handler.ssl.SslContext;
+import io.netty.handler.ssl.SslContextBuilder;
+import io.netty.handler.ssl.util.InsecureTrustManagerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+import reactor.netty.resources.LoopResources;
+
+import javax.net.ssl.SSLException;
+import java.time.Duration;
+
+/**
+ * Non-blocking HTTP client for the fan-out collectors (instance scraping, health probes).
+ * All of its I/O runs on a small dedicated event loop, however many calls are outstanding.
+ */
+@Configuration
+public class WebClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public LoopResources collectorLoopResources(@Value("${collection.webclient.event-loop-threads:2}") int threads) {
+        return LoopResources.create("collector-http", threads, true);
+    }
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider collectorConnectionProvider(@Value("${collection.webclient.max-connections:200}") int maxConnections) {
+        return ConnectionProvider.builder("collector-http")
+            .maxConnections(maxConnections)
+            .pendingAcquireTimeout(Duration.ofSeconds(5))
+            .maxIdleTime(Duration.ofSeconds(30))
+            .build();
+    }
+
+    @Bean
+    public WebClient collectorWebClient(LoopResources collectorLoopResources,
+                                        ConnectionProvider collectorConnectionProvider,
+                                        @Value("${collection.webclient.connect-timeout-ms:5000}") int connectTimeoutMillis,
+                                        @Value("${collection.webclient.max-response-bytes:16777216}") int maxResponseBytes) throws SSLException {
+        // Same relaxed certificate handling as the RestTemplate, for CF environments
+        SslContext sslContext = SslContextBuilder.forClient()
+            .trustManager(InsecureTrustManagerFactory.INSTANCE)
+            .build();
+
+        HttpClient httpClient = HttpClient.create(collectorConnectionProvider)
+            .runOn(collectorLoopResources)
+            .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, connectTimeoutMillis)
+            .secure(spec -> spec.sslContext(sslContext));
+
+        // Prometheus expositions of busy apps run to several megabytes
+        ExchangeStrategies strategies = ExchangeStrategies.builder()
+            .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxResponseBytes))
+            .build();
+
+        return WebClient.builder()
+            .clientConnector(new ReactorClientHttpConnector(httpClient))
+            .exchangeStrategies(strategies)
+            .build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.insurancemegacorp.monitoring.config;
+
+import com.insurancemegacorp.monitoring.service.MetricsPushService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    private final MetricsPushService metricsPushService;
+    private final String path;
+    private final String[] allowedOrigins;
+
+    public WebSocketConfig(MetricsPushService metricsPushService,
+                           @Value("${websocket.path:/ws/metrics}") String path,
+                           @Value("${websocket.allowed-origins:*}") String[] allowedOrigins) {
+        this.metricsPushService = metricsPushService;
+        this.path = path;
+        this.allowedOrigins = allowedOrigins;
+    }
+
+    @Override
+    public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+        registry.addHandler(metricsPushService, path).setAllowedOriginPatterns(allowedOrigins);
+    }
+}
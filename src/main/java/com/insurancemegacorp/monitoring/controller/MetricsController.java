@@ -12,14 +12,32 @@ import com.insurancemegacorp.monitoring.service.TelemetryProcessorMetricsService
 import com.insurancemegacorp.monitoring.service.VehicleEventsJdbcSinkService;
 import com.insurancemegacorp.monitoring.service.MetricsBaselineService;
 import com.insurancemegacorp.monitoring.service.GreenplumService;
+import com.insurancemegacorp.monitoring.service.InstanceScalingService;
+import com.insurancemegacorp.monitoring.service.UpstreamGuardService;
+import com.insurancemegacorp.monitoring.service.CycleTracer;
+import com.insurancemegacorp.monitoring.service.QueueAnalyticsService;
+import com.insurancemegacorp.monitoring.service.PipelineFlowService;
+import com.insurancemegacorp.monitoring.service.HdfsSinkMetricsService;
+import com.insurancemegacorp.monitoring.service.AnomalyDetectionService;
+import com.insurancemegacorp.monitoring.service.AlertingService;
+import com.insurancemegacorp.monitoring.service.AmqpQueueProbeService;
+import com.insurancemegacorp.monitoring.service.TelemetryTapService;
+import com.insurancemegacorp.monitoring.service.DistinctCountService;
+import com.insurancemegacorp.monitoring.service.TopTalkersService;
+import com.insurancemegacorp.monitoring.service.QuantileSketchService;
+import com.insurancemegacorp.monitoring.service.HeatmapService;
+import com.insurancemegacorp.monitoring.service.LeaderElection;
+import com.insurancemegacorp.monitoring.service.ClusterSnapshotService;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -53,6 +71,54 @@ public class MetricsController {
     
     @Autowired
     private GreenplumService greenplumService;
+    
+    @Autowired
+    private InstanceScalingService instanceScalingService;
+
+    @Autowired
+    private UpstreamGuardService upstreamGuardService;
+
+    @Autowired
+    private CycleTracer cycleTracer;
+
+    @Autowired
+    private QueueAnalyticsService queueAnalyticsService;
+
+    @Autowired
+    private PipelineFlowService pipelineFlowService;
+
+    @Autowired
+    private HdfsSinkMetricsService hdfsSinkMetricsService;
+
+    @Autowired
+    private AnomalyDetectionService anomalyDetectionService;
+
+    @Autowired
+    private AlertingService alertingService;
+
+    @Autowired
+    private AmqpQueueProbeService amqpQueueProbeService;
+
+    @Autowired
+    private TelemetryTapService telemetryTapService;
+
+    @Autowired
+    private DistinctCountService distinctCountService;
+
+    @Autowired
+    private TopTalkersService topTalkersService;
+
+    @Autowired
+    private QuantileSketchService quantileSketchService;
+
+    @Autowired
+    private HeatmapService heatmapService;
+
+    @Autowired
+    private LeaderElection leaderElection;
+
+    @Autowired(required = false)
+    private ClusterSnapshotService clusterSnapshotService;
 
     public MetricsController(MetricsCollectorService metricsCollectorService, 
                            RabbitMetricsService rabbitMetricsService,
@@ -86,12 +152,9 @@ public class MetricsController {
 
     @GetMapping("/rabbitmq/queue")
     public ResponseEntity<Map<String, Object>> getQueueInfo() {
-        int queueDepth = rabbitMetricsService.getQueueDepth();
-        
-        Map<String, Object> response = Map.of(
-            "queue_depth", queueDepth,
-            "status", queueDepth >= 0 ? "accessible" : "error"
-        );
+        Map<String, Object> response = new HashMap<>(rabbitMetricsService.getQueueCounts());
+        response.put("status", (long) response.get("queue_depth") >= 0 ? "accessible" : "error");
+        response.put("timestamp", System.currentTimeMillis());
         
         return ResponseEntity.ok(response);
     }
@@ -102,6 +165,11 @@ public class MetricsController {
         return ResponseEntity.ok(queues);
     }
 
+    @GetMapping("/rabbitmq/amqp-probe")
+    public ResponseEntity<Map<String, Object>> getAmqpQueueProbe() {
+        return ResponseEntity.ok(amqpQueueProbeService.probeAll());
+    }
+
     @GetMapping("/rabbitmq/exchange/throughput")
     public ResponseEntity<Map<String, Object>> getExchangeThroughput() {
         Map<String, Object> rawMetrics = exchangeMetricsService.getExchangeThroughputStats();
@@ -112,19 +180,23 @@ public class MetricsController {
     @GetMapping("/components/health")
     public ResponseEntity<Map<String, Object>> getComponentHealth() {
         Map<String, Boolean> healthStatus;
+        Map<String, Object> healthDetails;
         String discoveryMode;
         
         // Use service discovery if available, otherwise fall back to static URLs
         if (serviceDiscoveryHealthService != null) {
             healthStatus = serviceDiscoveryHealthService.getAllComponentHealth();
+            healthDetails = serviceDiscoveryHealthService.getComponentHealthDetails();
             discoveryMode = "service_discovery";
         } else {
             healthStatus = componentHealthService.getAllComponentHealth();
+            healthDetails = componentHealthService.getComponentHealthDetails();
             discoveryMode = "static_urls";
         }
         
         Map<String, Object> response = Map.of(
             "component_health", healthStatus,
+            "components", healthDetails,
             "discovery_mode", discoveryMode,
             "timestamp", System.currentTimeMillis()
         );
@@ -180,6 +252,41 @@ public class MetricsController {
         return ResponseEntity.ok(health);
     }
     
+    @GetMapping("/telemetry/tap")
+    public ResponseEntity<Map<String, Object>> getTelemetryTap() {
+        return ResponseEntity.ok(telemetryTapService.getStats());
+    }
+
+    @GetMapping("/telemetry/active")
+    public ResponseEntity<Map<String, Object>> getActiveFleet() {
+        return ResponseEntity.ok(distinctCountService.getDistinctCounts());
+    }
+
+    @GetMapping("/telemetry/top-talkers")
+    public ResponseEntity<Map<String, Object>> getTopTalkers() {
+        return ResponseEntity.ok(topTalkersService.getTopTalkers());
+    }
+
+    @GetMapping("/telemetry/quantiles")
+    public ResponseEntity<Map<String, Object>> getTelemetryQuantiles() {
+        return ResponseEntity.ok(quantileSketchService.getQuantiles());
+    }
+
+    @GetMapping("/telemetry/heatmap")
+    public ResponseEntity<Map<String, Object>> getTelemetryHeatmap(@RequestParam(required = false) Integer precision,
+                                                                   @RequestParam(required = false) String bbox,
+                                                                   @RequestParam(required = false) String rank,
+                                                                   @RequestParam(required = false) Integer limit) {
+        try {
+            return ResponseEntity.ok(heatmapService.getTiles(precision, bbox, rank, limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", e.getMessage(),
+                "timestamp", System.currentTimeMillis()
+            ));
+        }
+    }
+
     @GetMapping("/telematics/exchange/queues")
     public ResponseEntity<Map<String, Object>> getTelemematicsExchangeQueues() {
         Map<String, Object> queueMetrics = telemematicsExchangeMetricsService.getExchangeQueueMetrics();
@@ -192,6 +299,12 @@ public class MetricsController {
         return ResponseEntity.ok(health);
     }
     
+    @GetMapping("/rabbitmq/queues/analytics")
+    public ResponseEntity<Map<String, Object>> getQueueAnalytics() {
+        Map<String, Object> analytics = queueAnalyticsService.getAllAnalytics();
+        return ResponseEntity.ok(analytics);
+    }
+    
     @GetMapping("/rabbitmq/management/url")
     public ResponseEntity<Map<String, Object>> getRabbitMQManagementUrl() {
         Map<String, Object> urlInfo = telemematicsExchangeMetricsService.getManagementDashboardUrl();
@@ -219,7 +332,7 @@ public class MetricsController {
     
     @GetMapping("/hdfs-sink/metrics")
     public ResponseEntity<Map<String, Object>> getHdfsSinkMetrics() {
-        Map<String, Object> rawMetrics = telemematicsExchangeMetricsService.getHdfsSinkMetrics();
+        Map<String, Object> rawMetrics = hdfsSinkMetricsService.getHdfsSinkMetrics();
         Map<String, Object> adjustedMetrics = metricsBaselineService.getAdjustedMetrics("hdfs_sink", rawMetrics);
         return ResponseEntity.ok(adjustedMetrics);
     }
@@ -237,6 +350,52 @@ public class MetricsController {
         return ResponseEntity.ok(health);
     }
     
+    @GetMapping("/scaling")
+    public ResponseEntity<Map<String, Object>> getScalingView() {
+        Map<String, Object> scaling = instanceScalingService.getScalingView();
+        return ResponseEntity.ok(scaling);
+    }
+    
+    @GetMapping("/pipeline/flow")
+    public ResponseEntity<Map<String, Object>> getPipelineFlow() {
+        Map<String, Object> flow = pipelineFlowService.getFlow();
+        return ResponseEntity.ok(flow);
+    }
+    
+    @GetMapping("/anomalies")
+    public ResponseEntity<Map<String, Object>> getAnomalies() {
+        Map<String, Object> anomalies = anomalyDetectionService.getAnomalies();
+        return ResponseEntity.ok(anomalies);
+    }
+    
+    @GetMapping("/alerts")
+    public ResponseEntity<Map<String, Object>> getAlerts() {
+        Map<String, Object> alerts = alertingService.getAlerts();
+        return ResponseEntity.ok(alerts);
+    }
+    
+    @GetMapping("/upstreams")
+    public ResponseEntity<Map<String, Object>> getUpstreams() {
+        Map<String, Object> upstreams = upstreamGuardService.getUpstreams();
+        return ResponseEntity.ok(upstreams);
+    }
+    
+    @GetMapping("/cluster")
+    public ResponseEntity<Map<String, Object>> getCluster() {
+        Map<String, Object> cluster = new HashMap<>(leaderElection.describe());
+        if (clusterSnapshotService != null) {
+            cluster.put("snapshots", clusterSnapshotService.getStatus());
+        }
+        cluster.put("timestamp", System.currentTimeMillis());
+        return ResponseEntity.ok(cluster);
+    }
+
+    @GetMapping("/debug/slow-cycles")
+    public ResponseEntity<Map<String, Object>> getSlowCycles() {
+        Map<String, Object> slowCycles = cycleTracer.getSlowCycles();
+        return ResponseEntity.ok(slowCycles);
+    }
+    
     @GetMapping("/debug/telemetry/raw")
     public ResponseEntity<String> getDebugTelemetryRaw() {
         try {
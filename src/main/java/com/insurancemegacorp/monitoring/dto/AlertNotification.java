@@ -0,0 +1,23 @@
+package com.insurancemegacorp.monitoring.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A rule starting to fire, still firing (repeat reminder) or resolving.
+ *
+ * @param state    firing or resolved
+ * @param since    when the rule started firing
+ * @param repeat   true for a reminder about an alert that was already notified
+ */
+public record AlertNotification(
+    @JsonProperty("rule") String rule,
+    @JsonProperty("severity") String severity,
+    @JsonProperty("state") String state,
+    @JsonProperty("expression") String expression,
+    @JsonProperty("value") double value,
+    @JsonProperty("threshold") double threshold,
+    @JsonProperty("since") long since,
+    @JsonProperty("repeat") boolean repeat,
+    @JsonProperty("timestamp") long timestamp
+) {
+}
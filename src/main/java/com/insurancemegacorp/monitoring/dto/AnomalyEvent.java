@@ -0,0 +1,23 @@
+package com.insurancemegacorp.monitoring.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * An anomaly opening or resolving on one monitored series. Published as an application
+ * event and pushed to dashboards.
+ *
+ * @param kind     what the deviation means for the pipeline, e.g. throughput_collapse
+ * @param state    open when the anomaly starts, resolved when the series is back to normal
+ * @param expected the series' smoothed baseline when the sample was taken
+ */
+public record AnomalyEvent(
+    @JsonProperty("series") String series,
+    @JsonProperty("kind") String kind,
+    @JsonProperty("state") String state,
+    @JsonProperty("value") double value,
+    @JsonProperty("expected") double expected,
+    @JsonProperty("z_score") double zScore,
+    @JsonProperty("started_at") long startedAt,
+    @JsonProperty("timestamp") long timestamp
+) {
+}
@@ -0,0 +1,28 @@
+package com.insurancemegacorp.monitoring.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+/**
+ * Health of one instance of a pipeline component as seen by the periodic probes: the last
+ * result plus its response latency distribution and when its health last flipped.
+ */
+public record InstanceHealth(
+    @JsonProperty("component") String component,
+    @JsonProperty("instance_id") String instanceId,
+    @JsonProperty("health_url") String healthUrl,
+    @JsonProperty("healthy") boolean healthy,
+    @JsonProperty("status") String status,
+    @JsonProperty("latency_ms") long latencyMillis,
+    @JsonProperty("latency_p50_ms") long latencyP50Millis,
+    @JsonProperty("latency_p99_ms") long latencyP99Millis,
+    @JsonProperty("latency_max_ms") long latencyMaxMillis,
+    @JsonProperty("recent_latencies_ms") List<Long> recentLatencies,
+    @JsonProperty("checks") long checks,
+    @JsonProperty("transitions") long transitions,
+    @JsonProperty("last_transition") long lastTransition,
+    @JsonProperty("last_checked") long lastChecked,
+    @JsonProperty("error") String error
+) {
+}
@@ -0,0 +1,24 @@
+package com.insurancemegacorp.monitoring.dto;
+
+import java.util.Map;
+
+/**
+ * Result of scraping one discovered instance of an SCDF app.
+ */
+public record InstanceScrape(
+    String instanceId,
+    String serviceUrl,
+    Map<String, Double> metrics,
+    boolean success,
+    String error,
+    long latencyMillis
+) {
+
+    public static InstanceScrape success(String instanceId, String serviceUrl, Map<String, Double> metrics, long latencyMillis) {
+        return new InstanceScrape(instanceId, serviceUrl, metrics, true, null, latencyMillis);
+    }
+
+    public static InstanceScrape failure(String instanceId, String serviceUrl, String error, long latencyMillis) {
+        return new InstanceScrape(instanceId, serviceUrl, Map.of(), false, error, latencyMillis);
+    }
+}
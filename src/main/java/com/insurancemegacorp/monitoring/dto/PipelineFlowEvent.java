@@ -0,0 +1,14 @@
+package com.insurancemegacorp.monitoring.dto;
+
+import java.util.Map;
+
+/**
+ * Published after every pipeline collection tick with the flow model computed from it.
+ * Consumers that need a steady sampling cadence (detectors, rules) listen to this instead
+ * of hooking into request-driven collection.
+ */
+public record PipelineFlowEvent(
+    long timestamp,
+    Map<String, Object> flow
+) {
+}
@@ -0,0 +1,14 @@
+package com.insurancemegacorp.monitoring.dto;
+
+import java.util.List;
+
+/**
+ * Published by the discovery cache when instances of a registered service appear or
+ * disappear. Instance lists hold instance ids.
+ */
+public record ServiceInstancesChangedEvent(
+    String serviceName,
+    List<String> added,
+    List<String> removed
+) {
+}
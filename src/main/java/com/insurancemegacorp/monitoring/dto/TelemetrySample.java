@@ -0,0 +1,38 @@
+package com.insurancemegacorp.monitoring.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One message taken off the pipeline by the live tap: vehicle telemetry from
+ * telematics_exchange or a detected event from vehicle_events. Published as an application
+ * event for the streaming aggregators. Fields the message did not carry are null.
+ *
+ * @param source    {@link #SOURCE_TELEMETRY} or {@link #SOURCE_VEHICLE_EVENTS}
+ * @param gForce    magnitude of the acceleration reported by the vehicle, in g
+ * @param eventTime when the vehicle produced the message, epoch millis
+ * @param timestamp when the tap received the message
+ */
+public record TelemetrySample(
+    @JsonProperty("source") String source,
+    @JsonProperty("vehicle_id") String vehicleId,
+    @JsonProperty("driver_id") String driverId,
+    @JsonProperty("event_type") String eventType,
+    @JsonProperty("speed") Double speed,
+    @JsonProperty("g_force") Double gForce,
+    @JsonProperty("latitude") Double latitude,
+    @JsonProperty("longitude") Double longitude,
+    @JsonProperty("event_time") Long eventTime,
+    @JsonProperty("timestamp") long timestamp
+) {
+
+    public static final String SOURCE_TELEMETRY = "telemetry";
+    public static final String SOURCE_VEHICLE_EVENTS = "vehicle_events";
+
+    /**
+     * Milliseconds from the vehicle producing the message to the tap receiving it, or null
+     * when the message carried no event time.
+     */
+    public Long latencyMillis() {
+        return eventTime != null ? timestamp - eventTime : null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.AlertNotification;
+
+/**
+ * Destination for alert notifications. Every bean implementing this is available to the
+ * alerting engine; the ones named in {@code alerting.notifiers} receive notifications.
+ * Implementations are called on the evaluation thread and must not block it.
+ */
+public interface AlertNotifier {
+
+    String name();
+
+    void notify(AlertNotification notification);
+}
@@ -0,0 +1,295 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.AlertNotification;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled alert rules and their state. One rule per line:
+ *
+ * <pre>
+ * name: metric op threshold[%] [for duration] [clear value[%]] [severity level]
+ *
+ * jdbc-backlog: queue.vehicle-events.jdbc-sink-group.depth &gt; 1000 for 2m
+ * invalid-messages: processor.invalid_ratio &gt; 5% for 30s severity warning
+ * jdbc-stalled: jdbc_sink.rows_rate &lt;= 0 for 60s severity critical
+ * </pre>
+ *
+ * Operators are {@code > >= < <= == !=}; durations take ms, s, m or h. A rule whose
+ * condition holds is pending until it has held for its duration, then fires. A firing rule
+ * resolves only once the value is back past the clear value (the threshold moved away by
+ * the hysteresis fraction unless given) for the configured number of evaluations, so a
+ * value hovering at the threshold does not flap. Each rule notifies once per transition,
+ * plus an optional reminder while it keeps firing.
+ *
+ * Rules refer to metrics by index: the caller resolves each distinct metric once per tick
+ * into the values array, and evaluation is a comparison and a few field updates per rule
+ * with no allocation unless something transitions. Not thread-safe; evaluate from one
+ * thread at a time.
+ */
+public final class AlertRuleSet {
+
+    public enum State { OK, PENDING, FIRING }
+
+    private enum Operator { GT, GE, LT, LE, EQ, NE }
+
+    private static final Pattern RULE = Pattern.compile(
+        "^([\\w.-]+)\\s*:\\s*(\\S+)\\s*(>=|<=|==|!=|>|<)\\s*(-?[\\d.]+)(%?)"
+            + "(?:\\s+for\\s+(\\d+)(ms|s|m|h))?"
+            + "(?:\\s+clear\\s+(-?[\\d.]+)(%?))?"
+            + "(?:\\s+severity\\s+(\\w+))?$");
+
+    private final List<Rule> rules = new ArrayList<>();
+    private final List<String> metrics = new ArrayList<>();
+    private final List<String> errors = new ArrayList<>();
+    private final int clearEvaluations;
+    private final long repeatMillis;
+
+    /**
+     * @param hysteresis       fraction of the threshold a value must move back before a rule
+     *                         resolves, when the rule has no explicit clear value
+     * @param clearEvaluations consecutive clear evaluations needed to resolve
+     * @param repeatMillis     reminder interval for rules that keep firing, 0 for none
+     */
+    public AlertRuleSet(String definitions, double hysteresis, int clearEvaluations, long repeatMillis) {
+        this.clearEvaluations = Math.max(1, clearEvaluations);
+        this.repeatMillis = repeatMillis;
+
+        Map<String, Integer> metricIndex = new HashMap<>();
+        Set<String> names = new HashSet<>();
+        for (String rawLine : definitions.split("\\R")) {
+            String line = rawLine.strip();
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            Matcher matcher = RULE.matcher(line);
+            if (!matcher.matches()) {
+                errors.add("Cannot parse alert rule: " + line);
+                continue;
+            }
+            String name = matcher.group(1);
+            if (!names.add(name)) {
+                errors.add("Duplicate alert rule name: " + name);
+                continue;
+            }
+            try {
+                Operator operator = operator(matcher.group(3));
+                double threshold = number(matcher.group(4), matcher.group(5));
+                long forMillis = matcher.group(6) != null ? millis(Long.parseLong(matcher.group(6)), matcher.group(7)) : 0L;
+                double clear = matcher.group(8) != null
+                    ? number(matcher.group(8), matcher.group(9))
+                    : defaultClear(operator, threshold, hysteresis);
+                String severity = matcher.group(10) != null ? matcher.group(10).toLowerCase() : "warning";
+                int index = metricIndex.computeIfAbsent(matcher.group(2), metric -> {
+                    metrics.add(metric);
+                    return metrics.size() - 1;
+                });
+                rules.add(new Rule(name, line.substring(line.indexOf(':') + 1).strip(), matcher.group(2), index,
+                    operator, threshold, clear, forMillis, severity));
+            } catch (NumberFormatException e) {
+                errors.add("Invalid number in alert rule: " + line);
+            }
+        }
+    }
+
+    /**
+     * Distinct metrics the rules refer to; values passed to {@link #evaluate} are indexed
+     * like this list.
+     */
+    public List<String> metrics() {
+        return metrics;
+    }
+
+    public List<String> errors() {
+        return errors;
+    }
+
+    public int size() {
+        return rules.size();
+    }
+
+    /**
+     * Evaluate every rule against this tick's values. NaN means no data: the rule keeps its
+     * state. Returns the notifications to send, usually none.
+     */
+    public List<AlertNotification> evaluate(double[] values, long now) {
+        List<AlertNotification> notifications = null;
+        for (Rule rule : rules) {
+            double value = values[rule.metricIndex];
+            if (Double.isNaN(value)) {
+                continue;
+            }
+            rule.lastValue = value;
+            AlertNotification notification = rule.evaluate(value, now);
+            if (notification != null) {
+                if (notifications == null) {
+                    notifications = new ArrayList<>();
+                }
+                notifications.add(notification);
+            }
+        }
+        return notifications != null ? notifications : List.of();
+    }
+
+    public List<Map<String, Object>> describe() {
+        List<Map<String, Object>> views = new ArrayList<>(rules.size());
+        for (Rule rule : rules) {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("rule", rule.name);
+            view.put("expression", rule.expression);
+            view.put("metric", rule.metric);
+            view.put("severity", rule.severity);
+            view.put("state", rule.state.name().toLowerCase());
+            view.put("value", Double.isNaN(rule.lastValue) ? null : rule.lastValue);
+            view.put("threshold", rule.threshold);
+            view.put("clear", rule.clear);
+            view.put("for_ms", rule.forMillis);
+            view.put("since", rule.state == State.OK ? null : rule.since);
+            views.add(view);
+        }
+        return views;
+    }
+
+    private static double defaultClear(Operator operator, double threshold, double hysteresis) {
+        double margin = Math.abs(threshold) * hysteresis;
+        return switch (operator) {
+            case GT, GE -> threshold - margin;
+            case LT, LE -> threshold + margin;
+            case EQ, NE -> threshold;
+        };
+    }
+
+    private static Operator operator(String symbol) {
+        return switch (symbol) {
+            case ">" -> Operator.GT;
+            case ">=" -> Operator.GE;
+            case "<" -> Operator.LT;
+            case "<=" -> Operator.LE;
+            case "==" -> Operator.EQ;
+            default -> Operator.NE;
+        };
+    }
+
+    private static double number(String value, String percent) {
+        double number = Double.parseDouble(value);
+        return percent.isEmpty() ? number : number / 100.0;
+    }
+
+    private static long millis(long amount, String unit) {
+        return switch (unit) {
+            case "ms" -> amount;
+            case "s" -> amount * 1000;
+            case "m" -> amount * 60_000;
+            default -> amount * 3_600_000;
+        };
+    }
+
+    private final class Rule {
+
+        private final String name;
+        private final String expression;
+        private final String metric;
+        private final int metricIndex;
+        private final Operator operator;
+        private final double threshold;
+        private final double clear;
+        private final long forMillis;
+        private final String severity;
+        private State state = State.OK;
+        private long since;
+        private long lastNotified;
+        private int clearStreak;
+        private double lastValue = Double.NaN;
+
+        private Rule(String name, String expression, String metric, int metricIndex, Operator operator,
+                     double threshold, double clear, long forMillis, String severity) {
+            this.name = name;
+            this.expression = expression;
+            this.metric = metric;
+            this.metricIndex = metricIndex;
+            this.operator = operator;
+            this.threshold = threshold;
+            this.clear = clear;
+            this.forMillis = forMillis;
+            this.severity = severity;
+        }
+
+        private AlertNotification evaluate(double value, long now) {
+            boolean condition = holds(value);
+            switch (state) {
+                case OK -> {
+                    if (!condition) {
+                        return null;
+                    }
+                    since = now;
+                    if (forMillis > 0) {
+                        state = State.PENDING;
+                        return null;
+                    }
+                    return fire(value, now);
+                }
+                case PENDING -> {
+                    if (!condition) {
+                        state = State.OK;
+                        return null;
+                    }
+                    return now - since >= forMillis ? fire(value, now) : null;
+                }
+                default -> {
+                    if (cleared(value)) {
+                        if (++clearStreak >= clearEvaluations) {
+                            state = State.OK;
+                            clearStreak = 0;
+                            return notification("resolved", value, now, false);
+                        }
+                        return null;
+                    }
+                    clearStreak = 0;
+                    if (repeatMillis > 0 && now - lastNotified >= repeatMillis) {
+                        lastNotified = now;
+                        return notification("firing", value, now, true);
+                    }
+                    return null;
+                }
+            }
+        }
+
+        private AlertNotification fire(double value, long now) {
+            state = State.FIRING;
+            clearStreak = 0;
+            lastNotified = now;
+            return notification("firing", value, now, false);
+        }
+
+        private AlertNotification notification(String notificationState, double value, long now, boolean repeat) {
+            return new AlertNotification(name, severity, notificationState, expression, value, threshold, since, repeat, now);
+        }
+
+        private boolean holds(double value) {
+            return switch (operator) {
+                case GT -> value > threshold;
+                case GE -> value >= threshold;
+                case LT -> value < threshold;
+                case LE -> value <= threshold;
+                case EQ -> value == threshold;
+                case NE -> value != threshold;
+            };
+        }
+
+        private boolean cleared(double value) {
+            return switch (operator) {
+                case GT, GE -> clear < threshold ? value < clear : !holds(value);
+                case LT, LE -> clear > threshold ? value > clear : !holds(value);
+                case EQ, NE -> !holds(value);
+            };
+        }
+    }
+}
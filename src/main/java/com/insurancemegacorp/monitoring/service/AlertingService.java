@@ -0,0 +1,213 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.AlertNotification;
+import com.insurancemegacorp.monitoring.dto.PipelineFlowEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Evaluates the alert rules in {@code alerting.rules} (see {@link AlertRuleSet} for the
+ * syntax) on every pipeline flow tick and hands transitions to the enabled notifiers.
+ *
+ * Metrics a rule can refer to:
+ * <ul>
+ *   <li>the {@link PipelineSignals} names, e.g. {@code processor.invalid_ratio}</li>
+ *   <li>{@code queue.<queue>.<field>}: any queue analytics field, plus {@code depth}</li>
+ *   <li>{@code hop.<from>.<to>.<field>}: a hop of the pipeline flow model, e.g. loss_ratio</li>
+ *   <li>{@code component.<name>.healthy} and {@code flow_path.<source>.<target>.healthy}:
+ *       1 when healthy, 0 when not</li>
+ * </ul>
+ *
+ * Each distinct metric is resolved once per tick, then all rules are evaluated against the
+ * resulting array.
+ */
+@Slf4j
+@Service
+public class AlertingService {
+
+    private record TickContext(Map<String, Double> signals, Map<String, Object> flow) {
+    }
+
+    private final PipelineSignals pipelineSignals;
+    private final QueueAnalyticsService queueAnalyticsService;
+    private final ComponentHealthService componentHealthService;
+    private final MeterRegistry meterRegistry;
+    private final AlertRuleSet ruleSet;
+    private final List<Function<TickContext, Double>> resolvers = new ArrayList<>();
+    private final List<AlertNotifier> notifiers;
+    private final Deque<AlertNotification> history = new ArrayDeque<>();
+    private final Duration rateWindow;
+    private final int historyCapacity;
+    private final Timer evaluationTimer;
+    private long evaluations = 0L;
+
+    public AlertingService(PipelineSignals pipelineSignals,
+                           QueueAnalyticsService queueAnalyticsService,
+                           ComponentHealthService componentHealthService,
+                           List<AlertNotifier> availableNotifiers,
+                           MeterRegistry meterRegistry,
+                           @Value("${alerting.rules:}") String rules,
+                           @Value("${alerting.notifiers:log,push}") String enabledNotifiers,
+                           @Value("${alerting.hysteresis:0.1}") double hysteresis,
+                           @Value("${alerting.clear-evaluations:2}") int clearEvaluations,
+                           @Value("${alerting.repeat-interval-minutes:30}") long repeatMinutes,
+                           @Value("${alerting.rate-window-seconds:10}") long rateWindowSeconds,
+                           @Value("${alerting.history-capacity:200}") int historyCapacity) {
+        this.pipelineSignals = pipelineSignals;
+        this.queueAnalyticsService = queueAnalyticsService;
+        this.componentHealthService = componentHealthService;
+        this.meterRegistry = meterRegistry;
+        this.rateWindow = Duration.ofSeconds(rateWindowSeconds);
+        this.historyCapacity = historyCapacity;
+        this.evaluationTimer = Timer.builder("smartdriver.alerting.evaluation")
+            .description("Time to evaluate all alert rules for one tick")
+            .register(meterRegistry);
+
+        this.ruleSet = new AlertRuleSet(rules, hysteresis, clearEvaluations, Duration.ofMinutes(repeatMinutes).toMillis());
+        ruleSet.errors().forEach(error -> log.error("{}", error));
+        for (String metric : ruleSet.metrics()) {
+            resolvers.add(resolver(metric));
+        }
+
+        Set<String> enabled = Arrays.stream(enabledNotifiers.split(","))
+            .map(String::strip)
+            .filter(name -> !name.isEmpty())
+            .collect(Collectors.toSet());
+        this.notifiers = availableNotifiers.stream().filter(notifier -> enabled.contains(notifier.name())).toList();
+        enabled.stream()
+            .filter(name -> availableNotifiers.stream().noneMatch(notifier -> notifier.name().equals(name)))
+            .forEach(name -> log.error("Unknown alert notifier: {}", name));
+
+        log.info("AlertingService initialized: {} rules over {} metrics, notifiers={}",
+            ruleSet.size(), ruleSet.metrics().size(), notifiers.stream().map(AlertNotifier::name).toList());
+    }
+
+    @EventListener
+    public void onPipelineFlow(PipelineFlowEvent event) {
+        if (ruleSet.size() == 0) {
+            return;
+        }
+        TickContext context = new TickContext(pipelineSignals.sample(rateWindow), event.flow());
+        double[] values = new double[resolvers.size()];
+        for (int i = 0; i < values.length; i++) {
+            Double value = resolve(resolvers.get(i), context);
+            values[i] = value != null ? value : Double.NaN;
+        }
+
+        List<AlertNotification> notifications;
+        synchronized (ruleSet) {
+            long start = System.nanoTime();
+            notifications = ruleSet.evaluate(values, event.timestamp());
+            evaluationTimer.record(Duration.ofNanos(System.nanoTime() - start));
+            evaluations++;
+        }
+        notifications.forEach(this::dispatch);
+    }
+
+    public Map<String, Object> getAlerts() {
+        List<Map<String, Object>> rules;
+        long evaluated;
+        synchronized (ruleSet) {
+            rules = ruleSet.describe();
+            evaluated = evaluations;
+        }
+        List<AlertNotification> recent;
+        synchronized (history) {
+            recent = new ArrayList<>(history);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("rules", rules);
+        result.put("firing", rules.stream().filter(rule -> "firing".equals(rule.get("state"))).count());
+        result.put("history", recent);
+        result.put("notifiers", notifiers.stream().map(AlertNotifier::name).toList());
+        result.put("errors", ruleSet.errors());
+        result.put("evaluations", evaluated);
+        result.put("timestamp", System.currentTimeMillis());
+        return result;
+    }
+
+    private void dispatch(AlertNotification notification) {
+        synchronized (history) {
+            history.addFirst(notification);
+            while (history.size() > historyCapacity) {
+                history.removeLast();
+            }
+        }
+        meterRegistry.counter("smartdriver.alerts", "severity", notification.severity(), "state", notification.state()).increment();
+        for (AlertNotifier notifier : notifiers) {
+            try {
+                notifier.notify(notification);
+            } catch (Exception e) {
+                log.warn("Alert notifier {} failed for {}: {}", notifier.name(), notification.rule(), e.getMessage());
+            }
+        }
+    }
+
+    private Double resolve(Function<TickContext, Double> resolver, TickContext context) {
+        try {
+            return resolver.apply(context);
+        } catch (Exception e) {
+            log.debug("Failed to resolve alert metric: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private Function<TickContext, Double> resolver(String metric) {
+        if (PipelineSignals.NAMES.contains(metric)) {
+            return context -> context.signals().get(metric);
+        }
+        String[] parts = metric.split("\\.");
+        if (metric.startsWith("queue.") && parts.length >= 3) {
+            String queue = metric.substring("queue.".length(), metric.lastIndexOf('.'));
+            String field = "depth".equals(parts[parts.length - 1]) ? "messages" : parts[parts.length - 1];
+            return context -> number(queueAnalyticsService.getAnalytics(queue).get(field));
+        }
+        if (metric.startsWith("component.") && parts.length == 3 && "healthy".equals(parts[2])) {
+            return context -> componentHealthService.isComponentHealthy(parts[1]) ? 1.0 : 0.0;
+        }
+        if (metric.startsWith("flow_path.") && parts.length == 4 && "healthy".equals(parts[3])) {
+            return context -> componentHealthService.isFlowPathHealthy(parts[1], parts[2]) ? 1.0 : 0.0;
+        }
+        if (metric.startsWith("hop.") && parts.length == 4) {
+            return context -> hopValue(context.flow(), parts[1], parts[2], parts[3]);
+        }
+        log.error("Unknown alert metric {}; rules using it never fire", metric);
+        return context -> null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Double hopValue(Map<String, Object> flow, String from, String to, String field) {
+        Object hops = flow.get("hops");
+        if (!(hops instanceof List<?> hopList)) {
+            return null;
+        }
+        for (Object hop : hopList) {
+            Map<String, Object> view = (Map<String, Object>) hop;
+            if (from.equals(view.get("from")) && to.equals(view.get("to"))) {
+                return number(view.get(field));
+            }
+        }
+        return null;
+    }
+
+    private static Double number(Object value) {
+        return value instanceof Number number ? number.doubleValue() : null;
+    }
+}
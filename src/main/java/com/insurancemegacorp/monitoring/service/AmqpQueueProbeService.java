@@ -0,0 +1,173 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.rabbitmq.client.AMQP;
+import com.rabbitmq.client.Channel;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.Connection;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Queue depth and consumer count straight from the broker with a passive queue.declare over
+ * one long-lived AMQP channel. The broker answers from the queue process itself, so a probe
+ * is a sub-millisecond round trip and costs the management plugin nothing, while the HTTP
+ * API's queue numbers are aggregated by the plugin and only refresh every stats interval.
+ *
+ * A passive declare reports ready messages only, so the probe feeds the ready count and never
+ * the queue depth, which also counts unacknowledged messages; those and the message rates
+ * still come from the management API. Covers {@code rabbitmq.queue.name} plus the display
+ * queues. Off unless {@code rabbitmq.amqp-probe.enabled} is set; the connection comes from
+ * the standard {@code spring.rabbitmq.*} settings (bound automatically on CF), and the probe
+ * stays off when that connection's virtual host is not {@code rabbitmq.vhost}, the one the
+ * management API is asked about.
+ */
+@Slf4j
+@Service
+public class AmqpQueueProbeService {
+
+    /**
+     * One passive declare result; {@code messagesReady} excludes unacknowledged messages.
+     */
+    public record QueueProbe(String queue, long messagesReady, int consumers, double latencyMillis) {
+    }
+
+    private final ObjectProvider<ConnectionFactory> connectionFactoryProvider;
+    private final UpstreamGuardService upstreamGuardService;
+    private final CollectorLogService collectorLog;
+    private final boolean enabled;
+    private final List<String> queues;
+    private Connection connection;
+    private Channel channel;
+
+    public AmqpQueueProbeService(ObjectProvider<ConnectionFactory> connectionFactoryProvider,
+                                 UpstreamGuardService upstreamGuardService,
+                                 CollectorLogService collectorLog,
+                                 @Value("${rabbitmq.amqp-probe.enabled:false}") boolean enabled,
+                                 @Value("${rabbitmq.queue.name:telematics_exchange.crash-detection-group}") String queueName,
+                                 @Value("${rabbitmq.display.queues:}") String displayQueues,
+                                 @Value("${rabbitmq.vhost:${spring.rabbitmq.virtual-host:cf986537-69cc-4107-8b66-5542481de9ba}}") String vhost) {
+        this.connectionFactoryProvider = connectionFactoryProvider;
+        this.upstreamGuardService = upstreamGuardService;
+        this.collectorLog = collectorLog;
+        ConnectionFactory connectionFactory = connectionFactoryProvider.getIfAvailable();
+        boolean sameVhost = connectionFactory != null && vhost.equals(connectionFactory.getVirtualHost());
+        this.enabled = enabled && sameVhost;
+
+        Set<String> probed = new LinkedHashSet<>();
+        probed.add(queueName);
+        Arrays.stream(displayQueues.split(","))
+            .map(String::strip)
+            .filter(queue -> !queue.isEmpty())
+            .forEach(probed::add);
+        this.queues = List.copyOf(probed);
+
+        if (enabled && connectionFactory == null) {
+            log.warn("AMQP queue probe enabled but no RabbitMQ ConnectionFactory is available; using the management API only");
+        } else if (enabled && !sameVhost) {
+            log.warn("AMQP queue probe enabled but its connection is to vhost {} while rabbitmq.vhost is {}; using the management API only",
+                connectionFactory.getVirtualHost(), vhost);
+        } else if (this.enabled) {
+            log.info("AMQP queue probe enabled for queues: {}", queues);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Passively declare the queue. Returns null when the probe is disabled or the queue cannot
+     * be read; a missing queue closes the channel on the broker side and the next probe opens
+     * a new one.
+     */
+    public QueueProbe probe(String queue) {
+        if (!enabled) {
+            return null;
+        }
+        try {
+            return upstreamGuardService.call(UpstreamGuardService.RABBITMQ_AMQP, () -> declarePassive(queue));
+        } catch (Exception e) {
+            collectorLog.warn(log, "amqp-probe:" + queue, "AMQP probe of queue {} failed: {}", queue, e.getMessage());
+            return null;
+        }
+    }
+
+    public Map<String, Object> probeAll() {
+        List<Map<String, Object>> results = new ArrayList<>();
+        if (enabled) {
+            for (String queue : queues) {
+                QueueProbe probe = probe(queue);
+                Map<String, Object> view = new HashMap<>();
+                view.put("queue", queue);
+                view.put("ok", probe != null);
+                if (probe != null) {
+                    view.put("messages_ready", probe.messagesReady());
+                    view.put("consumers", probe.consumers());
+                    view.put("latency_ms", probe.latencyMillis());
+                }
+                results.add(view);
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("enabled", enabled);
+        result.put("queues", results);
+        result.put("timestamp", System.currentTimeMillis());
+        return result;
+    }
+
+    private synchronized QueueProbe declarePassive(String queue) {
+        long start = System.nanoTime();
+        try {
+            AMQP.Queue.DeclareOk declareOk = channel().queueDeclarePassive(queue);
+            double latencyMillis = (System.nanoTime() - start) / (double) TimeUnit.MILLISECONDS.toNanos(1);
+            return new QueueProbe(queue, declareOk.getMessageCount(), declareOk.getConsumerCount(), latencyMillis);
+        } catch (IOException e) {
+            closeChannel();
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new IllegalStateException(cause.getMessage(), e);
+        }
+    }
+
+    private Channel channel() {
+        if (channel == null || !channel.isOpen()) {
+            if (connection == null || !connection.isOpen()) {
+                connection = connectionFactoryProvider.getObject().createConnection();
+            }
+            channel = connection.createChannel(false);
+        }
+        return channel;
+    }
+
+    private void closeChannel() {
+        if (channel != null && channel.isOpen()) {
+            try {
+                channel.close();
+            } catch (Exception e) {
+                log.debug("Could not close AMQP probe channel: {}", e.getMessage());
+            }
+        }
+        channel = null;
+    }
+
+    @PreDestroy
+    public synchronized void shutdown() {
+        closeChannel();
+        if (connection != null) {
+            connection.close();
+        }
+    }
+}
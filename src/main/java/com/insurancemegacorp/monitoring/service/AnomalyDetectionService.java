@@ -0,0 +1,261 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.AnomalyEvent;
+import com.insurancemegacorp.monitoring.dto.PipelineFlowEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Online anomaly detection over the pipeline's key series, sampled once per flow tick.
+ *
+ * Each series keeps an exponentially weighted mean and variance, so a sample costs O(1)
+ * time and memory. A sample is scored against the baseline before it is folded in, which
+ * lets a step change (throughput dropping to zero, a queue filling up) be flagged on the
+ * first tick it shows up. While a series is anomalous it only nudges its baseline, so a
+ * sustained outage is not learnt as normal within a few ticks, but a lasting shift is
+ * eventually accepted.
+ *
+ * Throughput series flag collapses (also below a fixed fraction of the baseline, for series
+ * too steady to have a meaningful deviation) and spikes; queue depths, the processor's
+ * invalid-message ratio and JDBC error rates flag increases only.
+ */
+@Slf4j
+@Service
+public class AnomalyDetectionService {
+
+    private enum Direction { DROP, RISE, BOTH }
+
+    /**
+     * @param floor smallest deviation treated as meaningful, in the series' unit, so a flat
+     *              series does not turn noise into huge z-scores
+     */
+    private record SeriesSpec(String name, Direction direction, double floor, String dropKind, String riseKind) {
+    }
+
+    private static final List<SeriesSpec> FIXED_SERIES = List.of(
+        new SeriesSpec("exchange.publish_in_rate", Direction.BOTH, 1.0, "throughput_collapse", "throughput_spike"),
+        new SeriesSpec("exchange.publish_out_rate", Direction.BOTH, 1.0, "throughput_collapse", "throughput_spike"),
+        new SeriesSpec("processor.messages_rate", Direction.DROP, 1.0, "throughput_collapse", null),
+        new SeriesSpec("processor.invalid_ratio", Direction.RISE, 0.01, null, "invalid_messages"),
+        new SeriesSpec("jdbc_sink.rows_rate", Direction.DROP, 0.5, "throughput_collapse", null),
+        new SeriesSpec("jdbc_sink.error_rate", Direction.RISE, 0.1, null, "database_errors"),
+        new SeriesSpec("hdfs_sink.messages_rate", Direction.DROP, 1.0, "throughput_collapse", null)
+    );
+
+    private final PipelineSignals pipelineSignals;
+    private final QueueAnalyticsService queueAnalyticsService;
+    private final MetricsPushService metricsPushService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Detector> detectors = new ConcurrentHashMap<>();
+    private final Deque<AnomalyEvent> anomalyLog = new ArrayDeque<>();
+    private final Duration rateWindow;
+    private final double smoothing;
+    private final double zThreshold;
+    private final double collapseFraction;
+    private final int warmupSamples;
+    private final int clearSamples;
+    private final int logCapacity;
+
+    public AnomalyDetectionService(PipelineSignals pipelineSignals,
+                                   QueueAnalyticsService queueAnalyticsService,
+                                   MetricsPushService metricsPushService,
+                                   ApplicationEventPublisher eventPublisher,
+                                   MeterRegistry meterRegistry,
+                                   @Value("${anomaly.rate-window-seconds:10}") long rateWindowSeconds,
+                                   @Value("${anomaly.smoothing:0.1}") double smoothing,
+                                   @Value("${anomaly.z-threshold:4.0}") double zThreshold,
+                                   @Value("${anomaly.collapse-fraction:0.2}") double collapseFraction,
+                                   @Value("${anomaly.warmup-samples:12}") int warmupSamples,
+                                   @Value("${anomaly.clear-samples:2}") int clearSamples,
+                                   @Value("${anomaly.log-capacity:500}") int logCapacity) {
+        this.pipelineSignals = pipelineSignals;
+        this.queueAnalyticsService = queueAnalyticsService;
+        this.metricsPushService = metricsPushService;
+        this.eventPublisher = eventPublisher;
+        this.meterRegistry = meterRegistry;
+        this.rateWindow = Duration.ofSeconds(rateWindowSeconds);
+        this.smoothing = smoothing;
+        this.zThreshold = zThreshold;
+        this.collapseFraction = collapseFraction;
+        this.warmupSamples = Math.max(2, warmupSamples);
+        this.clearSamples = Math.max(1, clearSamples);
+        this.logCapacity = logCapacity;
+        log.info("AnomalyDetectionService initialized: rateWindow={}s, smoothing={}, zThreshold={}, warmup={} samples",
+            rateWindowSeconds, smoothing, zThreshold, this.warmupSamples);
+    }
+
+    @EventListener
+    public void onPipelineFlow(PipelineFlowEvent event) {
+        long now = event.timestamp();
+        Map<String, Double> samples = pipelineSignals.sample(rateWindow);
+        for (SeriesSpec spec : FIXED_SERIES) {
+            Double value = samples.get(spec.name());
+            if (value != null) {
+                observe(spec, value, now);
+            }
+        }
+
+        Map<String, Object> queues = queueAnalyticsService.getAllAnalytics();
+        @SuppressWarnings("unchecked")
+        Map<String, Map<String, Object>> perQueue = (Map<String, Map<String, Object>>) queues.get("queues");
+        perQueue.forEach((queue, analytics) -> {
+            Object messages = analytics.get("messages");
+            if (messages instanceof Number depth) {
+                observe(new SeriesSpec("queue." + queue + ".depth", Direction.RISE, 10.0, null, "backlog_explosion"),
+                    depth.doubleValue(), now);
+            }
+        });
+    }
+
+    /**
+     * Currently open anomalies, the most recent log entries and each detector's baseline.
+     */
+    public Map<String, Object> getAnomalies() {
+        List<AnomalyEvent> active = new ArrayList<>();
+        Map<String, Object> series = new TreeMap<>();
+        detectors.forEach((name, detector) -> {
+            synchronized (detector) {
+                if (detector.open != null) {
+                    active.add(detector.open);
+                }
+                series.put(name, detector.view());
+            }
+        });
+
+        List<AnomalyEvent> recent;
+        synchronized (anomalyLog) {
+            recent = new ArrayList<>(anomalyLog);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("active", active);
+        result.put("log", recent);
+        result.put("series", series);
+        result.put("z_threshold", zThreshold);
+        result.put("timestamp", System.currentTimeMillis());
+        return result;
+    }
+
+    private void observe(SeriesSpec spec, double value, long now) {
+        Detector detector = detectors.computeIfAbsent(spec.name(), name -> new Detector(spec));
+        AnomalyEvent event;
+        synchronized (detector) {
+            event = detector.observe(value, now);
+        }
+        if (event != null) {
+            emit(event);
+        }
+    }
+
+    private void emit(AnomalyEvent event) {
+        synchronized (anomalyLog) {
+            anomalyLog.addFirst(event);
+            while (anomalyLog.size() > logCapacity) {
+                anomalyLog.removeLast();
+            }
+        }
+        meterRegistry.counter("smartdriver.anomalies", "kind", event.kind(), "state", event.state()).increment();
+        if ("open".equals(event.state())) {
+            log.warn("Anomaly on {}: {} (value={}, expected={}, z={})",
+                event.series(), event.kind(), event.value(), event.expected(), event.zScore());
+        } else {
+            log.info("Anomaly on {} resolved: {} (value={}, expected={})",
+                event.series(), event.kind(), event.value(), event.expected());
+        }
+        eventPublisher.publishEvent(event);
+        metricsPushService.broadcast("anomaly", event);
+    }
+
+    private final class Detector {
+
+        private final SeriesSpec spec;
+        private long samples = 0L;
+        private double mean;
+        private double variance;
+        private double lastValue;
+        private double lastZ;
+        private int normalStreak = 0;
+        private AnomalyEvent open;
+
+        private Detector(SeriesSpec spec) {
+            this.spec = spec;
+        }
+
+        private AnomalyEvent observe(double value, long now) {
+            lastValue = value;
+            if (samples < warmupSamples) {
+                // Plain running mean and variance until there is enough history to smooth
+                samples++;
+                double delta = value - mean;
+                mean += delta / samples;
+                variance += (delta * (value - mean) - variance) / samples;
+                return null;
+            }
+
+            double deviation = Math.max(Math.sqrt(variance), Math.max(spec.floor(), 0.05 * Math.abs(mean)));
+            double z = (value - mean) / deviation;
+            lastZ = z;
+            String kind = classify(value, z);
+
+            double expected = mean;
+            double alpha = kind != null ? smoothing * 0.1 : smoothing;
+            double delta = value - mean;
+            mean += alpha * delta;
+            variance = (1 - alpha) * (variance + alpha * delta * delta);
+            samples++;
+
+            if (kind != null) {
+                normalStreak = 0;
+                if (open == null) {
+                    open = new AnomalyEvent(spec.name(), kind, "open", value, expected, z, now, now);
+                    return open;
+                }
+                return null;
+            }
+            if (open != null && ++normalStreak >= clearSamples) {
+                AnomalyEvent resolved = new AnomalyEvent(spec.name(), open.kind(), "resolved", value, expected, z, open.startedAt(), now);
+                open = null;
+                normalStreak = 0;
+                return resolved;
+            }
+            return null;
+        }
+
+        private String classify(double value, double z) {
+            boolean drop = spec.direction() != Direction.RISE
+                && (z <= -zThreshold || (mean >= spec.floor() && value <= collapseFraction * mean));
+            if (drop) {
+                return spec.dropKind();
+            }
+            boolean rise = spec.direction() != Direction.DROP && z >= zThreshold;
+            return rise ? spec.riseKind() : null;
+        }
+
+        private Map<String, Object> view() {
+            Map<String, Object> view = new HashMap<>();
+            view.put("value", lastValue);
+            view.put("mean", mean);
+            view.put("std_dev", Math.sqrt(variance));
+            view.put("z_score", lastZ);
+            view.put("samples", samples);
+            view.put("warming_up", samples < warmupSamples);
+            view.put("anomalous", open != null);
+            return view;
+        }
+    }
+}
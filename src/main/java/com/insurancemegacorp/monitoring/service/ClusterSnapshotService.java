@@ -0,0 +1,280 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerInitializedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Snapshot fan-out between UI instances. The leader reads the dashboard endpoints listed in
+ * {@code cluster.snapshot.paths} from itself every {@code cluster.snapshot.interval-ms} and
+ * publishes the responses on the {@code cluster.snapshot.exchange} fanout exchange; it also
+ * relays its push frames of the {@code cluster.snapshot.relay-types}. Followers cache the
+ * responses, which {@code SnapshotServingFilter} serves in place of local collection, and
+ * deliver the relayed frames to their own dashboards, so what reaches the upstreams is one
+ * instance's traffic however many UI instances run.
+ *
+ * The leader only reads the paths followers asked for: each interval a follower publishes the
+ * paths requested from it within {@code cluster.snapshot.demand-ttl-ms}, and the leader reads
+ * those until they have gone unrequested that long. With no dashboard open on a follower the
+ * leader reads nothing, and an endpoint no dashboard polls, such as the Greenplum stats, is
+ * only read while something asks a follower for it. A path's first request on a follower is
+ * collected locally.
+ *
+ * Every instance listens, leader included, so a follower that takes over keeps its last
+ * copy until its own collectors have caught up. An instance ignores what it published itself.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "cluster.leader-election", havingValue = "rabbitmq")
+public class ClusterSnapshotService implements MessageListener {
+
+    private static final String SNAPSHOT = "snapshot";
+    private static final String PUSH = "push";
+    private static final String DEMAND = "demand";
+
+    private record CachedResponse(int status, String body, long receivedAt) {
+    }
+
+    private final LeaderElection leaderElection;
+    private final MetricsPushService metricsPushService;
+    private final RabbitTemplate rabbitTemplate;
+    private final WebClient webClient;
+    private final ObjectMapper objectMapper;
+    private final CollectorLogService collectorLog;
+    private final String exchange;
+    private final List<String> paths;
+    private final Set<String> relayTypes;
+    private final long timeoutMillis;
+    private final long demandTtlMillis;
+    private final Map<String, CachedResponse> responses = new ConcurrentHashMap<>();
+    // Path -> when it was last requested of this instance as a follower
+    private final Map<String, Long> requested = new ConcurrentHashMap<>();
+    // Path -> when a follower last published it as wanted
+    private final Map<String, Long> demanded = new ConcurrentHashMap<>();
+    private final AtomicLong published = new AtomicLong();
+    private final AtomicLong received = new AtomicLong();
+    private volatile int localPort = -1;
+    private volatile String lastLeader;
+    private volatile long lastReceivedAt = 0L;
+    private volatile String lastError;
+
+    public ClusterSnapshotService(LeaderElection leaderElection,
+                                  MetricsPushService metricsPushService,
+                                  RabbitTemplate rabbitTemplate,
+                                  WebClient webClient,
+                                  ObjectMapper objectMapper,
+                                  CollectorLogService collectorLog,
+                                  @Value("${cluster.snapshot.exchange:smartdriver.snapshots}") String exchange,
+                                  @Value("${cluster.snapshot.paths:/api/metrics,/api/components/health,/api/rabbitmq/health,/api/rabbitmq/queue,/api/rabbitmq/queues,/api/rabbitmq/queues/analytics,/api/rabbitmq/exchange/throughput,/api/rabbitmq/exchange/health,/api/telematics/exchange/queues,/api/telemetry/generator/metrics,/api/events-processor/metrics,/api/vehicle-events/queue/metrics,/api/jdbc-sink/metrics,/api/hdfs-sink/metrics,/api/scaling,/api/pipeline/flow,/api/anomalies,/api/alerts,/api/greenplum/stats}") String paths,
+                                  @Value("${cluster.snapshot.relay-types:pipeline_metrics,alert,anomaly}") String relayTypes,
+                                  @Value("${cluster.snapshot.timeout-ms:5000}") long timeoutMillis,
+                                  @Value("${cluster.snapshot.demand-ttl-ms:30000}") long demandTtlMillis) {
+        this.leaderElection = leaderElection;
+        this.metricsPushService = metricsPushService;
+        this.rabbitTemplate = rabbitTemplate;
+        this.webClient = webClient;
+        this.objectMapper = objectMapper;
+        this.collectorLog = collectorLog;
+        this.exchange = exchange;
+        this.paths = split(paths);
+        this.relayTypes = Set.copyOf(split(relayTypes));
+        this.timeoutMillis = timeoutMillis;
+        this.demandTtlMillis = demandTtlMillis;
+        metricsPushService.setRelay(this::relay);
+        log.info("Cluster snapshots on exchange {}: {} paths, relaying {}", exchange, this.paths.size(), this.relayTypes);
+    }
+
+    private static List<String> split(String list) {
+        return Arrays.stream(list.split(","))
+            .map(String::trim)
+            .filter(s -> !s.isEmpty())
+            .collect(Collectors.toList());
+    }
+
+    @EventListener
+    public void onWebServerInitialized(WebServerInitializedEvent event) {
+        localPort = event.getWebServer().getPort();
+    }
+
+    @Scheduled(fixedDelayString = "${cluster.snapshot.interval-ms:5000}", initialDelayString = "${cluster.snapshot.interval-ms:5000}")
+    public void publishSnapshot() {
+        long now = System.currentTimeMillis();
+        if (!leaderElection.isLeader()) {
+            publishDemand(now);
+            return;
+        }
+        List<String> wanted = recent(demanded, now);
+        if (localPort < 0 || wanted.isEmpty()) {
+            return;
+        }
+        List<Mono<Map.Entry<String, ObjectNode>>> reads = wanted.stream().map(this::read).collect(Collectors.toList());
+        // Each read settles by the deadline on its own, so this never waits longer
+        List<Map.Entry<String, ObjectNode>> results = Flux.merge(reads).collectList().block();
+
+        ObjectNode snapshot = objectMapper.createObjectNode();
+        snapshot.put("type", SNAPSHOT);
+        snapshot.put("leader", leaderElection.instanceId());
+        snapshot.put("timestamp", now);
+        ObjectNode bodies = snapshot.putObject("responses");
+        results.forEach(result -> bodies.set(result.getKey(), result.getValue()));
+        if (send(snapshot)) {
+            published.incrementAndGet();
+        }
+    }
+
+    private void publishDemand(long now) {
+        List<String> wanted = recent(requested, now);
+        if (wanted.isEmpty()) {
+            return;
+        }
+        ObjectNode demand = objectMapper.createObjectNode();
+        demand.put("type", DEMAND);
+        demand.put("instance", leaderElection.instanceId());
+        wanted.forEach(demand.putArray("paths")::add);
+        send(demand);
+    }
+
+    /**
+     * The paths seen within the demand TTL, forgetting the rest.
+     */
+    private List<String> recent(Map<String, Long> seen, long now) {
+        seen.values().removeIf(at -> now - at > demandTtlMillis);
+        return paths.stream().filter(seen::containsKey).collect(Collectors.toList());
+    }
+
+    private Mono<Map.Entry<String, ObjectNode>> read(String path) {
+        return webClient.get()
+            .uri("http://127.0.0.1:" + localPort + path)
+            .exchangeToMono(response -> response.bodyToMono(String.class)
+                .defaultIfEmpty("")
+                .map(body -> Map.entry(path, response(response.statusCode().value(), body))))
+            .timeout(Duration.ofMillis(timeoutMillis))
+            .onErrorResume(e -> {
+                log.debug("Snapshot read of {} failed: {}", path, e.getMessage());
+                return Mono.empty();
+            });
+    }
+
+    private ObjectNode response(int status, String body) {
+        ObjectNode response = objectMapper.createObjectNode();
+        response.put("status", status);
+        response.put("body", body);
+        return response;
+    }
+
+    private void relay(String type, String frame) {
+        if (!relayTypes.contains(type) || !leaderElection.isLeader()) {
+            return;
+        }
+        ObjectNode push = objectMapper.createObjectNode();
+        push.put("type", PUSH);
+        push.put("leader", leaderElection.instanceId());
+        push.put("push_type", type);
+        push.put("frame", frame);
+        send(push);
+    }
+
+    private boolean send(ObjectNode payload) {
+        try {
+            rabbitTemplate.send(exchange, "", new Message(objectMapper.writeValueAsBytes(payload)));
+            lastError = null;
+            collectorLog.onChange(log, "snapshot-publish", "ok", "Publishing cluster snapshots to {}", exchange);
+            return true;
+        } catch (Exception e) {
+            lastError = e.getMessage();
+            collectorLog.onChange(log, "snapshot-publish", "failed", "Cannot publish cluster snapshots to {}: {}", exchange, e.getMessage());
+            return false;
+        }
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        try {
+            JsonNode payload = objectMapper.readTree(new String(message.getBody(), StandardCharsets.UTF_8));
+            if (DEMAND.equals(payload.path("type").asText())) {
+                // Kept by every instance, so a follower that takes over knows what to read
+                long now = System.currentTimeMillis();
+                payload.path("paths").forEach(path -> demanded.put(path.asText(), now));
+                return;
+            }
+            String leader = payload.path("leader").asText();
+            if (leader.equals(leaderElection.instanceId())) {
+                return;
+            }
+            lastLeader = leader;
+            if (PUSH.equals(payload.path("type").asText())) {
+                metricsPushService.deliver(payload.path("push_type").asText(), payload.path("frame").asText());
+                return;
+            }
+            long now = System.currentTimeMillis();
+            payload.path("responses").properties().forEach(entry -> responses.put(entry.getKey(),
+                new CachedResponse(entry.getValue().path("status").asInt(), entry.getValue().path("body").asText(), now)));
+            lastReceivedAt = now;
+            received.incrementAndGet();
+        } catch (Exception e) {
+            log.debug("Ignoring unreadable cluster snapshot: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * The leader's last response for {@code path} if this instance is a follower and the
+     * response is at most {@code maxAgeMillis} old, otherwise null. On a follower the request
+     * also asks the leader to keep the path in its snapshots.
+     *
+     * @return status and JSON body
+     */
+    public Map.Entry<Integer, String> lookup(String path, long maxAgeMillis) {
+        if (leaderElection.isLeader()) {
+            return null;
+        }
+        if (paths.contains(path)) {
+            requested.put(path, System.currentTimeMillis());
+        }
+        CachedResponse cached = responses.get(path);
+        if (cached == null || System.currentTimeMillis() - cached.receivedAt() > maxAgeMillis) {
+            return null;
+        }
+        return Map.entry(cached.status(), cached.body());
+    }
+
+    public Map<String, Object> getStatus() {
+        Map<String, Object> status = new HashMap<>();
+        status.put("exchange", exchange);
+        status.put("paths", paths);
+        status.put("relay_types", relayTypes);
+        long now = System.currentTimeMillis();
+        status.put("requested_paths", recent(requested, now));
+        status.put("demanded_paths", recent(demanded, now));
+        status.put("snapshots_published", published.get());
+        status.put("snapshots_received", received.get());
+        status.put("cached_paths", responses.size());
+        status.put("last_leader", lastLeader);
+        status.put("last_received_at", lastReceivedAt > 0 ? lastReceivedAt : null);
+        status.put("last_error", lastError);
+        return status;
+    }
+}
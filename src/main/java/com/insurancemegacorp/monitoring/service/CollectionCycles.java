@@ -0,0 +1,24 @@
+package com.insurancemegacorp.monitoring.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Timer shared by the scheduled collection cycles (pipeline metrics, health checks, discovery
+ * refresh), one series per cycle, so a slow round shows up next to the upstream it waited on.
+ */
+final class CollectionCycles {
+
+    static final String METRIC = "smartdriver.collection.cycle";
+
+    private CollectionCycles() {
+    }
+
+    static Timer timer(MeterRegistry meterRegistry, String cycle) {
+        return Timer.builder(METRIC)
+            .description("Duration of a scheduled collection cycle")
+            .tag("cycle", cycle)
+            .publishPercentileHistogram()
+            .register(meterRegistry);
+    }
+}
@@ -0,0 +1,144 @@
+package com.insurancemegacorp.monitoring.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.event.Level;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Logging for the collection hot path, where the same event repeats on every scrape and for
+ * every dashboard viewer.
+ *
+ * <ul>
+ *   <li>{@link #warn}/{@link #error}: rate limited per event. The first occurrence is logged,
+ *       repeats within the interval are counted, and the next line reports how many were
+ *       suppressed.</li>
+ *   <li>{@link #onChange}: logged at INFO only when the reported state differs from the last
+ *       one logged for the event, at DEBUG otherwise.</li>
+ *   <li>{@link #sampled}: logged at INFO once every N occurrences.</li>
+ * </ul>
+ *
+ * Lines carry {@code event} and {@code suppressed} as SLF4J key-value pairs for structured
+ * encoders; suppressed lines are counted in {@code smartdriver.log.suppressed}.
+ */
+@Service
+public class CollectorLogService {
+
+    private final Map<String, EventState> events = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final long intervalMillis;
+    private final long sampleEvery;
+
+    public CollectorLogService(MeterRegistry meterRegistry,
+                               @Value("${logging.collector.rate-limit-seconds:60}") long rateLimitSeconds,
+                               @Value("${logging.collector.sample-every:100}") long sampleEvery) {
+        this.meterRegistry = meterRegistry;
+        this.intervalMillis = rateLimitSeconds * 1000;
+        this.sampleEvery = Math.max(1, sampleEvery);
+    }
+
+    public void warn(Logger log, String event, String format, Object... args) {
+        rateLimited(log, Level.WARN, event, format, args);
+    }
+
+    public void error(Logger log, String event, String format, Object... args) {
+        rateLimited(log, Level.ERROR, event, format, args);
+    }
+
+    /**
+     * Log at INFO when {@code state} differs from the state last logged for the event.
+     */
+    public void onChange(Logger log, String event, Object state, String format, Object... args) {
+        EventState eventState = state(log, event);
+        boolean changed;
+        synchronized (eventState) {
+            eventState.lastSeen = System.currentTimeMillis();
+            changed = !eventState.hasState || !Objects.equals(eventState.state, state);
+            eventState.state = state;
+            eventState.hasState = true;
+        }
+        if (changed) {
+            emit(log, Level.INFO, event, 0, format, args);
+        } else if (log.isDebugEnabled()) {
+            emit(log, Level.DEBUG, event, 0, format, args);
+        }
+    }
+
+    /**
+     * Log at INFO once every {@code logging.collector.sample-every} occurrences of the event.
+     */
+    public void sampled(Logger log, String event, String format, Object... args) {
+        EventState eventState = state(log, event);
+        long skipped;
+        synchronized (eventState) {
+            eventState.lastSeen = System.currentTimeMillis();
+            if (eventState.occurrences++ % sampleEvery != 0) {
+                eventState.suppressed++;
+                return;
+            }
+            skipped = eventState.suppressed;
+            eventState.suppressed = 0;
+        }
+        emit(log, Level.INFO, event, skipped, format, args);
+    }
+
+    /**
+     * Events nobody has reported for a while are forgotten; event keys often carry an
+     * instance URL and instances come and go.
+     */
+    @Scheduled(fixedDelay = 300000)
+    public void pruneIdleEvents() {
+        long cutoff = System.currentTimeMillis() - Math.max(intervalMillis * 2, 600000);
+        events.values().removeIf(state -> state.lastSeen < cutoff);
+    }
+
+    private void rateLimited(Logger log, Level level, String event, String format, Object... args) {
+        if (!log.isEnabledForLevel(level)) {
+            return;
+        }
+        EventState eventState = state(log, event);
+        long now = System.currentTimeMillis();
+        long suppressed;
+        synchronized (eventState) {
+            eventState.lastSeen = now;
+            if (eventState.lastLogged > 0 && now - eventState.lastLogged < intervalMillis) {
+                eventState.suppressed++;
+                meterRegistry.counter("smartdriver.log.suppressed", "logger", log.getName(), "level", level.name()).increment();
+                return;
+            }
+            suppressed = eventState.suppressed;
+            eventState.suppressed = 0;
+            eventState.lastLogged = now;
+        }
+        emit(log, level, event, suppressed, format, args);
+    }
+
+    private void emit(Logger log, Level level, String event, long suppressed, String format, Object... args) {
+        String message = suppressed > 0
+            ? format + " (" + suppressed + " similar suppressed)"
+            : format;
+        log.atLevel(level)
+            .addKeyValue("event", event)
+            .addKeyValue("suppressed", suppressed)
+            .log(message, args);
+    }
+
+    private EventState state(Logger log, String event) {
+        return events.computeIfAbsent(log.getName() + "|" + event, key -> new EventState());
+    }
+
+    private static final class EventState {
+        private long lastLogged = 0L;
+        private long lastSeen = System.currentTimeMillis();
+        private long suppressed = 0L;
+        private long occurrences = 0L;
+        private Object state;
+        private boolean hasState = false;
+    }
+}
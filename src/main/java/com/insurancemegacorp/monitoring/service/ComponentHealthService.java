@@ -1,11 +1,12 @@
 package com.insurancemegacorp.monitoring.service;
 
+import com.insurancemegacorp.monitoring.dto.InstanceHealth;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -13,16 +14,16 @@ import java.util.concurrent.ConcurrentHashMap;
 @Service
 public class ComponentHealthService {
 
-    private final RestTemplate restTemplate;
+    private final HealthProbeService healthProbeService;
     private final Map<String, Boolean> componentHealthStatus = new ConcurrentHashMap<>();
     private final Map<String, String> componentUrls = new ConcurrentHashMap<>();
     
-    public ComponentHealthService(RestTemplate restTemplate,
+    public ComponentHealthService(HealthProbeService healthProbeService,
                                 @Value("${component.health.generator-url:http://localhost:8082/actuator/health}") String generatorUrl,
                                 @Value("${component.health.processor-url:http://localhost:8080/actuator/health}") String processorUrl,
                                 @Value("${component.health.hdfs-url:http://localhost:8081/actuator/health}") String hdfsUrl,
                                 @Value("${component.health.jdbc-url:http://localhost:8083/actuator/health}") String jdbcUrl) {
-        this.restTemplate = restTemplate;
+        this.healthProbeService = healthProbeService;
         
         // Initialize component URLs and default health status
         componentUrls.put("generator", generatorUrl);
@@ -44,30 +45,14 @@ public class ComponentHealthService {
     }
     
     public void checkAllComponentHealth() {
-        componentUrls.forEach((component, url) -> {
-            boolean isHealthy = checkSingleComponentHealth(component, url);
-            componentHealthStatus.put(component, isHealthy);
-        });
-    }
-    
-    private boolean checkSingleComponentHealth(String componentName, String healthUrl) {
-        try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.getForEntity(healthUrl, (Class<Map<String, Object>>) (Class<?>) Map.class);
-            
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> healthInfo = response.getBody();
-                String status = (String) healthInfo.get("status");
-                boolean isHealthy = "UP".equalsIgnoreCase(status);
-                
-                log.debug("Component {} health check: status={}, healthy={}", componentName, status, isHealthy);
-                return isHealthy;
-            } else {
-                log.warn("Component {} health check failed with status: {}", componentName, response.getStatusCode());
-                return false;
-            }
-        } catch (Exception e) {
-            log.warn("Component {} health check failed: {}", componentName, e.getMessage());
-            return false;
+        List<HealthProbeService.ProbeTarget> targets = new ArrayList<>();
+        componentUrls.forEach((component, url) -> targets.add(
+            new HealthProbeService.ProbeTarget(component, url, url, UpstreamGuardService.component(component))));
+        
+        for (InstanceHealth health : healthProbeService.probeAll(targets)) {
+            log.debug("Component {} health check: status={}, healthy={}, latency={}ms",
+                health.component(), health.status(), health.healthy(), health.latencyMillis());
+            componentHealthStatus.put(health.component(), health.healthy());
         }
     }
     
@@ -79,6 +64,10 @@ public class ComponentHealthService {
         return Map.copyOf(componentHealthStatus);
     }
     
+    public Map<String, Object> getComponentHealthDetails() {
+        return healthProbeService.getHealthModel(componentUrls.keySet());
+    }
+    
     public boolean isFlowPathHealthy(String sourceComponent, String targetComponent) {
         // A flow path is healthy if both source and target components are healthy
         return isComponentHealthy(sourceComponent) && isComponentHealthy(targetComponent);
@@ -0,0 +1,74 @@
+package com.insurancemegacorp.monitoring.service;
+
+/**
+ * Count-Min sketch: depth rows of width counters. An estimate is the minimum of a key's
+ * counters, so it never undercounts and overcounts by at most e / width of the total weight
+ * with probability 1 - e^-depth. Counters are doubles so the whole sketch can be decayed with
+ * {@link #scale(double)}; updates are conservative (only counters below the new estimate are
+ * raised), which tightens the overcount for skewed streams. Not thread-safe.
+ */
+final class CountMinSketch {
+
+    private final int width;
+    private final double[][] counters;
+    private double total;
+
+    CountMinSketch(int depth, int width) {
+        if (depth < 1 || width < 1) {
+            throw new IllegalArgumentException("Count-Min sketch needs a positive depth and width: " + depth + "x" + width);
+        }
+        this.width = width;
+        this.counters = new double[depth][width];
+    }
+
+    /**
+     * Add weight to a key and return its new estimate.
+     */
+    double add(String key, double weight) {
+        long hash = HyperLogLog.hash(key);
+        int[] slots = slots(hash);
+        double estimate = Double.MAX_VALUE;
+        for (int row = 0; row < counters.length; row++) {
+            estimate = Math.min(estimate, counters[row][slots[row]]);
+        }
+        estimate += weight;
+        for (int row = 0; row < counters.length; row++) {
+            if (counters[row][slots[row]] < estimate) {
+                counters[row][slots[row]] = estimate;
+            }
+        }
+        total += weight;
+        return estimate;
+    }
+
+    void scale(double factor) {
+        for (double[] row : counters) {
+            for (int i = 0; i < row.length; i++) {
+                row[i] *= factor;
+            }
+        }
+        total *= factor;
+    }
+
+    double total() {
+        return total;
+    }
+
+    /**
+     * Worst-case overcount of an estimate, with probability 1 - e^-depth.
+     */
+    double errorBound() {
+        return Math.E / width * total;
+    }
+
+    private int[] slots(long hash) {
+        // Kirsch-Mitzenmacher: row hashes derived from the two halves of one 64-bit hash
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        int[] slots = new int[counters.length];
+        for (int row = 0; row < counters.length; row++) {
+            slots[row] = Math.floorMod(h1 + row * h2, width);
+        }
+        return slots;
+    }
+}
@@ -0,0 +1,388 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.ServiceInstancesChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reset-aware engine for cumulative counters scraped from Prometheus endpoints and the
+ * RabbitMQ management API.
+ *
+ * Every series is tracked per instance. A value lower than the previous sample is treated
+ * as a counter reset (the instance restarted), exactly like Prometheus rate()/increase():
+ * the counter is assumed to have restarted from zero and the new value is added on top of
+ * what was already counted. Totals therefore never go backwards, and instances that
+ * disappear keep contributing what they counted before they left.
+ */
+@Slf4j
+@Service
+public class CounterRateService {
+
+    private final Map<String, CounterSeries> series = new ConcurrentHashMap<>();
+    private final long retentionMillis;
+    private final Duration defaultWindow;
+
+    public CounterRateService(
+            @Value("${metrics.counters.retention-seconds:600}") long retentionSeconds,
+            @Value("${metrics.counters.rate-window-seconds:60}") long rateWindowSeconds) {
+        this.retentionMillis = retentionSeconds * 1000;
+        this.defaultWindow = Duration.ofSeconds(rateWindowSeconds);
+        log.info("CounterRateService initialized: retention={}s, default rate window={}s", retentionSeconds, rateWindowSeconds);
+    }
+
+    public void record(String name, String instance, double value) {
+        record(name, instance, value, System.currentTimeMillis());
+    }
+
+    public void record(String name, String instance, double value, long timestampMillis) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return;
+        }
+        series.computeIfAbsent(name, n -> new CounterSeries(n, retentionMillis)).record(instance, value, timestampMillis);
+    }
+
+    /**
+     * Reset-corrected cumulative value summed over every instance ever seen for the series.
+     */
+    public double total(String name) {
+        CounterSeries counterSeries = series.get(name);
+        return counterSeries != null ? counterSeries.total() : 0.0;
+    }
+
+    /**
+     * Reset-corrected increase since this UI first observed the series. Instances that join
+     * later are counted from zero, since everything they counted happened after startup.
+     */
+    public double increaseSinceStart(String name) {
+        CounterSeries counterSeries = series.get(name);
+        return counterSeries != null ? counterSeries.increaseSinceStart() : 0.0;
+    }
+
+    public double increase(String name) {
+        return increase(name, defaultWindow);
+    }
+
+    /**
+     * Prometheus-style increase() over the window, summed across instances.
+     */
+    public double increase(String name, Duration window) {
+        CounterSeries counterSeries = series.get(name);
+        if (counterSeries == null) {
+            return 0.0;
+        }
+        long now = System.currentTimeMillis();
+        double sum = 0.0;
+        for (InstanceCounter counter : counterSeries.instances()) {
+            sum += counter.increase(now, window.toMillis());
+        }
+        return sum;
+    }
+
+    public double rate(String name) {
+        return rate(name, defaultWindow);
+    }
+
+    /**
+     * Prometheus-style per-second rate() over the window, summed across instances.
+     * Instances without a sample inside the window contribute nothing.
+     */
+    public double rate(String name, Duration window) {
+        double sum = 0.0;
+        for (double instanceRate : instanceRates(name, window).values()) {
+            sum += instanceRate;
+        }
+        return sum;
+    }
+
+    public Map<String, Double> instanceRates(String name) {
+        return instanceRates(name, defaultWindow);
+    }
+
+    public Map<String, Double> instanceRates(String name, Duration window) {
+        Map<String, Double> rates = new HashMap<>();
+        CounterSeries counterSeries = series.get(name);
+        if (counterSeries == null) {
+            return rates;
+        }
+        long now = System.currentTimeMillis();
+        for (InstanceCounter counter : counterSeries.instances()) {
+            rates.put(counter.instance, counter.rate(now, window.toMillis()));
+        }
+        return rates;
+    }
+
+    /**
+     * Reset-corrected cumulative value per instance.
+     */
+    public Map<String, Double> instanceTotals(String name) {
+        Map<String, Double> totals = new HashMap<>();
+        CounterSeries counterSeries = series.get(name);
+        if (counterSeries != null) {
+            for (InstanceCounter counter : counterSeries.instances()) {
+                totals.put(counter.instance, counter.corrected());
+            }
+        }
+        return totals;
+    }
+
+    /**
+     * Reset-corrected cumulative value of one instance, or NaN when the instance is not
+     * (or no longer) reporting into the series.
+     */
+    public double instanceTotal(String name, String instance) {
+        CounterSeries counterSeries = series.get(name);
+        InstanceCounter counter = counterSeries != null ? counterSeries.instances.get(instance) : null;
+        return counter != null ? counter.corrected() : Double.NaN;
+    }
+
+    /**
+     * Time (epoch millis) each instance's counter last moved forward; a stalled consumer
+     * keeps reporting but stops advancing.
+     */
+    public Map<String, Long> instanceLastAdvance(String name) {
+        Map<String, Long> lastAdvance = new HashMap<>();
+        CounterSeries counterSeries = series.get(name);
+        if (counterSeries != null) {
+            for (InstanceCounter counter : counterSeries.instances()) {
+                lastAdvance.put(counter.instance, counter.lastAdvance);
+            }
+        }
+        return lastAdvance;
+    }
+
+    public long resetCount(String name) {
+        CounterSeries counterSeries = series.get(name);
+        return counterSeries != null ? counterSeries.resets() : 0L;
+    }
+
+    public Set<String> seriesNames() {
+        return Set.copyOf(series.keySet());
+    }
+
+    /**
+     * Drop the sample history of an instance that has left discovery. Whatever it counted is
+     * folded into the series so totals stay stable; if the instance reappears within the
+     * retention period it picks up its own counter again, after that only its total is kept.
+     */
+    public void retireInstance(String name, String instance) {
+        CounterSeries counterSeries = series.get(name);
+        if (counterSeries != null && counterSeries.retire(instance)) {
+            log.debug("Retired instance {} from counter series {}", instance, name);
+        }
+    }
+
+    /**
+     * Instances that left discovery are retired from every series they reported into.
+     */
+    @EventListener
+    public void onInstancesChanged(ServiceInstancesChangedEvent event) {
+        for (String instance : event.removed()) {
+            for (String name : series.keySet()) {
+                retireInstance(name, instance);
+            }
+        }
+    }
+
+    public Duration getDefaultWindow() {
+        return defaultWindow;
+    }
+
+    private static final class CounterSeries {
+
+        private final String name;
+        private final long retentionMillis;
+        private final Map<String, InstanceCounter> instances = new ConcurrentHashMap<>();
+        private final Map<String, InstanceCounter> retired = new HashMap<>();
+        private final long createdAt = System.currentTimeMillis();
+        private double retiredTotal = 0.0;
+        private double retiredIncrease = 0.0;
+        private long retiredResets = 0L;
+
+        private CounterSeries(String name, long retentionMillis) {
+            this.name = name;
+            this.retentionMillis = retentionMillis;
+        }
+
+        // Under the series lock, so a sample never lands on a counter that is being retired
+        // and an instance never gets two counters
+        private synchronized void record(String instance, double value, long timestampMillis) {
+            InstanceCounter counter = instances.get(instance);
+            if (counter == null) {
+                counter = revive(instance, timestampMillis);
+                if (counter == null) {
+                    counter = new InstanceCounter(instance, isFirstRound(timestampMillis));
+                    instances.put(instance, counter);
+                }
+            }
+            counter.record(value, timestampMillis, retentionMillis);
+        }
+
+        // An instance that briefly dropped out of discovery resumes its own counter instead of
+        // being counted a second time; a genuine restart is then caught as a reset. Counters
+        // retired for longer than the retention period are forgotten, their totals stay
+        private InstanceCounter revive(String instance, long now) {
+            retired.values().removeIf(counter -> now - counter.retiredAt > retentionMillis);
+            InstanceCounter counter = retired.remove(instance);
+            if (counter == null) {
+                return null;
+            }
+            retiredTotal -= counter.corrected();
+            retiredIncrease -= counter.corrected() - counter.baseline;
+            retiredResets -= counter.resets;
+            instances.put(instance, counter);
+            return counter;
+        }
+
+        // Instances reporting within the first few seconds are treated as pre-existing, so
+        // their pre-startup counts are excluded from increaseSinceStart().
+        private boolean isFirstRound(long timestampMillis) {
+            return timestampMillis - createdAt < 5000;
+        }
+
+        private Iterable<InstanceCounter> instances() {
+            return instances.values();
+        }
+
+        private synchronized double total() {
+            double sum = retiredTotal;
+            for (InstanceCounter counter : instances.values()) {
+                sum += counter.corrected();
+            }
+            return sum;
+        }
+
+        private synchronized double increaseSinceStart() {
+            double sum = retiredIncrease;
+            for (InstanceCounter counter : instances.values()) {
+                sum += counter.corrected() - counter.baseline;
+            }
+            return sum;
+        }
+
+        private synchronized long resets() {
+            long sum = retiredResets;
+            for (InstanceCounter counter : instances.values()) {
+                sum += counter.resets;
+            }
+            return sum;
+        }
+
+        private synchronized boolean retire(String instance) {
+            InstanceCounter counter = instances.remove(instance);
+            if (counter == null) {
+                return false;
+            }
+            retiredTotal += counter.corrected();
+            retiredIncrease += counter.corrected() - counter.baseline;
+            retiredResets += counter.resets;
+            counter.clearSamples();
+            counter.retiredAt = System.currentTimeMillis();
+            retired.put(instance, counter);
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return name;
+        }
+    }
+
+    private static final class InstanceCounter {
+
+        private final String instance;
+        private final boolean preExisting;
+        private final Deque<Sample> samples = new ArrayDeque<>();
+        private double lastRaw = Double.NaN;
+        private double offset = 0.0;
+        private double baseline = 0.0;
+        private long resets = 0L;
+        private volatile long lastAdvance = 0L;
+        private long retiredAt = 0L;
+
+        private InstanceCounter(String instance, boolean preExisting) {
+            this.instance = instance;
+            this.preExisting = preExisting;
+        }
+
+        private synchronized void record(double value, long timestampMillis, long retentionMillis) {
+            if (Double.isNaN(lastRaw)) {
+                baseline = preExisting ? value : 0.0;
+                lastAdvance = timestampMillis;
+            } else if (value < lastRaw) {
+                // Counter went backwards: the instance restarted and counts from zero again
+                offset += lastRaw;
+                resets++;
+                lastAdvance = timestampMillis;
+            } else if (value > lastRaw) {
+                lastAdvance = timestampMillis;
+            }
+            lastRaw = value;
+            samples.addLast(new Sample(timestampMillis, value + offset));
+
+            long cutoff = timestampMillis - retentionMillis;
+            while (samples.size() > 2 && samples.peekFirst().timestamp() < cutoff) {
+                samples.removeFirst();
+            }
+        }
+
+        private synchronized void clearSamples() {
+            samples.clear();
+        }
+
+        private synchronized double corrected() {
+            return Double.isNaN(lastRaw) ? 0.0 : lastRaw + offset;
+        }
+
+        private synchronized double increase(long now, long windowMillis) {
+            Sample[] bounds = windowBounds(now, windowMillis);
+            return bounds == null ? 0.0 : bounds[1].value() - bounds[0].value();
+        }
+
+        private synchronized double rate(long now, long windowMillis) {
+            Sample[] bounds = windowBounds(now, windowMillis);
+            if (bounds == null) {
+                return 0.0;
+            }
+            long elapsed = bounds[1].timestamp() - bounds[0].timestamp();
+            return elapsed > 0 ? (bounds[1].value() - bounds[0].value()) * 1000.0 / elapsed : 0.0;
+        }
+
+        /**
+         * Oldest sample at or before the window start (or the first one inside it) and the
+         * newest sample, provided the newest one is still inside the window.
+         */
+        private Sample[] windowBounds(long now, long windowMillis) {
+            if (samples.size() < 2) {
+                return null;
+            }
+            Sample last = samples.peekLast();
+            long windowStart = now - windowMillis;
+            if (last.timestamp() < windowStart) {
+                return null; // stale instance
+            }
+            Sample first = null;
+            for (Sample sample : samples) {
+                if (sample.timestamp() <= windowStart || first == null) {
+                    first = sample;
+                }
+                if (sample.timestamp() >= windowStart) {
+                    break;
+                }
+            }
+            return first == last ? null : new Sample[] { first, last };
+        }
+    }
+
+    private record Sample(long timestamp, double value) {
+    }
+}
@@ -0,0 +1,373 @@
+package com.insurancemegacorp.monitoring.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Span trees for collection cycles (scheduled collection, health checks, discovery refresh,
+ * dashboard API requests).
+ *
+ * A cycle opens a root span on the calling thread; nested {@link #span} calls, including
+ * every upstream call made through {@link UpstreamGuardService}, hang off the current span.
+ * Work handed to another thread joins the tree through {@link #propagate}. Every cycle and
+ * span is emitted as a JFR event, and cycles slower than the threshold are kept with their
+ * full breakdown in a ring buffer served at /api/debug/slow-cycles.
+ */
+@Slf4j
+@Service
+public class CycleTracer {
+
+    private static final ThreadLocal<Span> CURRENT = new ThreadLocal<>();
+
+    private final long slowThresholdNanos;
+    private final int capacity;
+    private final Deque<Map<String, Object>> slowCycles = new ArrayDeque<>();
+    private final Map<String, CycleStats> stats = new ConcurrentHashMap<>();
+
+    public CycleTracer(@Value("${tracing.slow-cycles.threshold-ms:1000}") long slowThresholdMillis,
+                       @Value("${tracing.slow-cycles.capacity:50}") int capacity) {
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMillis);
+        this.capacity = capacity;
+        log.info("CycleTracer initialized: slowThresholdMs={}, capacity={}", slowThresholdMillis, capacity);
+    }
+
+    /**
+     * Run the body as a traced cycle. Called inside another cycle it is recorded as a span
+     * of that cycle instead.
+     */
+    public void cycle(String name, Runnable body) {
+        if (CURRENT.get() != null) {
+            span(name, body);
+            return;
+        }
+
+        Span root = new Span(name, name, null);
+        CURRENT.set(root);
+        try {
+            body.run();
+        } catch (RuntimeException e) {
+            root.error = describe(e);
+            throw e;
+        } finally {
+            CURRENT.remove();
+            root.end();
+            complete(root);
+        }
+    }
+
+    /**
+     * Run the body as a child of the current span. Outside a cycle the body runs untraced.
+     */
+    public <T> T span(String name, Supplier<T> body) {
+        Span parent = CURRENT.get();
+        if (parent == null) {
+            return body.get();
+        }
+
+        Span span = parent.child(name);
+        CURRENT.set(span);
+        try {
+            return body.get();
+        } catch (RuntimeException e) {
+            span.error = describe(e);
+            throw e;
+        } finally {
+            CURRENT.set(parent);
+            span.end();
+        }
+    }
+
+    public void span(String name, Runnable body) {
+        span(name, () -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /**
+     * Wrap a task that will run on another thread so its spans join the current cycle.
+     */
+    public <T> Supplier<T> propagate(Supplier<T> task) {
+        Span parent = CURRENT.get();
+        if (parent == null) {
+            return task;
+        }
+        return () -> runWithParent(parent, task);
+    }
+
+    /**
+     * Like {@link #propagate(Supplier)}, for reactive operators that map a value on another
+     * thread. Call it while assembling the pipeline, on the thread that owns the span.
+     */
+    public <A, T> Function<A, T> propagate(Function<A, T> task) {
+        Span parent = CURRENT.get();
+        if (parent == null) {
+            return task;
+        }
+        return argument -> runWithParent(parent, () -> task.apply(argument));
+    }
+
+    private static <T> T runWithParent(Span parent, Supplier<T> task) {
+        Span previous = CURRENT.get();
+        CURRENT.set(parent);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Attach a tag to the current span, if any.
+     */
+    public void tag(String key, Object value) {
+        Span span = CURRENT.get();
+        if (span != null) {
+            span.tags.put(key, String.valueOf(value));
+        }
+    }
+
+    /**
+     * Slow cycles newest first, plus how many cycles of each kind ran and how many were slow.
+     */
+    public Map<String, Object> getSlowCycles() {
+        List<Map<String, Object>> cycles;
+        synchronized (slowCycles) {
+            cycles = new ArrayList<>(slowCycles);
+        }
+
+        Map<String, Object> totals = new TreeMap<>();
+        stats.forEach((name, cycleStats) -> totals.put(name, cycleStats.describe()));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("slow_cycles", cycles);
+        result.put("cycle_stats", totals);
+        result.put("threshold_ms", TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos));
+        result.put("capacity", capacity);
+        result.put("timestamp", System.currentTimeMillis());
+        return result;
+    }
+
+    private void complete(Span root) {
+        boolean slow = root.durationNanos >= slowThresholdNanos;
+        stats.computeIfAbsent(root.name, name -> new CycleStats()).record(root.durationNanos, slow);
+
+        CycleEvent event = root.cycleEvent;
+        if (event.shouldCommit()) {
+            event.cycle = root.name;
+            event.slow = slow;
+            event.spans = root.countSpans();
+            event.error = root.error;
+            event.commit();
+        }
+
+        if (slow) {
+            Map<String, Object> cycle = new LinkedHashMap<>();
+            cycle.put("cycle", root.name);
+            cycle.put("started_at", root.startedAt);
+            cycle.put("duration_ms", millis(root.durationNanos));
+            cycle.put("thread", root.thread);
+            cycle.put("span_count", root.countSpans());
+            cycle.put("root", root.snapshot(root.startNanos, System.nanoTime()));
+            synchronized (slowCycles) {
+                slowCycles.addFirst(cycle);
+                while (slowCycles.size() > capacity) {
+                    slowCycles.removeLast();
+                }
+            }
+            log.debug("Slow cycle {} took {}ms", root.name, millis(root.durationNanos));
+        }
+    }
+
+    private static String describe(Exception e) {
+        return e.getClass().getSimpleName() + ": " + e.getMessage();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class Span {
+
+        private final String name;
+        private final String cycle;
+        private final String parentName;
+        private final long startedAt = System.currentTimeMillis();
+        private final long startNanos = System.nanoTime();
+        private final String thread = Thread.currentThread().getName();
+        private final Map<String, String> tags = new ConcurrentHashMap<>();
+        private final List<Span> children = new ArrayList<>();
+        private final SpanEvent spanEvent;
+        private final CycleEvent cycleEvent;
+        private volatile long durationNanos = -1;
+        private volatile String error;
+
+        private Span(String name, String cycle, String parentName) {
+            this.name = name;
+            this.cycle = cycle;
+            this.parentName = parentName;
+            if (parentName == null) {
+                this.cycleEvent = new CycleEvent();
+                this.cycleEvent.begin();
+                this.spanEvent = null;
+            } else {
+                this.spanEvent = new SpanEvent();
+                this.spanEvent.begin();
+                this.cycleEvent = null;
+            }
+        }
+
+        private Span child(String childName) {
+            Span child = new Span(childName, cycle, name);
+            synchronized (children) {
+                children.add(child);
+            }
+            return child;
+        }
+
+        private void end() {
+            durationNanos = System.nanoTime() - startNanos;
+            if (spanEvent != null) {
+                spanEvent.end();
+                if (spanEvent.shouldCommit()) {
+                    spanEvent.cycle = cycle;
+                    spanEvent.span = name;
+                    spanEvent.parent = parentName;
+                    spanEvent.error = error;
+                    spanEvent.commit();
+                }
+            } else {
+                cycleEvent.end();
+            }
+        }
+
+        private int countSpans() {
+            int count = 1;
+            synchronized (children) {
+                for (Span child : children) {
+                    count += child.countSpans();
+                }
+            }
+            return count;
+        }
+
+        private Map<String, Object> snapshot(long cycleStartNanos, long nowNanos) {
+            Map<String, Object> view = new LinkedHashMap<>();
+            view.put("name", name);
+            view.put("start_offset_ms", millis(startNanos - cycleStartNanos));
+            // Spans abandoned at a deadline may still be running when the cycle ends
+            boolean running = durationNanos < 0;
+            view.put("duration_ms", millis(running ? nowNanos - startNanos : durationNanos));
+            if (running) {
+                view.put("running", true);
+            }
+            view.put("thread", thread);
+            if (!tags.isEmpty()) {
+                view.put("tags", new TreeMap<>(tags));
+            }
+            if (error != null) {
+                view.put("error", error);
+            }
+            List<Map<String, Object>> childViews = new ArrayList<>();
+            synchronized (children) {
+                for (Span child : children) {
+                    childViews.add(child.snapshot(cycleStartNanos, nowNanos));
+                }
+            }
+            if (!childViews.isEmpty()) {
+                view.put("children", childViews);
+            }
+            return view;
+        }
+    }
+
+    private static final class CycleStats {
+
+        private final LongAdder cycles = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+        private volatile long lastDurationNanos;
+        private volatile long maxDurationNanos;
+
+        private void record(long durationNanos, boolean isSlow) {
+            cycles.increment();
+            if (isSlow) {
+                slow.increment();
+            }
+            lastDurationNanos = durationNanos;
+            if (durationNanos > maxDurationNanos) {
+                maxDurationNanos = durationNanos;
+            }
+        }
+
+        private Map<String, Object> describe() {
+            Map<String, Object> view = new HashMap<>();
+            view.put("cycles", cycles.sum());
+            view.put("slow_cycles", slow.sum());
+            view.put("last_duration_ms", millis(lastDurationNanos));
+            view.put("max_duration_ms", millis(maxDurationNanos));
+            return view;
+        }
+    }
+
+    @Name("com.insurancemegacorp.smartdriver.CollectionCycle")
+    @Label("Collection Cycle")
+    @Category({"SmartDriver", "Collection"})
+    @Description("A scheduled collection cycle or dashboard API request")
+    static final class CycleEvent extends Event {
+
+        @Label("Cycle")
+        String cycle;
+
+        @Label("Slow")
+        boolean slow;
+
+        @Label("Spans")
+        int spans;
+
+        @Label("Error")
+        String error;
+    }
+
+    @Name("com.insurancemegacorp.smartdriver.CycleSpan")
+    @Label("Cycle Span")
+    @Category({"SmartDriver", "Collection"})
+    @Description("One step of a collection cycle, such as an upstream call or an instance scrape")
+    static final class SpanEvent extends Event {
+
+        @Label("Cycle")
+        String cycle;
+
+        @Label("Span")
+        String span;
+
+        @Label("Parent")
+        String parent;
+
+        @Label("Error")
+        String error;
+    }
+}
@@ -0,0 +1,211 @@
+package com.insurancemegacorp.monitoring.service;
+
+/**
+ * DDSketch quantile sketch: values are counted in logarithmic bins of ratio
+ * (1 + alpha) / (1 - alpha), so every quantile is returned within relative error alpha of the
+ * true value. Positive and negative values have stores of their own and values closer to
+ * zero than {@link #MIN_INDEXABLE} are counted as zero. Sketches with the same alpha merge
+ * by adding bins. Each store keeps at most {@code maxBins} bins, folding the lowest ones
+ * together past that, which only costs accuracy at the low end. Not thread-safe.
+ */
+final class DDSketch {
+
+    static final double MIN_INDEXABLE = 1e-9;
+
+    private final double alpha;
+    private final double gamma;
+    private final double logGamma;
+    private final int maxBins;
+    private final Store positive;
+    private final Store negative;
+    private long zeroCount;
+    private long count;
+    private double sum;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    DDSketch(double alpha, int maxBins) {
+        if (alpha <= 0 || alpha >= 1) {
+            throw new IllegalArgumentException("DDSketch relative accuracy must be between 0 and 1: " + alpha);
+        }
+        this.alpha = alpha;
+        this.gamma = (1 + alpha) / (1 - alpha);
+        this.logGamma = Math.log(gamma);
+        this.maxBins = Math.max(16, maxBins);
+        this.positive = new Store(this.maxBins);
+        this.negative = new Store(this.maxBins);
+    }
+
+    void add(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) {
+            return;
+        }
+        if (value > MIN_INDEXABLE) {
+            positive.add(index(value), 1);
+        } else if (value < -MIN_INDEXABLE) {
+            negative.add(index(-value), 1);
+        } else {
+            zeroCount++;
+        }
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    void merge(DDSketch other) {
+        if (other.alpha != alpha) {
+            throw new IllegalArgumentException("Cannot merge DDSketches of relative accuracy " + alpha + " and " + other.alpha);
+        }
+        positive.merge(other.positive);
+        negative.merge(other.negative);
+        zeroCount += other.zeroCount;
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    long count() {
+        return count;
+    }
+
+    double mean() {
+        return count > 0 ? sum / count : Double.NaN;
+    }
+
+    double min() {
+        return min;
+    }
+
+    double max() {
+        return max;
+    }
+
+    /**
+     * The value at quantile q (0 to 1), or NaN when the sketch is empty. The extremes are
+     * exact; everything in between is within relative error alpha.
+     */
+    double quantile(double q) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        if (q <= 0) {
+            return min;
+        }
+        if (q >= 1) {
+            return max;
+        }
+        long rank = (long) (q * (count - 1));
+        double value;
+        if (rank < negative.total) {
+            // Negative values rank from the largest magnitude down
+            value = -value(negative.indexAtRank(negative.total - 1 - rank));
+        } else if (rank < negative.total + zeroCount) {
+            value = 0.0;
+        } else {
+            value = value(positive.indexAtRank(rank - negative.total - zeroCount));
+        }
+        return Math.max(min, Math.min(max, value));
+    }
+
+    private int index(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    private double value(int index) {
+        // Midpoint of the bin (gamma^(i-1), gamma^i] in relative terms
+        return 2 * Math.pow(gamma, index) / (1 + gamma);
+    }
+
+    /**
+     * Dense counts for the bin indexes between minIndex and maxIndex, in an array re-based
+     * as the range grows.
+     */
+    private static final class Store {
+
+        private final int maxBins;
+        private long[] counts = new long[0];
+        private int offset;
+        private int minIndex = Integer.MAX_VALUE;
+        private int maxIndex = Integer.MIN_VALUE;
+        private long total;
+
+        private Store(int maxBins) {
+            this.maxBins = maxBins;
+        }
+
+        private void add(int index, long n) {
+            if (total > 0) {
+                if (index > maxIndex && index - minIndex + 1 > maxBins) {
+                    collapseBelow(index - maxBins + 1);
+                } else if (index < minIndex && maxIndex - index + 1 > maxBins) {
+                    // Past the bin limit: count the value in the lowest bin
+                    index = maxIndex - maxBins + 1;
+                }
+            }
+            increment(index, n);
+        }
+
+        private void merge(Store other) {
+            for (int index = other.minIndex; other.total > 0 && index <= other.maxIndex; index++) {
+                long n = other.counts[index - other.offset];
+                if (n > 0) {
+                    add(index, n);
+                }
+            }
+        }
+
+        private int indexAtRank(long rank) {
+            long seen = 0;
+            for (int index = minIndex; index <= maxIndex; index++) {
+                seen += counts[index - offset];
+                if (seen > rank) {
+                    return index;
+                }
+            }
+            return maxIndex;
+        }
+
+        /**
+         * Fold every bin below {@code lowest} into it.
+         */
+        private void collapseBelow(int lowest) {
+            long folded = 0;
+            for (int index = minIndex; index <= Math.min(maxIndex, lowest - 1); index++) {
+                folded += counts[index - offset];
+                counts[index - offset] = 0;
+            }
+            total -= folded;
+            if (total == 0) {
+                minIndex = Integer.MAX_VALUE;
+                maxIndex = Integer.MIN_VALUE;
+            } else {
+                minIndex = lowest;
+            }
+            if (folded > 0) {
+                increment(lowest, folded);
+            }
+        }
+
+        private void increment(int index, long n) {
+            if (index < offset || index >= offset + counts.length) {
+                int low = Math.min(index, total > 0 ? minIndex : index);
+                int high = Math.max(index, total > 0 ? maxIndex : index);
+                // Headroom on both sides so a drifting range does not re-base on every add
+                int pad = Math.min(maxBins, high - low + 1) / 2 + 8;
+                long[] resized = new long[high - low + 1 + 2 * pad];
+                int newOffset = low - pad;
+                if (total > 0) {
+                    System.arraycopy(counts, minIndex - offset, resized, minIndex - newOffset, maxIndex - minIndex + 1);
+                }
+                counts = resized;
+                offset = newOffset;
+            }
+            counts[index - offset] += n;
+            total += n;
+            minIndex = Math.min(minIndex, index);
+            maxIndex = Math.max(maxIndex, index);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.ServiceInstancesChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.client.discovery.event.InstanceRegisteredEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable service to instances index kept in step with the Eureka registry.
+ *
+ * The index is rebuilt whenever the Eureka client reports a heartbeat (after each registry
+ * fetch), when this app registers, and on a fixed interval as a safety net. Collectors read
+ * the current index without touching the registry, and are told about added and removed
+ * instances through {@link ServiceInstancesChangedEvent}. Lookups are counted as cache hits
+ * or misses (service not in the index, or the index not yet populated).
+ */
+@Slf4j
+@Service
+public class DiscoveryCacheService {
+
+    private final DiscoveryClient discoveryClient;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CycleTracer cycleTracer;
+    private final Timer refreshTimer;
+    private final Counter cacheHits;
+    private final Counter cacheMisses;
+    private volatile Map<String, List<ServiceInstance>> index = Map.of();
+    private volatile long lastRefresh = 0L;
+
+    public DiscoveryCacheService(DiscoveryClient discoveryClient,
+                                 ApplicationEventPublisher eventPublisher,
+                                 MeterRegistry meterRegistry,
+                                 CycleTracer cycleTracer) {
+        this.discoveryClient = discoveryClient;
+        this.eventPublisher = eventPublisher;
+        this.cycleTracer = cycleTracer;
+        this.refreshTimer = CollectionCycles.timer(meterRegistry, "discovery-refresh");
+        this.cacheHits = meterRegistry.counter("smartdriver.discovery.cache.lookups", "result", "hit");
+        this.cacheMisses = meterRegistry.counter("smartdriver.discovery.cache.lookups", "result", "miss");
+    }
+
+    /**
+     * Instances of the service from the cached index. The first call before any refresh
+     * populates the index synchronously.
+     */
+    public List<ServiceInstance> getInstances(String serviceName) {
+        if (lastRefresh == 0L) {
+            cacheMisses.increment();
+            refresh();
+            return index.getOrDefault(serviceName, List.of());
+        }
+        List<ServiceInstance> instances = index.get(serviceName);
+        if (instances == null) {
+            cacheMisses.increment();
+            return List.of();
+        }
+        cacheHits.increment();
+        return instances;
+    }
+
+    public List<String> getServices() {
+        if (lastRefresh == 0L) {
+            refresh();
+        }
+        return List.copyOf(index.keySet());
+    }
+
+    public Map<String, List<ServiceInstance>> getIndex() {
+        return index;
+    }
+
+    public long getLastRefresh() {
+        return lastRefresh;
+    }
+
+    @EventListener
+    public void onHeartbeat(HeartbeatEvent event) {
+        refresh();
+    }
+
+    @EventListener
+    public void onInstanceRegistered(InstanceRegisteredEvent<?> event) {
+        refresh();
+    }
+
+    @Scheduled(fixedDelayString = "${discovery.cache.refresh-interval-ms:30000}")
+    public void scheduledRefresh() {
+        refresh();
+    }
+
+    /**
+     * Rebuild the index from the registry and publish instance changes per service.
+     */
+    public synchronized void refresh() {
+        refreshTimer.record(() -> cycleTracer.cycle("discovery-refresh", this::rebuildIndex));
+    }
+
+    private void rebuildIndex() {
+        Map<String, List<ServiceInstance>> fresh = new HashMap<>();
+        try {
+            for (String serviceName : discoveryClient.getServices()) {
+                List<ServiceInstance> instances = discoveryClient.getInstances(serviceName);
+                fresh.put(serviceName, instances != null ? List.copyOf(instances) : List.of());
+            }
+        } catch (Exception e) {
+            // Keep serving the previous index rather than dropping every scrape target
+            log.warn("Failed to refresh discovery cache, keeping previous index: {}", e.getMessage());
+            return;
+        }
+
+        Map<String, List<ServiceInstance>> previous = index;
+        index = Map.copyOf(fresh);
+        lastRefresh = System.currentTimeMillis();
+
+        Set<String> serviceNames = new HashSet<>(previous.keySet());
+        serviceNames.addAll(fresh.keySet());
+        for (String serviceName : serviceNames) {
+            Set<String> before = instanceIds(previous.getOrDefault(serviceName, List.of()));
+            Set<String> after = instanceIds(fresh.getOrDefault(serviceName, List.of()));
+            if (before.equals(after)) {
+                continue;
+            }
+            List<String> added = new ArrayList<>(after);
+            added.removeAll(before);
+            List<String> removed = new ArrayList<>(before);
+            removed.removeAll(after);
+            log.info("Instances of {} changed: added={}, removed={}", serviceName, added, removed);
+            eventPublisher.publishEvent(new ServiceInstancesChangedEvent(serviceName, List.copyOf(added), List.copyOf(removed)));
+        }
+    }
+
+    public static String instanceId(ServiceInstance instance) {
+        return instance.getInstanceId() != null ? instance.getInstanceId() : instance.getUri().toString();
+    }
+
+    private static Set<String> instanceIds(List<ServiceInstance> instances) {
+        Set<String> ids = new HashSet<>();
+        for (ServiceInstance instance : instances) {
+            ids.add(instanceId(instance));
+        }
+        return ids;
+    }
+}
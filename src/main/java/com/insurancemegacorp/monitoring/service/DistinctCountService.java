@@ -0,0 +1,80 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.TelemetrySample;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Active fleet size without a database scan: distinct vehicles and drivers seen by the
+ * telemetry tap over the last 1m, 5m and 1h, per source (telemetry, vehicle_events), from
+ * HyperLogLog sketches kept in {@link SlidingHyperLogLog} time buckets.
+ *
+ * The counts are over tapped samples, so at a sample rate below 1 a vehicle is only counted
+ * once one of its messages is sampled; for a vehicle reporting every second that happens
+ * within the first few seconds of the window. Without the tap enabled nothing is counted.
+ */
+@Service
+public class DistinctCountService {
+
+    private static final List<Duration> WINDOWS = List.of(Duration.ofMinutes(1), Duration.ofMinutes(5), Duration.ofHours(1));
+
+    private final int precision;
+    private final int buckets;
+    private final Map<String, SlidingHyperLogLog> vehicles = new ConcurrentHashMap<>();
+    private final Map<String, SlidingHyperLogLog> drivers = new ConcurrentHashMap<>();
+
+    public DistinctCountService(@Value("${telemetry.distinct.precision:12}") int precision,
+                                @Value("${telemetry.distinct.buckets-per-window:12}") int buckets) {
+        // Fail at startup rather than on the first sample
+        new HyperLogLog(precision);
+        this.precision = precision;
+        this.buckets = Math.max(1, buckets);
+    }
+
+    @EventListener
+    public void onSample(TelemetrySample sample) {
+        if (sample.vehicleId() != null) {
+            sketch(vehicles, sample.source()).add(sample.vehicleId(), sample.timestamp());
+        }
+        if (sample.driverId() != null) {
+            sketch(drivers, sample.source()).add(sample.driverId(), sample.timestamp());
+        }
+    }
+
+    private SlidingHyperLogLog sketch(Map<String, SlidingHyperLogLog> sketches, String source) {
+        return sketches.computeIfAbsent(source, key -> new SlidingHyperLogLog(WINDOWS, buckets, precision));
+    }
+
+    public Map<String, Object> getDistinctCounts() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> result = new HashMap<>();
+        for (String source : List.of(TelemetrySample.SOURCE_TELEMETRY, TelemetrySample.SOURCE_VEHICLE_EVENTS)) {
+            Map<String, Object> counts = new HashMap<>();
+            counts.put("vehicles", estimates(vehicles.get(source), now));
+            counts.put("drivers", estimates(drivers.get(source), now));
+            result.put(source, counts);
+        }
+        result.put("windows", WINDOWS.stream().map(SlidingHyperLogLog::label).toList());
+        result.put("precision", precision);
+        result.put("standard_error", 1.04 / Math.sqrt(1 << precision));
+        result.put("timestamp", now);
+        return result;
+    }
+
+    private static Map<String, Long> estimates(SlidingHyperLogLog sketch, long now) {
+        if (sketch == null) {
+            Map<String, Long> empty = new LinkedHashMap<>();
+            WINDOWS.forEach(window -> empty.put(SlidingHyperLogLog.label(window), 0L));
+            return empty;
+        }
+        return sketch.estimates(now);
+    }
+}
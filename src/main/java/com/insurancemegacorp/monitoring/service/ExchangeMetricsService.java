@@ -12,22 +12,22 @@ import java.util.concurrent.atomic.AtomicLong;
 @Service
 public class ExchangeMetricsService {
 
+    static final String PUBLISH_IN_SERIES = "telematics_exchange:publish_in";
+    static final String PUBLISH_OUT_SERIES = "telematics_exchange:publish_out";
+
     private final RabbitMetricsService rabbitMetricsService;
+    private final CounterRateService counterRateService;
     
-    // Rolling totals since UI startup
-    private final AtomicLong totalPublishIn = new AtomicLong(0);
-    private final AtomicLong totalPublishOut = new AtomicLong(0);
     private final AtomicLong currentPublishInRate = new AtomicLong(0);
     private final AtomicLong currentPublishOutRate = new AtomicLong(0);
     
-    // Track previous values to calculate deltas
-    private long previousPublishIn = 0;
-    private long previousPublishOut = 0;
-    private boolean initialized = false;
+    private volatile boolean initialized = false;
 
     @Autowired
-    public ExchangeMetricsService(RabbitMetricsService rabbitMetricsService) {
+    public ExchangeMetricsService(RabbitMetricsService rabbitMetricsService,
+                                  CounterRateService counterRateService) {
         this.rabbitMetricsService = rabbitMetricsService;
+        this.counterRateService = counterRateService;
     }
 
     public Map<String, Object> getExchangeThroughputStats() {
@@ -54,40 +54,32 @@ public class ExchangeMetricsService {
         double publishInRate = publishInDetails != null ? getDoubleValue(publishInDetails, "rate") : 0.0;
         double publishOutRate = publishOutDetails != null ? getDoubleValue(publishOutDetails, "rate") : 0.0;
 
+        // Exchange counters reset when the broker node restarts; the counter engine carries
+        // the rolling totals since UI startup across such resets
+        counterRateService.record(PUBLISH_IN_SERIES, "telematics_exchange", currentPublishIn);
+        counterRateService.record(PUBLISH_OUT_SERIES, "telematics_exchange", currentPublishOut);
+        
         if (!initialized) {
-            // First run - initialize totals
-            previousPublishIn = currentPublishIn;
-            previousPublishOut = currentPublishOut;
-            totalPublishIn.set(0);
-            totalPublishOut.set(0);
             initialized = true;
             log.info("Exchange metrics initialized. Starting counters at publish_in={}, publish_out={}", 
                     currentPublishIn, currentPublishOut);
-        } else {
-            // Calculate deltas since last check
-            long deltaIn = Math.max(0, currentPublishIn - previousPublishIn);
-            long deltaOut = Math.max(0, currentPublishOut - previousPublishOut);
-            
-            // Add deltas to rolling totals
-            totalPublishIn.addAndGet(deltaIn);
-            totalPublishOut.addAndGet(deltaOut);
-            
-            // Update previous values
-            previousPublishIn = currentPublishIn;
-            previousPublishOut = currentPublishOut;
         }
         
+        long totalPublishIn = Math.round(counterRateService.increaseSinceStart(PUBLISH_IN_SERIES));
+        long totalPublishOut = Math.round(counterRateService.increaseSinceStart(PUBLISH_OUT_SERIES));
+        
         // Update current rates
         currentPublishInRate.set(Math.round(publishInRate * 10)); // Store as tenths for precision
         currentPublishOutRate.set(Math.round(publishOutRate * 10));
 
         // Return stats
         Map<String, Object> result = new HashMap<>();
-        result.put("total_publish_in", totalPublishIn.get());
-        result.put("total_publish_out", totalPublishOut.get());
+        result.put("total_publish_in", totalPublishIn);
+        result.put("total_publish_out", totalPublishOut);
         result.put("current_rate_in", publishInRate);
         result.put("current_rate_out", publishOutRate);
         result.put("amplification_ratio", currentPublishIn > 0 ? (double) currentPublishOut / currentPublishIn : 0.0);
+        result.put("counter_resets", counterRateService.resetCount(PUBLISH_IN_SERIES));
         
         return result;
     }
@@ -0,0 +1,46 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancemegacorp.monitoring.dto.AlertNotification;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends each notification as one JSON line to a local file, for log shippers or a plain
+ * {@code tail -f}.
+ */
+@Slf4j
+@Component
+public class FileAlertNotifier implements AlertNotifier {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileAlertNotifier(ObjectMapper objectMapper,
+                             @Value("${alerting.file.path:alerts.jsonl}") String path) {
+        this.objectMapper = objectMapper;
+        this.path = Path.of(path);
+    }
+
+    @Override
+    public String name() {
+        return "file";
+    }
+
+    @Override
+    public synchronized void notify(AlertNotification notification) {
+        try {
+            String line = objectMapper.writeValueAsString(notification) + System.lineSeparator();
+            Files.writeString(path, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.warn("Failed to append alert {} to {}: {}", notification.rule(), path, e.getMessage());
+        }
+    }
+}
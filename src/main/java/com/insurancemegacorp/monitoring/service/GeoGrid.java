@@ -0,0 +1,203 @@
+package com.insurancemegacorp.monitoring.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A fixed number of decayed counters per geohash cell. Points are counted in cells of the
+ * configured precision; coarser tiles are rolled up on read from the geohash prefixes, so
+ * one index serves every zoom level up to its precision.
+ *
+ * Counts halve every half-life, applied in steps of a sixteenth of it, and cells that decay
+ * below {@link #PRUNE_BELOW} are dropped. At most {@code maxCells} cells are kept; points
+ * for new cells past that are counted as dropped until decay frees room. Thread-safe.
+ */
+final class GeoGrid {
+
+    static final double PRUNE_BELOW = 0.01;
+
+    private static final String BASE32 = "0123456789bcdefghjkmnpqrstuvwxyz";
+
+    private final int precision;
+    private final int counters;
+    private final int maxCells;
+    private final long halfLifeMillis;
+    private final long decayStepMillis;
+    private final Map<String, double[]> cells = new HashMap<>();
+    private long lastDecay;
+    private long dropped;
+
+    GeoGrid(int precision, int counters, int maxCells, long halfLifeMillis, long now) {
+        if (precision < 1 || precision > 12) {
+            throw new IllegalArgumentException("Geohash precision must be between 1 and 12: " + precision);
+        }
+        this.precision = precision;
+        this.counters = counters;
+        this.maxCells = Math.max(1, maxCells);
+        this.halfLifeMillis = Math.max(1, halfLifeMillis);
+        this.decayStepMillis = Math.max(1, halfLifeMillis / 16);
+        this.lastDecay = now;
+    }
+
+    int precision() {
+        return precision;
+    }
+
+    /**
+     * Count one point in one of its cell's counters.
+     *
+     * @throws IllegalArgumentException for a coordinate that is NaN, infinite or out of range
+     */
+    synchronized void add(double latitude, double longitude, int counter, long now) {
+        decay(now);
+        String cell = encode(latitude, longitude, precision);
+        double[] values = cells.get(cell);
+        if (values == null) {
+            if (cells.size() >= maxCells) {
+                dropped++;
+                return;
+            }
+            values = new double[counters];
+            cells.put(cell, values);
+        }
+        values[counter] += 1.0;
+    }
+
+    /**
+     * Counters summed per tile of the given precision, limited to tiles overlapping the
+     * bounding box (null for everywhere) and ordered by {@code rank} counter, largest first.
+     */
+    synchronized List<Tile> tiles(int tilePrecision, double[] bbox, int rank, int limit, long now) {
+        decay(now);
+        int length = Math.max(1, Math.min(precision, tilePrecision));
+        Map<String, double[]> rolled = new HashMap<>();
+        cells.forEach((cell, values) -> {
+            double[] sum = rolled.computeIfAbsent(cell.substring(0, length), key -> new double[counters]);
+            for (int i = 0; i < counters; i++) {
+                sum[i] += values[i];
+            }
+        });
+
+        List<Tile> tiles = new ArrayList<>();
+        rolled.forEach((hash, values) -> {
+            double[] bounds = bounds(hash);
+            if (bbox == null || (bounds[0] <= bbox[2] && bounds[2] >= bbox[0] && bounds[1] <= bbox[3] && bounds[3] >= bbox[1])) {
+                tiles.add(new Tile(hash, bounds, values));
+            }
+        });
+        tiles.sort((a, b) -> Double.compare(b.values()[rank], a.values()[rank]));
+        return tiles.size() > limit ? new ArrayList<>(tiles.subList(0, limit)) : tiles;
+    }
+
+    synchronized int cellCount() {
+        return cells.size();
+    }
+
+    synchronized long dropped() {
+        return dropped;
+    }
+
+    private void decay(long now) {
+        long elapsed = now - lastDecay;
+        if (elapsed < decayStepMillis) {
+            return;
+        }
+        double factor = Math.pow(0.5, (double) elapsed / halfLifeMillis);
+        Iterator<double[]> it = cells.values().iterator();
+        while (it.hasNext()) {
+            double[] values = it.next();
+            double total = 0.0;
+            for (int i = 0; i < values.length; i++) {
+                values[i] *= factor;
+                total += values[i];
+            }
+            if (total < PRUNE_BELOW) {
+                it.remove();
+            }
+        }
+        lastDecay = now;
+    }
+
+    /**
+     * Geohash of a point; a point on a cell edge belongs to the cell north or east of it.
+     *
+     * @throws IllegalArgumentException for a coordinate that is NaN, infinite or out of range
+     */
+    static String encode(double latitude, double longitude, int precision) {
+        if (!Double.isFinite(latitude) || !Double.isFinite(longitude)
+                || Math.abs(latitude) > 90 || Math.abs(longitude) > 180) {
+            throw new IllegalArgumentException("Not a coordinate: " + latitude + "," + longitude);
+        }
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        StringBuilder hash = new StringBuilder(precision);
+        boolean evenBit = true;
+        int bit = 0;
+        int ch = 0;
+        while (hash.length() < precision) {
+            if (evenBit) {
+                double mid = (minLon + maxLon) / 2;
+                if (longitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLon = mid;
+                } else {
+                    ch <<= 1;
+                    maxLon = mid;
+                }
+            } else {
+                double mid = (minLat + maxLat) / 2;
+                if (latitude >= mid) {
+                    ch = (ch << 1) | 1;
+                    minLat = mid;
+                } else {
+                    ch <<= 1;
+                    maxLat = mid;
+                }
+            }
+            evenBit = !evenBit;
+            if (++bit == 5) {
+                hash.append(BASE32.charAt(ch));
+                bit = 0;
+                ch = 0;
+            }
+        }
+        return hash.toString();
+    }
+
+    /**
+     * South-west and north-east corners of a geohash cell: min latitude, min longitude, max
+     * latitude, max longitude.
+     */
+    static double[] bounds(String hash) {
+        double minLat = -90, maxLat = 90, minLon = -180, maxLon = 180;
+        boolean evenBit = true;
+        for (int i = 0; i < hash.length(); i++) {
+            int ch = BASE32.indexOf(hash.charAt(i));
+            for (int b = 4; b >= 0; b--) {
+                boolean set = ((ch >> b) & 1) == 1;
+                if (evenBit) {
+                    double mid = (minLon + maxLon) / 2;
+                    if (set) {
+                        minLon = mid;
+                    } else {
+                        maxLon = mid;
+                    }
+                } else {
+                    double mid = (minLat + maxLat) / 2;
+                    if (set) {
+                        minLat = mid;
+                    } else {
+                        maxLat = mid;
+                    }
+                }
+                evenBit = !evenBit;
+            }
+        }
+        return new double[] {minLat, minLon, maxLat, maxLon};
+    }
+
+    record Tile(String geohash, double[] bounds, double[] values) {
+    }
+}
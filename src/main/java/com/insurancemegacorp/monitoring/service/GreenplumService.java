@@ -43,40 +43,44 @@ public class GreenplumService {
     private boolean useRealData;
     
     private final RestTemplate restTemplate = new RestTemplate();
+
+    private volatile Map<String, Object> lastDatabaseStats;
     
     @Autowired(required = false)
     private DataSource dataSource;
 
+    @Autowired
+    private UpstreamGuardService upstreamGuardService;
+
+    @Autowired
+    private CollectorLogService collectorLog;
+
     /**
      * Check Greenplum health by attempting a simple query
      */
     public Map<String, Object> getHealthStatus() {
         Map<String, Object> health = new HashMap<>();
         
-        // Debug logging to diagnose configuration issue
-        log.info("GreenplumService Health Check - useRealData: {}, dataSource: {}", 
+        // Reported once, and again only if the configuration seen by the health check changes
+        collectorLog.onChange(log, "health-config", useRealData + "/" + (dataSource != null),
+                "GreenplumService Health Check - useRealData: {}, dataSource: {}",
                 useRealData, dataSource != null ? "available" : "null");
         
         try {
             if (useRealData && dataSource != null) {
                 // Real database health check
-                try (Connection conn = dataSource.getConnection();
-                     PreparedStatement stmt = conn.prepareStatement("SELECT 1")) {
-                    
-                    ResultSet rs = stmt.executeQuery();
-                    boolean hasResult = rs.next();
-                    
-                    health.put("healthy", hasResult);
-                    health.put("status", hasResult ? "UP" : "DOWN");
-                    health.put("host", host);
-                    health.put("port", port);
-                    health.put("database", database);
-                    health.put("user", user);
-                    health.put("connection_test", "real");
-                    health.put("timestamp", System.currentTimeMillis());
-                    
-                    log.info("Greenplum health check: {} (real connection to {})", hasResult ? "UP" : "DOWN", host);
-                }
+                boolean hasResult = upstreamGuardService.call(UpstreamGuardService.GREENPLUM, this::probeConnection);
+                
+                health.put("healthy", hasResult);
+                health.put("status", hasResult ? "UP" : "DOWN");
+                health.put("host", host);
+                health.put("port", port);
+                health.put("database", database);
+                health.put("user", user);
+                health.put("connection_test", "real");
+                health.put("timestamp", System.currentTimeMillis());
+                
+                collectorLog.onChange(log, "health", hasResult, "Greenplum health check: {} (real connection to {})", hasResult ? "UP" : "DOWN", host);
             } else {
                 // Simulated health check
                 health.put("healthy", true);
@@ -91,7 +95,7 @@ public class GreenplumService {
             }
             
         } catch (Exception e) {
-            log.error("Greenplum health check failed: {}", e.getMessage());
+            collectorLog.error(log, "health-failed", "Greenplum health check failed: {}", e.getMessage());
             
             health.put("healthy", false);
             health.put("status", "DOWN");
@@ -103,6 +107,17 @@ public class GreenplumService {
         return health;
     }
 
+    private boolean probeConnection() {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement("SELECT 1")) {
+            
+            ResultSet rs = stmt.executeQuery();
+            return rs.next();
+        } catch (SQLException e) {
+            throw new RuntimeException("Connection test failed: " + e.getMessage(), e);
+        }
+    }
+
     /**
      * Get fleet safety summary for the Safe Driver Scoring dashboard
      */
@@ -112,10 +127,10 @@ public class GreenplumService {
         try {
             if (useRealData && dataSource != null) {
                 // Real database query
-                summary = fetchRealFleetSummary();
+                summary = upstreamGuardService.call(UpstreamGuardService.GREENPLUM, this::fetchRealFleetSummary);
             } else {
                 if (useRealData && dataSource == null) {
-                    log.warn("Real data requested but DataSource not available - falling back to simulated data");
+                    collectorLog.warn(log, "no-datasource:fleet-summary", "Real data requested but DataSource not available - falling back to simulated data");
                 }
                 // Simulated data based on the schema documentation
                 summary.put("fleet_average_score", 83.2);
@@ -139,7 +154,7 @@ public class GreenplumService {
             }
             
         } catch (Exception e) {
-            log.error("Failed to fetch fleet safety summary: {}", e.getMessage());
+            collectorLog.error(log, "fleet-summary-failed", "Failed to fetch fleet safety summary: {}", e.getMessage());
             summary.put("status", "error");
             summary.put("error", e.getMessage());
         }
@@ -206,7 +221,7 @@ public class GreenplumService {
                     summary.put("status", "success");
                     summary.put("data_source", "real_database");
                     
-                    log.info("Retrieved real fleet safety summary: {} drivers, avg score {}", 
+                    collectorLog.sampled(log, "fleet-summary", "Retrieved real fleet safety summary: {} drivers, avg score {}", 
                         summary.get("total_drivers"), summary.get("fleet_average_score"));
                 } else {
                     throw new RuntimeException("No data found in safe_driver_scores table");
@@ -214,7 +229,7 @@ public class GreenplumService {
             }
             
         } catch (SQLException e) {
-            log.error("Database error fetching fleet summary: {}", e.getMessage());
+            collectorLog.error(log, "fleet-summary-db-failed", "Database error fetching fleet summary: {}", e.getMessage());
             throw new RuntimeException("Database query failed: " + e.getMessage(), e);
         }
         
@@ -230,10 +245,10 @@ public class GreenplumService {
         try {
             if (useRealData && dataSource != null) {
                 // Real database query
-                drivers = fetchRealTopPerformers();
+                drivers = upstreamGuardService.call(UpstreamGuardService.GREENPLUM, this::fetchRealTopPerformers);
             } else {
                 if (useRealData && dataSource == null) {
-                    log.warn("Real data requested but DataSource not available - using simulated top performers");
+                    collectorLog.warn(log, "no-datasource:top-performers", "Real data requested but DataSource not available - using simulated top performers");
                 }
                 // Simulated data based on schema documentation
                 
@@ -287,11 +302,11 @@ public class GreenplumService {
             driver5.put("accidents", 0);
             drivers.add(driver5);
             
-                log.info("Retrieved {} top performing drivers", drivers.size());
+                collectorLog.sampled(log, "top-performers", "Retrieved {} top performing drivers", drivers.size());
             }
             
         } catch (Exception e) {
-            log.error("Failed to fetch top performers: {}", e.getMessage());
+            collectorLog.error(log, "top-performers-failed", "Failed to fetch top performers: {}", e.getMessage());
         }
         
         return drivers;
@@ -352,11 +367,11 @@ public class GreenplumService {
                     drivers.add(driver);
                 }
                 
-                log.info("Retrieved {} real top performing drivers from database", drivers.size());
+                collectorLog.sampled(log, "top-performers-db", "Retrieved {} real top performing drivers from database", drivers.size());
             }
             
         } catch (SQLException e) {
-            log.error("Database error fetching top performers: {}", e.getMessage());
+            collectorLog.error(log, "top-performers-db-failed", "Database error fetching top performers: {}", e.getMessage());
             throw new RuntimeException("Database query failed: " + e.getMessage(), e);
         }
         
@@ -372,10 +387,10 @@ public class GreenplumService {
         try {
             if (useRealData && dataSource != null) {
                 // Real database query
-                drivers = fetchRealHighRiskDrivers();
+                drivers = upstreamGuardService.call(UpstreamGuardService.GREENPLUM, this::fetchRealHighRiskDrivers);
             } else {
                 if (useRealData && dataSource == null) {
-                    log.warn("Real data requested but DataSource not available - using simulated high risk drivers");
+                    collectorLog.warn(log, "no-datasource:high-risk", "Real data requested but DataSource not available - using simulated high risk drivers");
                 }
                 // Simulated data based on schema documentation
                 
@@ -429,11 +444,11 @@ public class GreenplumService {
                 driver5.put("accidents", 0);
                 drivers.add(driver5);
                 
-                log.info("Retrieved {} high risk drivers (simulated)", drivers.size());
+                collectorLog.sampled(log, "high-risk", "Retrieved {} high risk drivers (simulated)", drivers.size());
             }
             
         } catch (Exception e) {
-            log.error("Failed to fetch high risk drivers: {}", e.getMessage());
+            collectorLog.error(log, "high-risk-failed", "Failed to fetch high risk drivers: {}", e.getMessage());
         }
         
         return drivers;
@@ -494,11 +509,11 @@ public class GreenplumService {
                     drivers.add(driver);
                 }
                 
-                log.info("Retrieved {} real high risk drivers from database", drivers.size());
+                collectorLog.sampled(log, "high-risk-db", "Retrieved {} real high risk drivers from database", drivers.size());
             }
             
         } catch (SQLException e) {
-            log.error("Database error fetching high risk drivers: {}", e.getMessage());
+            collectorLog.error(log, "high-risk-db-failed", "Database error fetching high risk drivers: {}", e.getMessage());
             throw new RuntimeException("Database query failed: " + e.getMessage(), e);
         }
         
@@ -529,7 +544,7 @@ public class GreenplumService {
                     
             if (useRealData && dataSource != null) {
                 // Execute against real Greenplum database
-                Map<String, Object> executionResult = executeScriptAgainstRealDatabase(sqlScript);
+                Map<String, Object> executionResult = upstreamGuardService.call(UpstreamGuardService.GREENPLUM, () -> executeScriptAgainstRealDatabase(sqlScript));
                 result.putAll(executionResult);
                 log.info("Executed real database recalculation: {} drivers updated", result.get("updated_drivers"));
             } else {
@@ -569,6 +584,14 @@ public class GreenplumService {
         return result;
     }
     
+    /**
+     * The last statistics read from the real database, or null before the first read. Lets
+     * exporters report table counts without querying Greenplum themselves.
+     */
+    public Map<String, Object> getLastDatabaseStats() {
+        return lastDatabaseStats;
+    }
+
     /**
      * Get database statistics - counts from key tables
      */
@@ -577,7 +600,8 @@ public class GreenplumService {
         
         try {
             if (useRealData && dataSource != null) {
-                stats = fetchRealDatabaseStats();
+                stats = upstreamGuardService.call(UpstreamGuardService.GREENPLUM, this::fetchRealDatabaseStats);
+                lastDatabaseStats = stats;
             } else {
                 // Enhanced simulated database stats
                 stats.put("vehicle_events_count", 45678);
@@ -596,7 +620,7 @@ public class GreenplumService {
             }
             
         } catch (Exception e) {
-            log.error("Failed to fetch database stats: {}", e.getMessage());
+            collectorLog.error(log, "stats-failed", "Failed to fetch database stats: {}", e.getMessage());
             stats.put("status", "error");
             stats.put("error", e.getMessage());
         }
@@ -648,7 +672,7 @@ public class GreenplumService {
                     stats.put("status", "success");
                     stats.put("data_source", "real_database");
                     
-                    log.info("Retrieved real database stats: {} vehicle events, {} telemetry points, {} driver scores, {} unique drivers", 
+                    collectorLog.sampled(log, "stats-db", "Retrieved real database stats: {} vehicle events, {} telemetry points, {} driver scores, {} unique drivers", 
                         stats.get("vehicle_events_count"), 
                         stats.get("telemetry_points_count"),
                         stats.get("safe_driver_scores_count"),
@@ -659,7 +683,7 @@ public class GreenplumService {
             }
             
         } catch (SQLException e) {
-            log.error("Database error fetching stats: {}", e.getMessage());
+            collectorLog.error(log, "stats-db-failed", "Database error fetching stats: {}", e.getMessage());
             throw new RuntimeException("Database stats query failed: " + e.getMessage(), e);
         }
         
@@ -672,7 +696,7 @@ public class GreenplumService {
     private String downloadSqlScript() {
         try {
             log.info("Downloading SQL script from: {}", sqlScriptUrl);
-            String script = restTemplate.getForObject(sqlScriptUrl, String.class);
+            String script = upstreamGuardService.call("sql-script", () -> restTemplate.getForObject(sqlScriptUrl, String.class));
             
             if (script != null && script.trim().length() > 0) {
                 log.info("Successfully downloaded SQL script, {} characters", script.length());
@@ -797,10 +821,10 @@ public class GreenplumService {
         
         try {
             if (useRealData && dataSource != null) {
-                modelInfo = fetchRealMLModelInfo();
+                modelInfo = upstreamGuardService.call(UpstreamGuardService.GREENPLUM, this::fetchRealMLModelInfo);
             } else {
                 if (useRealData && dataSource == null) {
-                    log.warn("Real data requested but DataSource not available - using simulated ML model info");
+                    collectorLog.warn(log, "no-datasource:ml-model", "Real data requested but DataSource not available - using simulated ML model info");
                 }
                 // Simulated ML model information based on schema documentation
                 modelInfo.put("model_type", "MADlib Logistic Regression");
@@ -834,7 +858,7 @@ public class GreenplumService {
             }
             
         } catch (Exception e) {
-            log.error("Failed to fetch ML model info: {}", e.getMessage());
+            collectorLog.error(log, "ml-model-failed", "Failed to fetch ML model info: {}", e.getMessage());
             modelInfo.put("status", "error");
             modelInfo.put("error", e.getMessage());
         }
@@ -906,7 +930,7 @@ public class GreenplumService {
                     modelInfo.put("data_source", "real_database");
                     modelInfo.put("last_updated", System.currentTimeMillis());
                     
-                    log.info("Retrieved real ML model info: {} iterations, {} rows processed", 
+                    collectorLog.sampled(log, "ml-model-db", "Retrieved real ML model info: {} iterations, {} rows processed", 
                         modelInfo.get("num_iterations"), modelInfo.get("num_rows_processed"));
                 } else {
                     throw new RuntimeException("No ML model found in driver_accident_model table");
@@ -914,7 +938,7 @@ public class GreenplumService {
             }
             
         } catch (SQLException e) {
-            log.error("Database error fetching ML model info: {}", e.getMessage());
+            collectorLog.error(log, "ml-model-db-failed", "Database error fetching ML model info: {}", e.getMessage());
             throw new RuntimeException("ML model query failed: " + e.getMessage(), e);
         }
         
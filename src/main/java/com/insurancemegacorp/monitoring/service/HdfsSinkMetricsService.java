@@ -0,0 +1,425 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.InstanceScrape;
+import com.insurancemegacorp.monitoring.dto.ServiceInstancesChangedEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hadoop.conf.Configuration;
+import org.apache.hadoop.fs.ContentSummary;
+import org.apache.hadoop.fs.FileStatus;
+import org.apache.hadoop.fs.FileSystem;
+import org.apache.hadoop.fs.Path;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.ToLongFunction;
+
+/**
+ * Write metrics for the SCDF HDFS sink.
+ *
+ * Throughput comes from the sink's own Prometheus counters, scraped from every discovered
+ * instance and made reset-aware. Independently, the target directory on HDFS is inspected
+ * on a schedule: file and byte counts from the namenode's content summary, and roll timing
+ * from the newest partition directory. The two are cross-checked, so a sink that reports
+ * writes which never show up on HDFS (or the other way round) is visible.
+ */
+@Slf4j
+@Service
+public class HdfsSinkMetricsService {
+
+    static final String SERIES_PREFIX = "hdfs_sink:";
+    static final String MESSAGES_SERIES = SERIES_PREFIX + "messages";
+    static final String BYTES_SERIES = SERIES_PREFIX + "bytes";
+    static final String FILES_SERIES = SERIES_PREFIX + "files";
+    static final String ROLL_SUM_SERIES = SERIES_PREFIX + "roll_seconds_sum";
+    static final String ROLL_COUNT_SERIES = SERIES_PREFIX + "roll_seconds_count";
+    static final String ERRORS_SERIES = SERIES_PREFIX + "errors";
+
+    // Candidate counters per quantity, in order of preference; the first one an instance
+    // exposes is pinned for that instance until it leaves discovery. Micrometer registers
+    // counters lazily, so a preferred counter appearing later must not switch the source
+    // mid-series. The generic spring_integration_* counters are summed over every channel
+    // of the app (errorChannel, nullChannel, ...) and are not usable here.
+    private static final List<String> MESSAGES_PATTERNS = List.of(
+        "hdfs_sink_messages_written_total",
+        "hdfs_sink_records_written_total",
+        "rabbitmq_consumed_total"
+    );
+    private static final List<String> BYTES_PATTERNS = List.of(
+        "hdfs_sink_bytes_written_total",
+        "hdfs_sink_written_bytes_total"
+    );
+    private static final List<String> FILES_PATTERNS = List.of(
+        "hdfs_sink_files_rolled_total",
+        "hdfs_sink_files_closed_total",
+        "hdfs_sink_files_written_total"
+    );
+    private static final List<String> ERROR_PATTERNS = List.of(
+        "hdfs_sink_write_errors_total"
+    );
+    private static final String ROLL_TIMER = "hdfs_sink_roll_seconds";
+
+    private static final int MAX_PARTITION_DEPTH = 6;
+
+    private final InstanceScraperService instanceScraperService;
+    private final CounterRateService counterRateService;
+    private final UpstreamGuardService upstreamGuardService;
+    private final InstanceScalingService instanceScalingService;
+    private final CollectorLogService collectorLog;
+    private final LeaderElection leaderElection;
+    private final String serviceName = "imc-hdfs-sink";
+    private final String metricsMode;
+    private final boolean crossCheckEnabled;
+    private final String namenodeUri;
+    private final Path targetPath;
+    private final String inUseSuffix;
+    private final int connectTimeoutMillis;
+    // Series -> instance id -> the counter pinned for it
+    private final Map<String, Map<String, String>> pinnedCounters = new ConcurrentHashMap<>();
+    private FileSystem fileSystem;
+    private volatile HdfsSnapshot lastSnapshot;
+    private volatile HdfsSnapshot previousSnapshot;
+    private volatile String lastCrossCheckError;
+
+    /**
+     * One inspection of the target directory, with the sink's file counter at the same moment
+     * so the two can be compared over the interval between inspections.
+     */
+    private record HdfsSnapshot(long timestamp, long fileCount, long directoryCount, long bytes,
+                                String latestPartition, int openFiles, Long lastRollMillis,
+                                Double rollIntervalSeconds, double reportedFiles) {
+    }
+
+    public HdfsSinkMetricsService(InstanceScraperService instanceScraperService,
+                                  CounterRateService counterRateService,
+                                  UpstreamGuardService upstreamGuardService,
+                                  InstanceScalingService instanceScalingService,
+                                  CollectorLogService collectorLog,
+                                  LeaderElection leaderElection,
+                                  @Value("${metrics.mode:mock}") String metricsMode,
+                                  @Value("${hdfs.cross-check.enabled:true}") boolean crossCheckEnabled,
+                                  @Value("${hdfs.namenode-uri:}") String namenodeUri,
+                                  @Value("${hdfs.target-path:/insurance-megacorp/telemetry-data-v2}") String targetPath,
+                                  @Value("${hdfs.in-use-suffix:.tmp}") String inUseSuffix,
+                                  @Value("${hdfs.cross-check.connect-timeout-ms:5000}") int connectTimeoutMillis) {
+        this.instanceScraperService = instanceScraperService;
+        this.counterRateService = counterRateService;
+        this.upstreamGuardService = upstreamGuardService;
+        this.instanceScalingService = instanceScalingService;
+        this.collectorLog = collectorLog;
+        this.leaderElection = leaderElection;
+        this.metricsMode = metricsMode;
+        this.crossCheckEnabled = crossCheckEnabled && !namenodeUri.isBlank();
+        this.namenodeUri = namenodeUri;
+        this.targetPath = new Path(targetPath);
+        this.inUseSuffix = inUseSuffix;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+        log.info("HdfsSinkMetricsService initialized: crossCheck={}, namenode={}, target={}",
+            this.crossCheckEnabled, namenodeUri, targetPath);
+    }
+
+    /**
+     * Get HDFS sink metrics (messages in, files written, write throughput, roll latency)
+     */
+    public Map<String, Object> getHdfsSinkMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+
+        try {
+            List<InstanceScrape> scrapes = instanceScraperService.scrapeAll(serviceName, HdfsSinkMetricsService::isCollectedMetric);
+
+            if (scrapes.isEmpty()) {
+                collectorLog.error(log, "no-instances", "No healthy instances found for service: {}. Check if SCDF HDFS sink is running and registered.", serviceName);
+                return createErrorMetrics("Service not available - check if " + serviceName + " is running and registered");
+            }
+
+            int successfulInstances = 0;
+            for (InstanceScrape scrape : scrapes) {
+                if (!scrape.success()) {
+                    continue;
+                }
+                Map<String, Double> values = scrape.metrics();
+                recordFirst(MESSAGES_SERIES, MESSAGES_PATTERNS, scrape);
+                recordFirst(BYTES_SERIES, BYTES_PATTERNS, scrape);
+                recordFirst(FILES_SERIES, FILES_PATTERNS, scrape);
+                recordFirst(ERRORS_SERIES, ERROR_PATTERNS, scrape);
+                Double rollSum = values.get(ROLL_TIMER + "_sum");
+                Double rollCount = values.get(ROLL_TIMER + "_count");
+                if (rollSum != null && rollCount != null) {
+                    counterRateService.record(ROLL_SUM_SERIES, scrape.instanceId(), rollSum);
+                    counterRateService.record(ROLL_COUNT_SERIES, scrape.instanceId(), rollCount);
+                }
+                successfulInstances++;
+            }
+
+            if (successfulInstances == 0) {
+                return createErrorMetrics("Failed to fetch metrics from any instance of " + serviceName);
+            }
+
+            Duration window = counterRateService.getDefaultWindow();
+            HdfsSnapshot snapshot = lastSnapshot;
+            boolean reportsFiles = hasSeries(FILES_SERIES);
+
+            metrics.put("messages_in", Math.round(counterRateService.total(MESSAGES_SERIES)));
+            metrics.put("messages_rate", counterRateService.rate(MESSAGES_SERIES));
+            // The sink's own roll counter when it has one; otherwise what is actually on HDFS
+            metrics.put("files_written", reportsFiles ? Math.round(counterRateService.total(FILES_SERIES))
+                : snapshot != null ? snapshot.fileCount() : 0L);
+            metrics.put("files_per_sec", reportsFiles ? Double.valueOf(counterRateService.rate(FILES_SERIES)) : hdfsRate(HdfsSnapshot::fileCount));
+            metrics.put("bytes_written", hasSeries(BYTES_SERIES) ? Long.valueOf(Math.round(counterRateService.total(BYTES_SERIES)))
+                : snapshot != null ? Long.valueOf(snapshot.bytes()) : null);
+            metrics.put("write_bytes_per_sec", hasSeries(BYTES_SERIES) ? Double.valueOf(counterRateService.rate(BYTES_SERIES)) : hdfsRate(HdfsSnapshot::bytes));
+            metrics.put("write_errors", Math.round(counterRateService.total(ERRORS_SERIES)));
+            metrics.put("roll_latency_seconds", rollLatency(window));
+            metrics.put("counter_resets", counterRateService.resetCount(MESSAGES_SERIES));
+            metrics.put("hdfs", crossCheckView(snapshot));
+            metrics.put("service_url", scrapes.get(0).serviceUrl());
+            metrics.put("total_instances", scrapes.size());
+            metrics.put("successful_instances", successfulInstances);
+            metrics.put("scaling", instanceScalingService.analyze("hdfs_sink", serviceName, MESSAGES_SERIES, scrapes));
+            metrics.put("status", "healthy");
+            metrics.put("timestamp", System.currentTimeMillis());
+
+            log.debug("HDFS Sink metrics from {} instances - Messages in: {}, Files written: {}",
+                successfulInstances, metrics.get("messages_in"), metrics.get("files_written"));
+
+        } catch (Exception e) {
+            collectorLog.error(log, "metrics", "Failed to get HDFS Sink metrics: {}", e.getMessage());
+            return createErrorMetrics("Failed to fetch metrics: " + e.getMessage());
+        }
+
+        return metrics;
+    }
+
+    /**
+     * Inspect the target directory on HDFS. Runs on its own schedule rather than per request:
+     * a content summary walks the whole tree on the namenode.
+     */
+    @Scheduled(fixedDelayString = "${hdfs.cross-check.interval-ms:60000}", initialDelayString = "${hdfs.cross-check.initial-delay-ms:10000}")
+    public void crossCheck() {
+        if (!crossCheckEnabled || !"real".equalsIgnoreCase(metricsMode) || !leaderElection.isLeader()) {
+            return;
+        }
+        try {
+            HdfsSnapshot snapshot = upstreamGuardService.call(UpstreamGuardService.HDFS_NAMENODE, this::inspectTarget);
+            previousSnapshot = lastSnapshot;
+            lastSnapshot = snapshot;
+            lastCrossCheckError = null;
+            collectorLog.onChange(log, "cross-check", "ok", "HDFS cross-check of {} succeeded: {} files, {} bytes",
+                targetPath, snapshot.fileCount(), snapshot.bytes());
+        } catch (Exception e) {
+            lastCrossCheckError = e.getMessage();
+            collectorLog.warn(log, "cross-check-failed", "HDFS cross-check of {} on {} failed: {}", targetPath, namenodeUri, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (fileSystem != null) {
+            try {
+                fileSystem.close();
+            } catch (IOException e) {
+                log.debug("Failed to close HDFS client: {}", e.getMessage());
+            }
+            fileSystem = null;
+        }
+    }
+
+    private HdfsSnapshot inspectTarget() {
+        try {
+            FileSystem fs = fileSystem();
+            ContentSummary summary = fs.getContentSummary(targetPath);
+            Optional<Path> partition = latestPartition(fs);
+
+            int openFiles = 0;
+            Long lastRoll = null;
+            Double rollInterval = null;
+            if (partition.isPresent()) {
+                List<Long> rolled = new ArrayList<>();
+                for (FileStatus status : fs.listStatus(partition.get())) {
+                    if (!status.isFile()) {
+                        continue;
+                    }
+                    if (status.getPath().getName().endsWith(inUseSuffix)) {
+                        openFiles++;
+                    } else {
+                        rolled.add(status.getModificationTime());
+                    }
+                }
+                rolled.sort(Comparator.naturalOrder());
+                if (!rolled.isEmpty()) {
+                    lastRoll = rolled.get(rolled.size() - 1);
+                }
+                // Mean gap between consecutive rolls in the partition being written
+                if (rolled.size() > 1) {
+                    rollInterval = (rolled.get(rolled.size() - 1) - rolled.get(0)) / 1000.0 / (rolled.size() - 1);
+                }
+            }
+
+            return new HdfsSnapshot(System.currentTimeMillis(), summary.getFileCount(), summary.getDirectoryCount(),
+                summary.getLength(), partition.map(Path::toString).orElse(null), openFiles, lastRoll, rollInterval,
+                counterRateService.total(FILES_SERIES));
+        } catch (IOException e) {
+            throw new UncheckedIOException("HDFS inspection failed: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * The partition directory being written: follow the most recently modified subdirectory
+     * down until a directory has no subdirectories.
+     */
+    private Optional<Path> latestPartition(FileSystem fs) throws IOException {
+        Path current = targetPath;
+        for (int depth = 0; depth < MAX_PARTITION_DEPTH; depth++) {
+            Optional<FileStatus> newest = Arrays.stream(fs.listStatus(current))
+                .filter(FileStatus::isDirectory)
+                .max(Comparator.comparingLong(FileStatus::getModificationTime));
+            if (newest.isEmpty()) {
+                return Optional.of(current);
+            }
+            current = newest.get().getPath();
+        }
+        return Optional.of(current);
+    }
+
+    private synchronized FileSystem fileSystem() throws IOException {
+        if (fileSystem == null) {
+            Configuration configuration = new Configuration();
+            // Fail fast instead of the client's default of retrying a dead namenode for minutes
+            configuration.setInt("ipc.client.connect.timeout", connectTimeoutMillis);
+            configuration.setInt("ipc.client.connect.max.retries", 0);
+            configuration.setInt("ipc.client.connect.max.retries.on.timeouts", 0);
+            fileSystem = FileSystem.newInstance(URI.create(namenodeUri), configuration);
+        }
+        return fileSystem;
+    }
+
+    private Map<String, Object> crossCheckView(HdfsSnapshot snapshot) {
+        Map<String, Object> view = new HashMap<>();
+        view.put("enabled", crossCheckEnabled);
+        if (!crossCheckEnabled) {
+            return view;
+        }
+        view.put("namenode_uri", namenodeUri);
+        view.put("target_path", targetPath.toString());
+        view.put("error", lastCrossCheckError);
+        if (snapshot == null) {
+            view.put("status", lastCrossCheckError != null ? "error" : "pending");
+            return view;
+        }
+        long now = System.currentTimeMillis();
+        view.put("file_count", snapshot.fileCount());
+        view.put("directory_count", snapshot.directoryCount());
+        view.put("bytes", snapshot.bytes());
+        view.put("files_per_sec", hdfsRate(HdfsSnapshot::fileCount));
+        view.put("bytes_per_sec", hdfsRate(HdfsSnapshot::bytes));
+        view.put("latest_partition", snapshot.latestPartition());
+        view.put("open_files", snapshot.openFiles());
+        view.put("roll_interval_seconds", snapshot.rollIntervalSeconds());
+        view.put("last_roll_age_seconds", snapshot.lastRollMillis() != null
+            ? Double.valueOf((now - snapshot.lastRollMillis()) / 1000.0) : null);
+        view.put("checked_at", snapshot.timestamp());
+
+        // Files the sink says it rolled versus files that appeared on HDFS between the last
+        // two inspections. Retention jobs deleting old partitions show up as a surplus.
+        HdfsSnapshot previous = previousSnapshot;
+        if (previous != null && hasSeries(FILES_SERIES)) {
+            long reported = Math.round(snapshot.reportedFiles() - previous.reportedFiles());
+            long observed = snapshot.fileCount() - previous.fileCount();
+            view.put("files_reported", reported);
+            view.put("files_observed", observed);
+            view.put("files_missing", reported - observed);
+            view.put("status", reported == observed ? "consistent" : reported > observed ? "missing_files" : "unreported_files");
+        } else {
+            view.put("status", "ok");
+        }
+        return view;
+    }
+
+    /**
+     * Growth per second between the last two inspections, or null when there are not two yet
+     * or the quantity shrank (old partitions removed).
+     */
+    private Double hdfsRate(ToLongFunction<HdfsSnapshot> quantity) {
+        HdfsSnapshot snapshot = lastSnapshot;
+        HdfsSnapshot previous = previousSnapshot;
+        if (snapshot == null || previous == null || snapshot.timestamp() <= previous.timestamp()) {
+            return null;
+        }
+        long delta = quantity.applyAsLong(snapshot) - quantity.applyAsLong(previous);
+        return delta >= 0 ? delta * 1000.0 / (snapshot.timestamp() - previous.timestamp()) : null;
+    }
+
+    /**
+     * Mean time the sink spent rolling a file over the window, from its roll timer.
+     */
+    private Double rollLatency(Duration window) {
+        if (!hasSeries(ROLL_COUNT_SERIES)) {
+            return null;
+        }
+        double rolls = counterRateService.increase(ROLL_COUNT_SERIES, window);
+        return rolls > 0 ? Double.valueOf(counterRateService.increase(ROLL_SUM_SERIES, window) / rolls) : null;
+    }
+
+    private void recordFirst(String series, List<String> patterns, InstanceScrape scrape) {
+        Map<String, String> pinned = pinnedCounters.computeIfAbsent(series, s -> new ConcurrentHashMap<>());
+        String counter = pinned.get(scrape.instanceId());
+        if (counter == null) {
+            counter = patterns.stream().filter(scrape.metrics()::containsKey).findFirst().orElse(null);
+            if (counter == null) {
+                return;
+            }
+            pinned.put(scrape.instanceId(), counter);
+            log.debug("Pinned {} for {} instance {}", counter, series, scrape.instanceId());
+        }
+        Double value = scrape.metrics().get(counter);
+        if (value != null) {
+            counterRateService.record(series, scrape.instanceId(), value);
+        }
+    }
+
+    /**
+     * Instances that left discovery pick their counters afresh if they come back.
+     */
+    @EventListener
+    public void onInstancesChanged(ServiceInstancesChangedEvent event) {
+        if (serviceName.equalsIgnoreCase(event.serviceName())) {
+            for (Map<String, String> pinned : pinnedCounters.values()) {
+                event.removed().forEach(pinned::remove);
+            }
+        }
+    }
+
+    private boolean hasSeries(String series) {
+        return counterRateService.seriesNames().contains(series);
+    }
+
+    private static boolean isCollectedMetric(String name) {
+        return MESSAGES_PATTERNS.contains(name) || BYTES_PATTERNS.contains(name) || FILES_PATTERNS.contains(name)
+            || ERROR_PATTERNS.contains(name) || name.startsWith(ROLL_TIMER);
+    }
+
+    private Map<String, Object> createErrorMetrics(String error) {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("messages_in", 0L);
+        metrics.put("files_written", 0L);
+        metrics.put("hdfs", crossCheckView(lastSnapshot));
+        metrics.put("status", "error");
+        metrics.put("error", error);
+        metrics.put("timestamp", System.currentTimeMillis());
+        return metrics;
+    }
+}
@@ -1,5 +1,7 @@
 package com.insurancemegacorp.monitoring.service;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
@@ -11,16 +13,32 @@ import org.springframework.stereotype.Service;
 public class HealthCheckScheduler {
 
     private final ComponentHealthService componentHealthService;
+    private final CycleTracer cycleTracer;
+    private final LeaderElection leaderElection;
+    private final Timer cycleTimer;
     
     @Autowired(required = false)
     private ServiceDiscoveryHealthService serviceDiscoveryHealthService;
 
-    public HealthCheckScheduler(ComponentHealthService componentHealthService) {
+    public HealthCheckScheduler(ComponentHealthService componentHealthService,
+                                MeterRegistry meterRegistry,
+                                CycleTracer cycleTracer,
+                                LeaderElection leaderElection) {
         this.componentHealthService = componentHealthService;
+        this.cycleTracer = cycleTracer;
+        this.leaderElection = leaderElection;
+        this.cycleTimer = CollectionCycles.timer(meterRegistry, "health-checks");
     }
 
     @Scheduled(fixedRate = 8000) // Check every 8 seconds
     public void performHealthChecks() {
+        if (!leaderElection.isLeader()) {
+            return;
+        }
+        cycleTimer.record(() -> cycleTracer.cycle("health-checks", this::runHealthChecks));
+    }
+
+    private void runHealthChecks() {
         log.debug("Performing scheduled component health checks");
         
         // Use service discovery if available, otherwise fall back to static URLs
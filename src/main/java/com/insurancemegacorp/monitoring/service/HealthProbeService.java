@@ -0,0 +1,253 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.InstanceHealth;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Probes /actuator/health of every component instance concurrently under one overall
+ * deadline, and keeps per-instance health history in memory: the latest result, a latency
+ * histogram over a rolling window, and when the instance last changed between healthy and
+ * unhealthy. Probes are non-blocking WebClient calls merged into one stream, so a round
+ * does not tie up a thread per instance.
+ */
+@Slf4j
+@Service
+public class HealthProbeService {
+
+    private static final int RECENT_LATENCIES = 20;
+    private static final long HIGHEST_TRACKABLE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * One health endpoint to probe; {@code upstream} is the circuit breaker target it is called through.
+     */
+    public record ProbeTarget(String component, String instanceId, String healthUrl, String upstream) {
+    }
+
+    private record ProbeResult(boolean healthy, String status, long latencyMillis, String error) {
+    }
+
+    private static final ParameterizedTypeReference<Map<String, Object>> HEALTH_BODY = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient webClient;
+    private final UpstreamGuardService upstreamGuardService;
+    private final CycleTracer cycleTracer;
+    private final long timeoutMillis;
+    private final long latencyWindowMillis;
+    private final Map<String, HealthTracker> trackers = new ConcurrentHashMap<>();
+
+    public HealthProbeService(WebClient webClient,
+                              UpstreamGuardService upstreamGuardService,
+                              CycleTracer cycleTracer,
+                              @Value("${component.health.timeout-ms:2000}") long timeoutMillis,
+                              @Value("${component.health.latency-window-seconds:300}") long latencyWindowSeconds) {
+        this.webClient = webClient;
+        this.upstreamGuardService = upstreamGuardService;
+        this.cycleTracer = cycleTracer;
+        this.timeoutMillis = timeoutMillis;
+        this.latencyWindowMillis = latencyWindowSeconds * 1000;
+    }
+
+    /**
+     * Probe all targets in parallel. Probes still running at the deadline count as failed
+     * with the deadline as their latency. Targets absent from this round are forgotten, so
+     * instances that left discovery drop out of the model.
+     */
+    public List<InstanceHealth> probeAll(List<ProbeTarget> targets) {
+        return cycleTracer.span("health-probes", () -> probeTargets(targets));
+    }
+
+    private List<InstanceHealth> probeTargets(List<ProbeTarget> targets) {
+        List<Mono<ProbeResult>> probes = new ArrayList<>();
+        for (ProbeTarget target : targets) {
+            probes.add(probe(target));
+        }
+        // Each probe settles by the deadline on its own, so this never waits longer
+        List<ProbeResult> probeResults = Flux.mergeSequential(probes).collectList().block();
+
+        long now = System.currentTimeMillis();
+        Set<String> probedKeys = new HashSet<>();
+        List<InstanceHealth> results = new ArrayList<>();
+        for (int i = 0; i < targets.size(); i++) {
+            ProbeTarget target = targets.get(i);
+            ProbeResult result = probeResults.get(i);
+
+            String key = key(target);
+            probedKeys.add(key);
+            HealthTracker tracker = trackers.computeIfAbsent(key, k -> new HealthTracker(target));
+            tracker.record(result, now);
+            results.add(tracker.snapshot());
+        }
+        trackers.keySet().retainAll(probedKeys);
+        return results;
+    }
+
+    /**
+     * Per-component view of the latest probes. Components without any probed instance are
+     * listed as unhealthy with no instances.
+     */
+    public Map<String, Object> getHealthModel(Collection<String> components) {
+        Map<String, List<InstanceHealth>> byComponent = new TreeMap<>();
+        for (String component : components) {
+            byComponent.put(component, new ArrayList<>());
+        }
+        for (HealthTracker tracker : trackers.values()) {
+            byComponent.computeIfAbsent(tracker.target.component(), c -> new ArrayList<>()).add(tracker.snapshot());
+        }
+
+        Map<String, Object> model = new TreeMap<>();
+        byComponent.forEach((component, instances) -> {
+            long healthyInstances = instances.stream().filter(InstanceHealth::healthy).count();
+            Map<String, Object> view = new HashMap<>();
+            view.put("healthy", healthyInstances > 0);
+            view.put("healthy_instances", healthyInstances);
+            view.put("total_instances", instances.size());
+            view.put("instances", instances);
+            model.put(component, view);
+        });
+        return model;
+    }
+
+    private Mono<ProbeResult> probe(ProbeTarget target) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            Mono<Map<String, Object>> request = webClient.get()
+                .uri(target.healthUrl())
+                .retrieve()
+                .bodyToMono(HEALTH_BODY);
+
+            return upstreamGuardService.callReactive(target.upstream(), request)
+                .map(body -> {
+                    String status = (String) body.get("status");
+                    return new ProbeResult("UP".equalsIgnoreCase(status), status, elapsedMillis(start), null);
+                })
+                .defaultIfEmpty(new ProbeResult(false, "DOWN", elapsedMillis(start), "Health endpoint returned no body"))
+                .timeout(Duration.ofMillis(timeoutMillis))
+                .onErrorResume(e -> Mono.just(failure(target, e, start)));
+        });
+    }
+
+    private ProbeResult failure(ProbeTarget target, Throwable e, long start) {
+        if (e instanceof UpstreamUnavailableException) {
+            // Short-circuited without a network call; there is no latency to record
+            return new ProbeResult(false, "DOWN", -1, e.getMessage());
+        }
+        if (e instanceof TimeoutException) {
+            return new ProbeResult(false, "DOWN", timeoutMillis, "Health check timed out after " + timeoutMillis + "ms");
+        }
+        if (e instanceof WebClientResponseException response) {
+            // Actuator answers 503 when the instance reports DOWN
+            return new ProbeResult(false, "DOWN", elapsedMillis(start), "Health endpoint returned: " + response.getStatusCode());
+        }
+        log.debug("Health check failed for {} at {}: {}", target.component(), target.healthUrl(), e.getMessage());
+        return new ProbeResult(false, "DOWN", elapsedMillis(start), e.getMessage());
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static String key(ProbeTarget target) {
+        return target.component() + "|" + target.instanceId();
+    }
+
+    private final class HealthTracker {
+
+        private final ProbeTarget target;
+        private final Deque<Long> recentLatencies = new ArrayDeque<>();
+        private Histogram currentWindow = new Histogram(HIGHEST_TRACKABLE_MILLIS, 2);
+        private Histogram previousWindow;
+        private long windowStart = System.currentTimeMillis();
+        private Boolean healthy;
+        private String status = "UNKNOWN";
+        private long latencyMillis = -1;
+        private String error;
+        private long checks = 0L;
+        private long transitions = 0L;
+        private long lastTransition = 0L;
+        private long lastChecked = 0L;
+
+        private HealthTracker(ProbeTarget target) {
+            this.target = target;
+        }
+
+        private synchronized void record(ProbeResult result, long now) {
+            // Two alternating windows keep the percentiles recent without dropping to empty
+            if (now - windowStart >= latencyWindowMillis) {
+                previousWindow = currentWindow;
+                currentWindow = new Histogram(HIGHEST_TRACKABLE_MILLIS, 2);
+                windowStart = now;
+            }
+            if (result.latencyMillis() >= 0) {
+                currentWindow.recordValue(Math.min(result.latencyMillis(), HIGHEST_TRACKABLE_MILLIS));
+                recentLatencies.addLast(result.latencyMillis());
+                if (recentLatencies.size() > RECENT_LATENCIES) {
+                    recentLatencies.removeFirst();
+                }
+            }
+
+            if (healthy == null || healthy != result.healthy()) {
+                if (healthy != null) {
+                    transitions++;
+                    log.info("Component {} instance {} changed to {}", target.component(), target.instanceId(),
+                        result.healthy() ? "healthy" : "unhealthy");
+                }
+                lastTransition = now;
+            }
+            healthy = result.healthy();
+            status = result.status();
+            latencyMillis = result.latencyMillis();
+            error = result.error();
+            checks++;
+            lastChecked = now;
+        }
+
+        private synchronized InstanceHealth snapshot() {
+            Histogram latencies = currentWindow.copy();
+            if (previousWindow != null) {
+                latencies.add(previousWindow);
+            }
+            boolean hasSamples = latencies.getTotalCount() > 0;
+            return new InstanceHealth(
+                target.component(),
+                target.instanceId(),
+                target.healthUrl(),
+                Boolean.TRUE.equals(healthy),
+                status,
+                latencyMillis,
+                hasSamples ? latencies.getValueAtPercentile(50.0) : -1,
+                hasSamples ? latencies.getValueAtPercentile(99.0) : -1,
+                hasSamples ? latencies.getMaxValue() : -1,
+                List.copyOf(recentLatencies),
+                checks,
+                transitions,
+                lastTransition,
+                lastChecked,
+                error
+            );
+        }
+    }
+}
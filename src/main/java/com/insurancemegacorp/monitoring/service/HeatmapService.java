@@ -0,0 +1,132 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.TelemetrySample;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live hotspot map from the telemetry tap: tapped telemetry samples, harsh ones among them
+ * and vehicle_events are counted per geohash cell in a decayed {@link GeoGrid}, and served
+ * as tiles of any precision up to the grid's, so a map renders from memory however many
+ * events there are.
+ *
+ * Samples without a position, or at exactly 0,0 (no GPS fix), are skipped. Telemetry counts
+ * are of sampled messages.
+ */
+@Service
+public class HeatmapService {
+
+    private static final List<String> COUNTERS = List.of("samples", "harsh", "events");
+    private static final int SAMPLES = 0;
+    private static final int HARSH = 1;
+    private static final int EVENTS = 2;
+
+    private final GeoGrid grid;
+    private final double harshGForce;
+    private final long halfLifeMillis;
+    private final int maxTiles;
+
+    public HeatmapService(@Value("${telemetry.heatmap.precision:6}") int precision,
+                          @Value("${telemetry.heatmap.max-cells:20000}") int maxCells,
+                          @Value("${telemetry.heatmap.half-life-seconds:300}") long halfLifeSeconds,
+                          @Value("${telemetry.heatmap.max-tiles:2000}") int maxTiles,
+                          @Value("${telemetry.tap.harsh-g-force:2.0}") double harshGForce) {
+        this.halfLifeMillis = halfLifeSeconds * 1000;
+        this.grid = new GeoGrid(precision, COUNTERS.size(), maxCells, halfLifeMillis, System.currentTimeMillis());
+        this.maxTiles = maxTiles;
+        this.harshGForce = harshGForce;
+    }
+
+    @EventListener
+    public void onSample(TelemetrySample sample) {
+        Double latitude = sample.latitude();
+        Double longitude = sample.longitude();
+        // NaN passes every range comparison, so it is ruled out first
+        if (latitude == null || longitude == null
+                || !Double.isFinite(latitude) || !Double.isFinite(longitude)
+                || Math.abs(latitude) > 90 || Math.abs(longitude) > 180
+                || (latitude == 0.0 && longitude == 0.0)) {
+            return;
+        }
+        if (TelemetrySample.SOURCE_VEHICLE_EVENTS.equals(sample.source())) {
+            grid.add(latitude, longitude, EVENTS, sample.timestamp());
+            return;
+        }
+        grid.add(latitude, longitude, SAMPLES, sample.timestamp());
+        if (sample.gForce() != null && sample.gForce() >= harshGForce) {
+            grid.add(latitude, longitude, HARSH, sample.timestamp());
+        }
+    }
+
+    /**
+     * Tiles of the given geohash precision (capped at the grid's), optionally within a
+     * bounding box, largest {@code rank} counter first.
+     *
+     * @param bbox "minLat,minLon,maxLat,maxLon", or null for everywhere
+     * @param rank samples, harsh or events
+     * @throws IllegalArgumentException for a malformed bounding box or unknown rank
+     */
+    public Map<String, Object> getTiles(Integer precision, String bbox, String rank, Integer limit) {
+        int rankIndex = COUNTERS.indexOf(rank == null ? "events" : rank);
+        if (rankIndex < 0) {
+            throw new IllegalArgumentException("rank must be one of " + COUNTERS + ": " + rank);
+        }
+        double[] box = bbox == null || bbox.isBlank() ? null : parseBbox(bbox);
+        int tilePrecision = Math.min(grid.precision(), precision == null ? grid.precision() : precision);
+        int tileLimit = Math.min(maxTiles, limit == null ? maxTiles : Math.max(1, limit));
+        long now = System.currentTimeMillis();
+
+        List<Map<String, Object>> tiles = new ArrayList<>();
+        for (GeoGrid.Tile tile : grid.tiles(tilePrecision, box, rankIndex, tileLimit, now)) {
+            double[] bounds = tile.bounds();
+            Map<String, Object> view = new HashMap<>();
+            view.put("geohash", tile.geohash());
+            view.put("center_lat", (bounds[0] + bounds[2]) / 2);
+            view.put("center_lon", (bounds[1] + bounds[3]) / 2);
+            view.put("bounds", List.of(bounds[0], bounds[1], bounds[2], bounds[3]));
+            for (int i = 0; i < COUNTERS.size(); i++) {
+                view.put(COUNTERS.get(i), tile.values()[i]);
+            }
+            tiles.add(view);
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("tiles", tiles);
+        result.put("precision", tilePrecision);
+        result.put("grid_precision", grid.precision());
+        result.put("rank", COUNTERS.get(rankIndex));
+        result.put("half_life_seconds", halfLifeMillis / 1000);
+        result.put("cells", grid.cellCount());
+        result.put("dropped_points", grid.dropped());
+        result.put("timestamp", now);
+        return result;
+    }
+
+    private static double[] parseBbox(String bbox) {
+        String[] parts = bbox.split(",");
+        if (parts.length != 4) {
+            throw new IllegalArgumentException("bbox must be minLat,minLon,maxLat,maxLon: " + bbox);
+        }
+        double[] box = new double[4];
+        for (int i = 0; i < 4; i++) {
+            try {
+                box[i] = Double.parseDouble(parts[i].strip());
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("bbox must be minLat,minLon,maxLat,maxLon: " + bbox);
+            }
+            if (!Double.isFinite(box[i])) {
+                throw new IllegalArgumentException("bbox must be finite coordinates: " + bbox);
+            }
+        }
+        if (box[0] > box[2] || box[1] > box[3]) {
+            throw new IllegalArgumentException("bbox minimums exceed maximums: " + bbox);
+        }
+        return box;
+    }
+}
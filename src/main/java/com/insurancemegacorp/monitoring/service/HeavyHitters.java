@@ -0,0 +1,118 @@
+package com.insurancemegacorp.monitoring.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+/**
+ * Exponentially decayed heavy hitters: a {@link CountMinSketch} estimates every key's
+ * decayed count and a min-heap of at most {@code capacity} candidates keeps the keys with
+ * the largest estimates. A key displaces the heap's smallest candidate once its estimate
+ * exceeds it.
+ *
+ * Counts halve every half-life, applied in steps of a sixteenth of it. Decay scales the
+ * sketch and the candidates alike, so the heap order is unchanged. A steady stream of r
+ * messages per second settles at a decayed count of r * half-life / ln 2. Thread-safe.
+ */
+final class HeavyHitters {
+
+    private final CountMinSketch sketch;
+    private final int capacity;
+    private final long halfLifeMillis;
+    private final long decayStepMillis;
+    private final Map<String, Candidate> candidates = new HashMap<>();
+    private final PriorityQueue<Candidate> heap = new PriorityQueue<>(Comparator.comparingDouble(Candidate::count));
+    private long lastDecay;
+
+    HeavyHitters(int depth, int width, int capacity, long halfLifeMillis, long now) {
+        this.sketch = new CountMinSketch(depth, width);
+        this.capacity = Math.max(1, capacity);
+        this.halfLifeMillis = Math.max(1, halfLifeMillis);
+        this.decayStepMillis = Math.max(1, halfLifeMillis / 16);
+        this.lastDecay = now;
+    }
+
+    synchronized void add(String key, long now) {
+        decay(now);
+        double estimate = sketch.add(key, 1.0);
+        Candidate candidate = candidates.get(key);
+        if (candidate != null) {
+            heap.remove(candidate);
+            candidate.count = estimate;
+            heap.add(candidate);
+        } else if (candidates.size() < capacity) {
+            admit(key, estimate);
+        } else if (estimate > heap.peek().count) {
+            candidates.remove(heap.poll().key);
+            admit(key, estimate);
+        }
+    }
+
+    private void admit(String key, double estimate) {
+        Candidate candidate = new Candidate(key, estimate);
+        candidates.put(key, candidate);
+        heap.add(candidate);
+    }
+
+    private void decay(long now) {
+        long elapsed = now - lastDecay;
+        if (elapsed < decayStepMillis) {
+            return;
+        }
+        double factor = Math.pow(0.5, (double) elapsed / halfLifeMillis);
+        sketch.scale(factor);
+        candidates.values().forEach(candidate -> candidate.count *= factor);
+        lastDecay = now;
+    }
+
+    /**
+     * The tracked keys by decayed count, largest first, as {@code key}, {@code count} and
+     * {@code share} of the decayed total. Keys that have decayed below one message are left
+     * out.
+     */
+    synchronized List<Map<String, Object>> top(int limit, long now) {
+        decay(now);
+        double total = sketch.total();
+        List<Map<String, Object>> top = new ArrayList<>();
+        candidates.values().stream()
+            .filter(candidate -> candidate.count >= 1.0)
+            .sorted(Comparator.comparingDouble(Candidate::count).reversed())
+            .limit(limit)
+            .forEach(candidate -> {
+                Map<String, Object> entry = new HashMap<>();
+                entry.put("key", candidate.key);
+                entry.put("count", candidate.count);
+                entry.put("share", total > 0 ? candidate.count / total : 0.0);
+                top.add(entry);
+            });
+        return top;
+    }
+
+    synchronized double total(long now) {
+        decay(now);
+        return sketch.total();
+    }
+
+    synchronized double errorBound(long now) {
+        decay(now);
+        return sketch.errorBound();
+    }
+
+    private static final class Candidate {
+
+        private final String key;
+        private double count;
+
+        private Candidate(String key, double count) {
+            this.key = key;
+            this.count = count;
+        }
+
+        private double count() {
+            return count;
+        }
+    }
+}
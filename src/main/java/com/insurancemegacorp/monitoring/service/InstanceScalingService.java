@@ -0,0 +1,138 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.InstanceScrape;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-instance throughput breakdown for each horizontally scaled pipeline stage, used to
+ * tell whether adding instances actually spreads the load.
+ */
+@Slf4j
+@Service
+public class InstanceScalingService {
+
+    private final CounterRateService counterRateService;
+    private final double imbalanceThreshold;
+    private final long stallSeconds;
+    private final Map<String, Map<String, Object>> lastBreakdowns = new ConcurrentHashMap<>();
+
+    public InstanceScalingService(CounterRateService counterRateService,
+                                  @Value("${metrics.scaling.imbalance-threshold:0.5}") double imbalanceThreshold,
+                                  @Value("${metrics.scaling.stall-seconds:30}") long stallSeconds) {
+        this.counterRateService = counterRateService;
+        this.imbalanceThreshold = imbalanceThreshold;
+        this.stallSeconds = stallSeconds;
+    }
+
+    /**
+     * Build the per-instance view of a stage from its latest scrape and the throughput
+     * counter series recorded for it. The result is kept for the scaling overview.
+     */
+    public Map<String, Object> analyze(String stage, String serviceName, String throughputSeries, List<InstanceScrape> scrapes) {
+        long now = System.currentTimeMillis();
+        Map<String, Double> rates = counterRateService.instanceRates(throughputSeries);
+        Map<String, Double> totals = counterRateService.instanceTotals(throughputSeries);
+        Map<String, Long> lastAdvance = counterRateService.instanceLastAdvance(throughputSeries);
+
+        double stageRate = 0.0;
+        double maxRate = 0.0;
+        double minRate = Double.MAX_VALUE;
+        int activeInstances = 0;
+        for (InstanceScrape scrape : scrapes) {
+            if (scrape.success()) {
+                double rate = rates.getOrDefault(scrape.instanceId(), 0.0);
+                stageRate += rate;
+                maxRate = Math.max(maxRate, rate);
+                minRate = Math.min(minRate, rate);
+                activeInstances++;
+            }
+        }
+        if (activeInstances == 0) {
+            minRate = 0.0;
+        }
+        double meanRate = activeInstances > 0 ? stageRate / activeInstances : 0.0;
+
+        double variance = 0.0;
+        List<Map<String, Object>> instances = new ArrayList<>();
+        List<String> imbalanceReasons = new ArrayList<>();
+        for (InstanceScrape scrape : scrapes) {
+            double rate = rates.getOrDefault(scrape.instanceId(), 0.0);
+            Long advancedAt = lastAdvance.get(scrape.instanceId());
+            double lagSeconds = advancedAt != null ? (now - advancedAt) / 1000.0 : -1;
+            boolean stalled = scrape.success() && stageRate > 0 && lagSeconds > stallSeconds;
+
+            Map<String, Object> instance = new HashMap<>();
+            instance.put("instance_id", scrape.instanceId());
+            instance.put("service_url", scrape.serviceUrl());
+            instance.put("scrape_ok", scrape.success());
+            instance.put("scrape_latency_ms", scrape.latencyMillis());
+            instance.put("total", Math.round(totals.getOrDefault(scrape.instanceId(), 0.0)));
+            instance.put("rate_per_sec", rate);
+            instance.put("share", stageRate > 0 ? rate / stageRate : 0.0);
+            instance.put("lag_seconds", lagSeconds);
+            instance.put("stalled", stalled);
+            if (scrape.error() != null) {
+                instance.put("error", scrape.error());
+            }
+            instances.add(instance);
+
+            if (scrape.success()) {
+                variance += (rate - meanRate) * (rate - meanRate);
+            }
+            if (stalled) {
+                imbalanceReasons.add(scrape.instanceId() + " has not advanced for " + Math.round(lagSeconds) + "s");
+            } else if (!scrape.success()) {
+                imbalanceReasons.add(scrape.instanceId() + " could not be scraped");
+            }
+        }
+
+        double coefficientOfVariation = activeInstances > 1 && meanRate > 0
+            ? Math.sqrt(variance / activeInstances) / meanRate : 0.0;
+        if (coefficientOfVariation > imbalanceThreshold) {
+            imbalanceReasons.add(String.format("rate spread %.2f exceeds threshold %.2f", coefficientOfVariation, imbalanceThreshold));
+        }
+
+        Map<String, Object> breakdown = new HashMap<>();
+        breakdown.put("stage", stage);
+        breakdown.put("service_name", serviceName);
+        breakdown.put("instance_count", scrapes.size());
+        breakdown.put("active_instances", activeInstances);
+        breakdown.put("stage_rate_per_sec", stageRate);
+        breakdown.put("mean_rate_per_sec", meanRate);
+        breakdown.put("max_rate_per_sec", maxRate);
+        breakdown.put("min_rate_per_sec", minRate);
+        breakdown.put("rate_skew", meanRate > 0 ? (maxRate - minRate) / meanRate : 0.0);
+        breakdown.put("coefficient_of_variation", coefficientOfVariation);
+        breakdown.put("imbalanced", !imbalanceReasons.isEmpty());
+        breakdown.put("imbalance_reasons", imbalanceReasons);
+        breakdown.put("instances", instances);
+        breakdown.put("timestamp", now);
+
+        if (!imbalanceReasons.isEmpty()) {
+            log.debug("Stage {} is imbalanced: {}", stage, imbalanceReasons);
+        }
+        lastBreakdowns.put(stage, breakdown);
+        return breakdown;
+    }
+
+    /**
+     * Latest breakdown of every stage that has been scraped so far.
+     */
+    public Map<String, Object> getScalingView() {
+        Map<String, Object> view = new HashMap<>();
+        view.put("stages", new TreeMap<>(lastBreakdowns));
+        view.put("imbalance_threshold", imbalanceThreshold);
+        view.put("stall_seconds", stallSeconds);
+        view.put("timestamp", System.currentTimeMillis());
+        return view;
+    }
+}
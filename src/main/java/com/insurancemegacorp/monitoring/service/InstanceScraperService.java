@@ -0,0 +1,242 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.InstanceScrape;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.Exceptions;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Scrapes the /actuator/prometheus endpoint of every discovered instance of an SCDF app
+ * concurrently and keeps the results per instance. Response sizes and parse times are
+ * recorded per app as {@code smartdriver.scrape.bytes} and {@code smartdriver.scrape.parse}.
+ *
+ * The requests are non-blocking WebClient calls merged into one stream, so a round costs a
+ * few event loop threads however many instances an app is scaled to. Parsing moves off the
+ * event loop onto the parallel scheduler. The per-app actuator health checks fan out the
+ * same way.
+ */
+@Slf4j
+@Service
+public class InstanceScraperService {
+
+    private static final ParameterizedTypeReference<Map<String, Object>> HEALTH_BODY = new ParameterizedTypeReference<>() {
+    };
+
+    private final WebClient webClient;
+    private final UpstreamGuardService upstreamGuardService;
+    private final DiscoveryCacheService discoveryCacheService;
+    private final MeterRegistry meterRegistry;
+    private final CycleTracer cycleTracer;
+    private final CollectorLogService collectorLog;
+    private final long scrapeTimeoutMillis;
+    private final Duration callTimeout;
+    private final int retries;
+    private final Duration retryBackoff;
+    private final Duration healthTimeout;
+
+    public InstanceScraperService(WebClient webClient,
+                                  UpstreamGuardService upstreamGuardService,
+                                  DiscoveryCacheService discoveryCacheService,
+                                  MeterRegistry meterRegistry,
+                                  CycleTracer cycleTracer,
+                                  CollectorLogService collectorLog,
+                                  @Value("${metrics.scrape.timeout-ms:5000}") long scrapeTimeoutMillis,
+                                  @Value("${metrics.scrape.call-timeout-ms:2000}") long callTimeoutMillis,
+                                  @Value("${metrics.scrape.retries:1}") int retries,
+                                  @Value("${metrics.scrape.retry-backoff-ms:100}") long retryBackoffMillis,
+                                  @Value("${component.health.timeout-ms:2000}") long healthTimeoutMillis) {
+        this.webClient = webClient;
+        this.upstreamGuardService = upstreamGuardService;
+        this.discoveryCacheService = discoveryCacheService;
+        this.meterRegistry = meterRegistry;
+        this.cycleTracer = cycleTracer;
+        this.collectorLog = collectorLog;
+        this.scrapeTimeoutMillis = scrapeTimeoutMillis;
+        this.callTimeout = Duration.ofMillis(callTimeoutMillis);
+        this.retries = retries;
+        this.retryBackoff = Duration.ofMillis(retryBackoffMillis);
+        this.healthTimeout = Duration.ofMillis(healthTimeoutMillis);
+    }
+
+    /**
+     * Scrape all instances of the service in parallel. Instances that do not answer within
+     * the scrape deadline are reported as failed rather than holding up the others.
+     */
+    public List<InstanceScrape> scrapeAll(String serviceName, Predicate<String> metricFilter) {
+        return cycleTracer.span("scrape " + serviceName, () -> scrapeInstances(serviceName, metricFilter));
+    }
+
+    private List<InstanceScrape> scrapeInstances(String serviceName, Predicate<String> metricFilter) {
+        List<ServiceInstance> instances = discoveryCacheService.getInstances(serviceName);
+        if (instances.isEmpty()) {
+            return List.of();
+        }
+
+        List<Mono<InstanceScrape>> scrapes = new ArrayList<>();
+        for (ServiceInstance instance : instances) {
+            scrapes.add(scrape(serviceName, DiscoveryCacheService.instanceId(instance), instance.getUri().toString(), metricFilter));
+        }
+        // Every scrape ends in a result of its own by the deadline, so this never waits longer
+        List<InstanceScrape> results = Flux.mergeSequential(scrapes).collectList().block();
+        return results != null ? results : List.of();
+    }
+
+    private Mono<InstanceScrape> scrape(String serviceName, String instanceId, String serviceUrl, Predicate<String> metricFilter) {
+        // Assembled on the calling thread so the parse span still joins the cycle
+        Function<String, Map<String, Double>> parse =
+            cycleTracer.propagate(body -> parse(serviceName, instanceId, body, metricFilter));
+
+        return Mono.defer(() -> {
+            long start = System.currentTimeMillis();
+            Mono<String> request = webClient.get()
+                .uri(serviceUrl + "/actuator/prometheus")
+                .retrieve()
+                .bodyToMono(String.class)
+                .timeout(callTimeout);
+
+            return upstreamGuardService.callReactive(UpstreamGuardService.scdfInstance(serviceUrl), request)
+                .retryWhen(Retry.backoff(retries, retryBackoff).filter(InstanceScraperService::retryable))
+                .publishOn(Schedulers.parallel())
+                .map(body -> InstanceScrape.success(instanceId, serviceUrl, parse.apply(body), System.currentTimeMillis() - start))
+                .defaultIfEmpty(InstanceScrape.failure(instanceId, serviceUrl, "Prometheus endpoint returned no body", 0L))
+                .timeout(Duration.ofMillis(scrapeTimeoutMillis))
+                .onErrorResume(e -> Mono.just(failure(instanceId, serviceUrl, e, System.currentTimeMillis() - start)));
+        });
+    }
+
+    /**
+     * Check /actuator/health on every instance of the service in parallel, each call bounded
+     * by {@code component.health.timeout-ms}. The service is UP when all instances are,
+     * PARTIAL when some are and DOWN otherwise.
+     *
+     * @return the aggregated health with per-instance details, or null when the service has
+     *         no instances
+     */
+    public Map<String, Object> checkHealth(String serviceName) {
+        return cycleTracer.span("health " + serviceName, () -> checkInstancesHealth(serviceName));
+    }
+
+    private Map<String, Object> checkInstancesHealth(String serviceName) {
+        List<ServiceInstance> instances = discoveryCacheService.getInstances(serviceName);
+        if (instances.isEmpty()) {
+            return null;
+        }
+
+        List<Mono<Map<String, Object>>> checks = new ArrayList<>();
+        for (ServiceInstance instance : instances) {
+            checks.add(checkHealth(serviceName, DiscoveryCacheService.instanceId(instance), instance.getUri().toString()));
+        }
+        List<Map<String, Object>> instanceDetails = Flux.mergeSequential(checks).collectList().block();
+
+        long healthyInstances = instanceDetails.stream().filter(detail -> Boolean.TRUE.equals(detail.get("healthy"))).count();
+        Map<String, Object> health = new HashMap<>();
+        health.put("healthy", healthyInstances > 0);
+        health.put("status", healthyInstances == instanceDetails.size() ? "UP" : healthyInstances > 0 ? "PARTIAL" : "DOWN");
+        health.put("total_instances", instanceDetails.size());
+        health.put("healthy_instances", healthyInstances);
+        health.put("instance_details", instanceDetails);
+        health.put("service_url", instanceDetails.get(0).get("service_url"));
+        health.put("timestamp", System.currentTimeMillis());
+        return health;
+    }
+
+    private Mono<Map<String, Object>> checkHealth(String serviceName, String instanceId, String serviceUrl) {
+        return Mono.defer(() -> {
+            Mono<Map<String, Object>> request = webClient.get()
+                .uri(serviceUrl + "/actuator/health")
+                .retrieve()
+                .bodyToMono(HEALTH_BODY);
+
+            return upstreamGuardService.callReactive(UpstreamGuardService.scdfInstance(serviceUrl), request)
+                .timeout(healthTimeout)
+                .map(body -> {
+                    String status = (String) body.get("status");
+                    Map<String, Object> detail = instanceHealth(instanceId, serviceUrl, status, "UP".equalsIgnoreCase(status));
+                    detail.put("details", body);
+                    log.debug("Health check for {} instance {}: {}", serviceName, serviceUrl, status);
+                    return detail;
+                })
+                .defaultIfEmpty(instanceHealth(instanceId, serviceUrl, "DOWN", false))
+                .onErrorResume(e -> {
+                    String error = e instanceof TimeoutException
+                        ? "Health check timed out after " + healthTimeout.toMillis() + "ms"
+                        : e.getMessage();
+                    collectorLog.warn(log, "health:" + serviceUrl, "Health check failed for {} instance {}: {}", serviceName, serviceUrl, error);
+                    Map<String, Object> detail = instanceHealth(instanceId, serviceUrl, "DOWN", false);
+                    detail.put("error", error);
+                    return Mono.just(detail);
+                });
+        });
+    }
+
+    private static Map<String, Object> instanceHealth(String instanceId, String serviceUrl, String status, boolean healthy) {
+        Map<String, Object> detail = new HashMap<>();
+        detail.put("instance_id", instanceId);
+        detail.put("service_url", serviceUrl);
+        detail.put("status", status);
+        detail.put("healthy", healthy);
+        return detail;
+    }
+
+    private Map<String, Double> parse(String serviceName, String instanceId, String body, Predicate<String> metricFilter) {
+        DistributionSummary.builder("smartdriver.scrape.bytes")
+            .description("Size of scraped Prometheus expositions")
+            .baseUnit("bytes")
+            .tag("service", serviceName)
+            .register(meterRegistry)
+            .record(body.length());
+        return Timer.builder("smartdriver.scrape.parse")
+            .description("Time spent parsing scraped Prometheus expositions")
+            .tag("service", serviceName)
+            .register(meterRegistry)
+            .record(() -> cycleTracer.span("parse " + instanceId, () -> PrometheusTextParser.parse(body, metricFilter)));
+    }
+
+    private InstanceScrape failure(String instanceId, String serviceUrl, Throwable e, long latency) {
+        if (e instanceof TimeoutException) {
+            return InstanceScrape.failure(instanceId, serviceUrl, "Scrape timed out after " + scrapeTimeoutMillis + "ms", scrapeTimeoutMillis);
+        }
+        Throwable cause = Exceptions.isRetryExhausted(e) && e.getCause() != null ? e.getCause() : e;
+        if (cause instanceof TimeoutException) {
+            return InstanceScrape.failure(instanceId, serviceUrl, "Scrape request timed out after " + callTimeout.toMillis() + "ms", latency);
+        }
+        if (cause instanceof WebClientResponseException response) {
+            return InstanceScrape.failure(instanceId, serviceUrl, "Prometheus endpoint returned: " + response.getStatusCode(), latency);
+        }
+        collectorLog.warn(log, "scrape:" + instanceId, "Failed to scrape instance {} at {}: {}", instanceId, serviceUrl, cause.getMessage());
+        return InstanceScrape.failure(instanceId, serviceUrl, cause.getMessage(), latency);
+    }
+
+    /**
+     * Connection problems, per-call timeouts and 5xx answers are worth one more try; an open
+     * circuit, a full bulkhead or a 4xx are not.
+     */
+    static boolean retryable(Throwable e) {
+        if (e instanceof WebClientResponseException response) {
+            return response.getStatusCode().is5xxServerError();
+        }
+        return e instanceof WebClientRequestException || e instanceof TimeoutException;
+    }
+}
@@ -0,0 +1,21 @@
+package com.insurancemegacorp.monitoring.service;
+
+import java.util.Map;
+
+/**
+ * Which UI instance collects. Only the leader runs the scheduled collectors and health
+ * checks; followers serve the snapshots the leader fans out, so upstream load stays the same
+ * however many UI instances run. Selected with {@code cluster.leader-election}: {@code local}
+ * (the default, a single-process stand-in) or {@code rabbitmq}.
+ */
+public interface LeaderElection {
+
+    boolean isLeader();
+
+    /**
+     * Identifies this instance in logs and in the snapshots it publishes.
+     */
+    String instanceId();
+
+    Map<String, Object> describe();
+}
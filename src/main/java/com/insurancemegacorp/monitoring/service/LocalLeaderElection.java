@@ -0,0 +1,54 @@
+package com.insurancemegacorp.monitoring.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Stand-in election for a single UI instance and for tests: a JVM-wide lock taken by the
+ * first instance that asks and released when its context closes, so several application
+ * contexts in one JVM behave like several UI instances with exactly one leader.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "cluster.leader-election", havingValue = "local", matchIfMissing = true)
+public class LocalLeaderElection implements LeaderElection {
+
+    private static final AtomicReference<LocalLeaderElection> LOCK = new AtomicReference<>();
+
+    private final String instanceId = UUID.randomUUID().toString();
+
+    @Override
+    public boolean isLeader() {
+        if (LOCK.compareAndSet(null, this)) {
+            log.info("Instance {} took the local leader lock", instanceId);
+            return true;
+        }
+        return LOCK.get() == this;
+    }
+
+    @Override
+    public String instanceId() {
+        return instanceId;
+    }
+
+    @Override
+    public Map<String, Object> describe() {
+        Map<String, Object> view = new HashMap<>();
+        view.put("mode", "local");
+        view.put("instance_id", instanceId);
+        view.put("leader", isLeader());
+        return view;
+    }
+
+    @PreDestroy
+    public void release() {
+        LOCK.compareAndSet(this, null);
+    }
+}
@@ -0,0 +1,32 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.AlertNotification;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+@Slf4j
+@Component
+public class LogAlertNotifier implements AlertNotifier {
+
+    @Override
+    public String name() {
+        return "log";
+    }
+
+    @Override
+    public void notify(AlertNotification notification) {
+        if ("firing".equals(notification.state())) {
+            log.atWarn()
+                .addKeyValue("rule", notification.rule())
+                .addKeyValue("severity", notification.severity())
+                .log("ALERT {} [{}]{}: {} (value={})", notification.rule(), notification.severity(),
+                    notification.repeat() ? " still firing" : "", notification.expression(), notification.value());
+        } else {
+            log.atInfo()
+                .addKeyValue("rule", notification.rule())
+                .addKeyValue("severity", notification.severity())
+                .log("RESOLVED {} [{}]: {} (value={})", notification.rule(), notification.severity(),
+                    notification.expression(), notification.value());
+        }
+    }
+}
@@ -5,17 +5,37 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Service to manage metric baselines for "resetting" counters.
  * Since we can't actually reset external counters (Prometheus, RabbitMQ),
  * we capture baseline values and subtract them from current metrics for display.
+ * Counters backed by a {@link CounterRateService} series are baselined on the series'
+ * reset-corrected increase, so an upstream restart after the baseline does not disturb them.
  */
 @Slf4j
 @Service
 public class MetricsBaselineService {
 
+    // Baseline key -> series whose reset-corrected increases add up to the displayed counter
+    // (a leading '-' subtracts the series)
+    private static final Map<String, List<String>> COUNTER_SERIES = Map.ofEntries(
+        Map.entry("telemetry_messages_published_total", List.of(TelemetryGeneratorMetricsService.MESSAGES_SENT_SERIES)),
+        Map.entry("processor_messages_in", List.of(TelemetryProcessorMetricsService.MESSAGES_SERIES)),
+        Map.entry("processor_events_captured", List.of(TelemetryProcessorMetricsService.VEHICLE_EVENTS_SERIES)),
+        Map.entry("processor_messages_out", List.of(TelemetryProcessorMetricsService.MESSAGES_SERIES,
+            "-" + TelemetryProcessorMetricsService.INVALID_SERIES)),
+        Map.entry("processor_invalid_messages", List.of(TelemetryProcessorMetricsService.INVALID_SERIES)),
+        Map.entry("hdfs_messages_in", List.of(HdfsSinkMetricsService.MESSAGES_SERIES)),
+        Map.entry("hdfs_files_written", List.of(HdfsSinkMetricsService.FILES_SERIES)),
+        Map.entry("jdbc_rows_inserted", List.of(VehicleEventsJdbcSinkService.ROWS_SERIES)),
+        Map.entry("jdbc_database_errors", VehicleEventsJdbcSinkService.ERROR_SERIES),
+        Map.entry("exchange_total_publish_in", List.of(ExchangeMetricsService.PUBLISH_IN_SERIES)),
+        Map.entry("exchange_total_publish_out", List.of(ExchangeMetricsService.PUBLISH_OUT_SERIES))
+    );
+
     private final Map<String, Double> baselines = new HashMap<>();
     private long baselineTimestamp = 0;
 
@@ -26,7 +46,7 @@ public class MetricsBaselineService {
     private TelemetryProcessorMetricsService telemetryProcessorMetricsService;
 
     @Autowired
-    private TelemematicsExchangeMetricsService telemematicsExchangeMetricsService;
+    private HdfsSinkMetricsService hdfsSinkMetricsService;
 
     @Autowired
     private VehicleEventsJdbcSinkService vehicleEventsJdbcSinkService;
@@ -34,6 +54,9 @@ public class MetricsBaselineService {
     @Autowired
     private ExchangeMetricsService exchangeMetricsService;
 
+    @Autowired
+    private CounterRateService counterRateService;
+
     /**
      * Capture current metric values as baselines for future calculations
      */
@@ -60,7 +83,7 @@ public class MetricsBaselineService {
             }
 
             // Capture HDFS Sink baselines
-            Map<String, Object> hdfsMetrics = telemematicsExchangeMetricsService.getHdfsSinkMetrics();
+            Map<String, Object> hdfsMetrics = hdfsSinkMetricsService.getHdfsSinkMetrics();
             if (hdfsMetrics != null && !hdfsMetrics.containsKey("error")) {
                 baselines.put("hdfs_messages_in", getDoubleValue(hdfsMetrics, "messages_in"));
                 baselines.put("hdfs_files_written", getDoubleValue(hdfsMetrics, "files_written"));
@@ -83,6 +106,13 @@ public class MetricsBaselineService {
                 log.debug("Captured exchange throughput baselines");
             }
 
+            // The collections above brought the counter series up to date
+            COUNTER_SERIES.forEach((baselineKey, series) -> {
+                if (baselines.containsKey(baselineKey) && hasSeries(series)) {
+                    baselines.put(baselineKey, increaseSinceStart(series));
+                }
+            });
+
             baselineTimestamp = System.currentTimeMillis();
             
             log.info("Successfully captured {} metric baselines at timestamp {}", baselines.size(), baselineTimestamp);
@@ -173,7 +203,9 @@ public class MetricsBaselineService {
 
     private void adjustValue(Map<String, Object> metrics, String key, String baselineKey) {
         if (metrics.containsKey(key) && baselines.containsKey(baselineKey)) {
-            double currentValue = getDoubleValue(metrics, key);
+            List<String> series = COUNTER_SERIES.get(baselineKey);
+            boolean counter = series != null && hasSeries(series);
+            double currentValue = counter ? increaseSinceStart(series) : getDoubleValue(metrics, key);
             double baselineValue = baselines.get(baselineKey);
             double adjustedValue = Math.max(0, currentValue - baselineValue); // Don't go negative
             
@@ -182,6 +214,20 @@ public class MetricsBaselineService {
         }
     }
 
+    private boolean hasSeries(List<String> series) {
+        return series.stream().anyMatch(counterRateService.seriesNames()::contains);
+    }
+
+    private double increaseSinceStart(List<String> series) {
+        double sum = 0.0;
+        for (String name : series) {
+            sum += name.startsWith("-")
+                ? -counterRateService.increaseSinceStart(name.substring(1))
+                : counterRateService.increaseSinceStart(name);
+        }
+        return sum;
+    }
+
     private double getDoubleValue(Map<String, Object> map, String key) {
         Object value = map.get(key);
         if (value instanceof Number) {
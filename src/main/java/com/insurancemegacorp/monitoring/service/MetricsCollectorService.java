@@ -1,6 +1,8 @@
 package com.insurancemegacorp.monitoring.service;
 
 import com.insurancemegacorp.monitoring.dto.PipelineMetrics;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -14,6 +16,10 @@ public class MetricsCollectorService {
 
     private final RabbitMetricsService rabbitMetricsService;
     private final String metricsMode;
+    private final CycleTracer cycleTracer;
+    private final MetricsPushService metricsPushService;
+    private final LeaderElection leaderElection;
+    private final Timer collectionTimer;
     
     // Cache for last known values
     private int lastKnownQueueDepth = 0;
@@ -21,14 +27,29 @@ public class MetricsCollectorService {
 
     public MetricsCollectorService(
             RabbitMetricsService rabbitMetricsService,
+            MeterRegistry meterRegistry,
+            CycleTracer cycleTracer,
+            MetricsPushService metricsPushService,
+            LeaderElection leaderElection,
             @Value("${metrics.mode:mock}") String metricsMode) {
         this.rabbitMetricsService = rabbitMetricsService;
         this.metricsMode = metricsMode;
+        this.cycleTracer = cycleTracer;
+        this.metricsPushService = metricsPushService;
+        this.leaderElection = leaderElection;
+        this.collectionTimer = CollectionCycles.timer(meterRegistry, "pipeline-metrics");
         log.info("MetricsCollectorService initialized in {} mode", metricsMode);
     }
 
     @Scheduled(fixedRateString = "${metrics.collection.interval:2000}")
     public void collectMetrics() {
+        if (!leaderElection.isLeader()) {
+            return;
+        }
+        collectionTimer.record(() -> cycleTracer.cycle("pipeline-metrics", this::collect));
+    }
+
+    private void collect() {
         try {
             PipelineMetrics metrics = "real".equalsIgnoreCase(metricsMode) 
                 ? collectRealMetrics() 
@@ -37,7 +58,7 @@ public class MetricsCollectorService {
             this.lastMetrics = metrics;
             log.debug("Collected metrics: queue={}, mode={}", metrics.queueDepth(), metricsMode);
             
-            // TODO: Broadcast via WebSocket in next phase
+            metricsPushService.broadcast("pipeline_metrics", metrics);
             
         } catch (Exception e) {
             log.error("Error collecting metrics: {}", e.getMessage());
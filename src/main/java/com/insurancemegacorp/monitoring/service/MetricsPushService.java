@@ -0,0 +1,125 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * Push stream for dashboards, served on {@code websocket.path}. Every message is a JSON
+ * envelope {@code {"type": ..., "data": ..., "timestamp": ...}}.
+ *
+ * A broadcast serialises once and hands the frame to every session. Sessions are wrapped so
+ * that a slow client buffers up to a limit and then loses frames instead of blocking the
+ * collector that is broadcasting; a client that stays stuck past the send time limit is
+ * closed.
+ *
+ * With several UI instances, the leader's frames are also handed to a relay that fans them
+ * out to the followers, which {@link #deliver} them to their own clients.
+ */
+@Slf4j
+@Service
+public class MetricsPushService extends TextWebSocketHandler {
+
+    private final Map<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+    private final int sendTimeLimitMillis;
+    private final int bufferSizeLimit;
+    private volatile BiConsumer<String, String> relay;
+
+    public MetricsPushService(ObjectMapper objectMapper,
+                              MeterRegistry meterRegistry,
+                              @Value("${websocket.send-time-limit-ms:5000}") int sendTimeLimitMillis,
+                              @Value("${websocket.buffer-size-limit:524288}") int bufferSizeLimit) {
+        this.objectMapper = objectMapper;
+        this.meterRegistry = meterRegistry;
+        this.sendTimeLimitMillis = sendTimeLimitMillis;
+        this.bufferSizeLimit = bufferSizeLimit;
+        meterRegistry.gaugeMapSize("smartdriver.push.sessions", Tags.empty(), sessions);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) {
+        sessions.put(session.getId(), new ConcurrentWebSocketSessionDecorator(session, sendTimeLimitMillis, bufferSizeLimit,
+            ConcurrentWebSocketSessionDecorator.OverflowStrategy.DROP));
+        log.debug("Push session {} opened from {}", session.getId(), session.getRemoteAddress());
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus status) {
+        sessions.remove(session.getId());
+        log.debug("Push session {} closed: {}", session.getId(), status);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) {
+        sessions.remove(session.getId());
+        log.debug("Push session {} failed: {}", session.getId(), exception.getMessage());
+    }
+
+    /**
+     * Send a message of the given type to every connected client.
+     */
+    public void broadcast(String type, Object data) {
+        BiConsumer<String, String> currentRelay = relay;
+        if (sessions.isEmpty() && currentRelay == null) {
+            return;
+        }
+        String frame;
+        try {
+            Map<String, Object> envelope = new HashMap<>();
+            envelope.put("type", type);
+            envelope.put("data", data);
+            envelope.put("timestamp", System.currentTimeMillis());
+            frame = objectMapper.writeValueAsString(envelope);
+        } catch (Exception e) {
+            log.warn("Failed to serialise {} push message: {}", type, e.getMessage());
+            return;
+        }
+        if (currentRelay != null) {
+            currentRelay.accept(type, frame);
+        }
+        deliver(type, frame);
+    }
+
+    /**
+     * Send an already serialised envelope, as relayed from the leader, to every connected client.
+     */
+    public void deliver(String type, String frame) {
+        TextMessage message = new TextMessage(frame);
+        for (WebSocketSession session : sessions.values()) {
+            try {
+                session.sendMessage(message);
+            } catch (Exception e) {
+                // The decorator closes sessions that exceed the send time limit
+                sessions.remove(session.getId());
+                meterRegistry.counter("smartdriver.push.dropped", "type", type).increment();
+                log.debug("Dropped push session {}: {}", session.getId(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Hand every broadcast frame to {@code relay} as (type, frame) as well; null to stop.
+     */
+    public void setRelay(BiConsumer<String, String> relay) {
+        this.relay = relay;
+    }
+
+    public int getSessionCount() {
+        return sessions.size();
+    }
+}
@@ -0,0 +1,268 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.PipelineFlowEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Flow-conservation model of the telematics pipeline:
+ * generator → telematics_exchange → processor queue → processor → JDBC queue → JDBC sink
+ * (Greenplum), with the HDFS sink branching off the exchange.
+ *
+ * Every tick drives one collection round across all stages, so all counters are sampled
+ * at the same moments, and then compares what each stage handed on with what the next one
+ * received over the same window. Whatever entered a hop and neither came out nor is
+ * waiting in the queue between the stages was lost:
+ * {@code dropped = upstream - downstream - backlog change}. The queue's own publish counter
+ * tells whether the loss happened before or after the queue.
+ * End-to-end latency is estimated with Little's law (time in queue = depth / drain rate)
+ * summed over the queues on the generator → Greenplum path.
+ */
+@Slf4j
+@Service
+public class PipelineFlowService {
+
+    private record Hop(String from, String to, String upstreamSeries, String downstreamSeries, String queue) {
+    }
+
+    private final TelemetryGeneratorMetricsService generatorMetricsService;
+    private final ExchangeMetricsService exchangeMetricsService;
+    private final TelemetryProcessorMetricsService processorMetricsService;
+    private final TelemematicsExchangeMetricsService exchangeQueueMetricsService;
+    private final VehicleEventsJdbcSinkService jdbcSinkService;
+    private final HdfsSinkMetricsService hdfsSinkMetricsService;
+    private final CounterRateService counterRateService;
+    private final QueueAnalyticsService queueAnalyticsService;
+    private final CycleTracer cycleTracer;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LeaderElection leaderElection;
+    private final Timer tickTimer;
+    private final String metricsMode;
+    private final Duration window;
+    private final double lossThreshold;
+    private final String processorQueue;
+    private final String jdbcQueue;
+    private final String hdfsQueue;
+    private final List<Hop> hops;
+    private volatile Map<String, Object> lastFlow = Map.of();
+
+    public PipelineFlowService(TelemetryGeneratorMetricsService generatorMetricsService,
+                               ExchangeMetricsService exchangeMetricsService,
+                               TelemetryProcessorMetricsService processorMetricsService,
+                               TelemematicsExchangeMetricsService exchangeQueueMetricsService,
+                               VehicleEventsJdbcSinkService jdbcSinkService,
+                               HdfsSinkMetricsService hdfsSinkMetricsService,
+                               CounterRateService counterRateService,
+                               QueueAnalyticsService queueAnalyticsService,
+                               CycleTracer cycleTracer,
+                               ApplicationEventPublisher eventPublisher,
+                               LeaderElection leaderElection,
+                               MeterRegistry meterRegistry,
+                               @Value("${metrics.mode:mock}") String metricsMode,
+                               @Value("${metrics.flow.window-seconds:60}") long windowSeconds,
+                               @Value("${metrics.flow.loss-threshold:0.01}") double lossThreshold,
+                               @Value("${metrics.flow.processor-queue:telematics_exchange.crash-detection-group}") String processorQueue,
+                               @Value("${metrics.flow.jdbc-queue:vehicle-events.jdbc-sink-group}") String jdbcQueue,
+                               @Value("${metrics.flow.hdfs-queue:telematics_exchange.hdfs-sink-group}") String hdfsQueue) {
+        this.generatorMetricsService = generatorMetricsService;
+        this.exchangeMetricsService = exchangeMetricsService;
+        this.processorMetricsService = processorMetricsService;
+        this.exchangeQueueMetricsService = exchangeQueueMetricsService;
+        this.jdbcSinkService = jdbcSinkService;
+        this.hdfsSinkMetricsService = hdfsSinkMetricsService;
+        this.counterRateService = counterRateService;
+        this.queueAnalyticsService = queueAnalyticsService;
+        this.cycleTracer = cycleTracer;
+        this.eventPublisher = eventPublisher;
+        this.leaderElection = leaderElection;
+        this.tickTimer = CollectionCycles.timer(meterRegistry, "pipeline-flow");
+        this.metricsMode = metricsMode;
+        this.window = Duration.ofSeconds(windowSeconds);
+        this.lossThreshold = lossThreshold;
+        this.processorQueue = processorQueue;
+        this.jdbcQueue = jdbcQueue;
+        this.hdfsQueue = hdfsQueue;
+        this.hops = List.of(
+            new Hop("generator", "exchange",
+                TelemetryGeneratorMetricsService.MESSAGES_SENT_SERIES, ExchangeMetricsService.PUBLISH_IN_SERIES, null),
+            new Hop("exchange", "processor",
+                ExchangeMetricsService.PUBLISH_IN_SERIES, TelemetryProcessorMetricsService.MESSAGES_SERIES, processorQueue),
+            new Hop("processor", "jdbc_sink",
+                TelemetryProcessorMetricsService.VEHICLE_EVENTS_SERIES, VehicleEventsJdbcSinkService.ROWS_SERIES, jdbcQueue),
+            new Hop("exchange", "hdfs_sink",
+                ExchangeMetricsService.PUBLISH_IN_SERIES, HdfsSinkMetricsService.MESSAGES_SERIES, hdfsQueue)
+        );
+        log.info("PipelineFlowService initialized: window={}s, lossThreshold={}, queues processor={}, jdbc={}, hdfs={}",
+            windowSeconds, lossThreshold, processorQueue, jdbcQueue, hdfsQueue);
+    }
+
+    /**
+     * One collection round over every stage, then the flow model. Skipped in mock mode,
+     * where there are no real counters to correlate, and on followers, which get the
+     * leader's results.
+     */
+    @Scheduled(fixedDelayString = "${metrics.flow.interval-ms:5000}")
+    public void tick() {
+        if (!"real".equalsIgnoreCase(metricsMode) || !leaderElection.isLeader()) {
+            return;
+        }
+        tickTimer.record(() -> cycleTracer.cycle("pipeline-flow", () -> {
+            collectStages();
+            Map<String, Object> flow = cycleTracer.span("flow-model", this::computeFlow);
+            lastFlow = flow;
+            eventPublisher.publishEvent(new PipelineFlowEvent(System.currentTimeMillis(), flow));
+        }));
+    }
+
+    public Map<String, Object> getFlow() {
+        return lastFlow.isEmpty() ? computeFlow() : lastFlow;
+    }
+
+    private void collectStages() {
+        // Each collector records its counters as a side effect; failures are logged by the
+        // collectors and show up below as hops without data
+        generatorMetricsService.getPublishingMetrics();
+        exchangeMetricsService.getExchangeThroughputStats();
+        processorMetricsService.getProcessorMetrics();
+        exchangeQueueMetricsService.getExchangeQueueMetrics();
+        exchangeQueueMetricsService.getQueueMetrics(jdbcQueue);
+        jdbcSinkService.getJdbcSinkMetrics();
+        hdfsSinkMetricsService.getHdfsSinkMetrics();
+    }
+
+    private Map<String, Object> computeFlow() {
+        List<Map<String, Object>> stages = new ArrayList<>();
+        stages.add(stage("generator", null, TelemetryGeneratorMetricsService.MESSAGES_SENT_SERIES));
+        stages.add(stage("exchange", ExchangeMetricsService.PUBLISH_IN_SERIES, ExchangeMetricsService.PUBLISH_OUT_SERIES));
+        stages.add(stage("processor", TelemetryProcessorMetricsService.MESSAGES_SERIES, TelemetryProcessorMetricsService.VEHICLE_EVENTS_SERIES));
+        stages.add(stage("jdbc_sink", VehicleEventsJdbcSinkService.ROWS_SERIES, null));
+        stages.add(stage("hdfs_sink", HdfsSinkMetricsService.MESSAGES_SERIES, HdfsSinkMetricsService.FILES_SERIES));
+
+        List<Map<String, Object>> hopViews = new ArrayList<>();
+        List<Map<String, Object>> losses = new ArrayList<>();
+        for (Hop hop : hops) {
+            Map<String, Object> view = hop(hop);
+            hopViews.add(view);
+            if ("loss".equals(view.get("status"))) {
+                losses.add(view);
+            }
+        }
+
+        Map<String, Object> flow = new HashMap<>();
+        flow.put("window_seconds", window.toSeconds());
+        flow.put("stages", stages);
+        flow.put("hops", hopViews);
+        flow.put("losses", losses);
+        flow.put("end_to_end_latency", endToEndLatency());
+        flow.put("bottleneck", queueAnalyticsService.findBottleneck());
+        flow.put("loss_threshold", lossThreshold);
+        flow.put("timestamp", System.currentTimeMillis());
+        return flow;
+    }
+
+    private Map<String, Object> stage(String name, String inSeries, String outSeries) {
+        Map<String, Object> stage = new LinkedHashMap<>();
+        stage.put("stage", name);
+        if (inSeries != null) {
+            stage.put("rate_in", counterRateService.rate(inSeries, window));
+            stage.put("count_in", Math.round(counterRateService.increase(inSeries, window)));
+        }
+        if (outSeries != null) {
+            stage.put("rate_out", counterRateService.rate(outSeries, window));
+            stage.put("count_out", Math.round(counterRateService.increase(outSeries, window)));
+        }
+        return stage;
+    }
+
+    private Map<String, Object> hop(Hop hop) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        view.put("from", hop.from());
+        view.put("to", hop.to());
+        if (hop.queue() != null) {
+            view.put("queue", hop.queue());
+        }
+
+        if (!hasData(hop.upstreamSeries()) || !hasData(hop.downstreamSeries())) {
+            view.put("status", "no_data");
+            return view;
+        }
+
+        double upstream = counterRateService.increase(hop.upstreamSeries(), window);
+        double downstream = counterRateService.increase(hop.downstreamSeries(), window);
+        Long backlog = hop.queue() != null ? queueAnalyticsService.backlogChange(hop.queue(), window.toMillis()) : null;
+        double backlogChange = backlog != null ? backlog : 0.0;
+        double dropped = upstream - downstream - backlogChange;
+        double lossRatio = upstream > 0 ? dropped / upstream : 0.0;
+
+        view.put("upstream_count", Math.round(upstream));
+        view.put("downstream_count", Math.round(downstream));
+        view.put("backlog_change", Math.round(backlogChange));
+        view.put("dropped", Math.round(dropped));
+        // The broker's own count of messages routed into the queue splits the loss into
+        // messages that never reached the queue (unroutable, rejected by a length limit) and
+        // messages that left the queue without being counted downstream
+        String queuePublished = hop.queue() != null ? TelemematicsExchangeMetricsService.queuePublishSeries(hop.queue()) : null;
+        if (queuePublished != null && hasData(queuePublished)) {
+            double enqueued = counterRateService.increase(queuePublished, window);
+            double acked = counterRateService.increase(TelemematicsExchangeMetricsService.queueAckSeries(hop.queue()), window);
+            view.put("queue_published_count", Math.round(enqueued));
+            view.put("queue_acked_count", Math.round(acked));
+            view.put("dropped_before_queue", Math.round(upstream - enqueued));
+            view.put("dropped_after_queue", Math.round(enqueued - downstream - backlogChange));
+        }
+        view.put("loss_rate_per_sec", dropped / window.toSeconds());
+        view.put("loss_ratio", lossRatio);
+        // More out than in means redeliveries, duplicates or a downstream counter that also
+        // counts traffic from elsewhere
+        view.put("status", upstream <= 0 ? "idle"
+            : lossRatio > lossThreshold ? "loss"
+            : lossRatio < -lossThreshold ? "surplus"
+            : "ok");
+        return view;
+    }
+
+    private boolean hasData(String series) {
+        return counterRateService.seriesNames().contains(series);
+    }
+
+    /**
+     * Little's law per queue on the generator → Greenplum path. Unknown when a queue holds
+     * messages but is not being drained.
+     */
+    private Map<String, Object> endToEndLatency() {
+        List<Map<String, Object>> segments = new ArrayList<>();
+        Double total = 0.0;
+        for (String queue : List.of(processorQueue, jdbcQueue)) {
+            Map<String, Object> analytics = queueAnalyticsService.getAnalytics(queue);
+            Map<String, Object> segment = new LinkedHashMap<>();
+            segment.put("queue", queue);
+            segment.put("method", "littles_law");
+            Double seconds = null;
+            if (!analytics.isEmpty()) {
+                long depth = ((Number) analytics.get("messages")).longValue();
+                double drainRate = ((Number) analytics.get("ack_rate")).doubleValue();
+                seconds = depth == 0 ? Double.valueOf(0.0) : drainRate > 0 ? Double.valueOf(depth / drainRate) : null;
+            }
+            segment.put("seconds", seconds);
+            segments.add(segment);
+            total = total != null && seconds != null ? total + seconds : null;
+        }
+
+        Map<String, Object> latency = new HashMap<>();
+        latency.put("estimated_seconds", total);
+        latency.put("segments", segments);
+        return latency;
+    }
+}
@@ -0,0 +1,83 @@
+package com.insurancemegacorp.monitoring.service;
+
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The pipeline's headline signals under stable names, derived from the reset-aware counters
+ * the collectors record. Shared by the anomaly detector and the alert rules so both speak
+ * about the same quantities:
+ *
+ * <ul>
+ *   <li>{@code exchange.publish_in_rate}, {@code exchange.publish_out_rate}</li>
+ *   <li>{@code processor.messages_rate}, {@code processor.invalid_ratio}</li>
+ *   <li>{@code jdbc_sink.rows_rate}, {@code jdbc_sink.error_rate}</li>
+ *   <li>{@code hdfs_sink.messages_rate}</li>
+ * </ul>
+ *
+ * Rates are per second over the given window. Signals whose counters have not been
+ * collected yet are left out rather than reported as zero.
+ */
+@Service
+public class PipelineSignals {
+
+    static final Set<String> NAMES = Set.of(
+        "exchange.publish_in_rate",
+        "exchange.publish_out_rate",
+        "processor.messages_rate",
+        "processor.invalid_ratio",
+        "jdbc_sink.rows_rate",
+        "jdbc_sink.error_rate",
+        "hdfs_sink.messages_rate"
+    );
+
+    private final CounterRateService counterRateService;
+
+    public PipelineSignals(CounterRateService counterRateService) {
+        this.counterRateService = counterRateService;
+    }
+
+    public Map<String, Double> sample(Duration window) {
+        Map<String, Double> samples = new HashMap<>();
+        putRate(samples, "exchange.publish_in_rate", ExchangeMetricsService.PUBLISH_IN_SERIES, window);
+        putRate(samples, "exchange.publish_out_rate", ExchangeMetricsService.PUBLISH_OUT_SERIES, window);
+        putRate(samples, "processor.messages_rate", TelemetryProcessorMetricsService.MESSAGES_SERIES, window);
+        putRate(samples, "jdbc_sink.rows_rate", VehicleEventsJdbcSinkService.ROWS_SERIES, window);
+        putRate(samples, "hdfs_sink.messages_rate", HdfsSinkMetricsService.MESSAGES_SERIES, window);
+
+        if (hasSeries(TelemetryProcessorMetricsService.MESSAGES_SERIES) && hasSeries(TelemetryProcessorMetricsService.INVALID_SERIES)) {
+            double messages = counterRateService.increase(TelemetryProcessorMetricsService.MESSAGES_SERIES, window);
+            if (messages > 0) {
+                samples.put("processor.invalid_ratio",
+                    counterRateService.increase(TelemetryProcessorMetricsService.INVALID_SERIES, window) / messages);
+            }
+        }
+
+        double errorRate = 0.0;
+        boolean hasErrors = false;
+        for (String errorSeries : VehicleEventsJdbcSinkService.ERROR_SERIES) {
+            if (hasSeries(errorSeries)) {
+                errorRate += counterRateService.rate(errorSeries, window);
+                hasErrors = true;
+            }
+        }
+        if (hasErrors) {
+            samples.put("jdbc_sink.error_rate", errorRate);
+        }
+        return samples;
+    }
+
+    private void putRate(Map<String, Double> samples, String name, String series, Duration window) {
+        if (hasSeries(series)) {
+            samples.put(name, counterRateService.rate(series, window));
+        }
+    }
+
+    private boolean hasSeries(String series) {
+        return counterRateService.seriesNames().contains(series);
+    }
+}
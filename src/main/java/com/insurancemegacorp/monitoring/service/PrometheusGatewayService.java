@@ -0,0 +1,213 @@
+package com.insurancemegacorp.monitoring.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.MultiGauge;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Publishes the consolidated pipeline view on this app's /actuator/prometheus as derived
+ * {@code smartdriver_*} series, so downstream monitoring can scrape one endpoint instead of
+ * fanning out to every SCDF app again:
+ *
+ * <ul>
+ *   <li>every reset-corrected counter the collectors record, per instance:
+ *       {@code component:metric} series become {@code smartdriver_<component>_<metric>_total}
+ *       tagged {@code instance}, and {@code queue:<name>:<stat>} series become
+ *       {@code smartdriver_rabbitmq_queue_<stat>_total} tagged {@code queue}</li>
+ *   <li>{@code smartdriver_counter_resets_total}: restarts absorbed per series</li>
+ *   <li>{@code smartdriver_pipeline_signal}: the {@link PipelineSignals} rates</li>
+ *   <li>{@code smartdriver_rabbitmq_queue_*}: depth, consumers and lag per queue</li>
+ *   <li>{@code smartdriver_greenplum_rows}: table counts from the last real stats read, with
+ *       {@code smartdriver_greenplum_stats_age_seconds}</li>
+ * </ul>
+ *
+ * Nothing here calls an upstream: counters read the collectors' state at scrape time and
+ * the gauges are refreshed from it every {@code metrics.gateway.sync-interval-ms}, which also
+ * registers meters for new series and instances and removes those of retired instances.
+ */
+@Service
+public class PrometheusGatewayService {
+
+    private static final String PREFIX = "smartdriver.";
+    private static final String QUEUE_SERIES_PREFIX = "queue:";
+    private static final List<String> GREENPLUM_STATS = List.of(
+        "vehicle_events_count",
+        "telemetry_points_count",
+        "safe_driver_scores_count",
+        "unique_drivers_scored",
+        "drivers_with_features",
+        "drivers_in_training_data",
+        "total_accidents"
+    );
+
+    private final CounterRateService counterRateService;
+    private final PipelineSignals pipelineSignals;
+    private final QueueAnalyticsService queueAnalyticsService;
+    private final GreenplumService greenplumService;
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final Map<String, Meter> counters = new ConcurrentHashMap<>();
+    private final Set<String> resetSeries = ConcurrentHashMap.newKeySet();
+    private final MultiGauge signalGauge;
+    private final MultiGauge queueMessagesGauge;
+    private final MultiGauge queueConsumersGauge;
+    private final MultiGauge queueLagGauge;
+    private final MultiGauge greenplumRowsGauge;
+    private volatile long greenplumStatsAt = 0L;
+
+    public PrometheusGatewayService(CounterRateService counterRateService,
+                                    PipelineSignals pipelineSignals,
+                                    QueueAnalyticsService queueAnalyticsService,
+                                    GreenplumService greenplumService,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${metrics.gateway.enabled:true}") boolean enabled) {
+        this.counterRateService = counterRateService;
+        this.pipelineSignals = pipelineSignals;
+        this.queueAnalyticsService = queueAnalyticsService;
+        this.greenplumService = greenplumService;
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.signalGauge = MultiGauge.builder(PREFIX + "pipeline.signal")
+            .description("Pipeline headline rates and ratios over the default rate window")
+            .register(meterRegistry);
+        this.queueMessagesGauge = MultiGauge.builder(PREFIX + "rabbitmq.queue.messages")
+            .description("Messages in the queue by state")
+            .register(meterRegistry);
+        this.queueConsumersGauge = MultiGauge.builder(PREFIX + "rabbitmq.queue.consumers")
+            .register(meterRegistry);
+        this.queueLagGauge = MultiGauge.builder(PREFIX + "rabbitmq.queue.lag")
+            .description("Seconds for consumers to work through the ready backlog at the current ack rate")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+        this.greenplumRowsGauge = MultiGauge.builder(PREFIX + "greenplum.rows")
+            .description("Table counts from the last database stats read")
+            .register(meterRegistry);
+        if (enabled) {
+            meterRegistry.gauge(PREFIX + "greenplum.stats.age.seconds", Tags.empty(), this,
+                gateway -> gateway.greenplumStatsAt > 0 ? (System.currentTimeMillis() - gateway.greenplumStatsAt) / 1000.0 : Double.NaN);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${metrics.gateway.sync-interval-ms:5000}")
+    public void sync() {
+        if (!enabled) {
+            return;
+        }
+        syncCounters();
+        syncSignals();
+        syncQueues();
+        syncGreenplum();
+    }
+
+    private void syncCounters() {
+        Set<String> live = new HashSet<>();
+        for (String series : counterRateService.seriesNames()) {
+            if (resetSeries.add(series)) {
+                FunctionCounter.builder(PREFIX + "counter.resets", counterRateService, rates -> rates.resetCount(series))
+                    .description("Counter resets (instance restarts) absorbed by the reset correction")
+                    .tag("series", series)
+                    .register(meterRegistry);
+            }
+            for (String instance : counterRateService.instanceTotals(series).keySet()) {
+                String key = series + "|" + instance;
+                live.add(key);
+                counters.computeIfAbsent(key, k -> registerCounter(series, instance));
+            }
+        }
+        counters.entrySet().removeIf(entry -> {
+            if (live.contains(entry.getKey())) {
+                return false;
+            }
+            // The instance was retired; its count lives on in the series totals
+            meterRegistry.remove(entry.getValue());
+            return true;
+        });
+    }
+
+    private Meter registerCounter(String series, String instance) {
+        String name;
+        Tags tags;
+        if (series.startsWith(QUEUE_SERIES_PREFIX) && series.lastIndexOf(':') > QUEUE_SERIES_PREFIX.length()) {
+            int split = series.lastIndexOf(':');
+            name = PREFIX + "rabbitmq.queue." + stripTotal(series.substring(split + 1));
+            tags = Tags.of("queue", series.substring(QUEUE_SERIES_PREFIX.length(), split));
+        } else {
+            int split = series.indexOf(':');
+            name = PREFIX + (split > 0 ? series.substring(0, split) + "." + stripTotal(series.substring(split + 1)) : stripTotal(series));
+            tags = Tags.of("instance", instance);
+        }
+        return FunctionCounter.builder(name, counterRateService, rates -> rates.instanceTotal(series, instance))
+            .description("Reset-corrected counter collected from the pipeline")
+            .tags(tags)
+            .register(meterRegistry);
+    }
+
+    // The Prometheus registry appends _total to counters itself
+    private static String stripTotal(String metric) {
+        return metric.endsWith("_total") ? metric.substring(0, metric.length() - "_total".length()) : metric;
+    }
+
+    private void syncSignals() {
+        Duration window = counterRateService.getDefaultWindow();
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        pipelineSignals.sample(window).forEach((signal, value) -> rows.add(MultiGauge.Row.of(Tags.of("signal", signal), value)));
+        signalGauge.register(rows, true);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void syncQueues() {
+        Object queues = queueAnalyticsService.getAllAnalytics().get("queues");
+        if (!(queues instanceof Map<?, ?> perQueue)) {
+            return;
+        }
+        List<MultiGauge.Row<?>> messages = new ArrayList<>();
+        List<MultiGauge.Row<?>> consumers = new ArrayList<>();
+        List<MultiGauge.Row<?>> lag = new ArrayList<>();
+        perQueue.forEach((queue, snapshot) -> {
+            Map<String, Object> analytics = (Map<String, Object>) snapshot;
+            if (analytics.isEmpty()) {
+                return;
+            }
+            Tags tags = Tags.of("queue", String.valueOf(queue));
+            addRow(messages, tags.and("state", "ready"), analytics.get("messages_ready"));
+            addRow(messages, tags.and("state", "unacknowledged"), analytics.get("messages_unacknowledged"));
+            addRow(consumers, tags, analytics.get("consumers"));
+            addRow(lag, tags, analytics.get("lag_seconds"));
+        });
+        queueMessagesGauge.register(messages, true);
+        queueConsumersGauge.register(consumers, true);
+        queueLagGauge.register(lag, true);
+    }
+
+    private void syncGreenplum() {
+        Map<String, Object> stats = greenplumService.getLastDatabaseStats();
+        if (stats == null) {
+            return;
+        }
+        List<MultiGauge.Row<?>> rows = new ArrayList<>();
+        GREENPLUM_STATS.forEach(stat -> addRow(rows, Tags.of("stat", stat), stats.get(stat)));
+        greenplumRowsGauge.register(rows, true);
+        if (stats.get("last_updated") instanceof Number updated) {
+            greenplumStatsAt = updated.longValue();
+        }
+    }
+
+    private static void addRow(List<MultiGauge.Row<?>> rows, Tags tags, Object value) {
+        if (value instanceof Number number) {
+            rows.add(MultiGauge.Row.of(tags, number.doubleValue()));
+        }
+    }
+}
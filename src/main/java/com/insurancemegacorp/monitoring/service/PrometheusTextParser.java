@@ -0,0 +1,166 @@
+package com.insurancemegacorp.monitoring.service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Minimal parser for the Prometheus text exposition format served by the SCDF apps'
+ * /actuator/prometheus endpoints and by RabbitMQ's rabbitmq_prometheus plugin.
+ *
+ * {@link #parse} sums samples of the same metric with different label sets (e.g. one per
+ * binding), which is the right aggregate for the counters we read from the apps;
+ * {@link #forEachSample} hands over every sample with its labels for per-object expositions.
+ * Lines are scanned in place rather than split with regular expressions since these
+ * payloads run to thousands of lines.
+ */
+public final class PrometheusTextParser {
+
+    @FunctionalInterface
+    public interface SampleHandler {
+        void accept(String name, Map<String, String> labels, double value);
+    }
+
+    private PrometheusTextParser() {
+    }
+
+    public static Map<String, Double> parse(String text) {
+        return parse(text, name -> true);
+    }
+
+    /**
+     * Parse every sample whose metric name is accepted by the filter.
+     */
+    public static Map<String, Double> parse(String text, Predicate<String> nameFilter) {
+        Map<String, Double> metrics = new HashMap<>();
+        scan(text, nameFilter, (name, labels, value) -> metrics.merge(name, value, Double::sum), false);
+        return metrics;
+    }
+
+    /**
+     * Pass every sample whose metric name is accepted by the filter to the handler, with its
+     * labels. Only the accepted samples pay for label parsing.
+     */
+    public static void forEachSample(String text, Predicate<String> nameFilter, SampleHandler handler) {
+        scan(text, nameFilter, handler, true);
+    }
+
+    private static void scan(String text, Predicate<String> nameFilter, SampleHandler handler, boolean withLabels) {
+        if (text == null || text.isEmpty()) {
+            return;
+        }
+
+        int length = text.length();
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) {
+                lineEnd = length;
+            }
+            parseLine(text, lineStart, lineEnd, nameFilter, handler, withLabels);
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    private static void parseLine(String text, int start, int end, Predicate<String> nameFilter,
+                                  SampleHandler handler, boolean withLabels) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start >= end || text.charAt(start) == '#') {
+            return;
+        }
+
+        int nameEnd = start;
+        while (nameEnd < end && text.charAt(nameEnd) != '{' && !Character.isWhitespace(text.charAt(nameEnd))) {
+            nameEnd++;
+        }
+        String name = text.substring(start, nameEnd);
+        if (!nameFilter.test(name)) {
+            return;
+        }
+
+        // Skip the label set, honouring quoted label values that may contain '}' or spaces
+        int valueStart = nameEnd;
+        Map<String, String> labels = Map.of();
+        if (valueStart < end && text.charAt(valueStart) == '{') {
+            int labelsStart = valueStart + 1;
+            boolean quoted = false;
+            valueStart++;
+            while (valueStart < end) {
+                char c = text.charAt(valueStart);
+                if (c == '\\' && quoted) {
+                    valueStart++;
+                } else if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == '}' && !quoted) {
+                    if (withLabels) {
+                        labels = parseLabels(text, labelsStart, valueStart);
+                    }
+                    valueStart++;
+                    break;
+                }
+                valueStart++;
+            }
+        }
+        while (valueStart < end && Character.isWhitespace(text.charAt(valueStart))) {
+            valueStart++;
+        }
+        int valueEnd = valueStart;
+        while (valueEnd < end && !Character.isWhitespace(text.charAt(valueEnd))) {
+            valueEnd++;
+        }
+        if (valueStart >= valueEnd) {
+            return;
+        }
+
+        try {
+            double value = Double.parseDouble(text.substring(valueStart, valueEnd));
+            if (!Double.isNaN(value)) {
+                handler.accept(name, labels, value);
+            }
+        } catch (NumberFormatException ignored) {
+            // Skip samples such as "+Inf" buckets we cannot use
+        }
+    }
+
+    /**
+     * Parse {@code name="value",...} between the braces, unescaping quoted values.
+     */
+    private static Map<String, String> parseLabels(String text, int start, int end) {
+        Map<String, String> labels = new HashMap<>(4);
+        int position = start;
+        while (position < end) {
+            int equals = text.indexOf('=', position);
+            if (equals < 0 || equals >= end) {
+                break;
+            }
+            String key = text.substring(position, equals).strip();
+            int quote = text.indexOf('"', equals);
+            if (quote < 0 || quote >= end) {
+                break;
+            }
+            StringBuilder value = new StringBuilder();
+            int i = quote + 1;
+            while (i < end && text.charAt(i) != '"') {
+                char c = text.charAt(i);
+                if (c == '\\' && i + 1 < end) {
+                    char next = text.charAt(++i);
+                    value.append(next == 'n' ? '\n' : next);
+                } else {
+                    value.append(c);
+                }
+                i++;
+            }
+            labels.put(key, value.toString());
+            position = i + 1;
+            while (position < end && (text.charAt(position) == ',' || Character.isWhitespace(text.charAt(position)))) {
+                position++;
+            }
+        }
+        return labels;
+    }
+}
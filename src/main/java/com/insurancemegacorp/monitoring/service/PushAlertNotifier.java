@@ -0,0 +1,27 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.AlertNotification;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends alerts to connected dashboards over the push stream.
+ */
+@Component
+public class PushAlertNotifier implements AlertNotifier {
+
+    private final MetricsPushService metricsPushService;
+
+    public PushAlertNotifier(MetricsPushService metricsPushService) {
+        this.metricsPushService = metricsPushService;
+    }
+
+    @Override
+    public String name() {
+        return "push";
+    }
+
+    @Override
+    public void notify(AlertNotification notification) {
+        metricsPushService.broadcast("alert", notification);
+    }
+}
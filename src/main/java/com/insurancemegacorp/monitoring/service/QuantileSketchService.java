@@ -0,0 +1,155 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.TelemetrySample;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tail percentiles of the tapped telemetry, where the fleet summary only has averages:
+ * g-force, speed and tap latency (vehicle clock to tap) of telemetry, and the latency of
+ * vehicle_events. Values go into {@link DDSketch}es held per signal in a ring of time
+ * buckets; the 1m and 5m views merge the current, partially elapsed bucket with a full span
+ * of completed ones before it, so a window covers its span plus at most one bucket.
+ *
+ * Latency depends on vehicle clocks; a skewed clock shows up as negative or inflated
+ * latencies rather than being dropped.
+ */
+@Service
+public class QuantileSketchService {
+
+    private static final String G_FORCE = "g_force";
+    private static final String SPEED = "speed";
+    private static final String LATENCY = "latency_ms";
+    private static final String EVENT_LATENCY = "event_latency_ms";
+
+    private static final List<String> SIGNALS = List.of(G_FORCE, SPEED, LATENCY, EVENT_LATENCY);
+    private static final List<Duration> WINDOWS = List.of(Duration.ofMinutes(1), Duration.ofMinutes(5));
+    private static final Map<String, Double> QUANTILES = quantiles();
+
+    private final double relativeAccuracy;
+    private final int maxBins;
+    private final long bucketMillis;
+    private final Bucket[] ring;
+
+    public QuantileSketchService(@Value("${telemetry.quantiles.relative-accuracy:0.01}") double relativeAccuracy,
+                                 @Value("${telemetry.quantiles.max-bins:2048}") int maxBins,
+                                 @Value("${telemetry.quantiles.bucket-seconds:10}") long bucketSeconds) {
+        // Fail at startup rather than on the first sample
+        new DDSketch(relativeAccuracy, maxBins);
+        this.relativeAccuracy = relativeAccuracy;
+        this.maxBins = maxBins;
+        this.bucketMillis = Math.max(1, bucketSeconds) * 1000;
+        long longest = WINDOWS.stream().mapToLong(Duration::toMillis).max().orElseThrow();
+        // One more than the longest window's buckets for the one still filling
+        this.ring = new Bucket[(int) Math.ceil((double) longest / bucketMillis) + 1];
+    }
+
+    @EventListener
+    public void onSample(TelemetrySample sample) {
+        if (TelemetrySample.SOURCE_VEHICLE_EVENTS.equals(sample.source())) {
+            add(EVENT_LATENCY, sample.latencyMillis(), sample.timestamp());
+            return;
+        }
+        add(G_FORCE, sample.gForce(), sample.timestamp());
+        add(SPEED, sample.speed(), sample.timestamp());
+        add(LATENCY, sample.latencyMillis(), sample.timestamp());
+    }
+
+    private void add(String signal, Number value, long now) {
+        if (value != null) {
+            synchronized (this) {
+                bucket(now).sketches.computeIfAbsent(signal, key -> newSketch()).add(value.doubleValue());
+            }
+        }
+    }
+
+    private Bucket bucket(long now) {
+        long epoch = now / bucketMillis;
+        int slot = (int) (epoch % ring.length);
+        if (ring[slot] == null || ring[slot].epoch != epoch) {
+            ring[slot] = new Bucket(epoch);
+        }
+        return ring[slot];
+    }
+
+    private DDSketch newSketch() {
+        return new DDSketch(relativeAccuracy, maxBins);
+    }
+
+    /**
+     * Per window and signal: count, mean, min, max and p50/p90/p99/p999. Percentiles are null
+     * for a signal with no values in the window.
+     */
+    public Map<String, Object> getQuantiles() {
+        long now = System.currentTimeMillis();
+        Map<String, Map<String, DDSketch>> merged = merge(now);
+
+        Map<String, Object> windows = new LinkedHashMap<>();
+        merged.forEach((window, sketches) -> {
+            Map<String, Object> signals = new LinkedHashMap<>();
+            SIGNALS.forEach(signal -> signals.put(signal, describe(sketches.get(signal))));
+            windows.put(window, signals);
+        });
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("windows", windows);
+        result.put("relative_accuracy", relativeAccuracy);
+        result.put("bucket_seconds", bucketMillis / 1000);
+        result.put("timestamp", now);
+        return result;
+    }
+
+    private synchronized Map<String, Map<String, DDSketch>> merge(long now) {
+        long current = now / bucketMillis;
+        Map<String, Map<String, DDSketch>> merged = new LinkedHashMap<>();
+        for (Duration window : WINDOWS) {
+            long oldest = current - (long) Math.ceil((double) window.toMillis() / bucketMillis) - 1;
+            Map<String, DDSketch> sketches = new HashMap<>();
+            for (Bucket bucket : ring) {
+                if (bucket != null && bucket.epoch > oldest && bucket.epoch <= current) {
+                    bucket.sketches.forEach((signal, sketch) ->
+                        sketches.computeIfAbsent(signal, key -> newSketch()).merge(sketch));
+                }
+            }
+            merged.put(SlidingHyperLogLog.label(window), sketches);
+        }
+        return merged;
+    }
+
+    private static Map<String, Object> describe(DDSketch sketch) {
+        Map<String, Object> view = new LinkedHashMap<>();
+        boolean empty = sketch == null || sketch.count() == 0;
+        view.put("count", empty ? 0L : sketch.count());
+        view.put("mean", empty ? null : sketch.mean());
+        view.put("min", empty ? null : sketch.min());
+        view.put("max", empty ? null : sketch.max());
+        QUANTILES.forEach((name, q) -> view.put(name, empty ? null : sketch.quantile(q)));
+        return view;
+    }
+
+    private static Map<String, Double> quantiles() {
+        Map<String, Double> quantiles = new LinkedHashMap<>();
+        quantiles.put("p50", 0.5);
+        quantiles.put("p90", 0.9);
+        quantiles.put("p99", 0.99);
+        quantiles.put("p999", 0.999);
+        return quantiles;
+    }
+
+    private static final class Bucket {
+
+        private final long epoch;
+        private final Map<String, DDSketch> sketches = new HashMap<>();
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+}
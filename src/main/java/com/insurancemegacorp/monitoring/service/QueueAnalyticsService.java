@@ -0,0 +1,258 @@
+package com.insurancemegacorp.monitoring.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Derived backlog analytics per RabbitMQ queue, updated incrementally from each poll of the
+ * management API.
+ *
+ * For every queue it keeps smoothed publish, deliver and ack rates and a least-squares fit of
+ * depth over a sliding window (running sums, so each tick is O(1) apart from evicting old
+ * samples). From those it derives how long the ready backlog takes to consume at the current
+ * ack rate (lag), when the queue will be empty if it keeps draining (ETA), and whether the
+ * backlog is growing. The queue whose backlog is growing with the highest lag is reported as
+ * the pipeline bottleneck.
+ */
+@Slf4j
+@Service
+public class QueueAnalyticsService {
+
+    private static final long REBASE_MILLIS = 3_600_000;
+
+    private final Map<String, QueueSeries> queues = new ConcurrentHashMap<>();
+    private final long windowMillis;
+    private final long minIntervalMillis;
+    private final double smoothing;
+    private final double growthThreshold;
+
+    public QueueAnalyticsService(
+            @Value("${metrics.queue-analytics.window-seconds:300}") long windowSeconds,
+            @Value("${metrics.queue-analytics.min-interval-ms:1000}") long minIntervalMillis,
+            @Value("${metrics.queue-analytics.smoothing:0.3}") double smoothing,
+            @Value("${metrics.queue-analytics.growth-threshold:1.0}") double growthThreshold) {
+        this.windowMillis = windowSeconds * 1000;
+        this.minIntervalMillis = minIntervalMillis;
+        this.smoothing = smoothing;
+        this.growthThreshold = growthThreshold;
+        log.info("QueueAnalyticsService initialized: window={}s, minInterval={}ms, smoothing={}, growthThreshold={}/s",
+            windowSeconds, minIntervalMillis, smoothing, growthThreshold);
+    }
+
+    /**
+     * One observation of a queue as reported by the management API.
+     *
+     * @param consumerUtilisation broker-reported fraction of time consumers could take new
+     *                            messages, or null when the broker does not report it
+     */
+    public record QueueSample(long messages, long messagesReady, long messagesUnacknowledged,
+                              double publishRate, double deliverRate, double ackRate,
+                              int consumers, Double consumerUtilisation) {
+    }
+
+    /**
+     * Record a sample and return the queue's analytics. Polls closer together than the
+     * minimum interval (several dashboards refreshing at once) reuse the previous tick.
+     */
+    public Map<String, Object> record(String queueName, QueueSample sample) {
+        return queues.computeIfAbsent(queueName, QueueSeries::new).record(sample, System.currentTimeMillis());
+    }
+
+    public Map<String, Object> getAnalytics(String queueName) {
+        QueueSeries series = queues.get(queueName);
+        return series != null ? series.snapshot() : Map.of();
+    }
+
+    /**
+     * Change in queue depth over the window (latest depth minus the depth at or just before
+     * the window start), or null when the queue has not been sampled.
+     */
+    public Long backlogChange(String queueName, long windowMillis) {
+        QueueSeries series = queues.get(queueName);
+        return series != null ? series.backlogChange(System.currentTimeMillis() - windowMillis) : null;
+    }
+
+    /**
+     * Analytics for every queue seen so far plus the current bottleneck, if any.
+     */
+    public Map<String, Object> getAllAnalytics() {
+        Map<String, Object> perQueue = new TreeMap<>();
+        queues.forEach((name, series) -> perQueue.put(name, series.snapshot()));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("queues", perQueue);
+        result.put("bottleneck", findBottleneck());
+        result.put("window_seconds", windowMillis / 1000);
+        result.put("timestamp", System.currentTimeMillis());
+        return result;
+    }
+
+    /**
+     * The queue whose backlog is growing faster than the threshold with the highest lag, or
+     * null when no backlog is growing.
+     */
+    public Map<String, Object> findBottleneck() {
+        Map<String, Object> worst = null;
+        double worstLag = -1;
+        for (QueueSeries series : queues.values()) {
+            Map<String, Object> analytics = series.snapshot();
+            double slope = (double) analytics.getOrDefault("backlog_slope_per_sec", 0.0);
+            if (slope < growthThreshold) {
+                continue;
+            }
+            Object lag = analytics.get("lag_seconds");
+            double lagSeconds = lag instanceof Double value ? value : Double.MAX_VALUE;
+            if (lagSeconds > worstLag) {
+                worstLag = lagSeconds;
+                worst = analytics;
+            }
+        }
+        return worst;
+    }
+
+    private final class QueueSeries {
+
+        private final String name;
+        private final Deque<long[]> depthSamples = new ArrayDeque<>();
+        private long originMillis = -1;
+        // Running sums for the least-squares fit of depth against time (seconds since origin)
+        private double sumT;
+        private double sumY;
+        private double sumTT;
+        private double sumTY;
+        private long lastTick = 0L;
+        private long ticks = 0L;
+        private double publishRate = Double.NaN;
+        private double deliverRate = Double.NaN;
+        private double ackRate = Double.NaN;
+        private QueueSample last;
+        private Map<String, Object> lastSnapshot = Map.of();
+
+        private QueueSeries(String name) {
+            this.name = name;
+        }
+
+        private synchronized Map<String, Object> record(QueueSample sample, long now) {
+            if (last != null && now - lastTick < minIntervalMillis) {
+                return lastSnapshot;
+            }
+            if (originMillis < 0) {
+                originMillis = now;
+            } else if (now - originMillis > REBASE_MILLIS) {
+                rebase();
+            }
+
+            addDepth(now, sample.messages());
+            long cutoff = now - windowMillis;
+            while (depthSamples.size() > 2 && depthSamples.peekFirst()[0] < cutoff) {
+                removeDepth(depthSamples.removeFirst());
+            }
+
+            publishRate = smooth(publishRate, sample.publishRate());
+            deliverRate = smooth(deliverRate, sample.deliverRate());
+            ackRate = smooth(ackRate, sample.ackRate());
+            last = sample;
+            lastTick = now;
+            ticks++;
+            lastSnapshot = compute();
+            return lastSnapshot;
+        }
+
+        private synchronized Map<String, Object> snapshot() {
+            return lastSnapshot;
+        }
+
+        private synchronized Long backlogChange(long since) {
+            if (depthSamples.isEmpty()) {
+                return null;
+            }
+            long[] start = depthSamples.peekFirst();
+            for (long[] sample : depthSamples) {
+                if (sample[0] > since) {
+                    break;
+                }
+                start = sample;
+            }
+            return depthSamples.peekLast()[1] - start[1];
+        }
+
+        // Keeps the time offsets small so the running sums do not lose precision over days
+        private void rebase() {
+            originMillis = depthSamples.isEmpty() ? lastTick : depthSamples.peekFirst()[0];
+            sumT = sumY = sumTT = sumTY = 0.0;
+            Deque<long[]> samples = new ArrayDeque<>(depthSamples);
+            depthSamples.clear();
+            for (long[] sample : samples) {
+                addDepth(sample[0], sample[1]);
+            }
+        }
+
+        private void addDepth(long timestamp, long messages) {
+            depthSamples.addLast(new long[] { timestamp, messages });
+            double t = (timestamp - originMillis) / 1000.0;
+            sumT += t;
+            sumY += messages;
+            sumTT += t * t;
+            sumTY += t * messages;
+        }
+
+        private void removeDepth(long[] sample) {
+            double t = (sample[0] - originMillis) / 1000.0;
+            sumT -= t;
+            sumY -= sample[1];
+            sumTT -= t * t;
+            sumTY -= t * sample[1];
+        }
+
+        private double smooth(double previous, double value) {
+            return Double.isNaN(previous) ? value : previous + smoothing * (value - previous);
+        }
+
+        private double slope() {
+            int n = depthSamples.size();
+            if (n < 2) {
+                return 0.0;
+            }
+            double denominator = n * sumTT - sumT * sumT;
+            return denominator > 1e-9 ? (n * sumTY - sumT * sumY) / denominator : 0.0;
+        }
+
+        private Map<String, Object> compute() {
+            double slope = slope();
+            double netDrain = ackRate - publishRate;
+
+            Map<String, Object> analytics = new HashMap<>();
+            analytics.put("queue", name);
+            analytics.put("messages", last.messages());
+            analytics.put("messages_ready", last.messagesReady());
+            analytics.put("messages_unacknowledged", last.messagesUnacknowledged());
+            analytics.put("consumers", last.consumers());
+            analytics.put("publish_rate", publishRate);
+            analytics.put("deliver_rate", deliverRate);
+            analytics.put("ack_rate", ackRate);
+            // Seconds for consumers to work through what is ready now at the current ack rate
+            analytics.put("lag_seconds", last.messagesReady() == 0 ? Double.valueOf(0.0)
+                : ackRate > 0 ? Double.valueOf(last.messagesReady() / ackRate) : null);
+            // Time until empty if it keeps draining at the current net rate; null when not draining
+            analytics.put("drain_eta_seconds", last.messages() == 0 ? Double.valueOf(0.0)
+                : netDrain > 0 ? Double.valueOf(last.messages() / netDrain) : null);
+            analytics.put("backlog_slope_per_sec", slope);
+            analytics.put("backlog_trend", slope >= growthThreshold ? "growing"
+                : slope <= -growthThreshold ? "draining" : "steady");
+            analytics.put("consumer_utilisation", last.consumerUtilisation());
+            analytics.put("ack_to_publish_ratio", publishRate > 0 ? Double.valueOf(ackRate / publishRate) : null);
+            analytics.put("samples", depthSamples.size());
+            analytics.put("ticks", ticks);
+            analytics.put("timestamp", lastTick);
+            return analytics;
+        }
+    }
+}
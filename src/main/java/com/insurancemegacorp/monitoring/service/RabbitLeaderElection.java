@@ -0,0 +1,140 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.rabbitmq.client.Channel;
+import com.rabbitmq.client.Connection;
+import com.rabbitmq.client.DefaultConsumer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.connection.AbstractConnectionFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Leader election on the broker the pipeline already uses: every UI instance tries to
+ * consume the lock queue {@code cluster.leader.queue} as an exclusive consumer. The broker
+ * grants that to one channel at a time and refuses the others, and releases it the moment
+ * the leader's channel or connection goes away, after which the next follower to retry
+ * ({@code cluster.leader.retry-ms}) takes over. Nothing is ever published to the queue.
+ *
+ * A leader cut off from the broker loses leadership when its channel shuts down, which for
+ * a silent network failure takes up to the AMQP heartbeat timeout; until then the broker
+ * also still holds its lock, so two leaders never overlap.
+ *
+ * The lock is held on a connection of its own, opened from the client factory underneath
+ * Spring's, rather than on a cached channel: closing a cached channel may only return it to
+ * the cache with the consumer still registered, and the lock would never be released.
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "cluster.leader-election", havingValue = "rabbitmq")
+public class RabbitLeaderElection implements LeaderElection {
+
+    private final com.rabbitmq.client.ConnectionFactory connectionFactory;
+    private final CollectorLogService collectorLog;
+    private final String instanceId;
+    private final String lockQueue;
+    private volatile boolean leader = false;
+    private volatile long leaderSince = 0L;
+    private volatile String lastError;
+    private Connection connection;
+    private Channel channel;
+
+    public RabbitLeaderElection(ConnectionFactory connectionFactory,
+                                CollectorLogService collectorLog,
+                                @Value("${cluster.instance-id:${vcap.application.instance_id:${random.uuid}}}") String instanceId,
+                                @Value("${cluster.leader.queue:smartdriver.leader}") String lockQueue) {
+        if (!(connectionFactory instanceof AbstractConnectionFactory factory)) {
+            throw new IllegalStateException("Leader election needs a RabbitMQ client connection factory, not " + connectionFactory.getClass().getName());
+        }
+        this.connectionFactory = factory.getRabbitConnectionFactory();
+        this.collectorLog = collectorLog;
+        this.instanceId = instanceId;
+        this.lockQueue = lockQueue;
+        log.info("Leader election on RabbitMQ lock queue {} as instance {}", lockQueue, instanceId);
+    }
+
+    @Override
+    public boolean isLeader() {
+        return leader;
+    }
+
+    @Override
+    public String instanceId() {
+        return instanceId;
+    }
+
+    @Scheduled(fixedDelayString = "${cluster.leader.retry-ms:5000}")
+    public synchronized void campaign() {
+        if (leader && channel != null && channel.isOpen()) {
+            return;
+        }
+        try {
+            if (connection == null || !connection.isOpen()) {
+                connection = connectionFactory.newConnection("smartdriver-leader-" + instanceId);
+            }
+            Channel candidate = connection.createChannel();
+            candidate.queueDeclare(lockQueue, false, false, false, null);
+            // Refused with ACCESS_REFUSED, closing the channel, while another instance leads
+            candidate.basicConsume(lockQueue, true, consumerTag(), false, true, null, new DefaultConsumer(candidate));
+            candidate.addShutdownListener(cause -> stepDown(cause.getMessage()));
+            channel = candidate;
+            leader = true;
+            leaderSince = System.currentTimeMillis();
+            lastError = null;
+            collectorLog.onChange(log, "leader-election", "leader", "Instance {} is now the leader", instanceId);
+        } catch (Exception e) {
+            lastError = e.getCause() != null ? e.getCause().getMessage() : e.getMessage();
+            collectorLog.onChange(log, "leader-election", "follower", "Instance {} is a follower: {}", instanceId, lastError);
+        }
+    }
+
+    private String consumerTag() {
+        return "leader-" + instanceId;
+    }
+
+    private void stepDown(String reason) {
+        if (leader) {
+            leader = false;
+            log.warn("Instance {} lost leadership: {}", instanceId, reason);
+        }
+    }
+
+    @Override
+    public Map<String, Object> describe() {
+        Map<String, Object> view = new HashMap<>();
+        view.put("mode", "rabbitmq");
+        view.put("instance_id", instanceId);
+        view.put("leader", leader);
+        view.put("leader_since", leader ? leaderSince : null);
+        view.put("lock_queue", lockQueue);
+        view.put("last_error", lastError);
+        return view;
+    }
+
+    @PreDestroy
+    public synchronized void resign() {
+        leader = false;
+        if (channel != null && channel.isOpen()) {
+            try {
+                // Release the lock first; the closes below then cannot leave it held
+                channel.basicCancel(consumerTag());
+                channel.close();
+            } catch (Exception e) {
+                log.debug("Could not close leader channel: {}", e.getMessage());
+            }
+        }
+        if (connection != null && connection.isOpen()) {
+            try {
+                connection.close();
+            } catch (Exception e) {
+                log.debug("Could not close leader connection: {}", e.getMessage());
+            }
+        }
+    }
+}
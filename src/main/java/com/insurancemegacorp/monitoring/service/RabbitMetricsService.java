@@ -10,6 +10,7 @@ import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpMethod;
 
 import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -19,23 +20,38 @@ import java.util.stream.Collectors;
 public class RabbitMetricsService {
 
     private final RestTemplate restTemplate;
+    private final UpstreamGuardService upstreamGuardService;
+    private final CollectorLogService collectorLog;
+    private final AmqpQueueProbeService amqpQueueProbeService;
+    private final RabbitPrometheusService rabbitPrometheusService;
     private final String managementApiUrl;
     private final String queueName;
+    private final String vhost;
     private final HttpEntity<String> httpEntity;
     private final List<String> displayQueues;
 
     public RabbitMetricsService(
             RestTemplate restTemplate,
+            UpstreamGuardService upstreamGuardService,
+            CollectorLogService collectorLog,
+            AmqpQueueProbeService amqpQueueProbeService,
+            RabbitPrometheusService rabbitPrometheusService,
             @Value("${rabbitmq.management.api-url:}") String managementApiUrl,
             @Value("${spring.rabbitmq.host:${rabbitmq.host:localhost}}") String host,
             @Value("${rabbitmq.management.port:15672}") int managementPort,
+            @Value("${rabbitmq.vhost:${spring.rabbitmq.virtual-host:cf986537-69cc-4107-8b66-5542481de9ba}}") String vhost,
             @Value("${spring.rabbitmq.username:${rabbitmq.username:guest}}") String username,
             @Value("${spring.rabbitmq.password:${rabbitmq.password:guest}}") String password,
             @Value("${rabbitmq.queue.name:telematics_exchange.crash-detection-group}") String queueName,
             @Value("${rabbitmq.display.queues:}") String displayQueuesStr) {
         
         this.restTemplate = restTemplate;
+        this.upstreamGuardService = upstreamGuardService;
+        this.collectorLog = collectorLog;
+        this.amqpQueueProbeService = amqpQueueProbeService;
+        this.rabbitPrometheusService = rabbitPrometheusService;
         this.queueName = queueName;
+        this.vhost = vhost;
         
         // Use full API URL if provided (CF style), otherwise construct from host/port
         String apiUrl;
@@ -109,53 +125,88 @@ public class RabbitMetricsService {
         log.info("Display queues filter: {}", displayQueues.isEmpty() ? "showing all queues" : displayQueues);
     }
 
+    /**
+     * Total messages in {@code rabbitmq.queue.name}, ready plus unacknowledged, from the
+     * management API (or the Prometheus backend); -1 when it cannot be read.
+     */
     public int getQueueDepth() {
+        Map<String, Object> queueInfo = fetchQueueInfo();
+        return queueInfo != null && queueInfo.get("messages") instanceof Number messages ? messages.intValue() : -1;
+    }
+
+    /**
+     * Depth of {@code rabbitmq.queue.name} and the ready messages within it. Ready comes
+     * straight from the broker when the AMQP probe is on, otherwise from the same management
+     * API read as the depth; either value is -1 when it cannot be read.
+     */
+    public Map<String, Object> getQueueCounts() {
+        Map<String, Object> queueInfo = fetchQueueInfo();
+        long depth = queueInfo != null && queueInfo.get("messages") instanceof Number messages ? messages.longValue() : -1;
+
+        AmqpQueueProbeService.QueueProbe probe = amqpQueueProbeService.probe(queueName);
+        long ready;
+        String readySource;
+        if (probe != null) {
+            ready = probe.messagesReady();
+            readySource = "amqp-probe";
+        } else {
+            ready = queueInfo != null && queueInfo.get("messages_ready") instanceof Number messagesReady ? messagesReady.longValue() : -1;
+            readySource = rabbitPrometheusService.isEnabled() ? "prometheus" : "management";
+        }
+
+        Map<String, Object> counts = new HashMap<>();
+        counts.put("queue", queueName);
+        counts.put("queue_depth", depth);
+        counts.put("messages_ready", ready);
+        counts.put("messages_ready_source", readySource);
+        return counts;
+    }
+
+    private Map<String, Object> fetchQueueInfo() {
+        if (rabbitPrometheusService.isEnabled()) {
+            Map<String, Object> queueInfo = rabbitPrometheusService.getQueue(queueName);
+            return queueInfo.isEmpty() ? null : queueInfo;
+        }
         try {
-            // Use the CF vhost instead of default %2f vhost
-            String vhost = "cf986537-69cc-4107-8b66-5542481de9ba";
             String queueUrl = managementApiUrl + "/queues/" + vhost + "/" + queueName;
             log.debug("Fetching queue info from: {}", queueUrl);
             
-            ResponseEntity<Map> response = restTemplate.exchange(
+            ResponseEntity<Map> response = upstreamGuardService.call(UpstreamGuardService.RABBITMQ_MANAGEMENT, () -> restTemplate.exchange(
                 queueUrl, 
                 HttpMethod.GET, 
                 httpEntity, 
                 Map.class
-            );
+            ));
             
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Map<String, Object> queueInfo = response.getBody();
-                Integer messages = (Integer) queueInfo.get("messages");
-                int queueDepth = messages != null ? messages : 0;
-                log.debug("Queue {} has {} messages", queueName, queueDepth);
-                return queueDepth;
+                log.debug("Queue {} has {} messages", queueName, queueInfo.get("messages"));
+                return queueInfo;
             } else {
-                log.warn("Failed to get queue info, status: {}", response.getStatusCode());
-                return -1;
+                collectorLog.warn(log, "queue-depth-status", "Failed to get queue info, status: {}", response.getStatusCode());
+                return null;
             }
         } catch (Exception e) {
-            log.error("Error fetching queue depth for {}: {}", queueName, e.getMessage());
-            return -1;
+            collectorLog.error(log, "queue-depth", "Error fetching queue depth for {}: {}", queueName, e.getMessage());
+            return null;
         }
     }
 
     public boolean isRabbitMQHealthy() {
         try {
-            // Use the CF vhost instead of default %2f vhost  
-            String vhost = "cf986537-69cc-4107-8b66-5542481de9ba";
             String healthUrl = managementApiUrl + "/aliveness-test/" + vhost;
-            ResponseEntity<Map> response = restTemplate.exchange(
+            ResponseEntity<Map> response = upstreamGuardService.call(UpstreamGuardService.RABBITMQ_MANAGEMENT, () -> restTemplate.exchange(
                 healthUrl, 
                 HttpMethod.GET, 
                 httpEntity, 
                 Map.class
-            );
+            ));
             
             boolean healthy = response.getStatusCode().is2xxSuccessful();
             log.debug("RabbitMQ health check: {}", healthy ? "healthy" : "unhealthy");
             return healthy;
         } catch (Exception e) {
-            log.error("RabbitMQ health check failed: {}", e.getMessage());
+            collectorLog.error(log, "health", "RabbitMQ health check failed: {}", e.getMessage());
             return false;
         }
     }
@@ -163,12 +214,12 @@ public class RabbitMetricsService {
     public String getRabbitMQVersion() {
         try {
             String overviewUrl = managementApiUrl + "/overview";
-            ResponseEntity<Map> response = restTemplate.exchange(
+            ResponseEntity<Map> response = upstreamGuardService.call(UpstreamGuardService.RABBITMQ_MANAGEMENT, () -> restTemplate.exchange(
                 overviewUrl, 
                 HttpMethod.GET, 
                 httpEntity, 
                 Map.class
-            );
+            ));
             
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Map<String, Object> overview = response.getBody();
@@ -183,69 +234,73 @@ public class RabbitMetricsService {
 
     @SuppressWarnings("unchecked")
     public List<Map<String, Object>> getAllQueues() {
+        if (rabbitPrometheusService.isEnabled()) {
+            return filterDisplayQueues(rabbitPrometheusService.getQueues());
+        }
         try {
             String queuesUrl = managementApiUrl + "/queues";
             log.debug("Fetching all queues from: {}", queuesUrl);
             
-            ResponseEntity<List> response = restTemplate.exchange(
+            ResponseEntity<List> response = upstreamGuardService.call(UpstreamGuardService.RABBITMQ_MANAGEMENT, () -> restTemplate.exchange(
                 queuesUrl, 
                 HttpMethod.GET, 
                 httpEntity, 
                 List.class
-            );
+            ));
             
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                List<Map<String, Object>> allQueues = response.getBody();
-                
-                // Filter queues based on display configuration
-                List<Map<String, Object>> filteredQueues;
-                if (displayQueues.isEmpty()) {
-                    // If no filter specified, show all queues
-                    filteredQueues = allQueues;
-                    log.debug("Found {} queues (showing all)", allQueues.size());
-                } else {
-                    // Filter to show only specified queues
-                    filteredQueues = allQueues.stream()
-                        .filter(queue -> displayQueues.contains((String) queue.get("name")))
-                        .collect(Collectors.toList());
-                    log.debug("Found {} queues, filtered to {} based on configuration", allQueues.size(), filteredQueues.size());
-                }
-                
-                return filteredQueues;
+                return filterDisplayQueues(response.getBody());
             } else {
-                log.warn("Failed to get queues list, status: {}", response.getStatusCode());
+                collectorLog.warn(log, "queues-status", "Failed to get queues list, status: {}", response.getStatusCode());
                 return List.of();
             }
         } catch (Exception e) {
-            log.error("Error fetching queues list: {}", e.getMessage());
+            collectorLog.error(log, "queues", "Error fetching queues list: {}", e.getMessage());
             return List.of();
         }
     }
 
     public Map<String, Object> getExchangeStats(String exchangeName) {
+        if (rabbitPrometheusService.isEnabled()) {
+            return rabbitPrometheusService.getExchange(exchangeName);
+        }
         try {
-            String vhost = "cf986537-69cc-4107-8b66-5542481de9ba";
             String exchangeUrl = managementApiUrl + "/exchanges/" + vhost + "/" + exchangeName;
             log.debug("Fetching exchange stats from: {}", exchangeUrl);
             
-            ResponseEntity<Map> response = restTemplate.exchange(
+            ResponseEntity<Map> response = upstreamGuardService.call(UpstreamGuardService.RABBITMQ_MANAGEMENT, () -> restTemplate.exchange(
                 exchangeUrl, 
                 HttpMethod.GET, 
                 httpEntity, 
                 Map.class
-            );
+            ));
             
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Map<String, Object> exchangeInfo = response.getBody();
                 log.debug("Exchange {} stats retrieved successfully", exchangeName);
                 return exchangeInfo;
             } else {
-                log.warn("Failed to get exchange stats for {}, status: {}", exchangeName, response.getStatusCode());
+                collectorLog.warn(log, "exchange-status:" + exchangeName, "Failed to get exchange stats for {}, status: {}", exchangeName, response.getStatusCode());
                 return Map.of();
             }
         } catch (Exception e) {
-            log.error("Error fetching exchange stats for {}: {}", exchangeName, e.getMessage());
+            collectorLog.error(log, "exchange:" + exchangeName, "Error fetching exchange stats for {}: {}", exchangeName, e.getMessage());
             return Map.of();
         }
     }
-}
\ No newline at end of file
+
+    private List<Map<String, Object>> filterDisplayQueues(List<Map<String, Object>> allQueues) {
+        // Filter queues based on display configuration
+        if (displayQueues.isEmpty()) {
+            // If no filter specified, show all queues
+            log.debug("Found {} queues (showing all)", allQueues.size());
+            return allQueues;
+        }
+        // Filter to show only specified queues
+        List<Map<String, Object>> filteredQueues = allQueues.stream()
+            .filter(queue -> displayQueues.contains((String) queue.get("name")))
+            .collect(Collectors.toList());
+        log.debug("Found {} queues, filtered to {} based on configuration", allQueues.size(), filteredQueues.size());
+        return filteredQueues;
+    }
+}
@@ -0,0 +1,292 @@
+package com.insurancemegacorp.monitoring.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Alternative RabbitMQ collection backend that scrapes the broker's rabbitmq_prometheus
+ * endpoint (port 15692) instead of the management API's /api/queues and /api/exchanges,
+ * which get expensive on large brokers. Selected with
+ * {@code rabbitmq.metrics.backend=prometheus}.
+ *
+ * One scrape of /metrics/detailed covers every queue and exchange; it is reused for
+ * {@code rabbitmq.prometheus.min-interval-ms} so a dashboard refresh that asks for several
+ * queues costs the broker one request. Results are shaped like the management API's queue
+ * and exchange objects (messages, consumers, message_stats with *_details.rate) so the
+ * collectors treat both backends alike. The endpoint only exposes counters, so rates are
+ * computed between consecutive scrapes, and exchange-to-queue bindings are inferred from
+ * the per-queue publish counters.
+ *
+ * The parser reads the per-object families: queue_coarse_metrics, queue_consumer_count and
+ * queue_metrics for depth and consumers, exchange_metrics for what the exchange received,
+ * queue_delivery_metrics for deliveries and acks, and queue_exchange_metrics for what each
+ * exchange routed to each queue. The channel_* families report per channel and are not read,
+ * so {@code rabbitmq.prometheus.path} must ask for these families.
+ *
+ * The broker's health check and version still come from the management API.
+ */
+@Slf4j
+@Service
+public class RabbitPrometheusService {
+
+    public static final String BACKEND = "prometheus";
+
+    private static final String DETAILED_PREFIX = "rabbitmq_detailed_";
+    private static final String AGGREGATED_PREFIX = "rabbitmq_";
+
+    private static final class QueueCounters {
+        private double messages;
+        private double messagesReady;
+        private double messagesUnacked;
+        private double consumers;
+        private Double consumerUtilisation;
+        private double publish;
+        private double deliverGet;
+        private double ack;
+    }
+
+    private static final class ExchangeCounters {
+        private double publishIn;
+        private double publishOut;
+    }
+
+    private record Snapshot(long timestamp,
+                            Map<String, QueueCounters> queues,
+                            Map<String, ExchangeCounters> exchanges,
+                            Map<String, Set<String>> bindings) {
+    }
+
+    private final RestTemplate restTemplate;
+    private final UpstreamGuardService upstreamGuardService;
+    private final CollectorLogService collectorLog;
+    private final boolean enabled;
+    private final String metricsUrl;
+    private final String vhost;
+    private final long minIntervalMillis;
+    private Snapshot current;
+    private Snapshot previous;
+
+    public RabbitPrometheusService(RestTemplate restTemplate,
+                                   UpstreamGuardService upstreamGuardService,
+                                   CollectorLogService collectorLog,
+                                   @Value("${rabbitmq.metrics.backend:management}") String backend,
+                                   @Value("${rabbitmq.prometheus.url:}") String url,
+                                   @Value("${spring.rabbitmq.host:${rabbitmq.host:localhost}}") String host,
+                                   @Value("${rabbitmq.prometheus.port:15692}") int port,
+                                   @Value("${rabbitmq.prometheus.path:/metrics/detailed?family=queue_coarse_metrics&family=queue_consumer_count&family=queue_metrics&family=exchange_metrics&family=queue_delivery_metrics&family=queue_exchange_metrics}") String path,
+                                   @Value("${rabbitmq.prometheus.vhost:}") String vhost,
+                                   @Value("${rabbitmq.prometheus.min-interval-ms:1000}") long minIntervalMillis) {
+        this.restTemplate = restTemplate;
+        this.upstreamGuardService = upstreamGuardService;
+        this.collectorLog = collectorLog;
+        this.enabled = BACKEND.equalsIgnoreCase(backend.strip());
+        this.metricsUrl = (url.isEmpty() ? "http://" + hostName(host) + ":" + port : url.replaceAll("/+$", "")) + path;
+        this.vhost = vhost;
+        this.minIntervalMillis = minIntervalMillis;
+        if (enabled) {
+            log.info("RabbitMQ metrics backend: rabbitmq_prometheus at {}", metricsUrl);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * The queue in the management API's shape, or an empty map when the broker does not
+     * report it (or cannot be scraped).
+     */
+    public Map<String, Object> getQueue(String queueName) {
+        Snapshot[] snapshots = snapshots();
+        if (snapshots == null) {
+            return Map.of();
+        }
+        QueueCounters queue = snapshots[0].queues().get(queueName);
+        return queue != null ? queueView(queueName, queue, snapshots) : Map.of();
+    }
+
+    public List<Map<String, Object>> getQueues() {
+        Snapshot[] snapshots = snapshots();
+        if (snapshots == null) {
+            return List.of();
+        }
+        List<Map<String, Object>> queues = new ArrayList<>();
+        snapshots[0].queues().forEach((name, queue) -> queues.add(queueView(name, queue, snapshots)));
+        return queues;
+    }
+
+    public Map<String, Object> getExchange(String exchangeName) {
+        Snapshot[] snapshots = snapshots();
+        if (snapshots == null) {
+            return Map.of();
+        }
+        ExchangeCounters exchange = snapshots[0].exchanges().get(exchangeName);
+        if (exchange == null) {
+            return Map.of();
+        }
+        ExchangeCounters before = snapshots[1] != null ? snapshots[1].exchanges().get(exchangeName) : null;
+        double seconds = elapsedSeconds(snapshots);
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("publish_in", (long) exchange.publishIn);
+        stats.put("publish_out", (long) exchange.publishOut);
+        stats.put("publish_in_details", rate(exchange.publishIn, before != null ? before.publishIn : null, seconds));
+        stats.put("publish_out_details", rate(exchange.publishOut, before != null ? before.publishOut : null, seconds));
+
+        Map<String, Object> view = new HashMap<>();
+        view.put("name", exchangeName);
+        view.put("message_stats", stats);
+        return view;
+    }
+
+    /**
+     * Bindings of the exchange in the management API's shape. Only queues the exchange has
+     * routed messages to since the broker started are known.
+     */
+    public List<Map<String, Object>> getExchangeBindings(String exchangeName) {
+        Snapshot[] snapshots = snapshots();
+        if (snapshots == null) {
+            return List.of();
+        }
+        List<Map<String, Object>> bindings = new ArrayList<>();
+        for (String queue : snapshots[0].bindings().getOrDefault(exchangeName, Set.of())) {
+            Map<String, Object> binding = new HashMap<>();
+            binding.put("source", exchangeName);
+            binding.put("destination", queue);
+            binding.put("destination_type", "queue");
+            bindings.add(binding);
+        }
+        return bindings;
+    }
+
+    /**
+     * The latest snapshot and the one before it (null until there are two), scraping first
+     * if the latest is older than the minimum interval. Null when nothing could be scraped.
+     */
+    private synchronized Snapshot[] snapshots() {
+        long now = System.currentTimeMillis();
+        if (current == null || now - current.timestamp() >= minIntervalMillis) {
+            try {
+                Snapshot scraped = scrape(now);
+                previous = current;
+                current = scraped;
+            } catch (Exception e) {
+                collectorLog.warn(log, "rabbitmq-prometheus", "Failed to scrape rabbitmq_prometheus at {}: {}", metricsUrl, e.getMessage());
+                if (current == null) {
+                    return null;
+                }
+            }
+        }
+        return new Snapshot[] {current, previous};
+    }
+
+    private Snapshot scrape(long now) {
+        ResponseEntity<String> response = upstreamGuardService.call(UpstreamGuardService.RABBITMQ_PROMETHEUS,
+            () -> restTemplate.getForEntity(URI.create(metricsUrl), String.class));
+        if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+            throw new IllegalStateException("rabbitmq_prometheus returned: " + response.getStatusCode());
+        }
+
+        Map<String, QueueCounters> queues = new TreeMap<>();
+        Map<String, ExchangeCounters> exchanges = new TreeMap<>();
+        Map<String, Set<String>> bindings = new HashMap<>();
+        PrometheusTextParser.forEachSample(response.getBody(), name -> name.startsWith(AGGREGATED_PREFIX), (name, labels, value) -> {
+            if (!vhost.isEmpty() && labels.containsKey("vhost") && !vhost.equals(labels.get("vhost"))) {
+                return;
+            }
+            String metric = name.startsWith(DETAILED_PREFIX)
+                ? name.substring(DETAILED_PREFIX.length())
+                : name.substring(AGGREGATED_PREFIX.length());
+            String queueName = labels.get("queue");
+            String exchangeName = labels.get("exchange");
+
+            if (queueName != null && exchangeName != null) {
+                if ("queue_exchange_messages_published_total".equals(metric)) {
+                    queues.computeIfAbsent(queueName, q -> new QueueCounters()).publish += value;
+                    exchanges.computeIfAbsent(exchangeName, e -> new ExchangeCounters()).publishOut += value;
+                    bindings.computeIfAbsent(exchangeName, e -> new TreeSet<>()).add(queueName);
+                }
+            } else if (queueName != null) {
+                QueueCounters queue = queues.computeIfAbsent(queueName, q -> new QueueCounters());
+                switch (metric) {
+                    case "queue_messages" -> queue.messages += value;
+                    case "queue_messages_ready" -> queue.messagesReady += value;
+                    case "queue_messages_unacked" -> queue.messagesUnacked += value;
+                    case "queue_consumers" -> queue.consumers += value;
+                    case "queue_consumer_utilisation" -> queue.consumerUtilisation = value;
+                    case "queue_messages_delivered_total", "queue_messages_delivered_ack_total",
+                         "queue_get_total", "queue_get_ack_total" -> queue.deliverGet += value;
+                    case "queue_messages_acked_total" -> queue.ack += value;
+                    default -> {
+                    }
+                }
+            } else if (exchangeName != null && "exchange_messages_published_total".equals(metric)) {
+                exchanges.computeIfAbsent(exchangeName, e -> new ExchangeCounters()).publishIn += value;
+            }
+        });
+        return new Snapshot(now, queues, exchanges, bindings);
+    }
+
+    private Map<String, Object> queueView(String name, QueueCounters queue, Snapshot[] snapshots) {
+        QueueCounters before = snapshots[1] != null ? snapshots[1].queues().get(name) : null;
+        double seconds = elapsedSeconds(snapshots);
+
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("publish", (long) queue.publish);
+        stats.put("deliver_get", (long) queue.deliverGet);
+        stats.put("ack", (long) queue.ack);
+        stats.put("publish_details", rate(queue.publish, before != null ? before.publish : null, seconds));
+        stats.put("deliver_get_details", rate(queue.deliverGet, before != null ? before.deliverGet : null, seconds));
+        stats.put("ack_details", rate(queue.ack, before != null ? before.ack : null, seconds));
+
+        // Brokers without the queue_coarse total report ready and unacked only
+        double messages = queue.messages > 0 ? queue.messages : queue.messagesReady + queue.messagesUnacked;
+        Map<String, Object> view = new HashMap<>();
+        view.put("name", name);
+        view.put("messages", (long) messages);
+        view.put("messages_ready", (long) queue.messagesReady);
+        view.put("messages_unacknowledged", (long) queue.messagesUnacked);
+        view.put("consumers", (long) queue.consumers);
+        if (queue.consumerUtilisation != null) {
+            view.put("consumer_utilisation", queue.consumerUtilisation);
+        }
+        view.put("message_stats", stats);
+        return view;
+    }
+
+    private static Map<String, Object> rate(double value, Double before, double seconds) {
+        double rate = 0.0;
+        if (before != null && seconds > 0) {
+            // A counter that went backwards was reset by a node restart; count from zero
+            rate = (value >= before ? value - before : value) / seconds;
+        }
+        return Map.of("rate", rate);
+    }
+
+    private static double elapsedSeconds(Snapshot[] snapshots) {
+        return snapshots[1] != null ? (snapshots[0].timestamp() - snapshots[1].timestamp()) / 1000.0 : 0.0;
+    }
+
+    private static String hostName(String host) {
+        if (!host.startsWith("http")) {
+            return host;
+        }
+        try {
+            return URI.create(host).getHost();
+        } catch (IllegalArgumentException e) {
+            return host;
+        }
+    }
+}
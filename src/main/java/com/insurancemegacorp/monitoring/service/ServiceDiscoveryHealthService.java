@@ -1,15 +1,14 @@
 package com.insurancemegacorp.monitoring.service;
 
+import com.insurancemegacorp.monitoring.dto.InstanceHealth;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.cloud.client.ServiceInstance;
-import org.springframework.cloud.client.discovery.DiscoveryClient;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -20,19 +19,19 @@ import java.util.concurrent.ConcurrentHashMap;
 @ConditionalOnProperty(name = "component.health.discovery.enabled", havingValue = "true", matchIfMissing = false)
 public class ServiceDiscoveryHealthService {
 
-    private final DiscoveryClient discoveryClient;
-    private final RestTemplate restTemplate;
+    private final DiscoveryCacheService discoveryCacheService;
+    private final HealthProbeService healthProbeService;
     private final Map<String, Boolean> componentHealthStatus = new ConcurrentHashMap<>();
     
     // Service name patterns to health check - configurable mapping
     private final Map<String, String> serviceNamePatterns;
 
     @Autowired
-    public ServiceDiscoveryHealthService(DiscoveryClient discoveryClient, 
-                                       RestTemplate restTemplate,
+    public ServiceDiscoveryHealthService(DiscoveryCacheService discoveryCacheService, 
+                                       HealthProbeService healthProbeService,
                                        @Value("${component.health.service-mappings:}") String serviceMappings) {
-        this.discoveryClient = discoveryClient;
-        this.restTemplate = restTemplate;
+        this.discoveryCacheService = discoveryCacheService;
+        this.healthProbeService = healthProbeService;
         
         // Parse service mappings from configuration
         this.serviceNamePatterns = parseServiceMappings(serviceMappings);
@@ -46,55 +45,37 @@ public class ServiceDiscoveryHealthService {
         log.info("Component to service mappings: {}", serviceNamePatterns);
     }
     
+    /**
+     * Probe every instance of every mapped service at once; a component is healthy while at
+     * least one of its instances reports UP.
+     */
     public void checkAllServiceHealth() {
+        List<HealthProbeService.ProbeTarget> targets = new ArrayList<>();
         serviceNamePatterns.forEach((component, serviceName) -> {
-            boolean isHealthy = checkServiceHealth(component, serviceName);
-            componentHealthStatus.put(component, isHealthy);
-        });
-    }
-    
-    private boolean checkServiceHealth(String componentName, String serviceName) {
-        try {
-            // Find service instances
-            List<ServiceInstance> instances = discoveryClient.getInstances(serviceName);
-            
-            if (instances == null || instances.isEmpty()) {
-                log.debug("No instances found for service: {}", serviceName);
-                return false;
-            }
-            
-            // Use the first healthy instance
-            for (ServiceInstance instance : instances) {
-                String healthUrl = instance.getUri() + "/actuator/health";
-                
-                try {
-                    ResponseEntity<Map<String, Object>> response = restTemplate.getForEntity(
-                        healthUrl, 
-                        (Class<Map<String, Object>>) (Class<?>) Map.class
-                    );
-                    
-                    if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                        Map<String, Object> healthInfo = response.getBody();
-                        String status = (String) healthInfo.get("status");
-                        boolean isHealthy = "UP".equalsIgnoreCase(status);
-                        
-                        log.debug("Service {} (instance {}) health: {}", serviceName, instance.getInstanceId(), status);
-                        
-                        if (isHealthy) {
-                            return true; // At least one instance is healthy
-                        }
-                    }
-                } catch (Exception e) {
-                    log.debug("Health check failed for {} instance {}: {}", serviceName, instance.getInstanceId(), e.getMessage());
+            try {
+                List<ServiceInstance> instances = discoveryCacheService.getInstances(serviceName);
+                if (instances.isEmpty()) {
+                    log.debug("No instances found for service: {}", serviceName);
+                }
+                for (ServiceInstance instance : instances) {
+                    String serviceUrl = instance.getUri().toString();
+                    targets.add(new HealthProbeService.ProbeTarget(component, DiscoveryCacheService.instanceId(instance),
+                        serviceUrl + "/actuator/health", UpstreamGuardService.scdfInstance(serviceUrl)));
                 }
+            } catch (Exception e) {
+                log.warn("Failed to look up instances for service {}: {}", serviceName, e.getMessage());
+            }
+        });
+        
+        Map<String, Boolean> healthy = new HashMap<>();
+        serviceNamePatterns.keySet().forEach(component -> healthy.put(component, false));
+        for (InstanceHealth health : healthProbeService.probeAll(targets)) {
+            log.debug("Service {} (instance {}) health: {}", health.component(), health.instanceId(), health.status());
+            if (health.healthy()) {
+                healthy.put(health.component(), true);
             }
-            
-            return false; // No healthy instances found
-            
-        } catch (Exception e) {
-            log.warn("Failed to check health for service {}: {}", serviceName, e.getMessage());
-            return false;
         }
+        componentHealthStatus.putAll(healthy);
     }
     
     public boolean isComponentHealthy(String componentName) {
@@ -105,11 +86,15 @@ public class ServiceDiscoveryHealthService {
         return Map.copyOf(componentHealthStatus);
     }
     
+    public Map<String, Object> getComponentHealthDetails() {
+        return healthProbeService.getHealthModel(serviceNamePatterns.keySet());
+    }
+    
     public Map<String, List<ServiceInstance>> getDiscoveredServices() {
         Map<String, List<ServiceInstance>> services = new ConcurrentHashMap<>();
         serviceNamePatterns.values().forEach(serviceName -> {
             try {
-                List<ServiceInstance> instances = discoveryClient.getInstances(serviceName);
+                List<ServiceInstance> instances = discoveryCacheService.getInstances(serviceName);
                 services.put(serviceName, instances);
             } catch (Exception e) {
                 log.debug("Failed to get instances for service {}: {}", serviceName, e.getMessage());
@@ -121,9 +106,9 @@ public class ServiceDiscoveryHealthService {
     public Map<String, List<ServiceInstance>> getAllAvailableServices() {
         Map<String, List<ServiceInstance>> allServices = new ConcurrentHashMap<>();
         try {
-            List<String> serviceNames = discoveryClient.getServices();
+            List<String> serviceNames = discoveryCacheService.getServices();
             for (String serviceName : serviceNames) {
-                List<ServiceInstance> instances = discoveryClient.getInstances(serviceName);
+                List<ServiceInstance> instances = discoveryCacheService.getInstances(serviceName);
                 allServices.put(serviceName, instances);
             }
         } catch (Exception e) {
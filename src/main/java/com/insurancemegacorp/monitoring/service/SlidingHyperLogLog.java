@@ -0,0 +1,91 @@
+package com.insurancemegacorp.monitoring.service;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Distinct counts over several trailing windows. Each window is a ring of HyperLogLog
+ * buckets of window / buckets length, one more than {@code buckets} so the ring holds the
+ * current, partially elapsed bucket next to a full window of completed ones; a count merges
+ * them all, so it covers the window plus at most one bucket. Buckets are allocated on first
+ * use and reused as the ring turns, so memory is bounded by
+ * windows x (buckets + 1) x 2^precision bytes regardless of traffic.
+ */
+final class SlidingHyperLogLog {
+
+    private final int precision;
+    private final List<Ring> rings;
+
+    SlidingHyperLogLog(List<Duration> windows, int buckets, int precision) {
+        this.precision = precision;
+        this.rings = windows.stream().map(window -> new Ring(window, buckets)).toList();
+    }
+
+    synchronized void add(String value, long now) {
+        long hash = HyperLogLog.hash(value);
+        for (Ring ring : rings) {
+            ring.bucket(now).addHash(hash);
+        }
+    }
+
+    /**
+     * Estimated distinct values per window, keyed by the window's short label (1m, 5m, 1h).
+     */
+    synchronized Map<String, Long> estimates(long now) {
+        Map<String, Long> estimates = new LinkedHashMap<>();
+        for (Ring ring : rings) {
+            HyperLogLog merged = new HyperLogLog(precision);
+            ring.mergeLive(merged, now);
+            estimates.put(label(ring.window), merged.estimate());
+        }
+        return estimates;
+    }
+
+    static String label(Duration window) {
+        if (window.toSeconds() % 3600 == 0) {
+            return window.toHours() + "h";
+        }
+        if (window.toSeconds() % 60 == 0) {
+            return window.toMinutes() + "m";
+        }
+        return window.toSeconds() + "s";
+    }
+
+    private final class Ring {
+
+        private final Duration window;
+        private final long bucketMillis;
+        private final HyperLogLog[] sketches;
+        private final long[] epochs;
+
+        private Ring(Duration window, int buckets) {
+            this.window = window;
+            this.bucketMillis = Math.max(1, window.toMillis() / buckets);
+            this.sketches = new HyperLogLog[buckets + 1];
+            this.epochs = new long[buckets + 1];
+        }
+
+        private HyperLogLog bucket(long now) {
+            long epoch = now / bucketMillis;
+            int slot = (int) (epoch % sketches.length);
+            if (sketches[slot] == null) {
+                sketches[slot] = new HyperLogLog(precision);
+            } else if (epochs[slot] != epoch) {
+                sketches[slot].clear();
+            }
+            epochs[slot] = epoch;
+            return sketches[slot];
+        }
+
+        private void mergeLive(HyperLogLog target, long now) {
+            long oldest = now / bucketMillis - sketches.length;
+            for (int slot = 0; slot < sketches.length; slot++) {
+                if (sketches[slot] != null && epochs[slot] > oldest) {
+                    target.merge(sketches[slot]);
+                }
+            }
+        }
+    }
+}
@@ -1,15 +1,19 @@
 package com.insurancemegacorp.monitoring.service;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
+import java.time.Duration;
 import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
@@ -20,24 +24,50 @@ import java.util.ArrayList;
 @Service
 public class TelemematicsExchangeMetricsService {
 
+    private static final ParameterizedTypeReference<Map<String, Object>> QUEUE_BODY = new ParameterizedTypeReference<>() {
+    };
+
     private final RestTemplate restTemplate;
+    private final WebClient webClient;
+    private final UpstreamGuardService upstreamGuardService;
+    private final CollectorLogService collectorLog;
+    private final QueueAnalyticsService queueAnalyticsService;
+    private final CounterRateService counterRateService;
+    private final RabbitPrometheusService rabbitPrometheusService;
     private final String managementApiUrl;
     private final HttpEntity<String> httpEntity;
+    private final Duration queueCallTimeout;
+    private final int queueCallConcurrency;
     private final String exchangeName = "telematics_exchange";
-    private final String vhost = "cf986537-69cc-4107-8b66-5542481de9ba";
-    
-    @Autowired
-    private ExchangeMetricsService exchangeMetricsService;
+    private final String vhost;
 
     public TelemematicsExchangeMetricsService(
             RestTemplate restTemplate,
+            WebClient webClient,
+            UpstreamGuardService upstreamGuardService,
+            CollectorLogService collectorLog,
+            QueueAnalyticsService queueAnalyticsService,
+            CounterRateService counterRateService,
+            RabbitPrometheusService rabbitPrometheusService,
             @Value("${rabbitmq.management.api-url:}") String managementApiUrl,
             @Value("${spring.rabbitmq.host:${rabbitmq.host:localhost}}") String host,
             @Value("${rabbitmq.management.port:15672}") int managementPort,
+            @Value("${rabbitmq.vhost:${spring.rabbitmq.virtual-host:cf986537-69cc-4107-8b66-5542481de9ba}}") String vhost,
             @Value("${spring.rabbitmq.username:${rabbitmq.username:guest}}") String username,
-            @Value("${spring.rabbitmq.password:${rabbitmq.password:guest}}") String password) {
+            @Value("${spring.rabbitmq.password:${rabbitmq.password:guest}}") String password,
+            @Value("${rabbitmq.management.call-timeout-ms:5000}") long queueCallTimeoutMillis,
+            @Value("${rabbitmq.management.max-concurrent-calls:2}") int queueCallConcurrency) {
         
         this.restTemplate = restTemplate;
+        this.webClient = webClient;
+        this.vhost = vhost;
+        this.queueCallTimeout = Duration.ofMillis(queueCallTimeoutMillis);
+        this.queueCallConcurrency = Math.max(1, queueCallConcurrency);
+        this.upstreamGuardService = upstreamGuardService;
+        this.collectorLog = collectorLog;
+        this.queueAnalyticsService = queueAnalyticsService;
+        this.counterRateService = counterRateService;
+        this.rabbitPrometheusService = rabbitPrometheusService;
         
         // Use full API URL if provided (CF style), otherwise construct from host/port
         String apiUrl;
@@ -102,12 +132,12 @@ public class TelemematicsExchangeMetricsService {
         
         try {
             String healthUrl = managementApiUrl + "/aliveness-test/" + vhost;
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
+            ResponseEntity<Map<String, Object>> response = upstreamGuardService.call(UpstreamGuardService.RABBITMQ_MANAGEMENT, () -> restTemplate.exchange(
                 healthUrl, 
                 HttpMethod.GET, 
                 httpEntity, 
                 (Class<Map<String, Object>>) (Class<?>) Map.class
-            );
+            ));
             
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Map<String, Object> aliveness = response.getBody();
@@ -130,7 +160,7 @@ public class TelemematicsExchangeMetricsService {
             }
             
         } catch (Exception e) {
-            log.warn("RabbitMQ health check failed: {}", e.getMessage());
+            collectorLog.warn(log, "health", "RabbitMQ health check failed: {}", e.getMessage());
             health.put("healthy", false);
             health.put("status", "DOWN");
             health.put("error", "Health check failed: " + e.getMessage());
@@ -186,7 +216,7 @@ public class TelemematicsExchangeMetricsService {
                 dashboardUrl += "/";
             }
             
-            log.info("Converted API URL {} to dashboard URL {}", apiUrl, dashboardUrl);
+            collectorLog.onChange(log, "dashboard-url", dashboardUrl, "Converted API URL {} to dashboard URL {}", apiUrl, dashboardUrl);
             return dashboardUrl;
             
         } catch (Exception e) {
@@ -211,6 +241,7 @@ public class TelemematicsExchangeMetricsService {
                 result.put("total_messages", queueMetrics.get("messages_published_to_queue"));
                 result.put("delivery_rate", queueMetrics.get("delivery_rate"));
                 result.put("publish_rate", queueMetrics.get("publish_rate"));
+                result.put("analytics", queueMetrics.get("analytics"));
                 result.put("status", "healthy");
             } else {
                 result.put("queue_name", vehicleEventsQueueName);
@@ -226,7 +257,7 @@ public class TelemematicsExchangeMetricsService {
             log.debug("Retrieved vehicle_events queue metrics: {}", result);
             
         } catch (Exception e) {
-            log.error("Failed to get vehicle_events queue metrics: {}", e.getMessage());
+            collectorLog.error(log, "vehicle-events-queue", "Failed to get vehicle_events queue metrics: {}", e.getMessage());
             result.put("queue_name", vehicleEventsQueueName);
             result.put("messages_in_queue", 0);
             result.put("total_messages", 0);
@@ -247,24 +278,13 @@ public class TelemematicsExchangeMetricsService {
         Map<String, Object> result = new HashMap<>();
         
         try {
-            // Get exchange throughput data to calculate messages coming into processor
-            Map<String, Object> exchangeData = getExchangeThroughputData();
-            
             // Get vehicle_events queue data to see events being sent out
             Map<String, Object> vehicleEventsMetrics = getVehicleEventsQueueMetrics();
             
-            // Messages in = exchange out to processor path (roughly half of exchange output)
-            long messagesIn = 0;
-            if (exchangeData != null) {
-                Object totalOut = exchangeData.get("total_publish_out");
-                if (totalOut instanceof Number) {
-                    // Assume roughly half goes to processor, half to HDFS
-                    messagesIn = ((Number) totalOut).longValue() / 2;
-                }
-            }
-            
-            // Messages out = total database operations (assume most messages go to database)
-            long messagesOut = messagesIn; // For now, assume most messages are processed and sent to DB
+            // Messages in/out from the processor's own reset-aware counters, as in the flow model
+            long messagesIn = Math.round(counterRateService.total(TelemetryProcessorMetricsService.MESSAGES_SERIES));
+            long messagesOut = Math.round(counterRateService.total(TelemetryProcessorMetricsService.MESSAGES_SERIES)
+                - counterRateService.total(TelemetryProcessorMetricsService.INVALID_SERIES));
             
             // Events captured = messages published to vehicle_events queue (accidents/events detected)
             long eventsCaptured = 0;
@@ -285,7 +305,7 @@ public class TelemematicsExchangeMetricsService {
                 messagesIn, messagesOut, eventsCaptured);
             
         } catch (Exception e) {
-            log.error("Failed to get events processor metrics: {}", e.getMessage());
+            collectorLog.error(log, "events-processor", "Failed to get events processor metrics: {}", e.getMessage());
             result.put("messages_in", 0);
             result.put("messages_out", 0);
             result.put("events_captured", 0);
@@ -297,69 +317,6 @@ public class TelemematicsExchangeMetricsService {
         return result;
     }
     
-    /**
-     * Get metrics for HDFS Sink (messages in, files written)
-     */
-    public Map<String, Object> getHdfsSinkMetrics() {
-        Map<String, Object> result = new HashMap<>();
-        
-        try {
-            // Get exchange throughput data to calculate messages coming into HDFS sink
-            Map<String, Object> exchangeData = getExchangeThroughputData();
-            
-            // Messages in = exchange out to HDFS path (roughly half of exchange output)
-            long messagesIn = 0;
-            if (exchangeData != null) {
-                Object totalOut = exchangeData.get("total_publish_out");
-                if (totalOut instanceof Number) {
-                    // Assume roughly half goes to HDFS, half to processor
-                    messagesIn = ((Number) totalOut).longValue() / 2;
-                }
-            }
-            
-            // Files written = estimate based on messages received (assume batching)
-            // Assuming batch size of ~1000 messages per file
-            long filesWritten = messagesIn / 1000;
-            if (messagesIn > 0 && filesWritten == 0) {
-                filesWritten = 1; // At least one file if there are messages
-            }
-            
-            result.put("messages_in", messagesIn);
-            result.put("files_written", filesWritten);
-            result.put("status", "healthy");
-            result.put("timestamp", System.currentTimeMillis());
-            
-            log.debug("HDFS Sink metrics - Messages in: {}, Files written: {}", messagesIn, filesWritten);
-            
-        } catch (Exception e) {
-            log.error("Failed to get HDFS Sink metrics: {}", e.getMessage());
-            result.put("messages_in", 0);
-            result.put("files_written", 0);
-            result.put("status", "error");
-            result.put("error", e.getMessage());
-            result.put("timestamp", System.currentTimeMillis());
-        }
-        
-        return result;
-    }
-    
-    /**
-     * Get exchange throughput data (reusable method)
-     */
-    private Map<String, Object> getExchangeThroughputData() {
-        try {
-            // Use the existing exchange metrics service to get throughput data
-            Map<String, Object> throughputStats = exchangeMetricsService.getExchangeThroughputStats();
-            log.debug("Retrieved exchange throughput data: {}", throughputStats);
-            return throughputStats;
-            
-        } catch (Exception e) {
-            log.error("Failed to get exchange throughput data: {}", e.getMessage());
-        }
-        
-        return null;
-    }
-
     /**
      * Get all queues bound to the telematics_exchange with their metrics
      */
@@ -370,27 +327,34 @@ public class TelemematicsExchangeMetricsService {
             // Get exchange bindings to find queues
             List<Map<String, Object>> boundQueues = getExchangeBindings();
             
-            // Get metrics for each queue
-            List<Map<String, Object>> queueMetrics = new ArrayList<>();
+            List<String> queueNames = new ArrayList<>();
             for (Map<String, Object> binding : boundQueues) {
                 String queueName = (String) binding.get("destination");
                 if (queueName != null && !queueName.isEmpty()) {
-                    Map<String, Object> queueMetric = getQueueMetrics(queueName);
-                    if (!queueMetric.isEmpty()) {
-                        queueMetrics.add(queueMetric);
-                    }
+                    queueNames.add(queueName);
+                }
+            }
+            
+            // Fetch every bound queue concurrently, then derive the metrics in binding order
+            List<Map<String, Object>> queueInfos = fetchQueueInfos(queueNames);
+            List<Map<String, Object>> queueMetrics = new ArrayList<>();
+            for (int i = 0; i < queueNames.size(); i++) {
+                Map<String, Object> queueMetric = toQueueMetrics(queueNames.get(i), queueInfos.get(i));
+                if (!queueMetric.isEmpty()) {
+                    queueMetrics.add(queueMetric);
                 }
             }
             
             result.put("exchange_name", exchangeName);
             result.put("total_queues", boundQueues.size());
             result.put("queues", queueMetrics);
+            result.put("bottleneck", queueAnalyticsService.findBottleneck());
             result.put("timestamp", System.currentTimeMillis());
             
             log.debug("Retrieved metrics for {} queues bound to {}", boundQueues.size(), exchangeName);
             
         } catch (Exception e) {
-            log.error("Failed to get exchange queue metrics: {}", e.getMessage());
+            collectorLog.error(log, "exchange-queues", "Failed to get exchange queue metrics: {}", e.getMessage());
             result.put("error", "Failed to fetch metrics: " + e.getMessage());
             result.put("exchange_name", exchangeName);
             result.put("total_queues", 0);
@@ -406,27 +370,30 @@ public class TelemematicsExchangeMetricsService {
      */
     @SuppressWarnings("unchecked")
     private List<Map<String, Object>> getExchangeBindings() {
+        if (rabbitPrometheusService.isEnabled()) {
+            return rabbitPrometheusService.getExchangeBindings(exchangeName);
+        }
         try {
             String bindingsUrl = managementApiUrl + "/exchanges/" + vhost + "/" + exchangeName + "/bindings/source";
             log.debug("Fetching exchange bindings from: {}", bindingsUrl);
             
-            ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(
+            ResponseEntity<List<Map<String, Object>>> response = upstreamGuardService.call(UpstreamGuardService.RABBITMQ_MANAGEMENT, () -> restTemplate.exchange(
                 bindingsUrl, 
                 HttpMethod.GET, 
                 httpEntity, 
                 (Class<List<Map<String, Object>>>) (Class<?>) List.class
-            );
+            ));
             
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 List<Map<String, Object>> bindings = response.getBody();
                 log.debug("Found {} bindings for exchange {}", bindings.size(), exchangeName);
                 return bindings;
             } else {
-                log.warn("Failed to get exchange bindings, status: {}", response.getStatusCode());
+                collectorLog.warn(log, "bindings-status", "Failed to get exchange bindings, status: {}", response.getStatusCode());
                 return List.of();
             }
         } catch (Exception e) {
-            log.error("Error fetching exchange bindings: {}", e.getMessage());
+            collectorLog.error(log, "bindings", "Error fetching exchange bindings: {}", e.getMessage());
             return List.of();
         }
     }
@@ -434,23 +401,28 @@ public class TelemematicsExchangeMetricsService {
     /**
      * Get metrics for a specific queue
      */
+    public Map<String, Object> getQueueMetrics(String queueName) {
+        try {
+            Map<String, Object> queueInfo = rabbitPrometheusService.isEnabled()
+                ? rabbitPrometheusService.getQueue(queueName)
+                : fetchQueueInfo(queueName);
+            return toQueueMetrics(queueName, queueInfo);
+        } catch (Exception e) {
+            collectorLog.error(log, "queue:" + queueName, "Error fetching queue metrics for {}: {}", queueName, e.getMessage());
+            return new HashMap<>();
+        }
+    }
+    
+    /**
+     * Queue metrics from a management API queue object; records the queue's counters and
+     * analytics as a side effect. Empty when the queue could not be read.
+     */
     @SuppressWarnings("unchecked")
-    private Map<String, Object> getQueueMetrics(String queueName) {
+    private Map<String, Object> toQueueMetrics(String queueName, Map<String, Object> queueInfo) {
         Map<String, Object> metrics = new HashMap<>();
         
         try {
-            String queueUrl = managementApiUrl + "/queues/" + vhost + "/" + queueName;
-            log.debug("Fetching queue metrics from: {}", queueUrl);
-            
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                queueUrl, 
-                HttpMethod.GET, 
-                httpEntity, 
-                (Class<Map<String, Object>>) (Class<?>) Map.class
-            );
-            
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> queueInfo = response.getBody();
+            if (!queueInfo.isEmpty()) {
                 
                 // Extract basic queue info
                 metrics.put("name", queueName);
@@ -465,32 +437,112 @@ public class TelemematicsExchangeMetricsService {
                     metrics.put("messages_delivered", getLongValue(messageStats, "deliver_get"));
                     metrics.put("messages_published_to_queue", getLongValue(messageStats, "publish"));
                     
+                    // Cumulative queue counters: the flow model splits each hop's loss at its queue
+                    counterRateService.record(queuePublishSeries(queueName), queueName, getLongValue(messageStats, "publish"));
+                    counterRateService.record(queueAckSeries(queueName), queueName, getLongValue(messageStats, "ack"));
+                    
                     // Get rates
                     Map<String, Object> deliverDetails = (Map<String, Object>) messageStats.get("deliver_get_details");
                     Map<String, Object> publishDetails = (Map<String, Object>) messageStats.get("publish_details");
                     
+                    Map<String, Object> ackDetails = (Map<String, Object>) messageStats.get("ack_details");
+                    
                     metrics.put("delivery_rate", deliverDetails != null ? getDoubleValue(deliverDetails, "rate") : 0.0);
                     metrics.put("publish_rate", publishDetails != null ? getDoubleValue(publishDetails, "rate") : 0.0);
+                    metrics.put("ack_rate", ackDetails != null ? getDoubleValue(ackDetails, "rate") : 0.0);
                 } else {
                     // No message stats available
                     metrics.put("messages_delivered", 0L);
                     metrics.put("messages_published_to_queue", 0L);
                     metrics.put("delivery_rate", 0.0);
                     metrics.put("publish_rate", 0.0);
+                    metrics.put("ack_rate", 0.0);
                 }
                 
+                Object utilisation = queueInfo.get("consumer_utilisation");
+                metrics.put("consumers", (int) getLongValue(queueInfo, "consumers"));
+                metrics.put("analytics", queueAnalyticsService.record(queueName, new QueueAnalyticsService.QueueSample(
+                    (long) metrics.get("messages"),
+                    (long) metrics.get("messages_ready"),
+                    (long) metrics.get("messages_unacknowledged"),
+                    (double) metrics.get("publish_rate"),
+                    (double) metrics.get("delivery_rate"),
+                    (double) metrics.get("ack_rate"),
+                    (int) metrics.get("consumers"),
+                    utilisation instanceof Number number ? number.doubleValue() : null
+                )));
+                
                 log.debug("Retrieved metrics for queue {}: {} messages", queueName, metrics.get("messages"));
                 
-            } else {
-                log.warn("Failed to get queue metrics for {}, status: {}", queueName, response.getStatusCode());
             }
         } catch (Exception e) {
-            log.error("Error fetching queue metrics for {}: {}", queueName, e.getMessage());
+            collectorLog.error(log, "queue:" + queueName, "Error fetching queue metrics for {}: {}", queueName, e.getMessage());
         }
         
         return metrics;
     }
     
+    /**
+     * Queue objects for the given queues, in the same order; empty maps for queues that could
+     * not be read. Against the management API up to {@code rabbitmq.management.max-concurrent-calls}
+     * calls run at once, leaving room in the upstream's bulkhead for other requests, each
+     * bounded by {@code rabbitmq.management.call-timeout-ms}.
+     */
+    private List<Map<String, Object>> fetchQueueInfos(List<String> queueNames) {
+        if (rabbitPrometheusService.isEnabled()) {
+            // Served from the last scrape, no call per queue
+            return queueNames.stream().map(rabbitPrometheusService::getQueue).toList();
+        }
+        List<Mono<Map<String, Object>>> requests = new ArrayList<>();
+        for (String queueName : queueNames) {
+            Mono<Map<String, Object>> request = webClient.get()
+                .uri(managementApiUrl + "/queues/{vhost}/{queue}", vhost, queueName)
+                .headers(headers -> headers.addAll(httpEntity.getHeaders()))
+                .retrieve()
+                .bodyToMono(QUEUE_BODY);
+            requests.add(upstreamGuardService.callReactive(UpstreamGuardService.RABBITMQ_MANAGEMENT, request)
+                .timeout(queueCallTimeout)
+                .defaultIfEmpty(Map.of())
+                .onErrorResume(e -> {
+                    collectorLog.error(log, "queue:" + queueName, "Error fetching queue metrics for {}: {}", queueName, e.getMessage());
+                    return Mono.just(Map.of());
+                }));
+        }
+        // Every request settles by its own timeout
+        List<Map<String, Object>> infos = Flux.mergeSequential(requests, queueCallConcurrency, 1).collectList().block();
+        return infos != null ? infos : List.of();
+    }
+    
+    /**
+     * The queue object from the management API, or an empty map if it could not be read
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> fetchQueueInfo(String queueName) {
+        String queueUrl = managementApiUrl + "/queues/" + vhost + "/" + queueName;
+        log.debug("Fetching queue metrics from: {}", queueUrl);
+        
+        ResponseEntity<Map<String, Object>> response = upstreamGuardService.call(UpstreamGuardService.RABBITMQ_MANAGEMENT, () -> restTemplate.exchange(
+            queueUrl, 
+            HttpMethod.GET, 
+            httpEntity, 
+            (Class<Map<String, Object>>) (Class<?>) Map.class
+        ));
+        
+        if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
+            return response.getBody();
+        }
+        collectorLog.warn(log, "queue-status:" + queueName, "Failed to get queue metrics for {}, status: {}", queueName, response.getStatusCode());
+        return Map.of();
+    }
+    
+    public static String queuePublishSeries(String queueName) {
+        return "queue:" + queueName + ":publish";
+    }
+    
+    public static String queueAckSeries(String queueName) {
+        return "queue:" + queueName + ":ack";
+    }
+    
     private long getLongValue(Map<String, Object> map, String key) {
         Object value = map.get(key);
         if (value instanceof Number) {
@@ -1,9 +1,8 @@
 package com.insurancemegacorp.monitoring.service;
 
+import com.insurancemegacorp.monitoring.dto.InstanceScrape;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cloud.client.ServiceInstance;
-import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -11,21 +10,37 @@ import org.springframework.web.client.RestTemplate;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
+import java.util.Set;
 
 @Slf4j
 @Service
 public class TelemetryGeneratorMetricsService {
 
+    static final String MESSAGES_SENT_SERIES = "telemetry_generator:telematics_messages_sent_total";
+
+    private static final Set<String> GENERATOR_METRICS = Set.of(
+        "telematics_messages_sent_total",
+        "telematics_messages_rate"
+    );
+
     private final RestTemplate restTemplate;
-    private final DiscoveryClient discoveryClient;
+    private final CounterRateService counterRateService;
+    private final InstanceScraperService instanceScraperService;
+    private final InstanceScalingService instanceScalingService;
+    private final CollectorLogService collectorLog;
     private final String serviceName = "imc-telematics-gen";
 
     @Autowired
     public TelemetryGeneratorMetricsService(RestTemplate restTemplate,
-                                          DiscoveryClient discoveryClient) {
+                                          CounterRateService counterRateService,
+                                          InstanceScraperService instanceScraperService,
+                                          InstanceScalingService instanceScalingService,
+                                          CollectorLogService collectorLog) {
         this.restTemplate = restTemplate;
-        this.discoveryClient = discoveryClient;
+        this.counterRateService = counterRateService;
+        this.instanceScraperService = instanceScraperService;
+        this.instanceScalingService = instanceScalingService;
+        this.collectorLog = collectorLog;
     }
 
     /**
@@ -35,36 +50,52 @@ public class TelemetryGeneratorMetricsService {
         Map<String, Object> metrics = new HashMap<>();
         
         try {
-            Optional<String> serviceUrl = getServiceUrl();
+            // Scrape every generator instance concurrently, not just the first one discovered
+            List<InstanceScrape> scrapes = instanceScraperService.scrapeAll(serviceName, GENERATOR_METRICS::contains);
             
-            if (serviceUrl.isEmpty()) {
-                log.error("No healthy instances found for service: {}. Check if service is registered and running.", serviceName);
+            if (scrapes.isEmpty()) {
+                collectorLog.error(log, "no-instances", "No healthy instances found for service: {}. Check if service is registered and running.", serviceName);
                 return createErrorMetrics("Service not available - check if " + serviceName + " is running and registered");
             }
             
-            log.info("Connecting to telemetry generator service at: {}", serviceUrl.get());
-            
-            // Use Prometheus endpoint for custom telemetry metrics
-            String prometheusUrl = serviceUrl.get() + "/actuator/prometheus";
+            // Extract telemetry-specific metrics; the sent counter is reset-corrected so a
+            // generator restart does not drop the published total back to zero
+            double messageRate = 0.0;
+            int successfulInstances = 0;
+            for (InstanceScrape scrape : scrapes) {
+                if (!scrape.success()) {
+                    continue;
+                }
+                Double sentCounter = scrape.metrics().get("telematics_messages_sent_total");
+                if (sentCounter != null) {
+                    counterRateService.record(MESSAGES_SENT_SERIES, scrape.instanceId(), sentCounter);
+                }
+                messageRate += scrape.metrics().getOrDefault("telematics_messages_rate", 0.0);
+                successfulInstances++;
+            }
             
-            // Get Prometheus metrics
-            Map<String, Double> prometheusMetrics = getPrometheusMetrics(prometheusUrl);
+            if (successfulInstances == 0) {
+                return createErrorMetrics("Failed to fetch metrics from any instance of " + serviceName);
+            }
             
-            // Extract telemetry-specific metrics
-            double totalSent = prometheusMetrics.getOrDefault("telematics_messages_sent_total", 0.0);
-            double messageRate = prometheusMetrics.getOrDefault("telematics_messages_rate", 0.0);
+            double totalSent = counterRateService.total(MESSAGES_SENT_SERIES);
             
             metrics.put("messages_published_total", Math.round(totalSent));
             metrics.put("messages_rate_per_sec", messageRate);
-            metrics.put("service_url", serviceUrl.get());
+            metrics.put("messages_sent_rate", counterRateService.rate(MESSAGES_SENT_SERIES));
+            metrics.put("counter_resets", counterRateService.resetCount(MESSAGES_SENT_SERIES));
+            metrics.put("service_url", scrapes.get(0).serviceUrl());
+            metrics.put("total_instances", scrapes.size());
+            metrics.put("successful_instances", successfulInstances);
+            metrics.put("scaling", instanceScalingService.analyze("generator", serviceName, MESSAGES_SENT_SERIES, scrapes));
             metrics.put("status", "healthy");
             metrics.put("timestamp", System.currentTimeMillis());
             
-            log.info("Retrieved telemetry metrics from {}: sent={}, rate={}/sec", 
-                serviceName, Math.round(totalSent), messageRate);
+            log.debug("Retrieved telemetry metrics from {} instances of {}: sent={}, rate={}/sec", 
+                successfulInstances, serviceName, Math.round(totalSent), messageRate);
             
         } catch (Exception e) {
-            log.error("Failed to fetch publishing metrics from {}: {}", serviceName, e.getMessage());
+            collectorLog.error(log, "metrics", "Failed to fetch publishing metrics from {}: {}", serviceName, e.getMessage());
             return createErrorMetrics("Failed to fetch metrics: " + e.getMessage());
         }
         
@@ -72,68 +103,21 @@ public class TelemetryGeneratorMetricsService {
     }
     
     /**
-     * Get health status of the telemetry generator service
+     * Get health status of the telemetry generator service, across all instances
      */
     public Map<String, Object> getHealthStatus() {
-        Map<String, Object> health = new HashMap<>();
-        
         try {
-            Optional<String> serviceUrl = getServiceUrl();
-            
-            if (serviceUrl.isEmpty()) {
+            // Every instance is checked concurrently, each call bounded by the health timeout
+            Map<String, Object> health = instanceScraperService.checkHealth(serviceName);
+            if (health == null) {
                 return createHealthStatus(false, "No instances available");
             }
-            
-            String healthUrl = serviceUrl.get() + "/actuator/health";
-            ResponseEntity<Map<String, Object>> response = restTemplate.getForEntity(
-                healthUrl, 
-                (Class<Map<String, Object>>) (Class<?>) Map.class
-            );
-            
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> healthInfo = response.getBody();
-                String status = (String) healthInfo.get("status");
-                boolean isHealthy = "UP".equalsIgnoreCase(status);
-                
-                health.put("healthy", isHealthy);
-                health.put("status", status);
-                health.put("service_url", serviceUrl.get());
-                health.put("details", healthInfo);
-                health.put("timestamp", System.currentTimeMillis());
-                
-                log.debug("Health check for {}: {}", serviceName, status);
-                
-            } else {
-                return createHealthStatus(false, "Health endpoint returned: " + response.getStatusCode());
-            }
-            
+            log.debug("Health check for {}: {}", serviceName, health.get("status"));
+            return health;
         } catch (Exception e) {
-            log.warn("Health check failed for {}: {}", serviceName, e.getMessage());
+            collectorLog.warn(log, "health", "Health check failed for {}: {}", serviceName, e.getMessage());
             return createHealthStatus(false, "Health check failed: " + e.getMessage());
         }
-        
-        return health;
-    }
-    
-    private Optional<String> getServiceUrl() {
-        try {
-            List<ServiceInstance> instances = discoveryClient.getInstances(serviceName);
-            
-            if (instances == null || instances.isEmpty()) {
-                log.warn("No instances found for service {}. Available services: {}", serviceName, discoveryClient.getServices());
-                return Optional.empty();
-            }
-            
-            // Use the first available instance
-            ServiceInstance instance = instances.get(0);
-            String serviceUrl = instance.getUri().toString();
-            log.info("Found service instance for {}: {} ({}:{})", serviceName, serviceUrl, instance.getHost(), instance.getPort());
-            return Optional.of(serviceUrl);
-            
-        } catch (Exception e) {
-            log.error("Failed to discover service {}: {}", serviceName, e.getMessage());
-            return Optional.empty();
-        }
     }
     
     private Map<String, Object> getMetric(String baseUrl, String metricName) {
@@ -155,72 +139,6 @@ public class TelemetryGeneratorMetricsService {
         return new HashMap<>();
     }
     
-    private Map<String, Double> getPrometheusMetrics(String prometheusUrl) {
-        Map<String, Double> metrics = new HashMap<>();
-        
-        try {
-            ResponseEntity<String> response = restTemplate.getForEntity(prometheusUrl, String.class);
-            
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                String prometheusText = response.getBody();
-                
-                // Parse Prometheus text format for our specific metrics
-                String[] lines = prometheusText.split("\n");
-                log.info("Parsing {} lines from Prometheus endpoint", lines.length);
-                
-                for (String line : lines) {
-                    line = line.trim();
-                    
-                    // Look for our specific metrics (ignore comments and metadata)
-                    if (line.startsWith("telematics_messages_sent_total") && !line.startsWith("#")) {
-                        log.info("Found telematics_messages_sent_total line: {}", line);
-                        String[] parts = line.split("\\s+");
-                        if (parts.length >= 2) {
-                            try {
-                                String valueStr = parts[parts.length - 1]; // Take the last part as the value
-                                double value = Double.parseDouble(valueStr);
-                                metrics.put("telematics_messages_sent_total", value);
-                                log.info("Parsed telematics_messages_sent_total: {}", value);
-                            } catch (NumberFormatException e) {
-                                log.warn("Could not parse telematics_messages_sent_total value: {} from line: {}", parts[parts.length - 1], line);
-                            }
-                        } else {
-                            log.warn("Invalid format for telematics_messages_sent_total line: {}", line);
-                        }
-                    }
-                    
-                    if (line.startsWith("telematics_messages_rate") && !line.startsWith("#")) {
-                        log.info("Found telematics_messages_rate line: {}", line);
-                        String[] parts = line.split("\\s+");
-                        if (parts.length >= 2) {
-                            try {
-                                String valueStr = parts[parts.length - 1]; // Take the last part as the value
-                                double value = Double.parseDouble(valueStr);
-                                metrics.put("telematics_messages_rate", value);
-                                log.info("Parsed telematics_messages_rate: {}", value);
-                            } catch (NumberFormatException e) {
-                                log.warn("Could not parse telematics_messages_rate value: {} from line: {}", parts[parts.length - 1], line);
-                            }
-                        } else {
-                            log.warn("Invalid format for telematics_messages_rate line: {}", line);
-                        }
-                    }
-                }
-                
-                log.info("Final parsed metrics: {}", metrics);
-                
-                log.debug("Parsed Prometheus metrics: {}", metrics);
-            } else {
-                log.warn("Failed to fetch Prometheus metrics, status: {}", response.getStatusCode());
-            }
-            
-        } catch (Exception e) {
-            log.error("Failed to fetch Prometheus metrics: {}", e.getMessage());
-        }
-        
-        return metrics;
-    }
-    
     private Map<String, Object> getAvailableMetrics(String baseUrl) {
         try {
             ResponseEntity<Map<String, Object>> response = restTemplate.getForEntity(
@@ -1,31 +1,44 @@
 package com.insurancemegacorp.monitoring.service;
 
+import com.insurancemegacorp.monitoring.dto.InstanceScrape;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.cloud.client.ServiceInstance;
-import org.springframework.cloud.client.discovery.DiscoveryClient;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
-import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 @Slf4j
 @Service
 public class TelemetryProcessorMetricsService {
 
-    private final RestTemplate restTemplate;
-    private final DiscoveryClient discoveryClient;
+    static final String MESSAGES_SERIES = "telemetry_processor:telemetry_messages_total";
+    static final String VEHICLE_EVENTS_SERIES = "telemetry_processor:telemetry_vehicle_events_total";
+    static final String INVALID_SERIES = "telemetry_processor:telemetry_invalid_messages_total";
+
+    private static final Set<String> PROCESSOR_METRICS = Set.of(
+        "telemetry_messages_total",
+        "telemetry_vehicle_events_total",
+        "telemetry_invalid_messages_total"
+    );
+
+    private final CounterRateService counterRateService;
+    private final InstanceScraperService instanceScraperService;
+    private final InstanceScalingService instanceScalingService;
+    private final CollectorLogService collectorLog;
     private final String serviceName = "imc-telemetry-processor";
 
     @Autowired
-    public TelemetryProcessorMetricsService(RestTemplate restTemplate,
-                                          DiscoveryClient discoveryClient) {
-        this.restTemplate = restTemplate;
-        this.discoveryClient = discoveryClient;
+    public TelemetryProcessorMetricsService(CounterRateService counterRateService,
+                                          InstanceScraperService instanceScraperService,
+                                          InstanceScalingService instanceScalingService,
+                                          CollectorLogService collectorLog) {
+        this.counterRateService = counterRateService;
+        this.instanceScraperService = instanceScraperService;
+        this.instanceScalingService = instanceScalingService;
+        this.collectorLog = collectorLog;
     }
 
     /**
@@ -36,52 +49,55 @@ public class TelemetryProcessorMetricsService {
         Map<String, Object> metrics = new HashMap<>();
         
         try {
-            List<String> serviceUrls = getAllServiceUrls();
+            // Scrape every instance concurrently so scaled-out processors are all counted
+            List<InstanceScrape> scrapes = instanceScraperService.scrapeAll(serviceName, PROCESSOR_METRICS::contains);
             
-            if (serviceUrls.isEmpty()) {
-                log.warn("No healthy instances found for service: {}. Using fallback calculation.", serviceName);
+            if (scrapes.isEmpty()) {
+                collectorLog.warn(log, "no-instances", "No healthy instances found for service: {}. Using fallback calculation.", serviceName);
                 return createFallbackMetrics();
             }
             
-            log.debug("Found {} instances of {}, aggregating metrics from all instances", serviceUrls.size(), serviceName);
+            log.debug("Found {} instances of {}, aggregating metrics from all instances", scrapes.size(), serviceName);
             
-            // Aggregate metrics from all instances
-            double totalMessages = 0.0;
-            double vehicleEvents = 0.0;
-            double invalidMessages = 0.0;
+            // Record every instance's counters; totals are reset-corrected and keep the
+            // contribution of instances that have since scaled away
             int successfulInstances = 0;
             
-            for (String serviceUrl : serviceUrls) {
-                try {
-                    // Use Prometheus endpoint for processor metrics
-                    String prometheusUrl = serviceUrl + "/actuator/prometheus";
-                    Map<String, Double> instanceMetrics = getPrometheusMetrics(prometheusUrl);
-                    
-                    // Sum metrics from this instance
-                    totalMessages += instanceMetrics.getOrDefault("telemetry_messages_total", 0.0);
-                    vehicleEvents += instanceMetrics.getOrDefault("telemetry_vehicle_events_total", 0.0);
-                    invalidMessages += instanceMetrics.getOrDefault("telemetry_invalid_messages_total", 0.0);
-                    
-                    successfulInstances++;
-                    log.debug("Successfully retrieved metrics from instance: {}", serviceUrl);
-                    
-                } catch (Exception e) {
-                    log.warn("Failed to get metrics from instance {}: {}", serviceUrl, e.getMessage());
+            for (InstanceScrape scrape : scrapes) {
+                if (!scrape.success() || scrape.metrics().isEmpty()) {
+                    continue;
                 }
+                
+                Map<String, Double> instanceMetrics = scrape.metrics();
+                recordCounter(MESSAGES_SERIES, scrape.instanceId(), instanceMetrics.get("telemetry_messages_total"));
+                recordCounter(VEHICLE_EVENTS_SERIES, scrape.instanceId(), instanceMetrics.get("telemetry_vehicle_events_total"));
+                recordCounter(INVALID_SERIES, scrape.instanceId(), instanceMetrics.get("telemetry_invalid_messages_total"));
+                
+                successfulInstances++;
+                log.debug("Successfully retrieved metrics from instance: {}", scrape.serviceUrl());
             }
             
             if (successfulInstances == 0) {
-                log.error("Failed to retrieve metrics from any instances of {}", serviceName);
+                collectorLog.error(log, "no-successful-instances", "Failed to retrieve metrics from any instances of {}", serviceName);
                 return createFallbackMetrics();
             }
             
+            double totalMessages = counterRateService.total(MESSAGES_SERIES);
+            double vehicleEvents = counterRateService.total(VEHICLE_EVENTS_SERIES);
+            double invalidMessages = counterRateService.total(INVALID_SERIES);
+            
             // Build aggregated metrics
             metrics.put("messages_in", Math.round(totalMessages));
             metrics.put("events_captured", Math.round(vehicleEvents)); // This is the key metric for "events detected"
             metrics.put("messages_out", Math.round(totalMessages - invalidMessages)); // Valid processed messages
             metrics.put("invalid_messages", Math.round(invalidMessages));
-            metrics.put("total_instances", serviceUrls.size());
+            metrics.put("messages_in_rate", counterRateService.rate(MESSAGES_SERIES));
+            metrics.put("events_captured_rate", counterRateService.rate(VEHICLE_EVENTS_SERIES));
+            metrics.put("invalid_messages_rate", counterRateService.rate(INVALID_SERIES));
+            metrics.put("counter_resets", counterRateService.resetCount(MESSAGES_SERIES));
+            metrics.put("total_instances", scrapes.size());
             metrics.put("successful_instances", successfulInstances);
+            metrics.put("scaling", instanceScalingService.analyze("processor", serviceName, MESSAGES_SERIES, scrapes));
             metrics.put("status", "healthy");
             metrics.put("timestamp", System.currentTimeMillis());
             
@@ -89,7 +105,7 @@ public class TelemetryProcessorMetricsService {
                 successfulInstances, Math.round(totalMessages), Math.round(vehicleEvents), Math.round(totalMessages - invalidMessages), Math.round(invalidMessages));
             
         } catch (Exception e) {
-            log.error("Failed to fetch telemetry processor metrics from {}: {}", serviceName, e.getMessage());
+            collectorLog.error(log, "metrics", "Failed to fetch telemetry processor metrics from {}: {}", serviceName, e.getMessage());
             return createFallbackMetrics();
         }
         
@@ -101,179 +117,25 @@ public class TelemetryProcessorMetricsService {
      * Checks all instances and reports aggregated health
      */
     public Map<String, Object> getHealthStatus() {
-        Map<String, Object> health = new HashMap<>();
-        
         try {
-            List<String> serviceUrls = getAllServiceUrls();
-            
-            if (serviceUrls.isEmpty()) {
+            // Every instance is checked concurrently, each call bounded by the health timeout
+            Map<String, Object> health = instanceScraperService.checkHealth(serviceName);
+            if (health == null) {
                 return createHealthStatus(false, "No instances available");
             }
-            
-            int healthyInstances = 0;
-            int totalInstances = serviceUrls.size();
-            List<Map<String, Object>> instanceDetails = new ArrayList<>();
-            
-            for (String serviceUrl : serviceUrls) {
-                try {
-                    String healthUrl = serviceUrl + "/actuator/health";
-                    @SuppressWarnings("unchecked")
-                    ResponseEntity<Map<String, Object>> response = restTemplate.getForEntity(
-                        healthUrl, 
-                        (Class<Map<String, Object>>) (Class<?>) Map.class
-                    );
-                    
-                    if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                        Map<String, Object> healthInfo = response.getBody();
-                        String status = (String) healthInfo.get("status");
-                        boolean isHealthy = "UP".equalsIgnoreCase(status);
-                        
-                        if (isHealthy) {
-                            healthyInstances++;
-                        }
-                        
-                        // Add instance details
-                        Map<String, Object> instanceDetail = new HashMap<>();
-                        instanceDetail.put("service_url", serviceUrl);
-                        instanceDetail.put("status", status);
-                        instanceDetail.put("healthy", isHealthy);
-                        instanceDetails.add(instanceDetail);
-                        
-                        log.debug("Health check for {} instance {}: {}", serviceName, serviceUrl, status);
-                    }
-                    
-                } catch (Exception e) {
-                    log.warn("Health check failed for {} instance {}: {}", serviceName, serviceUrl, e.getMessage());
-                    
-                    // Add failed instance details
-                    Map<String, Object> instanceDetail = new HashMap<>();
-                    instanceDetail.put("service_url", serviceUrl);
-                    instanceDetail.put("status", "DOWN");
-                    instanceDetail.put("healthy", false);
-                    instanceDetail.put("error", e.getMessage());
-                    instanceDetails.add(instanceDetail);
-                }
-            }
-            
-            // Service is considered healthy if at least one instance is healthy
-            boolean overallHealthy = healthyInstances > 0;
-            String overallStatus = healthyInstances == totalInstances ? "UP" : 
-                                 healthyInstances > 0 ? "PARTIAL" : "DOWN";
-            
-            health.put("healthy", overallHealthy);
-            health.put("status", overallStatus);
-            health.put("total_instances", totalInstances);
-            health.put("healthy_instances", healthyInstances);
-            health.put("instance_details", instanceDetails);
-            health.put("timestamp", System.currentTimeMillis());
-            
-            log.debug("Overall health for {}: {} ({}/{} instances healthy)", serviceName, overallStatus, healthyInstances, totalInstances);
-            
+            log.debug("Overall health for {}: {} ({}/{} instances healthy)", serviceName,
+                health.get("status"), health.get("healthy_instances"), health.get("total_instances"));
+            return health;
         } catch (Exception e) {
-            log.warn("Health check failed for {}: {}", serviceName, e.getMessage());
+            collectorLog.warn(log, "health", "Health check failed for {}: {}", serviceName, e.getMessage());
             return createHealthStatus(false, "Health check failed: " + e.getMessage());
         }
-        
-        return health;
     }
     
-    /**
-     * Get all service URLs for instances of the telemetry processor
-     */
-    private List<String> getAllServiceUrls() {
-        List<String> serviceUrls = new ArrayList<>();
-        
-        try {
-            List<ServiceInstance> instances = discoveryClient.getInstances(serviceName);
-            
-            if (instances == null || instances.isEmpty()) {
-                log.debug("No instances found for service {}. Available services: {}", serviceName, discoveryClient.getServices());
-                return serviceUrls;
-            }
-            
-            // Get all available instances
-            for (ServiceInstance instance : instances) {
-                String serviceUrl = instance.getUri().toString();
-                serviceUrls.add(serviceUrl);
-                log.debug("Found service instance for {}: {} ({}:{})", serviceName, serviceUrl, instance.getHost(), instance.getPort());
-            }
-            
-            log.debug("Found {} instances of {}", serviceUrls.size(), serviceName);
-            
-        } catch (Exception e) {
-            log.error("Failed to discover service {}: {}", serviceName, e.getMessage());
-        }
-        
-        return serviceUrls;
-    }
-    
-    
-    private Map<String, Double> getPrometheusMetrics(String prometheusUrl) {
-        Map<String, Double> metrics = new HashMap<>();
-        
-        try {
-            ResponseEntity<String> response = restTemplate.getForEntity(prometheusUrl, String.class);
-            
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                String prometheusText = response.getBody();
-                
-                // Parse Prometheus text format for processor metrics
-                String[] lines = prometheusText.split("\n");
-                log.debug("Parsing {} lines from telemetry processor Prometheus endpoint", lines.length);
-                
-                for (String line : lines) {
-                    line = line.trim();
-                    
-                    // Skip comments
-                    if (line.startsWith("#")) continue;
-                    
-                    // Look for telemetry processor specific metrics
-                    if (line.startsWith("telemetry_messages_total")) {
-                        parseMetricLine(line, "telemetry_messages_total", metrics);
-                    }
-                    if (line.startsWith("telemetry_vehicle_events_total")) {
-                        parseMetricLine(line, "telemetry_vehicle_events_total", metrics);
-                    }
-                    if (line.startsWith("telemetry_invalid_messages_total")) {
-                        parseMetricLine(line, "telemetry_invalid_messages_total", metrics);
-                    }
-                }
-                
-                log.debug("Parsed telemetry processor metrics: {}", metrics);
-                
-            } else {
-                log.warn("Failed to fetch telemetry processor Prometheus metrics, status: {}", response.getStatusCode());
-            }
-            
-        } catch (Exception e) {
-            log.error("Failed to fetch telemetry processor Prometheus metrics: {}", e.getMessage());
-        }
-        
-        return metrics;
-    }
-    
-    private void parseMetricLine(String line, String metricName, Map<String, Double> metrics) {
-        try {
-            log.debug("Found {} line: {}", metricName, line);
-            String[] parts = line.split("\\s+");
-            if (parts.length >= 2) {
-                String valueStr = parts[parts.length - 1]; // Take the last part as the value
-                double value = Double.parseDouble(valueStr);
-                
-                // For the tagged telemetry_messages_total, extract the total value
-                if (metricName.equals("telemetry_messages_total")) {
-                    // Sum all binding values if there are multiple
-                    Double existingValue = metrics.get(metricName);
-                    value = (existingValue != null ? existingValue : 0.0) + value;
-                }
-                
-                metrics.put(metricName, value);
-                log.debug("Parsed {}: {}", metricName, value);
-            } else {
-                log.warn("Invalid format for {} line: {}", metricName, line);
-            }
-        } catch (NumberFormatException e) {
-            log.warn("Could not parse {} value from line: {}", metricName, line);
+    private void recordCounter(String series, String instance, Double value) {
+        // A metric missing from one scrape must not look like a counter reset
+        if (value != null) {
+            counterRateService.record(series, instance, value);
         }
     }
     
@@ -0,0 +1,165 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.TelemetrySample;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streaming statistics over one window of telemetry samples in bounded memory: count, mean,
+ * standard deviation, min and max of speed and g-force (Welford's running moments), the
+ * event type mix and events per vehicle.
+ *
+ * Event types and vehicles are counted exactly up to their caps; past a cap, new event types
+ * fold into {@code other} and new vehicles are counted only in the totals, with
+ * {@code vehicles_truncated} set. Not thread-safe.
+ */
+final class TelemetryStreamStats {
+
+    static final String OTHER_EVENT_TYPE = "other";
+
+    private final int maxEventTypes;
+    private final int maxVehicles;
+    private final double harshGForce;
+    private final RunningStats speed = new RunningStats();
+    private final RunningStats gForce = new RunningStats();
+    private final Map<String, Long> eventTypes = new HashMap<>();
+    private final Map<String, Long> vehicles = new HashMap<>();
+    private long samples;
+    private long harshEvents;
+    private long untrackedVehicleSamples;
+
+    TelemetryStreamStats(int maxEventTypes, int maxVehicles, double harshGForce) {
+        this.maxEventTypes = maxEventTypes;
+        this.maxVehicles = maxVehicles;
+        this.harshGForce = harshGForce;
+    }
+
+    void add(TelemetrySample sample) {
+        samples++;
+        if (sample.speed() != null) {
+            speed.add(sample.speed());
+        }
+        if (sample.gForce() != null) {
+            gForce.add(sample.gForce());
+            if (sample.gForce() >= harshGForce) {
+                harshEvents++;
+            }
+        }
+        if (sample.eventType() != null) {
+            eventTypes.merge(eventTypeKey(sample.eventType()), 1L, Long::sum);
+        }
+        if (sample.vehicleId() != null) {
+            if (vehicles.containsKey(sample.vehicleId()) || vehicles.size() < maxVehicles) {
+                vehicles.merge(sample.vehicleId(), 1L, Long::sum);
+            } else {
+                untrackedVehicleSamples++;
+            }
+        }
+    }
+
+    /**
+     * Fold another window into this one.
+     */
+    void merge(TelemetryStreamStats other) {
+        samples += other.samples;
+        harshEvents += other.harshEvents;
+        untrackedVehicleSamples += other.untrackedVehicleSamples;
+        speed.merge(other.speed);
+        gForce.merge(other.gForce);
+        other.eventTypes.forEach((type, count) -> eventTypes.merge(eventTypeKey(type), count, Long::sum));
+        other.vehicles.forEach((vehicle, count) -> {
+            if (vehicles.containsKey(vehicle) || vehicles.size() < maxVehicles) {
+                vehicles.merge(vehicle, count, Long::sum);
+            } else {
+                untrackedVehicleSamples += count;
+            }
+        });
+    }
+
+    private String eventTypeKey(String type) {
+        if (eventTypes.containsKey(type)) {
+            return type;
+        }
+        int named = eventTypes.size() - (eventTypes.containsKey(OTHER_EVENT_TYPE) ? 1 : 0);
+        return named < maxEventTypes ? type : OTHER_EVENT_TYPE;
+    }
+
+    TelemetryStreamStats copy() {
+        TelemetryStreamStats copy = new TelemetryStreamStats(maxEventTypes, maxVehicles, harshGForce);
+        copy.merge(this);
+        return copy;
+    }
+
+    Map<String, Object> describe() {
+        Map<String, Object> view = new HashMap<>();
+        view.put("samples", samples);
+        view.put("speed", speed.describe());
+        view.put("g_force", gForce.describe());
+        view.put("harsh_events", harshEvents);
+        view.put("harsh_g_force", harshGForce);
+
+        Map<String, Double> mix = new LinkedHashMap<>();
+        long typed = eventTypes.values().stream().mapToLong(Long::longValue).sum();
+        eventTypes.entrySet().stream()
+            .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+            .forEach(entry -> mix.put(entry.getKey(), (double) entry.getValue() / typed));
+        view.put("event_type_counts", eventTypes);
+        view.put("event_type_mix", mix);
+
+        Map<String, Object> perVehicle = new HashMap<>();
+        long maxEvents = vehicles.values().stream().mapToLong(Long::longValue).max().orElse(0L);
+        long tracked = vehicles.values().stream().mapToLong(Long::longValue).sum();
+        perVehicle.put("vehicles", vehicles.size());
+        perVehicle.put("mean", vehicles.isEmpty() ? null : (double) tracked / vehicles.size());
+        perVehicle.put("max", maxEvents);
+        perVehicle.put("vehicles_truncated", untrackedVehicleSamples > 0);
+        view.put("events_per_vehicle", perVehicle);
+        return view;
+    }
+
+    /**
+     * Welford running mean and variance, mergeable with Chan's parallel formula.
+     */
+    private static final class RunningStats {
+
+        private long count;
+        private double mean;
+        private double m2;
+        private double min = Double.POSITIVE_INFINITY;
+        private double max = Double.NEGATIVE_INFINITY;
+
+        private void add(double value) {
+            count++;
+            double delta = value - mean;
+            mean += delta / count;
+            m2 += delta * (value - mean);
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+        }
+
+        private void merge(RunningStats other) {
+            if (other.count == 0) {
+                return;
+            }
+            long total = count + other.count;
+            double delta = other.mean - mean;
+            mean += delta * other.count / total;
+            m2 += other.m2 + delta * delta * count * other.count / total;
+            count = total;
+            min = Math.min(min, other.min);
+            max = Math.max(max, other.max);
+        }
+
+        private Map<String, Object> describe() {
+            Map<String, Object> view = new HashMap<>();
+            view.put("count", count);
+            view.put("mean", count > 0 ? mean : null);
+            view.put("stddev", count > 1 ? Math.sqrt(m2 / (count - 1)) : null);
+            view.put("min", count > 0 ? min : null);
+            view.put("max", count > 0 ? max : null);
+            return view;
+        }
+    }
+}
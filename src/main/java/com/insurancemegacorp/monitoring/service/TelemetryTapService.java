@@ -0,0 +1,323 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancemegacorp.monitoring.dto.TelemetrySample;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageListener;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Live view of the vehicle telemetry flowing through telematics_exchange. When
+ * {@code telemetry.tap.enabled} is set, {@code TelemetryTapConfig} binds an exclusive,
+ * auto-delete, length-bounded queue to the exchange and feeds it to this listener, so the
+ * tap costs the broker one extra consumer and can never build a backlog. The processor's
+ * vehicle_events output is tapped the same way unless {@code telemetry.tap.events-exchange}
+ * is blank.
+ *
+ * A configurable fraction of the messages is parsed into {@link TelemetrySample}s (the rest
+ * are acknowledged unread) and published as application events for the streaming
+ * aggregators. Telemetry samples are also folded into {@link TelemetryStreamStats} over two
+ * alternating windows. The stats, with the active fleet counts from
+ * {@link DistinctCountService}, the top talkers from {@link TopTalkersService} and the
+ * percentiles from {@link QuantileSketchService}, are pushed to dashboards as {@code telemetry_stats} and
+ * served at /api/telemetry/tap.
+ *
+ * Field names differ between telemetry generator versions, so each field is looked up
+ * under a list of candidate paths ({@code telemetry.tap.fields.*}; dots for nesting).
+ */
+@Slf4j
+@Service
+public class TelemetryTapService implements MessageListener {
+
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final MetricsPushService metricsPushService;
+    private final CollectorLogService collectorLog;
+    private final DistinctCountService distinctCountService;
+    private final TopTalkersService topTalkersService;
+    private final QuantileSketchService quantileSketchService;
+    private final boolean enabled;
+    private final String exchange;
+    private final String eventsExchange;
+    private final double sampleRate;
+    private final double eventsSampleRate;
+    private final long windowMillis;
+    private final int maxEventTypes;
+    private final int maxVehicles;
+    private final double harshGForce;
+    private final List<String[]> vehicleIdPaths;
+    private final List<String[]> driverIdPaths;
+    private final List<String[]> eventTypePaths;
+    private final List<String[]> speedPaths;
+    private final List<String[]> gForcePaths;
+    private final List<String[]> latitudePaths;
+    private final List<String[]> longitudePaths;
+    private final List<String[]> eventTimePaths;
+    private final Counter receivedCounter;
+    private final Counter sampledCounter;
+    private final Counter invalidCounter;
+    private final AtomicLong received = new AtomicLong();
+    private final AtomicLong invalid = new AtomicLong();
+    private TelemetryStreamStats currentWindow;
+    private TelemetryStreamStats previousWindow;
+    private long windowStart = System.currentTimeMillis();
+    private long lastSampleAt = 0L;
+
+    public TelemetryTapService(ObjectMapper objectMapper,
+                               ApplicationEventPublisher eventPublisher,
+                               MetricsPushService metricsPushService,
+                               CollectorLogService collectorLog,
+                               DistinctCountService distinctCountService,
+                               TopTalkersService topTalkersService,
+                               QuantileSketchService quantileSketchService,
+                               MeterRegistry meterRegistry,
+                               @Value("${telemetry.tap.enabled:false}") boolean enabled,
+                               @Value("${telemetry.tap.exchange:telematics_exchange}") String exchange,
+                               @Value("${telemetry.tap.events-exchange:vehicle_events}") String eventsExchange,
+                               @Value("${telemetry.tap.sample-rate:0.2}") double sampleRate,
+                               @Value("${telemetry.tap.events-sample-rate:1.0}") double eventsSampleRate,
+                               @Value("${telemetry.tap.window-seconds:60}") long windowSeconds,
+                               @Value("${telemetry.tap.max-event-types:32}") int maxEventTypes,
+                               @Value("${telemetry.tap.max-vehicles:10000}") int maxVehicles,
+                               @Value("${telemetry.tap.harsh-g-force:2.0}") double harshGForce,
+                               @Value("${telemetry.tap.fields.vehicle-id:vehicle_id,vehicleId}") String vehicleIdPaths,
+                               @Value("${telemetry.tap.fields.driver-id:driver_id,driverId}") String driverIdPaths,
+                               @Value("${telemetry.tap.fields.event-type:event_type,eventType}") String eventTypePaths,
+                               @Value("${telemetry.tap.fields.speed:speed_mph,speed}") String speedPaths,
+                               @Value("${telemetry.tap.fields.g-force:g_force,gForce,gforce}") String gForcePaths,
+                               @Value("${telemetry.tap.fields.latitude:gps_latitude,latitude,sensors.gps.latitude}") String latitudePaths,
+                               @Value("${telemetry.tap.fields.longitude:gps_longitude,longitude,sensors.gps.longitude}") String longitudePaths,
+                               @Value("${telemetry.tap.fields.event-time:timestamp,event_time,eventTime,sensors.timestamp}") String eventTimePaths) {
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.metricsPushService = metricsPushService;
+        this.collectorLog = collectorLog;
+        this.distinctCountService = distinctCountService;
+        this.topTalkersService = topTalkersService;
+        this.quantileSketchService = quantileSketchService;
+        this.enabled = enabled;
+        this.exchange = exchange;
+        this.eventsExchange = eventsExchange.strip();
+        this.sampleRate = Math.max(0.0, Math.min(1.0, sampleRate));
+        this.eventsSampleRate = Math.max(0.0, Math.min(1.0, eventsSampleRate));
+        this.windowMillis = windowSeconds * 1000;
+        this.maxEventTypes = maxEventTypes;
+        this.maxVehicles = maxVehicles;
+        this.harshGForce = harshGForce;
+        this.vehicleIdPaths = paths(vehicleIdPaths);
+        this.driverIdPaths = paths(driverIdPaths);
+        this.eventTypePaths = paths(eventTypePaths);
+        this.speedPaths = paths(speedPaths);
+        this.gForcePaths = paths(gForcePaths);
+        this.latitudePaths = paths(latitudePaths);
+        this.longitudePaths = paths(longitudePaths);
+        this.eventTimePaths = paths(eventTimePaths);
+        this.currentWindow = newWindow();
+        this.receivedCounter = meterRegistry.counter("smartdriver.tap.messages", "outcome", "received");
+        this.sampledCounter = meterRegistry.counter("smartdriver.tap.messages", "outcome", "sampled");
+        this.invalidCounter = meterRegistry.counter("smartdriver.tap.messages", "outcome", "invalid");
+        if (enabled) {
+            log.info("Telemetry tap enabled on exchange {} with sample rate {}", exchange, this.sampleRate);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void onMessage(Message message) {
+        received.incrementAndGet();
+        receivedCounter.increment();
+        boolean vehicleEvent = !eventsExchange.isEmpty()
+            && eventsExchange.equals(message.getMessageProperties().getReceivedExchange());
+        double rate = vehicleEvent ? eventsSampleRate : sampleRate;
+        if (rate < 1.0 && ThreadLocalRandom.current().nextDouble() >= rate) {
+            return;
+        }
+
+        TelemetrySample sample;
+        try {
+            String source = vehicleEvent ? TelemetrySample.SOURCE_VEHICLE_EVENTS : TelemetrySample.SOURCE_TELEMETRY;
+            sample = parse(source, objectMapper.readTree(message.getBody()), System.currentTimeMillis());
+        } catch (Exception e) {
+            invalid.incrementAndGet();
+            invalidCounter.increment();
+            collectorLog.warn(log, "tap-parse", "Telemetry tap could not parse a message: {}", e.getMessage());
+            return;
+        }
+        sampledCounter.increment();
+        if (!vehicleEvent) {
+            record(sample);
+        }
+        eventPublisher.publishEvent(sample);
+    }
+
+    private synchronized void record(TelemetrySample sample) {
+        rollWindow(sample.timestamp());
+        currentWindow.add(sample);
+        lastSampleAt = sample.timestamp();
+    }
+
+    @Scheduled(fixedDelayString = "${telemetry.tap.push-interval-ms:2000}")
+    public void pushStats() {
+        if (enabled) {
+            metricsPushService.broadcast("telemetry_stats", getStats());
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        TelemetryStreamStats recent;
+        long sampledAt;
+        synchronized (this) {
+            rollWindow(System.currentTimeMillis());
+            recent = currentWindow.copy();
+            if (previousWindow != null) {
+                recent.merge(previousWindow);
+            }
+            sampledAt = lastSampleAt;
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("enabled", enabled);
+        result.put("exchange", exchange);
+        result.put("events_exchange", eventsExchange.isEmpty() ? null : eventsExchange);
+        result.put("sample_rate", sampleRate);
+        result.put("events_sample_rate", eventsSampleRate);
+        result.put("messages_received", received.get());
+        result.put("messages_invalid", invalid.get());
+        result.put("window_seconds", windowMillis / 1000);
+        result.put("recent", recent.describe());
+        result.put("active", distinctCountService.getDistinctCounts());
+        result.put("top_talkers", topTalkersService.getTopTalkers());
+        result.put("quantiles", quantileSketchService.getQuantiles());
+        result.put("last_sample_at", sampledAt > 0 ? sampledAt : null);
+        result.put("timestamp", System.currentTimeMillis());
+        return result;
+    }
+
+    private void rollWindow(long now) {
+        // Two alternating windows keep the stats recent without dropping to empty
+        if (now - windowStart >= windowMillis) {
+            previousWindow = now - windowStart >= 2 * windowMillis ? null : currentWindow;
+            currentWindow = newWindow();
+            windowStart = now;
+        }
+    }
+
+    private TelemetryStreamStats newWindow() {
+        return new TelemetryStreamStats(maxEventTypes, maxVehicles, harshGForce);
+    }
+
+    TelemetrySample parse(String source, JsonNode root, long receivedAt) {
+        if (root == null || !root.isObject()) {
+            throw new IllegalArgumentException("telemetry message is not a JSON object");
+        }
+        return new TelemetrySample(
+            source,
+            text(root, vehicleIdPaths),
+            text(root, driverIdPaths),
+            text(root, eventTypePaths),
+            number(root, speedPaths),
+            number(root, gForcePaths),
+            number(root, latitudePaths),
+            number(root, longitudePaths),
+            epochMillis(root, eventTimePaths),
+            receivedAt
+        );
+    }
+
+    private static String text(JsonNode root, List<String[]> paths) {
+        JsonNode node = find(root, paths);
+        return node != null && !node.isContainerNode() ? node.asText() : null;
+    }
+
+    private static Double number(JsonNode root, List<String[]> paths) {
+        JsonNode node = find(root, paths);
+        if (node == null) {
+            return null;
+        }
+        if (node.isNumber()) {
+            return node.doubleValue();
+        }
+        try {
+            return node.isTextual() ? Double.valueOf(node.textValue()) : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Event times come as epoch seconds, millis or micros, or as ISO-8601 text; numbers are
+     * told apart by magnitude.
+     */
+    private static Long epochMillis(JsonNode root, List<String[]> paths) {
+        JsonNode node = find(root, paths);
+        if (node == null) {
+            return null;
+        }
+        if (node.isNumber()) {
+            double value = node.doubleValue();
+            if (value < 1e11) {
+                return (long) (value * 1000);
+            }
+            return (long) (value < 1e14 ? value : value / 1000);
+        }
+        if (!node.isTextual()) {
+            return null;
+        }
+        String text = node.textValue().strip();
+        try {
+            return Instant.parse(text).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            // Zone-less timestamps are taken as UTC
+        }
+        try {
+            return LocalDateTime.parse(text.replace(' ', 'T')).toInstant(ZoneOffset.UTC).toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static JsonNode find(JsonNode root, List<String[]> paths) {
+        for (String[] path : paths) {
+            JsonNode node = root;
+            for (String segment : path) {
+                node = node.get(segment);
+                if (node == null) {
+                    break;
+                }
+            }
+            if (node != null && !node.isNull()) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    private static List<String[]> paths(String candidates) {
+        return Arrays.stream(candidates.split(","))
+            .map(String::strip)
+            .filter(path -> !path.isEmpty())
+            .map(path -> path.split("\\."))
+            .toList();
+    }
+}
@@ -0,0 +1,82 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.TelemetrySample;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The noisiest vehicles and drivers in the tapped telemetry stream, so a spike in
+ * telemetry_vehicle_events_total can be traced to one device flooding the pipeline without
+ * querying vehicle_events. Each ID space is a {@link HeavyHitters} tracker: a Count-Min
+ * sketch with a bounded top-K heap, decayed with {@code telemetry.top-talkers.half-life-seconds}.
+ *
+ * Counts are of sampled messages; {@code messages_per_second} scales the steady-state decayed
+ * count back up by the tap's sample rate.
+ */
+@Service
+public class TopTalkersService {
+
+    private final HeavyHitters vehicles;
+    private final HeavyHitters drivers;
+    private final int limit;
+    private final long halfLifeMillis;
+    private final double sampleRate;
+
+    public TopTalkersService(@Value("${telemetry.top-talkers.depth:4}") int depth,
+                             @Value("${telemetry.top-talkers.width:2048}") int width,
+                             @Value("${telemetry.top-talkers.capacity:50}") int capacity,
+                             @Value("${telemetry.top-talkers.limit:10}") int limit,
+                             @Value("${telemetry.top-talkers.half-life-seconds:60}") long halfLifeSeconds,
+                             @Value("${telemetry.tap.sample-rate:0.2}") double sampleRate) {
+        long now = System.currentTimeMillis();
+        this.halfLifeMillis = halfLifeSeconds * 1000;
+        this.vehicles = new HeavyHitters(depth, width, capacity, halfLifeMillis, now);
+        this.drivers = new HeavyHitters(depth, width, capacity, halfLifeMillis, now);
+        this.limit = limit;
+        this.sampleRate = Math.max(0.0, Math.min(1.0, sampleRate));
+    }
+
+    @EventListener
+    public void onSample(TelemetrySample sample) {
+        if (!TelemetrySample.SOURCE_TELEMETRY.equals(sample.source())) {
+            return;
+        }
+        if (sample.vehicleId() != null) {
+            vehicles.add(sample.vehicleId(), sample.timestamp());
+        }
+        if (sample.driverId() != null) {
+            drivers.add(sample.driverId(), sample.timestamp());
+        }
+    }
+
+    public Map<String, Object> getTopTalkers() {
+        long now = System.currentTimeMillis();
+        Map<String, Object> result = new HashMap<>();
+        result.put("vehicles", describe(vehicles, now));
+        result.put("drivers", describe(drivers, now));
+        result.put("half_life_seconds", halfLifeMillis / 1000);
+        result.put("sample_rate", sampleRate);
+        result.put("timestamp", now);
+        return result;
+    }
+
+    private Map<String, Object> describe(HeavyHitters tracker, long now) {
+        // A steady rate r settles at a decayed count of r * half-life / ln 2
+        double meanLifeSeconds = halfLifeMillis / 1000.0 / Math.log(2);
+        List<Map<String, Object>> top = tracker.top(limit, now);
+        if (sampleRate > 0) {
+            top.forEach(entry -> entry.put("messages_per_second",
+                (double) entry.get("count") / meanLifeSeconds / sampleRate));
+        }
+        Map<String, Object> view = new HashMap<>();
+        view.put("top", top);
+        view.put("decayed_total", tracker.total(now));
+        view.put("error_bound", tracker.errorBound(now));
+        return view;
+    }
+}
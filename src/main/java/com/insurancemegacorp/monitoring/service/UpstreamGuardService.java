@@ -0,0 +1,377 @@
+package com.insurancemegacorp.monitoring.service;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Circuit breaker and bulkhead per upstream target (RabbitMQ management API, Greenplum, each
+ * SCDF app instance, each static health URL).
+ *
+ * After a run of consecutive failures the circuit opens and calls fail immediately with
+ * {@link UpstreamUnavailableException} instead of waiting out connect and read timeouts.
+ * Once the open period has passed a single trial call is let through (half-open); its
+ * outcome closes or re-opens the circuit. The bulkhead caps concurrent calls per target
+ * so one slow dependency cannot take every request and scheduler thread with it.
+ *
+ * Every call is timed as {@code smartdriver.upstream.calls} tagged with the target and the
+ * outcome, and calls that fail or never leave the guard are counted in
+ * {@code smartdriver.upstream.failures}.
+ */
+@Slf4j
+@Service
+public class UpstreamGuardService {
+
+    public static final String RABBITMQ_MANAGEMENT = "rabbitmq-management";
+    public static final String RABBITMQ_AMQP = "rabbitmq-amqp";
+    public static final String RABBITMQ_PROMETHEUS = "rabbitmq-prometheus";
+    public static final String GREENPLUM = "greenplum";
+    public static final String HDFS_NAMENODE = "hdfs-namenode";
+
+    public enum CircuitState { CLOSED, OPEN, HALF_OPEN }
+
+    static final String CALLS_METRIC = "smartdriver.upstream.calls";
+    static final String FAILURES_METRIC = "smartdriver.upstream.failures";
+    private static final Duration BULKHEAD_POLL = Duration.ofMillis(10);
+
+    private final MeterRegistry meterRegistry;
+    private final CycleTracer cycleTracer;
+    private final Map<String, Upstream> upstreams = new ConcurrentHashMap<>();
+    private final int failureThreshold;
+    private final long openMillis;
+    private final int maxConcurrent;
+    private final long maxWaitMillis;
+    private final long idleMillis;
+
+    public UpstreamGuardService(
+            MeterRegistry meterRegistry,
+            CycleTracer cycleTracer,
+            @Value("${upstream.circuit.failure-threshold:3}") int failureThreshold,
+            @Value("${upstream.circuit.open-ms:30000}") long openMillis,
+            @Value("${upstream.bulkhead.max-concurrent:4}") int maxConcurrent,
+            @Value("${upstream.bulkhead.max-wait-ms:100}") long maxWaitMillis,
+            @Value("${upstream.idle-expiry-ms:600000}") long idleMillis) {
+        this.meterRegistry = meterRegistry;
+        this.cycleTracer = cycleTracer;
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+        this.maxConcurrent = maxConcurrent;
+        this.maxWaitMillis = maxWaitMillis;
+        this.idleMillis = idleMillis;
+        log.info("UpstreamGuardService initialized: failureThreshold={}, openMs={}, maxConcurrent={}, maxWaitMs={}",
+            failureThreshold, openMillis, maxConcurrent, maxWaitMillis);
+    }
+
+    public static String scdfInstance(String serviceUrl) {
+        return "scdf:" + serviceUrl;
+    }
+
+    public static String component(String componentName) {
+        return "component:" + componentName;
+    }
+
+    /**
+     * Run the call through the target's circuit breaker and bulkhead.
+     *
+     * @throws UpstreamUnavailableException when the circuit is open or the bulkhead is full
+     */
+    public <T> T call(String target, Supplier<T> call) {
+        return cycleTracer.span("upstream " + target, () -> guardedCall(target, call));
+    }
+
+    private <T> T guardedCall(String target, Supplier<T> call) {
+        Upstream upstream = upstreams.computeIfAbsent(target, Upstream::new);
+        try {
+            upstream.acquirePermission();
+        } catch (UpstreamUnavailableException e) {
+            countFailure(target, "short_circuited");
+            throw e;
+        }
+
+        boolean acquired;
+        try {
+            acquired = upstream.bulkhead.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        }
+        if (!acquired) {
+            upstream.bulkheadRejections.incrementAndGet();
+            upstream.abandonTrial();
+            countFailure(target, "bulkhead_full");
+            throw new UpstreamUnavailableException(target, "Bulkhead full for " + target + " (" + maxConcurrent + " calls in flight)");
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            T result = call.get();
+            outcome = "success";
+            upstream.onSuccess();
+            return result;
+        } catch (HttpClientErrorException e) {
+            // A 4xx means the upstream is up and answering; it is not a reason to open the circuit
+            outcome = "client_error";
+            upstream.onSuccess();
+            throw e;
+        } catch (RuntimeException e) {
+            outcome = "error";
+            upstream.onFailure(e);
+            countFailure(target, e.getClass().getSimpleName());
+            throw e;
+        } finally {
+            // An Error thrown by the call skips onSuccess/onFailure; a half-open circuit must
+            // still get its next trial
+            upstream.abandonTrial();
+            upstream.bulkhead.release();
+            cycleTracer.tag("outcome", outcome);
+            recordCall(sample, target, outcome);
+        }
+    }
+
+    /**
+     * Non-blocking variant of {@link #call} for WebClient calls: the circuit and bulkhead are
+     * checked on subscription and the outcome is recorded when the call completes, errors or
+     * is cancelled. A full bulkhead is polled for a permit every 10 ms until
+     * {@code upstream.bulkhead.max-wait-ms} has passed, without holding a thread, and no span
+     * is opened since the call finishes on an event loop thread.
+     */
+    public <T> Mono<T> callReactive(String target, Mono<T> call) {
+        return Mono.defer(() -> {
+            Upstream upstream = upstreams.computeIfAbsent(target, Upstream::new);
+            try {
+                upstream.acquirePermission();
+            } catch (UpstreamUnavailableException e) {
+                countFailure(target, "short_circuited");
+                return Mono.error(e);
+            }
+
+            return acquireBulkhead(target, upstream).then(Mono.defer(() -> {
+                Timer.Sample sample = Timer.start(meterRegistry);
+                AtomicBoolean released = new AtomicBoolean();
+                return call
+                    .doOnSuccess(result -> {
+                        upstream.onSuccess();
+                        recordCall(sample, target, "success");
+                    })
+                    .doOnError(e -> {
+                        if (e instanceof WebClientResponseException response && response.getStatusCode().is4xxClientError()) {
+                            upstream.onSuccess();
+                            recordCall(sample, target, "client_error");
+                        } else {
+                            upstream.onFailure(e instanceof Exception exception ? exception : new RuntimeException(e));
+                            countFailure(target, e.getClass().getSimpleName());
+                            recordCall(sample, target, "error");
+                        }
+                    })
+                    .doOnCancel(() -> {
+                        upstream.abandonTrial();
+                        recordCall(sample, target, "cancelled");
+                    })
+                    .doFinally(signal -> {
+                        upstream.abandonTrial();
+                        if (released.compareAndSet(false, true)) {
+                            upstream.bulkhead.release();
+                        }
+                    });
+            }))
+                // Cancelled while still waiting for a permit: nothing else will clear the trial
+                .doOnCancel(upstream::abandonTrial);
+        });
+    }
+
+    private Mono<Void> acquireBulkhead(String target, Upstream upstream) {
+        long attempts = maxWaitMillis / BULKHEAD_POLL.toMillis();
+        // Each attempt runs after the previous one failed, so a permit is never taken twice
+        return Mono.defer(() -> upstream.bulkhead.tryAcquire()
+                ? Mono.<Void>empty()
+                : Mono.<Void>error(new UpstreamUnavailableException(target, "Bulkhead full for " + target + " (" + maxConcurrent + " calls in flight)")))
+            .retryWhen(Retry.fixedDelay(attempts, BULKHEAD_POLL).onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+            .doOnError(e -> {
+                upstream.bulkheadRejections.incrementAndGet();
+                upstream.abandonTrial();
+                countFailure(target, "bulkhead_full");
+            });
+    }
+
+    private void recordCall(Timer.Sample sample, String target, String outcome) {
+        sample.stop(Timer.builder(CALLS_METRIC)
+            .description("Calls to upstream dependencies made through the circuit breaker")
+            .tag("upstream", target)
+            .tag("outcome", outcome)
+            .publishPercentileHistogram()
+            .register(meterRegistry));
+    }
+
+    private void countFailure(String target, String reason) {
+        meterRegistry.counter(FAILURES_METRIC, "upstream", target, "reason", reason).increment();
+    }
+
+    public CircuitState getState(String target) {
+        Upstream upstream = upstreams.get(target);
+        return upstream != null ? upstream.state : CircuitState.CLOSED;
+    }
+
+    /**
+     * Snapshot of every known upstream's breaker and bulkhead state.
+     */
+    public Map<String, Object> getUpstreams() {
+        List<Map<String, Object>> targets = new ArrayList<>();
+        int open = 0;
+        for (Upstream upstream : new TreeMap<>(upstreams).values()) {
+            targets.add(upstream.describe());
+            if (upstream.state != CircuitState.CLOSED) {
+                open++;
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("upstreams", targets);
+        result.put("total_upstreams", targets.size());
+        result.put("not_closed", open);
+        result.put("failure_threshold", failureThreshold);
+        result.put("open_ms", openMillis);
+        result.put("bulkhead_max_concurrent", maxConcurrent);
+        result.put("timestamp", System.currentTimeMillis());
+        return result;
+    }
+
+    /**
+     * SCDF instances come and go with scaling and redeploys; forget closed targets that have
+     * not been called for a while so the registry does not grow without bound.
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void pruneIdleUpstreams() {
+        long cutoff = System.currentTimeMillis() - idleMillis;
+        upstreams.values().removeIf(upstream -> {
+            boolean idle = upstream.state == CircuitState.CLOSED
+                && upstream.lastCallAt < cutoff
+                && upstream.bulkhead.availablePermits() == maxConcurrent;
+            if (idle) {
+                removeMeters(upstream.target);
+            }
+            return idle;
+        });
+    }
+
+    private void removeMeters(String target) {
+        for (String name : List.of(CALLS_METRIC, FAILURES_METRIC)) {
+            for (Meter meter : meterRegistry.find(name).tag("upstream", target).meters()) {
+                meterRegistry.remove(meter);
+            }
+        }
+    }
+
+    private final class Upstream {
+
+        private final String target;
+        private final Semaphore bulkhead = new Semaphore(maxConcurrent);
+        private final AtomicLong successes = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong shortCircuited = new AtomicLong();
+        private final AtomicLong bulkheadRejections = new AtomicLong();
+        private volatile CircuitState state = CircuitState.CLOSED;
+        private volatile long stateChangedAt = System.currentTimeMillis();
+        private volatile String lastError;
+        private volatile long lastCallAt = System.currentTimeMillis();
+        private int consecutiveFailures = 0;
+        private long openUntil = 0L;
+        private boolean trialInFlight = false;
+
+        private Upstream(String target) {
+            this.target = target;
+        }
+
+        private synchronized void acquirePermission() {
+            lastCallAt = System.currentTimeMillis();
+            if (state == CircuitState.OPEN) {
+                if (System.currentTimeMillis() < openUntil) {
+                    shortCircuited.incrementAndGet();
+                    throw new UpstreamUnavailableException(target, "Circuit open for " + target + ": " + lastError);
+                }
+                transition(CircuitState.HALF_OPEN);
+            }
+            if (state == CircuitState.HALF_OPEN) {
+                if (trialInFlight) {
+                    shortCircuited.incrementAndGet();
+                    throw new UpstreamUnavailableException(target, "Circuit half-open for " + target + ", trial call in progress");
+                }
+                trialInFlight = true;
+            }
+        }
+
+        private synchronized void abandonTrial() {
+            trialInFlight = false;
+        }
+
+        private synchronized void onSuccess() {
+            successes.incrementAndGet();
+            consecutiveFailures = 0;
+            trialInFlight = false;
+            if (state != CircuitState.CLOSED) {
+                transition(CircuitState.CLOSED);
+            }
+        }
+
+        private synchronized void onFailure(Exception e) {
+            failures.incrementAndGet();
+            consecutiveFailures++;
+            lastError = e.getMessage();
+            trialInFlight = false;
+            if (state == CircuitState.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+                openUntil = System.currentTimeMillis() + openMillis;
+                if (state != CircuitState.OPEN) {
+                    transition(CircuitState.OPEN);
+                }
+            }
+        }
+
+        private void transition(CircuitState next) {
+            log.info("Circuit for {} changed {} -> {}", target, state, next);
+            state = next;
+            stateChangedAt = System.currentTimeMillis();
+        }
+
+        private synchronized Map<String, Object> describe() {
+            Map<String, Object> view = new HashMap<>();
+            view.put("target", target);
+            view.put("state", state.name());
+            view.put("state_changed_at", stateChangedAt);
+            view.put("consecutive_failures", consecutiveFailures);
+            view.put("successes", successes.get());
+            view.put("failures", failures.get());
+            view.put("short_circuited", shortCircuited.get());
+            view.put("bulkhead_rejections", bulkheadRejections.get());
+            view.put("in_flight", maxConcurrent - bulkhead.availablePermits());
+            view.put("last_call_at", lastCallAt);
+            if (state == CircuitState.OPEN) {
+                view.put("open_until", openUntil);
+            }
+            if (lastError != null) {
+                view.put("last_error", lastError);
+            }
+            return view;
+        }
+    }
+}
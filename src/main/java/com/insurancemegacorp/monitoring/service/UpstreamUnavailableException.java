@@ -0,0 +1,18 @@
+package com.insurancemegacorp.monitoring.service;
+
+/**
+ * Thrown instead of calling an upstream whose circuit is open or whose bulkhead is full.
+ */
+public class UpstreamUnavailableException extends RuntimeException {
+
+    private final String target;
+
+    public UpstreamUnavailableException(String target, String message) {
+        super(message);
+        this.target = target;
+    }
+
+    public String getTarget() {
+        return target;
+    }
+}
@@ -1,9 +1,9 @@
 package com.insurancemegacorp.monitoring.service;
 
+import com.insurancemegacorp.monitoring.dto.InstanceScrape;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.cloud.client.ServiceInstance;
-import org.springframework.cloud.client.discovery.DiscoveryClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -12,13 +12,22 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 public class VehicleEventsJdbcSinkService {
 
+    static final String SERIES_PREFIX = "jdbc_sink:";
+    static final String ROWS_SERIES = SERIES_PREFIX + "jdbc_consumer_messages_processed_total";
+
     private final RestTemplate restTemplate;
-    private final DiscoveryClient discoveryClient;
+    private final UpstreamGuardService upstreamGuardService;
+    private final DiscoveryCacheService discoveryCacheService;
+    private final CounterRateService counterRateService;
+    private final InstanceScraperService instanceScraperService;
+    private final InstanceScalingService instanceScalingService;
+    private final CollectorLogService collectorLog;
     private final String serviceName = "imc-jdbc-consumer";
     
     // Metric patterns to try for rows inserted (ordered by priority)
@@ -53,11 +62,45 @@ public class VehicleEventsJdbcSinkService {
         "jvm_gc_pause_seconds" // GC pressure could indicate issues
     };
 
+    // Reset-aware series of the error counters, for consumers that want an error rate
+    static final List<String> ERROR_SERIES = Stream.of(DATABASE_ERROR_PATTERNS)
+        .filter(name -> name.endsWith("_total"))
+        .map(name -> SERIES_PREFIX + name)
+        .toList();
+
+    // Metrics read from the sink's Prometheus endpoint (matched by prefix)
+    private static final String[] COLLECTED_METRIC_PREFIXES = {
+        "jdbc_consumer_messages_processed_total",
+        "rabbitmq_consumed_total",
+        "jdbc_sink_rows_inserted_total",
+        "spring_data_repository_invocations_total",
+        "sink_records_sent_total",
+        "sink_records_processed_total",
+        "spring_integration_sends_total",
+        "spring_integration_receives_total",
+        "jdbc_sink_errors_total",
+        "jdbc_connections_failed_total",
+        "sink_records_failed_total",
+        "spring_integration_errors_total",
+        "application_errors_total",
+        "hikaricp_connections_usage"
+    };
+
     @Autowired
     public VehicleEventsJdbcSinkService(RestTemplate restTemplate,
-                                      DiscoveryClient discoveryClient) {
+                                      UpstreamGuardService upstreamGuardService,
+                                      DiscoveryCacheService discoveryCacheService,
+                                      CounterRateService counterRateService,
+                                      InstanceScraperService instanceScraperService,
+                                      InstanceScalingService instanceScalingService,
+                                      CollectorLogService collectorLog) {
         this.restTemplate = restTemplate;
-        this.discoveryClient = discoveryClient;
+        this.upstreamGuardService = upstreamGuardService;
+        this.discoveryCacheService = discoveryCacheService;
+        this.counterRateService = counterRateService;
+        this.instanceScraperService = instanceScraperService;
+        this.instanceScalingService = instanceScalingService;
+        this.collectorLog = collectorLog;
     }
 
     /**
@@ -67,24 +110,40 @@ public class VehicleEventsJdbcSinkService {
         Map<String, Object> metrics = new HashMap<>();
         
         try {
-            Optional<String> serviceUrl = getServiceUrl();
+            // Scrape all consumer instances concurrently - with the sink scaled out, reading
+            // only the first instance would show a fraction of the real throughput
+            List<InstanceScrape> scrapes = instanceScraperService.scrapeAll(serviceName, VehicleEventsJdbcSinkService::isCollectedMetric);
             
-            if (serviceUrl.isEmpty()) {
-                log.error("No healthy instances found for service: {}. Check if SCDF JDBC sink is running and registered.", serviceName);
+            if (scrapes.isEmpty()) {
+                collectorLog.error(log, "no-instances", "No healthy instances found for service: {}. Check if SCDF JDBC sink is running and registered.", serviceName);
                 return createErrorMetrics("Service not available - check if " + serviceName + " is running and registered");
             }
             
-            log.info("Connecting to JDBC sink service at: {}", serviceUrl.get());
-            
-            // Use Prometheus endpoint for JDBC sink metrics
-            String prometheusUrl = serviceUrl.get() + "/actuator/prometheus";
+            // Feed every counter into the reset-aware engine so a consumer restart does not
+            // make the inserted row count jump backwards; pattern matching runs on the raw
+            // values summed across instances
+            Map<String, Double> prometheusMetrics = new HashMap<>();
+            int successfulInstances = 0;
+            for (InstanceScrape scrape : scrapes) {
+                if (!scrape.success()) {
+                    continue;
+                }
+                scrape.metrics().forEach((name, value) -> {
+                    if (name.endsWith("_total")) {
+                        counterRateService.record(SERIES_PREFIX + name, scrape.instanceId(), value);
+                    }
+                    prometheusMetrics.merge(name, value, Double::sum);
+                });
+                successfulInstances++;
+            }
             
-            // Get Prometheus metrics
-            Map<String, Double> prometheusMetrics = getPrometheusMetrics(prometheusUrl);
+            if (successfulInstances == 0) {
+                return createErrorMetrics("Failed to fetch metrics from any instance of " + serviceName);
+            }
             
             // If we got metrics but no specific ones we're looking for, log available metrics
             if (!prometheusMetrics.isEmpty()) {
-                log.info("Found {} Prometheus metrics from JDBC sink. Sample metrics: {}", 
+                log.debug("Found {} Prometheus metrics from JDBC sink. Sample metrics: {}", 
                     prometheusMetrics.size(), 
                     prometheusMetrics.keySet().stream().limit(10).toList());
             }
@@ -94,23 +153,27 @@ public class VehicleEventsJdbcSinkService {
             double databaseErrors = findBestMetricMatch(prometheusMetrics, DATABASE_ERROR_PATTERNS);
             
             // Get the specific metrics the UI expects
-            double jdbcConsumerProcessed = prometheusMetrics.getOrDefault("jdbc_consumer_messages_processed_total", 0.0);
-            double rabbitMQConsumed = prometheusMetrics.getOrDefault("rabbitmq_consumed_total", 0.0);
+            double jdbcConsumerProcessed = correctedTotal("jdbc_consumer_messages_processed_total", prometheusMetrics);
+            double rabbitMQConsumed = correctedTotal("rabbitmq_consumed_total", prometheusMetrics);
             
             metrics.put("rows_inserted", Math.round(rowsInserted));
             metrics.put("database_errors", Math.round(databaseErrors));
             metrics.put("jdbc_consumer_messages_processed_total", Math.round(jdbcConsumerProcessed));
             metrics.put("rabbitmq_consumed_total", Math.round(rabbitMQConsumed));
-            metrics.put("service_url", serviceUrl.get());
+            metrics.put("rows_inserted_rate", counterRateService.rate(ROWS_SERIES));
+            metrics.put("service_url", scrapes.get(0).serviceUrl());
+            metrics.put("total_instances", scrapes.size());
+            metrics.put("successful_instances", successfulInstances);
+            metrics.put("scaling", instanceScalingService.analyze("jdbc_sink", serviceName, ROWS_SERIES, scrapes));
             metrics.put("status", "healthy");
             metrics.put("available_metrics_count", prometheusMetrics.size());
             metrics.put("timestamp", System.currentTimeMillis());
             
-            log.info("Retrieved JDBC sink metrics from {}: rows={}, errors={}, total_metrics={}", 
+            log.debug("Retrieved JDBC sink metrics from {}: rows={}, errors={}, total_metrics={}", 
                 serviceName, Math.round(rowsInserted), Math.round(databaseErrors), prometheusMetrics.size());
             
         } catch (Exception e) {
-            log.error("Failed to fetch JDBC sink metrics from {}: {}", serviceName, e.getMessage());
+            collectorLog.error(log, "metrics", "Failed to fetch JDBC sink metrics from {}: {}", serviceName, e.getMessage());
             return createErrorMetrics("Failed to fetch metrics: " + e.getMessage());
         }
         
@@ -118,47 +181,21 @@ public class VehicleEventsJdbcSinkService {
     }
     
     /**
-     * Get health status of the JDBC sink service
+     * Get health status of the JDBC sink service, across all instances
      */
     public Map<String, Object> getHealthStatus() {
-        Map<String, Object> health = new HashMap<>();
-        
         try {
-            Optional<String> serviceUrl = getServiceUrl();
-            
-            if (serviceUrl.isEmpty()) {
+            // Every instance is checked concurrently, each call bounded by the health timeout
+            Map<String, Object> health = instanceScraperService.checkHealth(serviceName);
+            if (health == null) {
                 return createHealthStatus(false, "No instances available");
             }
-            
-            String healthUrl = serviceUrl.get() + "/actuator/health";
-            ResponseEntity<Map<String, Object>> response = restTemplate.getForEntity(
-                healthUrl, 
-                (Class<Map<String, Object>>) (Class<?>) Map.class
-            );
-            
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                Map<String, Object> healthInfo = response.getBody();
-                String status = (String) healthInfo.get("status");
-                boolean isHealthy = "UP".equalsIgnoreCase(status);
-                
-                health.put("healthy", isHealthy);
-                health.put("status", status);
-                health.put("service_url", serviceUrl.get());
-                health.put("details", healthInfo);
-                health.put("timestamp", System.currentTimeMillis());
-                
-                log.debug("Health check for {}: {}", serviceName, status);
-                
-            } else {
-                return createHealthStatus(false, "Health endpoint returned: " + response.getStatusCode());
-            }
-            
+            log.debug("Health check for {}: {}", serviceName, health.get("status"));
+            return health;
         } catch (Exception e) {
-            log.warn("Health check failed for {}: {}", serviceName, e.getMessage());
+            collectorLog.warn(log, "health", "Health check failed for {}: {}", serviceName, e.getMessage());
             return createHealthStatus(false, "Health check failed: " + e.getMessage());
         }
-        
-        return health;
     }
     
     /**
@@ -170,12 +207,12 @@ public class VehicleEventsJdbcSinkService {
             
             if (serviceUrl.isEmpty()) {
                 return "ERROR: No service URL available for " + serviceName + "\n" +
-                       "Available services: " + discoveryClient.getServices() + "\n" +
+                       "Available services: " + discoveryCacheService.getServices() + "\n" +
                        "Service discovery may not be working or JDBC sink not registered.";
             }
             
             String prometheusUrl = serviceUrl.get() + "/actuator/prometheus";
-            ResponseEntity<String> response = restTemplate.getForEntity(prometheusUrl, String.class);
+            ResponseEntity<String> response = upstreamGuardService.call(UpstreamGuardService.scdfInstance(serviceUrl.get()), () -> restTemplate.getForEntity(prometheusUrl, String.class));
             
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 String rawMetrics = response.getBody();
@@ -258,119 +295,32 @@ public class VehicleEventsJdbcSinkService {
     
     private Optional<String> getServiceUrl() {
         try {
-            List<ServiceInstance> instances = discoveryClient.getInstances(serviceName);
+            List<ServiceInstance> instances = discoveryCacheService.getInstances(serviceName);
             
             if (instances == null || instances.isEmpty()) {
-                log.warn("No instances found for service {}. Available services: {}", serviceName, discoveryClient.getServices());
+                collectorLog.warn(log, "no-instances", "No instances found for service {}", serviceName);
                 return Optional.empty();
             }
             
             // Use the first available instance
             ServiceInstance instance = instances.get(0);
             String serviceUrl = instance.getUri().toString();
-            log.info("Found service instance for {}: {} ({}:{})", serviceName, serviceUrl, instance.getHost(), instance.getPort());
+            collectorLog.onChange(log, "service-url", serviceUrl, "Found service instance for {}: {} ({}:{})", serviceName, serviceUrl, instance.getHost(), instance.getPort());
             return Optional.of(serviceUrl);
             
         } catch (Exception e) {
-            log.error("Failed to discover service {}: {}", serviceName, e.getMessage());
+            collectorLog.error(log, "discovery", "Failed to discover service {}: {}", serviceName, e.getMessage());
             return Optional.empty();
         }
     }
     
-    private Map<String, Double> getPrometheusMetrics(String prometheusUrl) {
-        Map<String, Double> metrics = new HashMap<>();
-        
-        try {
-            ResponseEntity<String> response = restTemplate.getForEntity(prometheusUrl, String.class);
-            
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                String prometheusText = response.getBody();
-                
-                // Parse Prometheus text format for JDBC sink metrics
-                String[] lines = prometheusText.split("\n");
-                log.info("Parsing {} lines from JDBC sink Prometheus endpoint", lines.length);
-                
-                for (String line : lines) {
-                    line = line.trim();
-                    
-                    // Skip comments
-                    if (line.startsWith("#")) continue;
-                    
-                    // Look for various metrics that could indicate rows inserted
-                    if (line.startsWith("jdbc_consumer_messages_processed_total")) {
-                        parseMetricLine(line, "jdbc_consumer_messages_processed_total", metrics);
-                    }
-                    if (line.startsWith("rabbitmq_consumed_total")) {
-                        parseMetricLine(line, "rabbitmq_consumed_total", metrics);
-                    }
-                    if (line.startsWith("jdbc_sink_rows_inserted_total")) {
-                        parseMetricLine(line, "jdbc_sink_rows_inserted_total", metrics);
-                    }
-                    if (line.startsWith("spring_data_repository_invocations_total")) {
-                        parseMetricLine(line, "spring_data_repository_invocations_total", metrics);
-                    }
-                    if (line.startsWith("sink_records_sent_total")) {
-                        parseMetricLine(line, "sink_records_sent_total", metrics);
-                    }
-                    if (line.startsWith("sink_records_processed_total")) {
-                        parseMetricLine(line, "sink_records_processed_total", metrics);
-                    }
-                    if (line.startsWith("spring_integration_sends_total")) {
-                        parseMetricLine(line, "spring_integration_sends_total", metrics);
-                    }
-                    if (line.startsWith("spring_integration_receives_total")) {
-                        parseMetricLine(line, "spring_integration_receives_total", metrics);
-                    }
-                    
-                    // Look for various metrics that could indicate errors
-                    if (line.startsWith("jdbc_sink_errors_total")) {
-                        parseMetricLine(line, "jdbc_sink_errors_total", metrics);
-                    }
-                    if (line.startsWith("jdbc_connections_failed_total")) {
-                        parseMetricLine(line, "jdbc_connections_failed_total", metrics);
-                    }
-                    if (line.startsWith("sink_records_failed_total")) {
-                        parseMetricLine(line, "sink_records_failed_total", metrics);
-                    }
-                    if (line.startsWith("spring_integration_errors_total")) {
-                        parseMetricLine(line, "spring_integration_errors_total", metrics);
-                    }
-                    if (line.startsWith("application_errors_total")) {
-                        parseMetricLine(line, "application_errors_total", metrics);
-                    }
-                    if (line.startsWith("hikaricp_connections_usage")) {
-                        parseMetricLine(line, "hikaricp_connections_usage", metrics);
-                    }
-                }
-                
-                log.info("Final parsed JDBC sink metrics: {}", metrics);
-                
-            } else {
-                log.warn("Failed to fetch JDBC sink Prometheus metrics, status: {}", response.getStatusCode());
+    private static boolean isCollectedMetric(String name) {
+        for (String prefix : COLLECTED_METRIC_PREFIXES) {
+            if (name.startsWith(prefix)) {
+                return true;
             }
-            
-        } catch (Exception e) {
-            log.error("Failed to fetch JDBC sink Prometheus metrics: {}", e.getMessage());
-        }
-        
-        return metrics;
-    }
-    
-    private void parseMetricLine(String line, String metricName, Map<String, Double> metrics) {
-        try {
-            log.info("Found {} line: {}", metricName, line);
-            String[] parts = line.split("\\s+");
-            if (parts.length >= 2) {
-                String valueStr = parts[parts.length - 1]; // Take the last part as the value
-                double value = Double.parseDouble(valueStr);
-                metrics.put(metricName, value);
-                log.info("Parsed {}: {}", metricName, value);
-            } else {
-                log.warn("Invalid format for {} line: {}", metricName, line);
-            }
-        } catch (NumberFormatException e) {
-            log.warn("Could not parse {} value from line: {}", metricName, line);
         }
+        return false;
     }
     
     private Map<String, Object> createErrorMetrics(String error) {
@@ -394,6 +344,16 @@ public class VehicleEventsJdbcSinkService {
         return health;
     }
     
+    /**
+     * Reset-corrected total for a counter, or the raw value when it is not a counter series
+     */
+    private double correctedTotal(String metricName, Map<String, Double> availableMetrics) {
+        if (metricName.endsWith("_total") && availableMetrics.containsKey(metricName)) {
+            return counterRateService.total(SERIES_PREFIX + metricName);
+        }
+        return availableMetrics.getOrDefault(metricName, 0.0);
+    }
+    
     /**
      * Find the best matching metric from available patterns
      */
@@ -401,23 +361,23 @@ public class VehicleEventsJdbcSinkService {
         for (String pattern : patterns) {
             // First try exact match
             if (availableMetrics.containsKey(pattern)) {
-                double value = availableMetrics.get(pattern);
-                log.info("Found exact metric match: {} = {}", pattern, value);
+                double value = correctedTotal(pattern, availableMetrics);
+                collectorLog.onChange(log, "metric-match:" + String.join(",", patterns), pattern, "Found exact metric match: {} = {}", pattern, value);
                 return value;
             }
             
             // Then try partial match (metrics containing the pattern)
             for (Map.Entry<String, Double> entry : availableMetrics.entrySet()) {
                 if (entry.getKey().contains(pattern.replace("_total", ""))) {
-                    double value = entry.getValue();
-                    log.info("Found partial metric match: {} matches pattern {} = {}", entry.getKey(), pattern, value);
+                    double value = correctedTotal(entry.getKey(), availableMetrics);
+                    collectorLog.onChange(log, "metric-match:" + String.join(",", patterns), entry.getKey(), "Found partial metric match: {} matches pattern {} = {}", entry.getKey(), pattern, value);
                     return value;
                 }
             }
         }
         
         // No matches found
-        log.warn("No metrics found matching patterns: {}", String.join(", ", patterns));
+        collectorLog.onChange(log, "metric-match:" + String.join(",", patterns), null, "No metrics found matching patterns: {}", String.join(", ", patterns));
         return 0.0;
     }
 }
\ No newline at end of file
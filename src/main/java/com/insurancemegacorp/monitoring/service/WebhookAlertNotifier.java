@@ -0,0 +1,64 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.AlertNotification;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * POSTs each notification as JSON to {@code alerting.webhook.url}. Delivery happens off the
+ * evaluation thread and goes through the upstream guard, so a dead receiver costs one
+ * failed call per notification until its circuit opens, and never delays rule evaluation.
+ */
+@Slf4j
+@Component
+public class WebhookAlertNotifier implements AlertNotifier {
+
+    private static final String UPSTREAM = "alert-webhook";
+
+    private final RestTemplate restTemplate;
+    private final UpstreamGuardService upstreamGuardService;
+    private final CollectorLogService collectorLog;
+    private final String url;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public WebhookAlertNotifier(RestTemplate restTemplate,
+                                UpstreamGuardService upstreamGuardService,
+                                CollectorLogService collectorLog,
+                                @Value("${alerting.webhook.url:}") String url) {
+        this.restTemplate = restTemplate;
+        this.upstreamGuardService = upstreamGuardService;
+        this.collectorLog = collectorLog;
+        this.url = url;
+    }
+
+    @Override
+    public String name() {
+        return "webhook";
+    }
+
+    @Override
+    public void notify(AlertNotification notification) {
+        if (url.isBlank()) {
+            collectorLog.warn(log, "no-url", "Webhook notifier enabled but alerting.webhook.url is not set");
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                upstreamGuardService.call(UPSTREAM, () -> restTemplate.postForEntity(url, notification, Void.class));
+            } catch (Exception e) {
+                collectorLog.warn(log, "delivery-failed", "Failed to deliver alert {} to webhook: {}", notification.rule(), e.getMessage());
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,98 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.AlertNotification;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AlertRuleSetTest {
+
+    private static List<AlertNotification> at(AlertRuleSet rules, double value, long now) {
+        return rules.evaluate(new double[] { value }, now);
+    }
+
+    private static String state(AlertRuleSet rules) {
+        return (String) rules.describe().get(0).get("state");
+    }
+
+    @Test
+    void firesOnlyAfterTheConditionHeldForItsDuration() {
+        AlertRuleSet rules = new AlertRuleSet("backlog: queue.depth > 100 for 10s", 0.1, 1, 0);
+
+        assertThat(at(rules, 150, 0)).isEmpty();
+        assertThat(state(rules)).isEqualTo("pending");
+        assertThat(at(rules, 150, 5_000)).isEmpty();
+        // Dropping below the threshold while pending starts over
+        assertThat(at(rules, 50, 6_000)).isEmpty();
+        assertThat(state(rules)).isEqualTo("ok");
+        assertThat(at(rules, 150, 7_000)).isEmpty();
+        assertThat(at(rules, 150, 16_000)).isEmpty();
+
+        List<AlertNotification> fired = at(rules, 150, 17_000);
+        assertThat(fired).singleElement().satisfies(notification -> {
+            assertThat(notification.rule()).isEqualTo("backlog");
+            assertThat(notification.state()).isEqualTo("firing");
+        });
+        assertThat(state(rules)).isEqualTo("firing");
+    }
+
+    @Test
+    void valueHoveringBetweenClearAndThresholdDoesNotResolve() {
+        // Default clear value is the threshold moved back by 10%: 90
+        AlertRuleSet rules = new AlertRuleSet("backlog: queue.depth > 100", 0.1, 1, 0);
+
+        assertThat(at(rules, 101, 0)).singleElement().extracting(AlertNotification::state).isEqualTo("firing");
+        assertThat(at(rules, 99, 1_000)).isEmpty();
+        assertThat(at(rules, 101, 2_000)).isEmpty();
+        assertThat(at(rules, 95, 3_000)).isEmpty();
+        assertThat(state(rules)).isEqualTo("firing");
+
+        assertThat(at(rules, 89, 4_000)).singleElement().extracting(AlertNotification::state).isEqualTo("resolved");
+        assertThat(state(rules)).isEqualTo("ok");
+    }
+
+    @Test
+    void resolvingNeedsConsecutiveClearEvaluations() {
+        AlertRuleSet rules = new AlertRuleSet("stalled: jdbc_sink.rows_rate <= 0 clear 5", 0.1, 3, 0);
+
+        assertThat(at(rules, 0, 0)).hasSize(1);
+        assertThat(at(rules, 10, 1_000)).isEmpty();
+        assertThat(at(rules, 10, 2_000)).isEmpty();
+        // A relapse resets the streak
+        assertThat(at(rules, 3, 3_000)).isEmpty();
+        assertThat(at(rules, 10, 4_000)).isEmpty();
+        assertThat(at(rules, 10, 5_000)).isEmpty();
+        assertThat(state(rules)).isEqualTo("firing");
+        assertThat(at(rules, 10, 6_000)).singleElement().extracting(AlertNotification::state).isEqualTo("resolved");
+    }
+
+    @Test
+    void remindsWhileFiringAndIgnoresMissingData() {
+        AlertRuleSet rules = new AlertRuleSet("loss: hop.loss_ratio > 5%", 0.1, 1, 60_000);
+
+        assertThat(at(rules, 0.2, 0)).hasSize(1);
+        assertThat(at(rules, Double.NaN, 30_000)).isEmpty();
+        assertThat(at(rules, 0.2, 30_000)).isEmpty();
+        assertThat(at(rules, 0.2, 60_000)).singleElement().satisfies(notification -> {
+            assertThat(notification.state()).isEqualTo("firing");
+            assertThat(notification.repeat()).isTrue();
+        });
+        assertThat(state(rules)).isEqualTo("firing");
+    }
+
+    @Test
+    void reportsUnparsableAndDuplicateRules() {
+        AlertRuleSet rules = new AlertRuleSet("""
+            # comment
+            a: x > 1
+            a: y > 2
+            b: x >> 1
+            """, 0.1, 1, 0);
+
+        assertThat(rules.size()).isEqualTo(1);
+        assertThat(rules.metrics()).containsExactly("x");
+        assertThat(rules.errors()).hasSize(2);
+    }
+}
@@ -0,0 +1,214 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.insurancemegacorp.monitoring.config.SnapshotServingFilter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BiConsumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Two UI instances in one JVM: {@link LocalLeaderElection} picks the leader, a stub
+ * RabbitTemplate fans every message out to both {@link ClusterSnapshotService}s, and each
+ * instance's reads of its own endpoints answer with the instance's name.
+ */
+class ClusterSnapshotServiceTest {
+
+    private static final String PATHS = "/api/metrics,/api/components/health,/api/greenplum/stats";
+
+    private final List<ClusterSnapshotService> broker = new CopyOnWriteArrayList<>();
+    private Instance first;
+    private Instance second;
+
+    private final class Instance {
+
+        private final String name;
+        private final LocalLeaderElection election = new LocalLeaderElection();
+        private final MetricsPushService metricsPushService = mock(MetricsPushService.class);
+        private final List<String> reads = new CopyOnWriteArrayList<>();
+        private final ClusterSnapshotService snapshots;
+        private final SnapshotServingFilter filter;
+        private final BiConsumer<String, String> relay;
+
+        @SuppressWarnings("unchecked")
+        private Instance(String name) {
+            this.name = name;
+            RabbitTemplate rabbitTemplate = mock(RabbitTemplate.class);
+            doAnswer(invocation -> {
+                Message message = invocation.getArgument(2);
+                broker.forEach(listener -> listener.onMessage(message));
+                return null;
+            }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class));
+
+            WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    reads.add(request.url().getPath());
+                    return Mono.just(ClientResponse.create(HttpStatus.OK)
+                        .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                        .body("{\"served_by\":\"" + name + "\"}")
+                        .build());
+                })
+                .build();
+
+            snapshots = new ClusterSnapshotService(election, metricsPushService, rabbitTemplate, webClient,
+                new ObjectMapper(), new CollectorLogService(new SimpleMeterRegistry(), 60, 100),
+                "smartdriver.snapshots", PATHS, "alert", 5000, 30_000);
+            ReflectionTestUtils.setField(snapshots, "localPort", 8080);
+            filter = new SnapshotServingFilter(snapshots, 15_000);
+
+            ArgumentCaptor<BiConsumer<String, String>> captor = ArgumentCaptor.forClass(BiConsumer.class);
+            verify(metricsPushService).setRelay(captor.capture());
+            relay = captor.getValue();
+            broker.add(snapshots);
+        }
+
+        /**
+         * GET through the serving filter: the snapshot body, or null when the request fell
+         * through to the local controllers.
+         */
+        private String get(String path) throws Exception {
+            MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+            MockHttpServletResponse response = new MockHttpServletResponse();
+            MockFilterChain chain = new MockFilterChain();
+            filter.doFilter(request, response, chain);
+            if (chain.getRequest() != null) {
+                return null;
+            }
+            assertThat(response.getHeader("X-Served-From")).isEqualTo("snapshot");
+            return response.getContentAsString();
+        }
+
+        private void stop() {
+            broker.remove(snapshots);
+            election.release();
+        }
+    }
+
+    @BeforeEach
+    void startTwoInstances() {
+        first = new Instance("first");
+        second = new Instance("second");
+        assertThat(first.election.isLeader()).isTrue();
+        assertThat(second.election.isLeader()).isFalse();
+    }
+
+    @AfterEach
+    void stopInstances() {
+        first.stop();
+        second.stop();
+    }
+
+    @Test
+    void leaderReadsNothingUntilAFollowerIsAsked() throws Exception {
+        first.snapshots.publishSnapshot();
+        assertThat(first.reads).isEmpty();
+
+        // The first request on the follower is collected locally and registers demand
+        assertThat(second.get("/api/metrics")).isNull();
+        second.snapshots.publishSnapshot();
+        first.snapshots.publishSnapshot();
+
+        assertThat(first.reads).containsExactly("/api/metrics");
+        assertThat(second.reads).isEmpty();
+        assertThat(second.get("/api/metrics")).isEqualTo("{\"served_by\":\"first\"}");
+        // Never asked for, so never read, however expensive
+        assertThat(second.get("/api/greenplum/stats")).isNull();
+        assertThat(first.reads).doesNotContain("/api/greenplum/stats");
+    }
+
+    @Test
+    void leaderAnswersLocallyAndRequestsOutsideTheSnapshotFallThrough() throws Exception {
+        second.get("/api/metrics");
+        second.snapshots.publishSnapshot();
+        first.snapshots.publishSnapshot();
+
+        assertThat(first.get("/api/metrics")).isNull();
+        assertThat(second.get("/api/metrics?window=5m")).isNull();
+        assertThat(second.get("/api/alerts")).isNull();
+        assertThat(second.snapshots.getStatus())
+            .containsEntry("snapshots_received", 1L)
+            .containsEntry("last_leader", first.election.instanceId());
+    }
+
+    @Test
+    void relaysTheLeadersPushFramesToFollowers() {
+        first.relay.accept("alert", "{\"type\":\"alert\"}");
+        first.relay.accept("pipeline_metrics", "{\"type\":\"pipeline_metrics\"}");
+        // Only the leader relays
+        second.relay.accept("alert", "{\"type\":\"alert\",\"from\":\"second\"}");
+
+        verify(second.metricsPushService).deliver("alert", "{\"type\":\"alert\"}");
+        verify(second.metricsPushService, never()).deliver("pipeline_metrics", "{\"type\":\"pipeline_metrics\"}");
+        verify(first.metricsPushService, never()).deliver(anyString(), anyString());
+    }
+
+    @Test
+    void followerTakesOverWhenTheLeaderStops() throws Exception {
+        second.get("/api/metrics");
+        second.get("/api/components/health");
+        second.snapshots.publishSnapshot();
+        first.snapshots.publishSnapshot();
+        assertThat(second.get("/api/components/health")).isEqualTo("{\"served_by\":\"first\"}");
+
+        first.stop();
+        assertThat(second.election.isLeader()).isTrue();
+        // A leader never serves snapshots, not even the last one it received
+        assertThat(second.get("/api/components/health")).isNull();
+
+        // It already heard what followers want, so its first snapshot covers the same paths
+        Instance third = new Instance("third");
+        try {
+            assertThat(third.election.isLeader()).isFalse();
+            second.snapshots.publishSnapshot();
+            assertThat(second.reads).containsExactlyInAnyOrder("/api/metrics", "/api/components/health");
+            assertThat(third.get("/api/metrics")).isEqualTo("{\"served_by\":\"second\"}");
+            assertThat(second.snapshots.getStatus()).containsEntry("snapshots_published", 1L);
+        } finally {
+            third.stop();
+        }
+    }
+
+    @Test
+    void localElectionHasExactlyOneLeaderAndHandsOverOnRelease() {
+        LocalLeaderElection third = new LocalLeaderElection();
+        try {
+            assertThat(List.of(first.election, second.election, third))
+                .filteredOn(LocalLeaderElection::isLeader)
+                .containsExactly(first.election);
+
+            first.election.release();
+            // Whoever asks first takes the lock, and keeps it
+            assertThat(third.isLeader()).isTrue();
+            assertThat(second.election.isLeader()).isFalse();
+            assertThat(third.describe()).containsEntry("leader", true).containsEntry("mode", "local");
+            assertThat(second.election.describe()).containsEntry("leader", false);
+        } finally {
+            third.release();
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.ServiceInstancesChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class CounterRateServiceTest {
+
+    private static final String SERIES = "processor:messages";
+    private static final long RETENTION_MILLIS = 600_000L;
+
+    private final CounterRateService counters = new CounterRateService(RETENTION_MILLIS / 1000, 60);
+    private final long now = System.currentTimeMillis();
+
+    @Test
+    void aRestartedInstanceCountsOnTopOfWhatItHadCounted() {
+        counters.record(SERIES, "a", 100, now - 20_000);
+        counters.record(SERIES, "a", 150, now - 10_000);
+        // Restarted and counted 20 since
+        counters.record(SERIES, "a", 20, now);
+
+        assertThat(counters.total(SERIES)).isEqualTo(170);
+        assertThat(counters.instanceTotal(SERIES, "a")).isEqualTo(170);
+        assertThat(counters.resetCount(SERIES)).isEqualTo(1);
+        // Reporting from the first round on, so its pre-startup 100 is not an increase
+        assertThat(counters.increaseSinceStart(SERIES)).isEqualTo(70);
+    }
+
+    @Test
+    void rateAndIncreaseOverAWindowThatStraddlesAReset() {
+        counters.record(SERIES, "a", 1_000, now - 30_000);
+        counters.record(SERIES, "a", 1_100, now - 20_000);
+        counters.record(SERIES, "a", 50, now - 10_000);
+        counters.record(SERIES, "a", 150, now);
+
+        // 100 before the restart, 50 up to the first sample after it and 100 since
+        assertThat(counters.increase(SERIES, Duration.ofMinutes(1))).isEqualTo(250);
+        assertThat(counters.rate(SERIES, Duration.ofMinutes(1))).isCloseTo(250 / 30.0, within(1e-9));
+        // A window starting between samples is measured from the last sample before it
+        assertThat(counters.increase(SERIES, Duration.ofSeconds(15))).isEqualTo(150);
+        assertThat(counters.rate(SERIES, Duration.ofSeconds(15))).isCloseTo(150 / 20.0, within(1e-9));
+    }
+
+    @Test
+    void ratesAreSummedOverInstancesAndStaleInstancesDropOut() {
+        counters.record(SERIES, "a", 0, now - 10_000);
+        counters.record(SERIES, "a", 100, now);
+        counters.record(SERIES, "b", 0, now - 130_000);
+        counters.record(SERIES, "b", 600, now - 70_000);
+
+        assertThat(counters.rate(SERIES, Duration.ofMinutes(1))).isCloseTo(10.0, within(1e-9));
+        assertThat(counters.instanceRates(SERIES, Duration.ofMinutes(1)))
+            .containsEntry("a", 10.0)
+            .containsEntry("b", 0.0);
+        assertThat(counters.total(SERIES)).isEqualTo(700);
+    }
+
+    @Test
+    void aRetiredInstanceKeepsContributingToTheTotal() {
+        counters.record(SERIES, "a", 100, now - 10_000);
+        counters.record(SERIES, "b", 40, now - 10_000);
+        counters.record(SERIES, "b", 20, now);
+
+        counters.onInstancesChanged(new ServiceInstancesChangedEvent("imc-telemetry-processor", List.of(), List.of("b")));
+
+        assertThat(counters.total(SERIES)).isEqualTo(160);
+        assertThat(counters.resetCount(SERIES)).isEqualTo(1);
+        assertThat(counters.instanceTotals(SERIES)).containsOnlyKeys("a");
+        assertThat(counters.instanceTotal(SERIES, "b")).isNaN();
+        assertThat(counters.rate(SERIES, Duration.ofMinutes(1))).isZero();
+    }
+
+    @Test
+    void anInstanceReportingAgainAfterRetirementResumesItsOwnCounter() {
+        counters.record(SERIES, "a", 100, now - 10_000);
+        counters.record(SERIES, "a", 200, now);
+        counters.retireInstance(SERIES, "a");
+
+        // Back within the retention period: the same counter, not a second one on top
+        counters.record(SERIES, "a", 250, now + 10_000);
+        assertThat(counters.total(SERIES)).isEqualTo(250);
+        assertThat(counters.instanceTotal(SERIES, "a")).isEqualTo(250);
+        // and a restart while it was away is still caught as a reset
+        counters.retireInstance(SERIES, "a");
+        counters.record(SERIES, "a", 10, now + 20_000);
+        assertThat(counters.total(SERIES)).isEqualTo(260);
+        assertThat(counters.resetCount(SERIES)).isEqualTo(1);
+    }
+
+    @Test
+    void anInstanceRetiredForLongerThanTheRetentionPeriodStartsAFreshCounter() {
+        counters.record(SERIES, "a", 100, now - 10_000);
+        counters.record(SERIES, "a", 200, now);
+        counters.retireInstance(SERIES, "a");
+
+        counters.record(SERIES, "a", 30, now + 2 * RETENTION_MILLIS);
+
+        // Its earlier 200 stays in the total; the new counter is not mistaken for a reset
+        assertThat(counters.total(SERIES)).isEqualTo(230);
+        assertThat(counters.instanceTotal(SERIES, "a")).isEqualTo(30);
+        assertThat(counters.resetCount(SERIES)).isZero();
+        assertThat(counters.increaseSinceStart(SERIES)).isEqualTo(130);
+    }
+
+    @Test
+    void ignoresNonFiniteValuesAndUnknownSeries() {
+        counters.record(SERIES, "a", Double.NaN, now);
+        counters.record(SERIES, "a", Double.POSITIVE_INFINITY, now);
+
+        assertThat(counters.seriesNames()).isEmpty();
+        assertThat(counters.total(SERIES)).isZero();
+        assertThat(counters.rate(SERIES)).isZero();
+        assertThat(counters.instanceTotal(SERIES, "a")).isNaN();
+    }
+}
@@ -0,0 +1,139 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.TelemetrySample;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class DDSketchTest {
+
+    private static final double ALPHA = 0.01;
+    private static final double[] QUANTILES = { 0.01, 0.1, 0.25, 0.5, 0.75, 0.9, 0.99, 0.999 };
+
+    /**
+     * The value the sketch's rank lookup targets: the (q * (n - 1))-th smallest.
+     */
+    private static double exactQuantile(double[] sorted, double q) {
+        return sorted[(int) (q * (sorted.length - 1))];
+    }
+
+    private static void assertRelativeError(DDSketch sketch, double[] values) {
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+        for (double q : QUANTILES) {
+            double exact = exactQuantile(sorted, q);
+            assertThat(sketch.quantile(q))
+                .as("p%s", q * 100)
+                .isCloseTo(exact, within(Math.abs(exact) * ALPHA + 1e-12));
+        }
+    }
+
+    @Test
+    void quantilesOfAHeavyTailedDistributionAreWithinTheRelativeAccuracy() {
+        Random random = new Random(7);
+        double[] latencies = new double[100_000];
+        DDSketch sketch = new DDSketch(ALPHA, 2048);
+        for (int i = 0; i < latencies.length; i++) {
+            // Log-normal latencies: median ~20ms with a long tail into seconds
+            latencies[i] = Math.exp(3 + 1.5 * random.nextGaussian());
+            sketch.add(latencies[i]);
+        }
+
+        assertRelativeError(sketch, latencies);
+        assertThat(sketch.count()).isEqualTo(latencies.length);
+        assertThat(sketch.min()).isEqualTo(Arrays.stream(latencies).min().orElseThrow());
+        assertThat(sketch.max()).isEqualTo(Arrays.stream(latencies).max().orElseThrow());
+        assertThat(sketch.quantile(0)).isEqualTo(sketch.min());
+        assertThat(sketch.quantile(1)).isEqualTo(sketch.max());
+    }
+
+    @Test
+    void negativeAndZeroValuesRankBelowPositiveOnes() {
+        Random random = new Random(11);
+        double[] latencies = new double[20_000];
+        DDSketch sketch = new DDSketch(ALPHA, 2048);
+        for (int i = 0; i < latencies.length; i++) {
+            // Skewed vehicle clocks give some negative latencies, and a few exact zeros
+            latencies[i] = i % 50 == 0 ? 0.0 : 200 * random.nextGaussian() + 100;
+            sketch.add(latencies[i]);
+        }
+
+        assertRelativeError(sketch, latencies);
+    }
+
+    @Test
+    void mergedSketchesAnswerLikeOneSketchOfAllValues() {
+        Random random = new Random(3);
+        DDSketch whole = new DDSketch(ALPHA, 2048);
+        DDSketch first = new DDSketch(ALPHA, 2048);
+        DDSketch second = new DDSketch(ALPHA, 2048);
+        double[] values = new double[10_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = random.nextDouble() * (i < 5_000 ? 10 : 1_000);
+            whole.add(values[i]);
+            (i < 5_000 ? first : second).add(values[i]);
+        }
+        first.merge(second);
+
+        for (double q : QUANTILES) {
+            assertThat(first.quantile(q)).isEqualTo(whole.quantile(q));
+        }
+        assertRelativeError(first, values);
+        assertThat(first.mean()).isCloseTo(Arrays.stream(values).average().orElseThrow(), within(1e-9));
+        assertThatThrownBy(() -> first.merge(new DDSketch(0.02, 2048)))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void foldingPastTheBinLimitOnlyCostsAccuracyAtTheLowEnd() {
+        DDSketch sketch = new DDSketch(ALPHA, 100);
+        double[] values = new double[10_000];
+        for (int i = 0; i < values.length; i++) {
+            // Six decades need ~700 bins at 1%; only the top 100 keep their own
+            values[i] = Math.pow(10, 6.0 * i / values.length);
+            sketch.add(values[i]);
+        }
+        double[] sorted = values.clone();
+        Arrays.sort(sorted);
+
+        for (double q : new double[] { 0.9, 0.99, 0.999 }) {
+            double exact = exactQuantile(sorted, q);
+            assertThat(sketch.quantile(q)).isCloseTo(exact, within(exact * ALPHA));
+        }
+        assertThat(sketch.quantile(0.1)).isGreaterThan(exactQuantile(sorted, 0.1));
+    }
+
+    @Test
+    void ignoresNonFiniteValuesAndIsEmptyUntilAValueArrives() {
+        DDSketch sketch = new DDSketch(ALPHA, 2048);
+        assertThat(sketch.quantile(0.5)).isNaN();
+        sketch.add(Double.NaN);
+        sketch.add(Double.POSITIVE_INFINITY);
+        assertThat(sketch.count()).isZero();
+        assertThatThrownBy(() -> new DDSketch(1.0, 2048)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void oneMinuteWindowCoversItsWholeSpan() {
+        QuantileSketchService service = new QuantileSketchService(ALPHA, 2048, 10);
+        long now = System.currentTimeMillis();
+        service.onSample(new TelemetrySample(TelemetrySample.SOURCE_TELEMETRY, "v1", "d1", null,
+            42.0, 1.5, null, null, null, now - 59_000));
+        service.onSample(new TelemetrySample(TelemetrySample.SOURCE_TELEMETRY, "v1", "d1", null,
+            42.0, 1.5, null, null, null, now - 200_000));
+
+        Map<String, Object> windows = (Map<String, Object>) service.getQuantiles().get("windows");
+        Map<String, Map<String, Object>> oneMinute = (Map<String, Map<String, Object>>) windows.get("1m");
+        Map<String, Map<String, Object>> fiveMinutes = (Map<String, Map<String, Object>>) windows.get("5m");
+        assertThat(oneMinute.get("speed").get("count")).isEqualTo(1L);
+        assertThat(fiveMinutes.get("speed").get("count")).isEqualTo(2L);
+        assertThat((double) fiveMinutes.get("g_force").get("p50")).isCloseTo(1.5, within(1.5 * ALPHA));
+    }
+}
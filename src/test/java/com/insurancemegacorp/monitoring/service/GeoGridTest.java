@@ -0,0 +1,124 @@
+package com.insurancemegacorp.monitoring.service;
+
+import com.insurancemegacorp.monitoring.dto.TelemetrySample;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class GeoGridTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    private static TelemetrySample at(double latitude, double longitude) {
+        return new TelemetrySample(TelemetrySample.SOURCE_TELEMETRY, "v1", "d1", null,
+            50.0, 1.0, latitude, longitude, null, System.currentTimeMillis());
+    }
+
+    @Test
+    void encodesKnownGeohashes() {
+        assertThat(GeoGrid.encode(57.64911, 10.40744, 11)).isEqualTo("u4pruydqqvj");
+        assertThat(GeoGrid.encode(-33.8688, 151.2093, 5)).isEqualTo("r3gx2");
+    }
+
+    @Test
+    void cellBoundsContainTheirPointsAndHalveWithEachBit() {
+        String hash = GeoGrid.encode(33.77, -84.39, 6);
+        double[] bounds = GeoGrid.bounds(hash);
+        assertThat(33.77).isBetween(bounds[0], bounds[2]);
+        assertThat(-84.39).isBetween(bounds[1], bounds[3]);
+        // 30 bits: 15 for longitude and 15 for latitude
+        assertThat(bounds[2] - bounds[0]).isCloseTo(180 / Math.pow(2, 15), within(1e-12));
+        assertThat(bounds[3] - bounds[1]).isCloseTo(360 / Math.pow(2, 15), within(1e-12));
+
+        assertThat(GeoGrid.bounds("s")).containsExactly(0.0, 0.0, 45.0, 45.0);
+        assertThat(GeoGrid.bounds("")).containsExactly(-90.0, -180.0, 90.0, 180.0);
+    }
+
+    @Test
+    void pointsOnACellEdgeBelongToTheCellNorthAndEastOfIt() {
+        assertThat(GeoGrid.encode(0.0, 0.0, 1)).isEqualTo("s");
+        assertThat(GeoGrid.encode(-1e-9, -1e-9, 1)).isEqualTo("7");
+        assertThat(GeoGrid.encode(45.0, 0.0, 1)).isEqualTo("u");
+        assertThat(GeoGrid.encode(45.0 - 1e-9, 0.0, 1)).isEqualTo("s");
+        // Latitude 33.75 is an edge at every precision from 2 up: downtown Atlanta straddles
+        // two cells that share no prefix beyond "d"
+        assertThat(GeoGrid.encode(33.75, -84.39, 6)).isEqualTo("dn5bp8");
+        assertThat(GeoGrid.encode(33.7499, -84.39, 6)).isEqualTo("djgzzx");
+        assertThat(GeoGrid.bounds("djgzzx")[2]).isEqualTo(GeoGrid.bounds("dn5bp8")[0]);
+
+        // The poles and the antimeridian fall in the outermost cells rather than off the grid
+        assertThat(GeoGrid.encode(90.0, 180.0, 1)).isEqualTo("z");
+        assertThat(GeoGrid.encode(-90.0, -180.0, 1)).isEqualTo("0");
+    }
+
+    @Test
+    void rejectsCoordinatesOffTheGlobe() {
+        for (double[] point : new double[][] {
+            { Double.NaN, 10.0 }, { 10.0, Double.NaN }, { Double.POSITIVE_INFINITY, 0.0 },
+            { 0.0, Double.NEGATIVE_INFINITY }, { 90.5, 0.0 }, { 0.0, -180.5 } }) {
+            assertThatThrownBy(() -> GeoGrid.encode(point[0], point[1], 6))
+                .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    @Test
+    void rollsCellsUpIntoCoarserTilesWithinABoundingBox() {
+        GeoGrid grid = new GeoGrid(6, 2, 100, HOUR, 0);
+        grid.add(33.76, -84.40, 0, 0);
+        grid.add(33.77, -84.39, 0, 0);
+        grid.add(33.77, -84.39, 1, 0);
+        grid.add(-33.8688, 151.2093, 0, 0);
+
+        List<GeoGrid.Tile> tiles = grid.tiles(3, null, 0, 10, 0);
+        assertThat(tiles).extracting(GeoGrid.Tile::geohash).containsExactly("dn5", "r3g");
+        assertThat(tiles.get(0).values()).containsExactly(2.0, 1.0);
+
+        List<GeoGrid.Tile> southern = grid.tiles(3, new double[] { -40, 140, -30, 160 }, 0, 10, 0);
+        assertThat(southern).extracting(GeoGrid.Tile::geohash).containsExactly("r3g");
+        // Tiles cannot be finer than the grid
+        assertThat(grid.tiles(9, null, 0, 10, 0)).extracting(tile -> tile.geohash().length()).containsOnly(6);
+    }
+
+    @Test
+    void decaysPrunesAndCapsTheNumberOfCells() {
+        GeoGrid grid = new GeoGrid(6, 1, 2, HOUR, 0);
+        grid.add(33.77, -84.39, 0, 0);
+        grid.add(-33.8688, 151.2093, 0, 0);
+        grid.add(57.64911, 10.40744, 0, 0);
+        assertThat(grid.cellCount()).isEqualTo(2);
+        assertThat(grid.dropped()).isEqualTo(1);
+
+        assertThat(grid.tiles(6, null, 0, 10, HOUR).get(0).values()[0]).isCloseTo(0.5, within(1e-9));
+        // 1 / 2^7 is below the prune threshold, which frees room for new cells
+        assertThat(grid.tiles(6, null, 0, 10, 7 * HOUR)).isEmpty();
+        grid.add(57.64911, 10.40744, 0, 7 * HOUR);
+        assertThat(grid.cellCount()).isEqualTo(1);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void heatmapSkipsSamplesWithoutUsableCoordinates() {
+        HeatmapService heatmap = new HeatmapService(6, 100, 300, 100, 2.0);
+        heatmap.onSample(at(Double.NaN, 10.0));
+        heatmap.onSample(at(10.0, Double.NaN));
+        heatmap.onSample(at(91.0, 10.0));
+        heatmap.onSample(at(0.0, 0.0));
+        assertThat(heatmap.getTiles(null, null, "samples", null).get("cells")).isEqualTo(0);
+
+        heatmap.onSample(at(33.77, -84.39));
+        Map<String, Object> result = heatmap.getTiles(4, "33,-85,34,-84", "samples", null);
+        assertThat((List<Map<String, Object>>) result.get("tiles"))
+            .singleElement()
+            .satisfies(tile -> assertThat(tile.get("geohash")).isEqualTo("dn5b"));
+
+        assertThatThrownBy(() -> heatmap.getTiles(null, "NaN,-85,34,-84", "samples", null))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> heatmap.getTiles(null, null, "speed", null))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+}
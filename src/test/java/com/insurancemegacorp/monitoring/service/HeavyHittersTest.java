@@ -0,0 +1,105 @@
+package com.insurancemegacorp.monitoring.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class HeavyHittersTest {
+
+    private static final long HOUR = 3_600_000L;
+
+    /**
+     * 20 heavy keys with 500 to 1,450 messages each among 20,000 light keys with one to three,
+     * shuffled so the heavy keys have to displace light ones already in the heap.
+     */
+    private static List<String> skewedStream() {
+        List<String> stream = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            for (int n = 0; n < 500 + i * 50; n++) {
+                stream.add("heavy-" + i);
+            }
+        }
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            for (int n = 0; n <= random.nextInt(3); n++) {
+                stream.add("light-" + i);
+            }
+        }
+        Collections.shuffle(stream, random);
+        return stream;
+    }
+
+    @Test
+    void countMinNeverUndercountsAndStaysWithinItsBound() {
+        CountMinSketch sketch = new CountMinSketch(4, 2048);
+        Map<String, Integer> exact = new HashMap<>();
+        for (String key : skewedStream()) {
+            sketch.add(key, 1.0);
+            exact.merge(key, 1, Integer::sum);
+        }
+
+        double bound = sketch.errorBound();
+        assertThat(sketch.total()).isEqualTo(exact.values().stream().mapToInt(Integer::intValue).sum());
+        long withinBound = exact.entrySet().stream()
+            .filter(entry -> {
+                // Adding no weight reads the estimate without changing any counter
+                double estimate = sketch.add(entry.getKey(), 0.0);
+                assertThat(estimate).isGreaterThanOrEqualTo(entry.getValue());
+                return estimate - entry.getValue() <= bound;
+            })
+            .count();
+        // The bound holds per key with probability 1 - e^-4, about 98%
+        assertThat((double) withinBound / exact.size()).isGreaterThanOrEqualTo(0.98);
+    }
+
+    @Test
+    void recallsEveryHeavyHitterInOrder() {
+        HeavyHitters hitters = new HeavyHitters(4, 2048, 50, HOUR, 0);
+        skewedStream().forEach(key -> hitters.add(key, 0));
+
+        List<Map<String, Object>> top = hitters.top(20, 0);
+        Set<Object> keys = top.stream().map(entry -> entry.get("key")).collect(Collectors.toSet());
+        assertThat(keys).containsExactlyInAnyOrderElementsOf(
+            IntStream.range(0, 20).mapToObj(i -> "heavy-" + i).toList());
+        assertThat(top.get(0).get("key")).isEqualTo("heavy-19");
+        assertThat((double) top.get(0).get("count")).isCloseTo(1_450, within(hitters.errorBound(0)));
+        assertThat((double) top.get(0).get("share")).isCloseTo(1_450 / hitters.total(0), within(0.01));
+    }
+
+    @Test
+    void countsHalveEveryHalfLife() {
+        HeavyHitters hitters = new HeavyHitters(4, 2048, 10, HOUR, 0);
+        for (int n = 0; n < 1_000; n++) {
+            hitters.add("vehicle-1", 0);
+        }
+
+        assertThat(hitters.total(HOUR)).isCloseTo(500, within(1e-6));
+        assertThat((double) hitters.top(1, 2 * HOUR).get(0).get("count")).isCloseTo(250, within(1e-6));
+        // Below one decayed message a key is no longer reported
+        assertThat(hitters.top(1, 10 * HOUR)).isEmpty();
+    }
+
+    @Test
+    void aNewHeavyKeyDisplacesTheSmallestCandidate() {
+        HeavyHitters hitters = new HeavyHitters(4, 2048, 2, HOUR, 0);
+        hitters.add("a", 0);
+        hitters.add("a", 0);
+        hitters.add("b", 0);
+        for (int n = 0; n < 3; n++) {
+            hitters.add("c", 0);
+        }
+
+        assertThat(hitters.top(10, 0)).extracting(entry -> entry.get("key")).containsExactly("c", "a");
+    }
+}
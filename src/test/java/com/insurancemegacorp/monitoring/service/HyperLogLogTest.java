@@ -0,0 +1,93 @@
+package com.insurancemegacorp.monitoring.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.within;
+
+class HyperLogLogTest {
+
+    // Three standard errors at precision 12: 3 x 1.04 / sqrt(4096)
+    private static final double MAX_ERROR = 3 * 1.04 / 64;
+
+    private static HyperLogLog sketchOf(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int i = from; i < to; i++) {
+            sketch.add("vehicle-" + i);
+        }
+        return sketch;
+    }
+
+    @Test
+    void estimatesKnownCardinalitiesWithinThreeStandardErrors() {
+        for (int cardinality : new int[] { 1_000, 10_000, 100_000, 1_000_000 }) {
+            long estimate = sketchOf(0, cardinality).estimate();
+            assertThat((double) estimate)
+                .as("estimate of %d distinct values", cardinality)
+                .isCloseTo(cardinality, within(cardinality * MAX_ERROR));
+        }
+    }
+
+    @Test
+    void smallCardinalitiesAreNearlyExactThroughLinearCounting() {
+        assertThat(new HyperLogLog(12).estimate()).isZero();
+        assertThat(sketchOf(0, 1).estimate()).isEqualTo(1);
+        // A few register collisions among 100 values in 4096 registers, about one expected
+        assertThat((double) sketchOf(0, 100).estimate()).isCloseTo(100, within(5.0));
+    }
+
+    @Test
+    void repeatedValuesAreCountedOnce() {
+        HyperLogLog sketch = new HyperLogLog(12);
+        for (int round = 0; round < 50; round++) {
+            for (int i = 0; i < 500; i++) {
+                sketch.add("vehicle-" + i);
+            }
+        }
+        assertThat(sketch.estimate()).isEqualTo(sketchOf(0, 500).estimate());
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        HyperLogLog merged = sketchOf(0, 30_000);
+        merged.merge(sketchOf(20_000, 50_000));
+        // Merging is register-wise max, the same registers as adding every value to one sketch
+        assertThat(merged.estimate()).isEqualTo(sketchOf(0, 50_000).estimate());
+        assertThat((double) merged.estimate()).isCloseTo(50_000, within(50_000 * MAX_ERROR));
+
+        assertThatThrownBy(() -> merged.merge(new HyperLogLog(10)))
+            .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new HyperLogLog(3))
+            .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void slidingWindowCoversItsWholeSpanAndDropsOlderValues() {
+        // One-minute window in six 10s buckets
+        SlidingHyperLogLog sliding = new SlidingHyperLogLog(List.of(Duration.ofMinutes(1)), 6, 12);
+        for (int i = 0; i < 1_000; i++) {
+            sliding.add("early-" + i, 0);
+        }
+        for (int i = 0; i < 1_000; i++) {
+            sliding.add("late-" + i, 35_000);
+        }
+
+        // At 65s the earliest values are 65s old but their bucket [0s, 10s) still overlaps the window
+        assertThat((double) sliding.estimates(59_999).get("1m")).isCloseTo(2_000, within(2_000 * MAX_ERROR));
+        assertThat((double) sliding.estimates(65_000).get("1m")).isCloseTo(2_000, within(2_000 * MAX_ERROR));
+        // A full window after their bucket closed they are gone
+        assertThat((double) sliding.estimates(70_000).get("1m")).isCloseTo(1_000, within(1_000 * MAX_ERROR));
+        assertThat(sliding.estimates(100_000).get("1m")).isZero();
+    }
+
+    @Test
+    void labelsWindowsByTheirLargestWholeUnit() {
+        assertThat(SlidingHyperLogLog.label(Duration.ofHours(1))).isEqualTo("1h");
+        assertThat(SlidingHyperLogLog.label(Duration.ofMinutes(5))).isEqualTo("5m");
+        assertThat(SlidingHyperLogLog.label(Duration.ofSeconds(30))).isEqualTo("30s");
+    }
+}